@@ -0,0 +1,110 @@
+package me.chester.test;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.EstrategiaGasparotto;
+import me.chester.minitruco.core.EstrategiaGasparottoOriginal;
+import me.chester.minitruco.core.SituacaoJogo;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Garante que refatorações da EstrategiaGasparotto não mudam as decisões:
+ * compara, situação a situação, as jogadas, frases e respostas de truco e de
+ * mão de 11 com as da EstrategiaGasparottoOriginal (a versão anterior à
+ * divisão dos métodos grandes), com os geradores das duas em semente igual.
+ * <p>
+ * Sem o equidade.bin no classpath (ele é copiado do src junto com as
+ * classes), a TabelaEquidade fica indisponível e os aceites de truco da
+ * primeira rodada e de mão de 11 caem nas regras, deixando de ser
+ * comparados; então o teste verifica isso antes.
+ */
+public class EstrategiaGasparottoTest extends TestCase {
+
+	private static final int NUM_SITUACOES = 20000;
+
+	@Test
+	public void testDecisoesIguaisAsDaVersaoOriginal() {
+		assertNotNull("equidade.bin fora do classpath",
+				EstrategiaGasparotto.class.getResource("equidade.bin"));
+		GeradorSituacoes gerador = new GeradorSituacoes(42);
+		Random random = new Random(42);
+		EstrategiaGasparotto e = new EstrategiaGasparotto(new Random(1));
+		EstrategiaGasparottoOriginal o = new EstrategiaGasparottoOriginal(
+				new Random(1));
+		for (int i = 0; i < NUM_SITUACOES; i++) {
+			SituacaoJogo s = gerador.sorteia();
+			String msg = "Situação " + i + " (" + s + "): ";
+			assertEquals(msg + "joga", o.joga(s), e.joga(s));
+			assertEquals(msg + "chat", o.getChatMsg(), e.getChatMsg());
+			assertEquals(msg + "aceitaTruco", o.aceitaTruco(s),
+					e.aceitaTruco(s));
+			if (s.numRodadaAtual == 1) {
+				Carta[] cartasParceiro = sorteiaCartasParceiro(s, random);
+				assertEquals(msg + "aceitaMao11",
+						o.aceitaMao11(cartasParceiro, s),
+						e.aceitaMao11(cartasParceiro, s));
+			}
+		}
+	}
+
+	/**
+	 * @return três cartas que o jogador não viu, para servir de mão do
+	 *         parceiro
+	 */
+	private static Carta[] sorteiaCartasParceiro(SituacaoJogo s, Random random) {
+		Carta[] cartas = new Carta[3];
+		long mascara = s.mascaraCartasNaoVistas;
+		for (int i = 0; i < cartas.length; i++) {
+			int pula = random.nextInt(Long.bitCount(mascara));
+			long resto = mascara;
+			for (int k = 0; k < pula; k++) {
+				resto &= resto - 1;
+			}
+			int id = Long.numberOfTrailingZeros(resto);
+			mascara &= ~(1L << id);
+			cartas[i] = new Carta(Carta.getLetra(id), Carta.getNaipe(id));
+		}
+		return cartas;
+	}
+
+}
@@ -0,0 +1,249 @@
+package me.chester.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.rede.Conexao;
+import me.chester.minitruco.core.rede.FilaEnvio;
+import me.chester.minitruco.core.rede.LeitorMensagens;
+import me.chester.minitruco.core.rede.Mensagem;
+import me.chester.minitruco.core.rede.Servidor;
+import me.chester.minitruco.core.rede.ServidorConexoes;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Verifica as políticas da fila de envio com uma conexão que não consegue
+ * escrever (como um cliente travado) até ser liberada.
+ */
+public class FilaEnvioTest extends TestCase {
+
+	private SaidaTravada saida = new SaidaTravada();
+
+	private Mensagem m = new Mensagem();
+
+	private FilaEnvio criaFila(int capacidade, int politica)
+			throws IOException {
+		Servidor servidor = new Servidor(new ServidorConexoes() {
+			public Conexao aceita() {
+				return null;
+			}
+
+			public void fecha() {
+			}
+		}, "FF", "Servidor", null);
+		FilaEnvio fila = new FilaEnvio(servidor, new Conexao() {
+			public InputStream getInputStream() {
+				return null;
+			}
+
+			public OutputStream getOutputStream() {
+				return saida;
+			}
+
+			public String getNomeRemoto() {
+				return "travado";
+			}
+
+			public void fecha() {
+			}
+		}, capacidade, politica);
+		fila.inicia();
+		return fila;
+	}
+
+	/**
+	 * Enfileira uma mensagem e espera a thread da fila começar a escrevê-la
+	 * (ficando travada nela)
+	 */
+	private void enfileiraPrimeira(FilaEnvio fila, Mensagem primeira)
+			throws InterruptedException {
+		fila.enfileira(primeira);
+		for (int i = 0; i < 500 && fila.getTamanho() > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, fila.getTamanho());
+	}
+
+	private void aguardaEnvios(FilaEnvio fila, int enviadas)
+			throws InterruptedException {
+		for (int i = 0; i < 500 && fila.getMensagensEnviadas() < enviadas;
+				i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(enviadas, fila.getMensagensEnviadas());
+	}
+
+	@Test
+	public void testDesconectaClienteTravado() throws Exception {
+		FilaEnvio fila = criaFila(4, FilaEnvio.POLITICA_DESCONECTA);
+		enfileiraPrimeira(fila, m.inicia('P'));
+		// Quem envia não fica esperando o cliente: a fila enche e é encerrada
+		for (int i = 0; i <= 4; i++) {
+			assertFalse(fila.isEncerrada());
+			fila.enfileira(m.inicia('G').numero(i));
+		}
+		assertTrue(fila.isEncerrada());
+		assertEquals(4, fila.getTamanhoMaximo());
+		saida.libera();
+	}
+
+	@Test
+	public void testBloqueiaAteAbrirEspaco() throws Exception {
+		final FilaEnvio fila = criaFila(2, FilaEnvio.POLITICA_BLOQUEIA);
+		Thread envio = new Thread() {
+			public void run() {
+				Mensagem g = new Mensagem();
+				for (int i = 0; i < 10; i++) {
+					fila.enfileira(g.inicia('G').numero(i));
+				}
+			}
+		};
+		envio.start();
+		Thread.sleep(100);
+		assertTrue(envio.isAlive());
+		saida.libera();
+		envio.join(5000);
+		assertFalse(envio.isAlive());
+		aguardaEnvios(fila, 10);
+		assertEquals(2, fila.getTamanhoMaximo());
+		LeitorMensagens leitor = saida.getLeitor();
+		for (int i = 0; i < 10; i++) {
+			assertTrue(leitor.le(m));
+			assertEquals("G " + i, m.toString());
+		}
+		assertFalse(fila.isEncerrada());
+	}
+
+	@Test
+	public void testAgrupaSituacaoDaMesa() throws Exception {
+		FilaEnvio fila = criaFila(4, FilaEnvio.POLITICA_AGRUPA);
+		enfileiraPrimeira(fila, m.inicia('I').texto("a"));
+		fila.enfileira(m.inicia('I').texto("b"));
+		fila.enfileira(m.inicia('I').texto("c"));
+		fila.enfileira(m.inicia('I').texto("d"));
+		assertEquals(1, fila.getTamanho());
+		assertEquals(2, fila.getMensagensAgrupadas());
+		saida.libera();
+		aguardaEnvios(fila, 2);
+		LeitorMensagens leitor = saida.getLeitor();
+		assertTrue(leitor.le(m));
+		assertEquals("I a", m.toString());
+		assertTrue(leitor.le(m));
+		assertEquals("I d", m.toString());
+		assertFalse(leitor.le(m));
+	}
+
+	@Test
+	public void testAcumulaAteDescarregar() throws Exception {
+		FilaEnvio fila = criaFila(2, FilaEnvio.POLITICA_DESCONECTA);
+		saida.libera();
+		fila.acumula(m.inicia('G').numero(0));
+		fila.acumula(m.inicia('G').numero(1));
+		Thread.sleep(100);
+		assertEquals(0, fila.getMensagensEnviadas());
+		fila.descarrega();
+		aguardaEnvios(fila, 2);
+		assertEquals(1, fila.getEscritas());
+		assertEquals(1, saida.getEscritas());
+		// Cheia só de acumuladas, a fila as libera em vez de desconectar
+		for (int i = 2; i <= 4; i++) {
+			fila.acumula(m.inicia('G').numero(i));
+		}
+		assertFalse(fila.isEncerrada());
+		fila.descarrega();
+		aguardaEnvios(fila, 5);
+		LeitorMensagens leitor = saida.getLeitor();
+		for (int i = 0; i <= 4; i++) {
+			assertTrue(leitor.le(m));
+			assertEquals("G " + i, m.toString());
+		}
+	}
+
+	/**
+	 * Saída que só aceita escritas depois de liberada
+	 */
+	private static class SaidaTravada extends OutputStream {
+
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		private boolean travada = true;
+
+		private int escritas;
+
+		@Override
+		public synchronized void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len)
+				throws IOException {
+			while (travada) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					throw new IOException(e.toString());
+				}
+			}
+			bytes.write(b, off, len);
+			escritas++;
+		}
+
+		public synchronized void libera() {
+			travada = false;
+			notifyAll();
+		}
+
+		public synchronized int getEscritas() {
+			return escritas;
+		}
+
+		public synchronized LeitorMensagens getLeitor() {
+			return new LeitorMensagens(new ByteArrayInputStream(
+					bytes.toByteArray()));
+		}
+	}
+
+}
@@ -0,0 +1,236 @@
+package me.chester.test;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.FormaCanonica;
+import me.chester.minitruco.core.Jogo;
+import me.chester.minitruco.core.SituacaoJogo;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Verifica se a FormaCanonica junta as situações equivalentes sem misturar
+ * as que não são, na manilha nova e na velha.
+ */
+public class FormaCanonicaTest extends TestCase {
+
+	private static final int VELHA = Jogo.INDICE_MANILHA_VELHA;
+
+	private FormaCanonica forma = new FormaCanonica();
+
+	private Random random = new Random(42);
+
+	@Test
+	public void testPreservaValoresNaManilhaNova() {
+		for (int m = 0; m < VELHA; m++) {
+			verificaValoresPreservados(m);
+		}
+	}
+
+	@Test
+	public void testPreservaValoresNaManilhaVelha() {
+		verificaValoresPreservados(VELHA);
+	}
+
+	@Test
+	public void testChaveMaoIgnoraNaipesForaDaManilhaNova() {
+		int m = Jogo.getIndiceManilha('Q');
+		int vira = Carta.getId('J', Carta.NAIPE_COPAS);
+		long chave = forma.chaveMao(id("Kc"), id("3e"), id("Ao"), vira, m);
+		assertEquals(chave, forma.chaveMao(id("Ae"), id("Kp"), id("3c"),
+				Carta.getId('J', Carta.NAIPE_PAUS), m));
+		// A manilha tem naipe, e ele importa
+		long comManilha = forma.chaveMao(id("Qc"), id("3e"), id("Ao"), vira,
+				m);
+		assertFalse(comManilha == forma.chaveMao(id("Qp"), id("3e"),
+				id("Ao"), vira, m));
+		assertEquals(comManilha, forma.chaveMao(id("Qc"), id("3p"), id("Ae"),
+				vira, m));
+		// Dois reis não são um rei e um valete
+		assertFalse(chave == forma.chaveMao(id("Kc"), id("Ke"), id("Ao"),
+				vira, m));
+		assertFalse(forma.chaveMao(id("Kc"), id("Ke"), id("Ao"), vira, m) == forma
+				.chaveMao(id("Kc"), id("Je"), id("Ao"), vira, m));
+	}
+
+	@Test
+	public void testChaveMaoIgnoraNaipesForaDaManilhaVelha() {
+		// 7 de ouros e 7 de copas são manilhas, os outros 7 não
+		long chave = forma.chaveMao(id("7e"), id("7p"), id("Ac"),
+				Carta.ID_NENHUM, VELHA);
+		assertEquals(chave, forma.chaveMao(id("7p"), id("Ao"), id("7e"),
+				Carta.ID_NENHUM, VELHA));
+		assertFalse(chave == forma.chaveMao(id("7o"), id("7p"), id("Ac"),
+				Carta.ID_NENHUM, VELHA));
+		assertFalse(forma.chaveMao(id("7o"), id("5p"), id("Ac"),
+				Carta.ID_NENHUM, VELHA) == forma.chaveMao(id("7c"), id("5p"),
+				id("Ac"), Carta.ID_NENHUM, VELHA));
+		// O ás de espadas também
+		assertFalse(chave == forma.chaveMao(id("7e"), id("7p"), id("Ae"),
+				Carta.ID_NENHUM, VELHA));
+	}
+
+	@Test
+	public void testChaveSituacaoIgnoraTrocaDeNaipes() {
+		GeradorSituacoes gerador = new GeradorSituacoes(42);
+		for (int i = 0; i < 2000; i++) {
+			SituacaoJogo s = gerador.sorteia();
+			long chave = forma.chave(s);
+			trocaNaipes(s);
+			assertEquals("Situação " + i, chave, forma.chave(s));
+			// Mudar o placar muda a chave
+			s.pontosEquipe[0] = (s.pontosEquipe[0] + 1) % 12;
+			assertFalse("Situação " + i, chave == forma.chave(s));
+		}
+	}
+
+	/**
+	 * Canoniza todas as cartas do baralho (em ordem aleatória), verificando
+	 * se os valores e a ordem entre eles continuam os mesmos e se não há duas
+	 * cartas com a mesma forma canônica
+	 */
+	private void verificaValoresPreservados(int m) {
+		for (int vez = 0; vez < 100; vez++) {
+			int[] ids = embaralhaIds();
+			int[] canonicos = new int[Carta.NUM_IDS];
+			forma.inicia(m);
+			for (int i = 0; i < ids.length; i++) {
+				canonicos[i] = forma.canoniza(ids[i]);
+				assertEquals(Jogo.getValorTruco(ids[i], m),
+						Jogo.getValorTruco(canonicos[i], m));
+				// (o id 0 fechado se confunde com a fechada sem id)
+				if (ids[i] != 0) {
+					assertEquals(Carta.BIT_FECHADA | canonicos[i],
+							forma.canoniza(Carta.BIT_FECHADA | ids[i]));
+				}
+			}
+			for (int i = 0; i < ids.length; i++) {
+				for (int j = 0; j < ids.length; j++) {
+					int original = Jogo.getValorTruco(ids[i], m)
+							- Jogo.getValorTruco(ids[j], m);
+					int canonica = Jogo.getValorTruco(canonicos[i], m)
+							- Jogo.getValorTruco(canonicos[j], m);
+					assertEquals(Integer.signum(original),
+							Integer.signum(canonica));
+					if (i != j) {
+						assertFalse(canonicos[i] == canonicos[j]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Troca os naipes das cartas da situação que não são manilha, sorteando
+	 * uma permutação para cada letra
+	 */
+	private void trocaNaipes(SituacaoJogo s) {
+		int m = Jogo.getIndiceManilha(s.manilha);
+		int[] troca = new int[Carta.NUM_IDS];
+		for (int letra = 0; letra < 10; letra++) {
+			int[] livres = new int[4];
+			int n = 0;
+			for (int naipe = 0; naipe <= 3; naipe++) {
+				if (Jogo.getValorTruco(letra * 4 + naipe, m) < 11) {
+					livres[n++] = letra * 4 + naipe;
+				}
+			}
+			int[] destinos = livres.clone();
+			for (int i = n - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int t = destinos[i];
+				destinos[i] = destinos[j];
+				destinos[j] = t;
+			}
+			for (int naipe = 0; naipe <= 3; naipe++) {
+				troca[letra * 4 + naipe] = letra * 4 + naipe;
+			}
+			for (int i = 0; i < n; i++) {
+				troca[livres[i]] = destinos[i];
+			}
+		}
+		s.codigoVira = troca(s.codigoVira, troca);
+		for (int i = 0; i <= 2; i++) {
+			for (int k = 0; k <= 3; k++) {
+				s.codigosCartasJogadas[i][k] = troca(
+						s.codigosCartasJogadas[i][k], troca);
+			}
+		}
+		for (int i = 0; i < s.numCartasJogador; i++) {
+			s.codigosCartasJogador[i] = troca(s.codigosCartasJogador[i], troca);
+		}
+		// Embaralha também a ordem das cartas na mão
+		for (int i = s.numCartasJogador - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int t = s.codigosCartasJogador[i];
+			s.codigosCartasJogador[i] = s.codigosCartasJogador[j];
+			s.codigosCartasJogador[j] = t;
+		}
+	}
+
+	private static int troca(int codigo, int[] troca) {
+		if (codigo < 0 || codigo == Carta.BIT_FECHADA) {
+			return codigo;
+		}
+		return (codigo & Carta.BIT_FECHADA)
+				| troca[codigo & ~Carta.BIT_FECHADA];
+	}
+
+	private int[] embaralhaIds() {
+		int[] ids = new int[Carta.NUM_IDS];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = i;
+		}
+		for (int i = ids.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int t = ids[i];
+			ids[i] = ids[j];
+			ids[j] = t;
+		}
+		return ids;
+	}
+
+	private static int id(String carta) {
+		return new Carta(carta).getId();
+	}
+
+}
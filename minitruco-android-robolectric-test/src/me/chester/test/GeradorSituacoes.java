@@ -0,0 +1,140 @@
+package me.chester.test;
+
+import java.util.Random;
+
+import me.chester.minitruco.core.Baralho;
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.JogoLocal;
+import me.chester.minitruco.core.SituacaoJogo;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Sorteia situações de jogo plausíveis (cartas distintas, rodadas anteriores
+ * completas com resultado coerente, rodada atual jogada até a vez do
+ * jogador), para alimentar benchmarks e testes de estratégias.
+ * <p>
+ * A mesma semente gera sempre a mesma seqüência de situações.
+ */
+public class GeradorSituacoes {
+
+	private static final int[] VALORES_MAO = { 1, 3, 6, 9, 12 };
+
+	private Random random;
+
+	public GeradorSituacoes(long semente) {
+		random = new Random(semente);
+	}
+
+	/**
+	 * @return uma nova situação sorteada
+	 */
+	public SituacaoJogo sorteia() {
+
+		SituacaoJogo s = new SituacaoJogo();
+
+		// Regras e manilha (o JogoLocal só é usado para calcular a manilha)
+		boolean limpo = random.nextInt(4) == 0;
+		boolean manilhaVelha = random.nextInt(4) == 0;
+		Baralho baralho = new Baralho(limpo, random);
+		JogoLocal jogo = new JogoLocal(baralho, manilhaVelha);
+		Carta vira = baralho.sorteiaCarta();
+		jogo.setManilha(vira);
+		s.manilha = jogo.getManilha();
+		s.codigoVira = manilhaVelha ? Carta.ID_NENHUM : vira.getId();
+		s.baralhoSujo = !limpo;
+
+		// Rodada, posições e placar
+		s.numRodadaAtual = 1 + random.nextInt(3);
+		s.posJogador = 1 + random.nextInt(4);
+		s.posJogadorQueAbriuRodada = 1 + random.nextInt(4);
+		s.pontosEquipe[0] = random.nextInt(12);
+		s.pontosEquipe[1] = random.nextInt(12);
+		s.valorMao = VALORES_MAO[random.nextInt(4)];
+		s.valorProximaAposta = random.nextBoolean() ? 0 : s.valorMao + 3;
+		s.podeFechada = s.numRodadaAtual > 1 && random.nextBoolean();
+
+		// Rodadas anteriores (completas) e atual (até a vez do jogador)
+		for (int rodada = 1; rodada <= s.numRodadaAtual; rodada++) {
+			int maiorValor = -1;
+			int resultado = 0;
+			for (int pos = 1; pos <= 4; pos++) {
+				if (rodada == s.numRodadaAtual
+						&& !jogouAntes(pos, s.posJogadorQueAbriuRodada,
+								s.posJogador)) {
+					continue;
+				}
+				Carta c = baralho.sorteiaCarta();
+				if (rodada > 1 && random.nextInt(10) == 0) {
+					c = new Carta(Carta.LETRA_NENHUMA, Carta.NAIPE_NENHUM);
+					c.setFechada(true);
+				}
+				s.setCartaJogada(rodada - 1, pos - 1, c);
+				int valor = c.getValorTruco(s.manilha);
+				int equipe = (pos % 2 == 1) ? 1 : 2;
+				if (valor > maiorValor) {
+					maiorValor = valor;
+					resultado = equipe;
+				} else if (valor == maiorValor && resultado != equipe) {
+					resultado = 3;
+				}
+			}
+			if (rodada < s.numRodadaAtual) {
+				s.resultadoRodada[rodada - 1] = resultado;
+			}
+		}
+
+		// Cartas na mão
+		s.limpaCartasJogador();
+		for (int i = 0; i < 4 - s.numRodadaAtual; i++) {
+			s.adicionaCartaJogador(baralho.sorteiaCarta());
+		}
+		s.atualizaMascaras();
+
+		return s;
+	}
+
+	/**
+	 * @return true se o jogador na posição pos joga antes do jogador da vez na
+	 *         rodada aberta por posAbriu
+	 */
+	private static boolean jogouAntes(int pos, int posAbriu, int posVez) {
+		return (pos - posAbriu + 4) % 4 < (posVez - posAbriu + 4) % 4;
+	}
+
+}
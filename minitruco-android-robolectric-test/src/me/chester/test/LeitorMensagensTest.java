@@ -0,0 +1,187 @@
+package me.chester.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.rede.EscritorMensagens;
+import me.chester.minitruco.core.rede.LeitorMensagens;
+import me.chester.minitruco.core.rede.Mensagem;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Verifica a leitura das mensagens que chegam pela conexão, nos protocolos
+ * texto e binário, inclusive quando chegam picadas, não cabem no buffer ou o
+ * protocolo muda no meio.
+ */
+public class LeitorMensagensTest extends TestCase {
+
+	private Mensagem m = new Mensagem();
+
+	@Test
+	public void testSeparaLinhasEIgnoraVazias() throws IOException {
+		LeitorMensagens leitor = new LeitorMensagens(new ByteArrayInputStream(
+				"****J 2 Kc**V 3 F****H 1 T**A**".getBytes()));
+		assertLe("J 2 Kc", leitor);
+		assertEquals(new Carta("Kc").getId(), m.getIdCarta(1));
+		assertLe("V 3 F", leitor);
+		assertFalse(m.getFlag(1));
+		assertLe("H 1 T", leitor);
+		assertLe("A", leitor);
+		assertFalse(leitor.le(m));
+	}
+
+	@Test
+	public void testLinhaQuebradaEntreLeituras() throws IOException {
+		LeitorMensagens leitor = new LeitorMensagens(
+				umBytePorVez("M Ac 2e 3o Kp**G 1**".getBytes()));
+		assertLe("M Ac 2e 3o Kp", leitor);
+		assertLe("G 1", leitor);
+		assertFalse(leitor.le(m));
+	}
+
+	@Test
+	public void testBinarioIdaEVolta() throws IOException {
+		Mensagem[] enviadas = {
+				new Mensagem().inicia('M').carta(new Carta("Ac"))
+						.carta(new Carta("2e")).carta(new Carta("3o"))
+						.carta(new Carta("Kp")),
+				new Mensagem().inicia('J').numero(3).carta(new Carta("Xx")),
+				new Mensagem().inicia('V').numero(4).flag(true),
+				new Mensagem().inicia('O').numero(12)
+						.numero(Mensagem.MAX_NUMERO),
+				new Mensagem().inicia('P'),
+				new Mensagem().inicia('I').texto("a|b|c|d FT 2") };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EscritorMensagens escritor = new EscritorMensagens(out);
+		escritor.setBinario(true);
+		for (int i = 0; i < enviadas.length; i++) {
+			escritor.escreve(enviadas[i]);
+			escritor.escreveVazia();
+		}
+		// O quadro do "M" tem o tipo e um byte por carta
+		assertEquals(1 + 4, out.toByteArray()[0]);
+
+		LeitorMensagens leitor = new LeitorMensagens(
+				umBytePorVez(out.toByteArray()));
+		leitor.setBinario(true);
+		for (int i = 0; i < enviadas.length; i++) {
+			assertLe(enviadas[i].toString(), leitor);
+		}
+		assertFalse(leitor.le(m));
+	}
+
+	@Test
+	public void testMudaParaBinarioNoMeioDoBuffer() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EscritorMensagens escritor = new EscritorMensagens(out);
+		escritor.escreve(new Mensagem().inicia('B').numero(1));
+		escritor.setBinario(true);
+		escritor.escreve(new Mensagem().inicia('J').numero(2)
+				.carta(new Carta("Kc")));
+		// Tudo de uma vez e um byte por vez (com o separador da linha
+		// chegando separado)
+		for (int vez = 0; vez <= 1; vez++) {
+			byte[] bytes = out.toByteArray();
+			LeitorMensagens leitor = new LeitorMensagens(
+					vez == 0 ? new ByteArrayInputStream(bytes)
+							: umBytePorVez(bytes));
+			assertLe("B 1", leitor);
+			leitor.setBinario(true);
+			assertLe("J 2 Kc", leitor);
+			assertFalse(leitor.le(m));
+		}
+	}
+
+	@Test
+	public void testTextoMaiorQueOBuffer() throws IOException {
+		StringBuffer sb = new StringBuffer();
+		for (int i = 0; i < 3000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EscritorMensagens escritor = new EscritorMensagens(out);
+		escritor.escreve(new Mensagem().inicia('I').texto(sb.toString()));
+		escritor.setBinario(true);
+		escritor.escreve(new Mensagem().inicia('I').texto(sb.toString()));
+		LeitorMensagens leitor = new LeitorMensagens(new ByteArrayInputStream(
+				out.toByteArray()));
+		assertTrue(leitor.le(m));
+		assertEquals(sb.toString(), m.getTexto());
+		leitor.setBinario(true);
+		assertTrue(leitor.le(m));
+		assertEquals(sb.toString(), m.getTexto());
+	}
+
+	private void assertLe(String esperada, LeitorMensagens leitor)
+			throws IOException {
+		assertTrue(leitor.le(m));
+		assertEquals(esperada, m.toString());
+	}
+
+	/**
+	 * Entrega um byte por vez, como numa conexão lenta
+	 */
+	private static InputStream umBytePorVez(final byte[] bytes) {
+		return new InputStream() {
+			int pos = 0;
+
+			@Override
+			public int read() {
+				return pos < bytes.length ? bytes[pos++] & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				int c = read();
+				if (c == -1) {
+					return -1;
+				}
+				b[off] = (byte) c;
+				return 1;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,124 @@
+package me.chester.test;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.Jogo;
+import me.chester.minitruco.core.RastreadorCartas;
+import me.chester.minitruco.core.SituacaoJogo;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Verifica se o RastreadorCartas, alimentado evento a evento, chega às mesmas
+ * máscaras e manilhas que SituacaoJogo.atualizaMascaras() calcula varrendo a
+ * situação.
+ */
+public class RastreadorCartasTest extends TestCase {
+
+	private RastreadorCartas rastreador = new RastreadorCartas();
+
+	@Test
+	public void testIgualAVarreduraDaSituacao() {
+		GeradorSituacoes gerador = new GeradorSituacoes(42);
+		for (int i = 0; i < 2000; i++) {
+			SituacaoJogo s = gerador.sorteia();
+			int rodadaAtual = s.numRodadaAtual - 1;
+			rastreador.inicioMao(Jogo.getIndiceManilha(s.manilha),
+					s.baralhoSujo, s.codigoVira, s.cartasJogador);
+			for (int rodada = 0; rodada <= rodadaAtual; rodada++) {
+				for (int pos = 0; pos <= 3; pos++) {
+					rastreador.cartaJogada(s.cartasJogadas[rodada][pos]);
+				}
+				if (rodada < rodadaAtual) {
+					rastreador.rodadaFechada();
+				}
+			}
+
+			long naMao = s.mascaraCartasJogador;
+			long vistas = s.mascaraCartasVistas;
+			long naoVistas = s.mascaraCartasNaoVistas;
+			int saidas = s.manilhasSaidas;
+			int anteriores = s.manilhasRodadasAnteriores;
+			int maior = s.valorMaiorCartaNaoVista;
+			rastreador.preenche(s);
+			assertEquals("Situação " + i, naMao, s.mascaraCartasJogador);
+			assertEquals("Situação " + i, vistas, s.mascaraCartasVistas);
+			assertEquals("Situação " + i, naoVistas, s.mascaraCartasNaoVistas);
+			assertEquals("Situação " + i, saidas, s.manilhasSaidas);
+			assertEquals("Situação " + i, anteriores,
+					s.manilhasRodadasAnteriores);
+			assertEquals("Situação " + i, maior, s.valorMaiorCartaNaoVista);
+		}
+	}
+
+	@Test
+	public void testAcompanhaManilhasECartaFechada() {
+		// Vira o J, manilha é o K: zap é o K de paus
+		int m = Jogo.getIndiceManilha('K');
+		Carta zap = new Carta("Kp");
+		Carta[] mao = { new Carta("3c"), new Carta("Ao"), new Carta("2e") };
+		rastreador.inicioMao(m, true, new Carta("Jc").getId(), mao);
+		SituacaoJogo s = new SituacaoJogo();
+		s.limpaCartasJogador();
+		rastreador.preenche(s);
+		assertEquals(14, s.valorMaiorCartaNaoVista);
+
+		rastreador.cartaJogada(zap);
+		rastreador.cartaJogada(new Carta("Kc"));
+		rastreador.preenche(s);
+		assertEquals(12, s.valorMaiorCartaNaoVista);
+		assertEquals((1 << 3) | (1 << 2), s.manilhasSaidas);
+		assertEquals(0, s.manilhasRodadasAnteriores);
+		rastreador.rodadaFechada();
+
+		// O jogador joga o 3 fechado: para ele, continua vista
+		mao[0].setFechada(true);
+		rastreador.cartaJogada(mao[0]);
+		s.adicionaCartaJogador(mao[1]);
+		s.adicionaCartaJogador(mao[2]);
+		rastreador.preenche(s);
+		assertEquals((1 << 3) | (1 << 2), s.manilhasRodadasAnteriores);
+		assertTrue((s.mascaraCartasVistas & (1L << mao[0].getId())) != 0);
+		assertTrue((s.mascaraCartasNaoVistas & (1L << mao[0].getId())) == 0);
+		assertEquals((1L << mao[1].getId()) | (1L << mao[2].getId()),
+				s.mascaraCartasJogador);
+	}
+
+}
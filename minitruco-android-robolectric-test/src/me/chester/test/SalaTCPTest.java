@@ -0,0 +1,148 @@
+package me.chester.test;
+
+import junit.framework.TestCase;
+import me.chester.minitruco.core.rede.Cliente;
+import me.chester.minitruco.core.rede.ConexaoTCP;
+import me.chester.minitruco.core.rede.ObservadorSala;
+import me.chester.minitruco.core.rede.Servidor;
+import me.chester.minitruco.core.rede.ServidorConexoesTCP;
+
+import org.junit.Test;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Conecta clientes a um servidor via TCP (no localhost) e verifica se a mesa
+ * chega a eles (sem Android e sem Bluetooth).
+ * <p>
+ * O segundo cliente não oferece o protocolo binário (como um cliente antigo),
+ * então a mesa deve chegar aos dois protocolos.
+ */
+public class SalaTCPTest extends TestCase {
+
+	private Servidor servidor;
+
+	private Cliente[] clientes = new Cliente[2];
+
+	private ObservadorSala observador = new ObservadorSala() {
+		public void atualizaSala() {
+		}
+
+		public void mensagem(String mensagem) {
+		}
+
+		public void erroFatal(String mensagem) {
+		}
+
+		public void aguardandoConexoes() {
+		}
+
+		public void partidaIniciando() {
+		}
+	};
+
+	@Override
+	protected void setUp() throws Exception {
+		ServidorConexoesTCP servidorConexoes = new ServidorConexoesTCP(0);
+		servidor = new Servidor(servidorConexoes, "TF", "Servidor", observador);
+		servidor.inicia();
+		for (int i = 0; i < clientes.length; i++) {
+			clientes[i] = new Cliente(ConexaoTCP.conecta("localhost",
+					servidorConexoes.getPorta()), observador);
+			clientes[i].setOfereceBinario(i == 0);
+			clientes[i].inicia();
+			aguarda(clientes[i], i + 2);
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (int i = 0; i < clientes.length; i++) {
+			clientes[i].encerra();
+		}
+		servidor.encerra();
+	}
+
+	private void aguarda(Cliente cliente, int posicao)
+			throws InterruptedException {
+		for (int i = 0; i < 500 && cliente.getPosJogador() != posicao; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(posicao, cliente.getPosJogador());
+	}
+
+	@Test
+	public void testClientesRecebemMesa() throws Exception {
+		assertEquals(2, servidor.getNumClientes());
+		// Cada cliente se vê na posição 1 da mesa "visual"
+		for (int i = 0; i < clientes.length; i++) {
+			Cliente c = clientes[i];
+			assertEquals(1, c.getPosicaoMesa(c.getPosJogador()));
+			assertEquals("Servidor", c.getApelido(c.getPosicaoMesa(1)));
+			assertTrue(clientes[i].isBaralhoLimpo());
+			assertFalse(clientes[i].isManilhaVelha());
+		}
+		// O servidor está à esquerda do primeiro cliente e em frente ao segundo
+		assertEquals("Servidor", clientes[0].getApelido(4));
+		assertEquals("Servidor", clientes[1].getApelido(3));
+		assertEquals("CPU3", clientes[0].getApelido(3));
+	}
+
+	@Test
+	public void testNegociaProtocoloBinario() throws Exception {
+		for (int i = 0; i < 500 && !clientes[0].isProtocoloBinario(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(clientes[0].isProtocoloBinario());
+		assertFalse(clientes[1].isProtocoloBinario());
+		// A mesa continua chegando aos dois depois da negociação
+		servidor.inverteAdversarios();
+		aguarda(clientes[0], 4);
+		aguarda(clientes[1], 3);
+	}
+
+	@Test
+	public void testTrocaParceiro() throws Exception {
+		servidor.trocaParceiro();
+		// O último slot (vazio) vai para a posição 2, e os clientes avançam
+		aguarda(clientes[1], 4);
+		aguarda(clientes[0], 3);
+		assertEquals("CPU3", servidor.getApelido(2));
+	}
+
+}
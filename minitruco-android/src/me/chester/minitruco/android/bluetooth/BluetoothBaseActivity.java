@@ -5,6 +5,8 @@ import java.util.UUID;
 import me.chester.minitruco.R;
 import me.chester.minitruco.android.BaseActivity;
 import me.chester.minitruco.android.TrucoActivity;
+import me.chester.minitruco.core.rede.ObservadorSala;
+import me.chester.minitruco.core.rede.Sala;
 import android.app.AlertDialog;
 import android.bluetooth.BluetoothAdapter;
 import android.content.DialogInterface;
@@ -59,22 +61,7 @@ import android.widget.TextView;
  * conectado, garantir que o bt está ligado, iniciar a thread, etc.
  */
 public abstract class BluetoothBaseActivity extends BaseActivity implements
-		Runnable {
-
-	/**
-	 * Separador de linha recebido
-	 */
-	public static final int SEPARADOR_REC = '*';
-
-	/**
-	 * Separador de linha enviado (tanto no sentido client-server quanto no
-	 * server-client).
-	 * <p>
-	 * É propositalmente um conjunto de SEPARADOR_REC, para garantir que o
-	 * recebimento seja detectado (linhas em branco são ignoradas de qualquer
-	 * forma).
-	 */
-	public static final byte[] SEPARADOR_ENV = "**".getBytes();
+		ObservadorSala {
 
 	/**
 	 * Identificadores Bluetooth do "serviço miniTruco"
@@ -87,8 +74,7 @@ public abstract class BluetoothBaseActivity extends BaseActivity implements
 	private static final int MSG_ERRO_FATAL = 2;
 
 	protected BluetoothAdapter btAdapter;
-	protected String[] apelidos = new String[4];
-	protected String regras;
+	protected Sala sala;
 	protected Button btnIniciar;
 	protected View layoutIniciar;
 	private TextView textViewMensagem;
@@ -125,7 +111,27 @@ public abstract class BluetoothBaseActivity extends BaseActivity implements
 				.sendToTarget();
 	}
 
-	protected abstract int getNumClientes();
+	// Notificações da sala (vêm das threads dela, por isso passam pelo handler)
+
+	public void atualizaSala() {
+		atualizaDisplay();
+	}
+
+	public void mensagem(String mensagem) {
+		setMensagem(mensagem);
+	}
+
+	public void erroFatal(String mensagem) {
+		msgErroFatal(mensagem);
+	}
+
+	public void partidaIniciando() {
+		iniciaTrucoActivitySePreciso();
+	}
+
+	public void aguardandoConexoes() {
+		// Só interessa ao servidor
+	}
 
 	Handler handlerAtualizaDisplay = new Handler() {
 
@@ -157,11 +163,14 @@ public abstract class BluetoothBaseActivity extends BaseActivity implements
 								}).show();
 				break;
 			}
+			if (sala == null) {
+				return;
+			}
 			for (int i = 0; i < 4; i++) {
-				textViewsJogadores[i].setText(apelidos[i]);
+				textViewsJogadores[i].setText(sala.getApelido(i + 1));
 			}
-			textViewRegras.setText(getTextoRegras());
-			btnIniciar.setEnabled(getNumClientes() > 0);
+			textViewRegras.setText(sala.getTextoRegras());
+			btnIniciar.setEnabled(sala.getNumClientes() > 0);
 		}
 
 	};
@@ -178,15 +187,6 @@ public abstract class BluetoothBaseActivity extends BaseActivity implements
 		}
 	}
 
-	protected String getTextoRegras() {
-		if (regras == null || regras.length() < 2) {
-			return "";
-		}
-		return (regras.charAt(0) == 'T' ? "Baralho Limpo" : "Baralho Sujo")
-				+ " / "
-				+ (regras.charAt(1) == 'T' ? "Manilha Velha" : "Manilha Nova");
-	}
-
 	protected void sleep(int ms) {
 		try {
 			Thread.sleep(ms);
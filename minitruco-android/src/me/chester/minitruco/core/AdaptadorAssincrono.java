@@ -0,0 +1,292 @@
+package me.chester.minitruco.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Permite usar qualquer <code>Estrategia</code> como
+ * <code>EstrategiaAssincrona</code>, rodando as decisões num executor
+ * compartilhado.
+ * <p>
+ * As chamadas à estratégia (inclusive as notificações) são feitas uma de cada
+ * vez, já que as estratégias não foram escritas para rodar em várias
+ * threads. Para isso, elas entram numa fila do adaptador, consumida no
+ * executor na ordem em que foram feitas. Assim, as notificações não esperam
+ * uma decisão em andamento (quem notifica só enfileira), mas chegam à
+ * estratégia depois dela.
+ * <p>
+ * Uma decisão cancelada antes de começar não chega a ser calculada; depois de
+ * começar, ela vai até o fim (a estratégia não tem como ser interrompida),
+ * mas a resposta é descartada.
+ */
+public class AdaptadorAssincrono implements EstrategiaAssincrona {
+
+	/**
+	 * Executor que roda as decisões assíncronas de todas as estratégias
+	 */
+	private static final ExecutorService executor = Executors
+			.newFixedThreadPool(
+					Math.max(2, Runtime.getRuntime().availableProcessors()),
+					new ThreadFactory() {
+						private int numThreads;
+
+						public synchronized Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "Estrategia-"
+									+ (++numThreads));
+							// Não impede a aplicação de terminar
+							t.setDaemon(true);
+							return t;
+						}
+					});
+
+	private final Estrategia estrategia;
+
+	/**
+	 * Chamadas à estratégia esperando a vez, na ordem em que foram feitas
+	 */
+	private final ConcurrentLinkedQueue<Runnable> fila = new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * Chamadas enfileiradas e ainda não concluídas. Quem enfileira a primeira
+	 * põe o consumidor no executor, e ele só sai de lá quando não sobrar
+	 * nenhuma.
+	 */
+	private final AtomicInteger numChamadas = new AtomicInteger();
+
+	private final Runnable consumidor = new Runnable() {
+		public void run() {
+			do {
+				try {
+					fila.poll().run();
+				} catch (RuntimeException e) {
+					Log.w("AdaptadorAssincrono", "Erro na estratégia "
+							+ estrategia.getNomeEstrategia(), e);
+				}
+			} while (numChamadas.decrementAndGet() > 0);
+		}
+	};
+
+	/**
+	 * @return a própria estratégia, se ela já for assíncrona, ou um adaptador
+	 *         para ela
+	 */
+	public static EstrategiaAssincrona adapta(Estrategia estrategia) {
+		if (estrategia instanceof EstrategiaAssincrona) {
+			return (EstrategiaAssincrona) estrategia;
+		}
+		return new AdaptadorAssincrono(estrategia);
+	}
+
+	public AdaptadorAssincrono(Estrategia estrategia) {
+		this.estrategia = estrategia;
+	}
+
+	/**
+	 * Roda uma tarefa no executor das decisões assíncronas (para as
+	 * estratégias assíncronas que não usam o adaptador)
+	 */
+	static void executa(Runnable tarefa) {
+		executor.execute(tarefa);
+	}
+
+	public Decisao<Integer> solicitaJogada(final SituacaoJogo s, long prazoMs) {
+		return solicita(new Decisao<Integer>(0, prazoMs),
+				new Callable<Integer>() {
+					public Integer call() {
+						return estrategia.joga(s);
+					}
+				});
+	}
+
+	public Decisao<Boolean> solicitaRespostaTruco(final SituacaoJogo s,
+			long prazoMs) {
+		return solicita(new Decisao<Boolean>(false, prazoMs),
+				new Callable<Boolean>() {
+					public Boolean call() {
+						return estrategia.aceitaTruco(s);
+					}
+				});
+	}
+
+	public Decisao<Boolean> solicitaRespostaMao11(
+			final Carta[] cartasParceiro, final SituacaoJogo s, long prazoMs) {
+		return solicita(new Decisao<Boolean>(false, prazoMs),
+				new Callable<Boolean>() {
+					public Boolean call() {
+						return estrategia.aceitaMao11(cartasParceiro, s);
+					}
+				});
+	}
+
+	private <V> Decisao<V> solicita(final Decisao<V> decisao,
+			final Callable<V> chamada) {
+		enfileira(new Runnable() {
+			public void run() {
+				try {
+					if (decisao.isDone()) {
+						// Cancelada ou vencida enquanto esperava
+						return;
+					}
+					decisao.conclui(chamada.call());
+				} catch (Exception e) {
+					Log.w("AdaptadorAssincrono", "Erro na estratégia "
+							+ estrategia.getNomeEstrategia(), e);
+					decisao.encerra();
+				} finally {
+					decisao.libera();
+				}
+			}
+		});
+		return decisao;
+	}
+
+	/**
+	 * Coloca uma chamada na fila da estratégia, acionando o consumidor se ele
+	 * não estiver rodando
+	 */
+	private void enfileira(Runnable chamada) {
+		fila.offer(chamada);
+		if (numChamadas.getAndIncrement() == 0) {
+			executor.execute(consumidor);
+		}
+	}
+
+	/**
+	 * Faz uma chamada pela fila e espera o resultado (para os métodos
+	 * síncronos, que assim respeitam a ordem das notificações)
+	 */
+	private <V> V espera(Callable<V> chamada) {
+		FutureTask<V> tarefa = new FutureTask<V>(chamada);
+		enfileira(tarefa);
+		try {
+			return tarefa.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	public String getNomeEstrategia() {
+		return estrategia.getNomeEstrategia();
+	}
+
+	public String getInfoEstrategia() {
+		return estrategia.getInfoEstrategia();
+	}
+
+	public int joga(final SituacaoJogo s) {
+		return espera(new Callable<Integer>() {
+			public Integer call() {
+				return estrategia.joga(s);
+			}
+		});
+	}
+
+	public boolean aceitaTruco(final SituacaoJogo s) {
+		return espera(new Callable<Boolean>() {
+			public Boolean call() {
+				return estrategia.aceitaTruco(s);
+			}
+		});
+	}
+
+	public boolean aceitaMao11(final Carta[] cartasParceiro,
+			final SituacaoJogo s) {
+		return espera(new Callable<Boolean>() {
+			public Boolean call() {
+				return estrategia.aceitaMao11(cartasParceiro, s);
+			}
+		});
+	}
+
+	public void inicioPartida() {
+		enfileira(new Runnable() {
+			public void run() {
+				estrategia.inicioPartida();
+			}
+		});
+	}
+
+	public void inicioMao() {
+		enfileira(new Runnable() {
+			public void run() {
+				estrategia.inicioMao();
+			}
+		});
+	}
+
+	public void pediuAumentoAposta(final int posJogador, final int valor) {
+		enfileira(new Runnable() {
+			public void run() {
+				estrategia.pediuAumentoAposta(posJogador, valor);
+			}
+		});
+	}
+
+	public void aceitouAumentoAposta(final int posJogador, final int valor) {
+		enfileira(new Runnable() {
+			public void run() {
+				estrategia.aceitouAumentoAposta(posJogador, valor);
+			}
+		});
+	}
+
+	public void recusouAumentoAposta(final int posJogador) {
+		enfileira(new Runnable() {
+			public void run() {
+				estrategia.recusouAumentoAposta(posJogador);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,232 @@
+package me.chester.minitruco.core;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Análise de uma situação de jogo do ponto de vista do jogador: valores e
+ * ordem das cartas na mão, cartas na mesa, quem está ganhando a rodada e
+ * quais manilhas já saíram.
+ * <p>
+ * É calculada uma vez no início de cada decisão (analisa()), para que as
+ * funções auxiliares da estratégia consultem os resultados ao invés de
+ * percorrer a situação (e calcular valores de cartas) a cada chamada. Os
+ * critérios (inclusive os desempates) são os que a EstrategiaGasparotto já
+ * usava.
+ * <p>
+ * As posições na mesa vão de 0 a 3 (posição do jogador - 1).
+ *
+ * @see EstrategiaGasparotto
+ *
+ */
+class AnaliseSituacao {
+
+	/**
+	 * Valor usado em valoresMesa para quem ainda não jogou na rodada
+	 */
+	static final int SEM_CARTA = -1;
+
+	/**
+	 * Valor (conforme Jogo.getValorTruco()) de cada carta da mão
+	 */
+	final int[] valoresMao = new int[3];
+
+	int numCartas;
+
+	/**
+	 * Índices das cartas da mão, da maior para a menor (se houver menos de 3
+	 * cartas, as posições que sobram repetem a menor)
+	 */
+	final int[] ordem = new int[3];
+
+	/**
+	 * Valor da carta jogada por cada posição na rodada atual, ou SEM_CARTA
+	 */
+	final int[] valoresMesa = new int[4];
+
+	/**
+	 * Posição que jogou a maior carta da rodada atual (em caso de empate,
+	 * preferindo a nossa equipe), ou 0 se ninguém jogou
+	 */
+	int posMaiorCartaMesa;
+
+	/**
+	 * Valor da maior carta da rodada atual, ou SEM_CARTA se ninguém jogou
+	 */
+	int valorMaiorCartaMesa;
+
+	/**
+	 * Posição (da nossa equipe) que jogou na rodada atual a maior carta que
+	 * ainda pode sair, ou -1 se não fomos nós
+	 */
+	int posMaiorCartaPossivelMesa;
+
+	/**
+	 * true se alguém da nossa equipe e alguém da outra jogaram cartas de
+	 * mesmo valor na rodada atual
+	 */
+	boolean amarrado;
+
+	/**
+	 * Manilhas que saíram nas rodadas anteriores (bit valor - 11 para cada
+	 * uma, ex.: bit 3 para o zap)
+	 */
+	int manilhasAnteriores;
+
+	/**
+	 * Manilhas que saíram até agora, incluindo a rodada atual
+	 */
+	int manilhasSaidas;
+
+	/**
+	 * true se a maior carta da mão é a maior manilha que ainda não saiu (sem
+	 * considerar a rodada atual)
+	 */
+	boolean tenhoMaiorCarta;
+
+	private static final int MENOR_MANILHA = 11;
+
+	private static final int ZAP = 14;
+
+	/**
+	 * Analisa a situação (que não deve mudar enquanto a análise for usada).
+	 * As máscaras e manilhas da situação já devem estar preenchidas (ver
+	 * RastreadorCartas e SituacaoJogo.atualizaMascaras()).
+	 */
+	void analisa(SituacaoJogo s) {
+		char manilha = s.manilha;
+		int eu = s.posJogador - 1;
+		int parceiro = (s.posJogador + 1) % 4;
+		int adversario1 = s.posJogador % 4;
+		int adversario2 = (s.posJogador + 2) % 4;
+		int rodadaAtual = s.numRodadaAtual - 1;
+
+		// Cartas na mão, da maior para a menor
+		numCartas = s.cartasJogador.length;
+		for (int i = 0; i < numCartas; i++) {
+			valoresMao[i] = s.cartasJogador[i].getValorTruco(manilha);
+		}
+		ordem[0] = 0;
+		ordem[1] = 1;
+		ordem[2] = 2;
+		for (int i = 0; i < numCartas; i++) {
+			for (int i2 = i; i2 < 3; i2++) {
+				if (i2 > 0 && i2 >= numCartas) {
+					ordem[i2] = ordem[i2 - 1];
+				} else if (valoresMao[ordem[i2]] >= valoresMao[ordem[i]]) {
+					int aux = ordem[i];
+					ordem[i] = ordem[i2];
+					ordem[i2] = aux;
+				}
+			}
+		}
+
+		// Cartas da rodada atual (as manilhas que já saíram vêm prontas na
+		// situação, acompanhadas pelo RastreadorCartas)
+		for (int pos = 0; pos <= 3; pos++) {
+			Carta c = rodadaAtual < 0 ? null : s.cartasJogadas[rodadaAtual][pos];
+			valoresMesa[pos] = c == null ? SEM_CARTA : c.getValorTruco(manilha);
+		}
+		manilhasAnteriores = s.manilhasRodadasAnteriores;
+		manilhasSaidas = s.manilhasSaidas;
+
+		// Maior carta da mesa (os empates ficam com a nossa equipe)
+		int maior = 0;
+		for (int pos = 0; pos <= 3; pos++) {
+			int valor = valoresMesa[pos];
+			if (valor == SEM_CARTA) {
+				continue;
+			}
+			if (valoresMesa[maior] == SEM_CARTA) {
+				maior = pos;
+			} else if ((pos == eu || pos == parceiro)
+					&& valor >= valoresMesa[maior]) {
+				maior = pos;
+			} else if (valor > valoresMesa[maior]) {
+				maior = pos;
+			}
+		}
+		posMaiorCartaMesa = maior;
+		valorMaiorCartaMesa = valoresMesa[maior];
+
+		// Maior carta possível: nossa manilha que é a maior que ainda não
+		// saiu nas rodadas anteriores
+		posMaiorCartaPossivelMesa = -1;
+		for (int pos = 0; pos <= 3; pos++) {
+			if ((pos == eu || pos == parceiro) && valoresMesa[pos] != SEM_CARTA
+					&& isMaiorPossivel(valoresMesa[pos])) {
+				posMaiorCartaPossivelMesa = pos;
+			}
+		}
+
+		amarrado = empata(parceiro, adversario1) || empata(parceiro, adversario2)
+				|| empata(eu, adversario1) || empata(eu, adversario2);
+
+		// O 3 (ou menos) nunca é considerado a maior carta, mesmo que todas as
+		// manilhas já tenham saído
+		tenhoMaiorCarta = numCartas > 0
+				&& valoresMao[ordem[0]] >= MENOR_MANILHA
+				&& isMaiorPossivel(valoresMao[ordem[0]]);
+	}
+
+	/**
+	 * @return true se o valor é de uma manilha e todas as maiores que ela já
+	 *         saíram nas rodadas anteriores
+	 */
+	private boolean isMaiorPossivel(int valor) {
+		if (valor < MENOR_MANILHA) {
+			return false;
+		}
+		int maiores = ((1 << (ZAP - MENOR_MANILHA + 1)) - 1)
+				& ~((1 << (valor - MENOR_MANILHA + 1)) - 1);
+		return (manilhasAnteriores & maiores) == maiores;
+	}
+
+	private boolean empata(int pos1, int pos2) {
+		return valoresMesa[pos1] != SEM_CARTA && valoresMesa[pos2] != SEM_CARTA
+				&& valoresMesa[pos1] == valoresMesa[pos2];
+	}
+
+	/**
+	 * @return true se a manilha com o valor informado já saiu (incluindo a
+	 *         rodada atual)
+	 */
+	boolean saiu(int valorManilha) {
+		return (manilhasSaidas & (1 << (valorManilha - MENOR_MANILHA))) != 0;
+	}
+
+}
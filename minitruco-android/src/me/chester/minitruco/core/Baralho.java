@@ -38,11 +38,15 @@ package me.chester.minitruco.core;
  */
 
 import java.util.Random;
-import java.util.Vector;
 
 /**
  * Gerencia as cartas já distribuídas, garantindo que não se sorteie duas vezes
  * a mesma carta.
+ * <p>
+ * As cartas são criadas uma única vez, num array que é embaralhado aos poucos
+ * (Fisher-Yates): cada sorteio troca uma carta aleatória da parte ainda não
+ * distribuída com a primeira dessa parte e avança o índice. Assim sortear e
+ * recolher as cartas não criam objetos e têm custo constante.
  * 
  * 
  */
@@ -50,9 +54,20 @@ public class Baralho {
 
 	private boolean limpo;
 
-	private Random random = new Random();
+	private Random random;
 
-	private Vector<Carta> sorteadas = new Vector<Carta>();
+	/**
+	 * Cartas do baralho. As numSorteadas primeiras já foram distribuídas (ou
+	 * retiradas), as demais ainda podem ser sorteadas.
+	 */
+	private Carta[] cartas;
+
+	private int numSorteadas;
+
+	/**
+	 * Posição, em cartas[], de cada id de carta (-1 se não está no baralho)
+	 */
+	private int[] posicaoPorId = new int[Carta.NUM_IDS];
 
 	/**
 	 * Cria um novo bararalho de truco
@@ -62,7 +77,32 @@ public class Baralho {
 	 *            (default)
 	 */
 	public Baralho(boolean isLimpo) {
+		this(isLimpo, new Random());
+	}
+
+	/**
+	 * Cria um novo bararalho de truco, que usa um gerador de números
+	 * aleatórios específico (ex.: um por thread, em simulações paralelas)
+	 * 
+	 * @param isLimpo
+	 *            true para baralho limpo (sem 4, 5, 6 e 7), false para sujo
+	 * @param random
+	 *            gerador usado para sortear as cartas
+	 */
+	public Baralho(boolean isLimpo, Random random) {
 		limpo = isLimpo;
+		this.random = random;
+		// No baralho limpo ficam de fora os ids de 4, 5, 6 e 7 (os 16 primeiros)
+		int primeiroId = limpo ? 16 : 0;
+		cartas = new Carta[Carta.NUM_IDS - primeiroId];
+		for (int id = 0; id < Carta.NUM_IDS; id++) {
+			posicaoPorId[id] = -1;
+		}
+		for (int id = primeiroId; id < Carta.NUM_IDS; id++) {
+			posicaoPorId[id] = id - primeiroId;
+			cartas[id - primeiroId] = new Carta(Carta.getLetra(id),
+					Carta.getNaipe(id));
+		}
 	}
 
 	public boolean isLimpo() {
@@ -72,40 +112,29 @@ public class Baralho {
 	/**
 	 * Sorteia uma carta do baralho.
 	 * <p>
-	 * O método não verifica se o baralho foi todo sorteado. Para truco não há
-	 * problema, mas outros jogos podem eventualmente retornar um null nesse
-	 * caso.
+	 * A carta retornada é a mesma instância a cada vez que ela é sorteada
+	 * (após um <code>embaralha()</code>), então não deve ser guardada de uma
+	 * mão para outra.
 	 * 
-	 * @return carta sorteada
+	 * @return carta sorteada, ou null se o baralho todo já foi sorteado
 	 */
 	public Carta sorteiaCarta() {
-
-		Carta c;
-		String cartas = limpo ? "A23JQK" : "A234567JQK";
-		do {
-			char letra = cartas.charAt(sorteiaDeZeroA(cartas.length() - 1));
-			int naipe = Carta.NAIPES[sorteiaDeZeroA(3)];
-			c = new Carta(letra, naipe);
-		} while (sorteadas.contains(c));
-		sorteadas.addElement(c);
-		return c;
+		if (numSorteadas == cartas.length) {
+			return null;
+		}
+		troca(numSorteadas, numSorteadas
+				+ random.nextInt(cartas.length - numSorteadas));
+		return cartas[numSorteadas++];
 	}
 
 	/**
 	 * Recolhe as cartas do baralho, zerando-o para um novo uso
 	 */
 	public void embaralha() {
-		sorteadas = new Vector<Carta>();
-	}
-
-	/**
-	 * Sortea numeros entre 0 e um valor especificado, inclusive
-	 * 
-	 * @param limiteSuperior
-	 */
-	private int sorteiaDeZeroA(int limiteSuperior) {
-		// O >>> é pra evitar nos. negativos, cf: http://tinyurl.com/dgjxp
-		return (random.nextInt() >>> 1) % (limiteSuperior + 1);
+		for (int i = 0; i < numSorteadas; i++) {
+			cartas[i].setFechada(false);
+		}
+		numSorteadas = 0;
 	}
 
 	/**
@@ -115,7 +144,25 @@ public class Baralho {
 	 *            Carta a retirar
 	 */
 	public void tiraDoBaralho(Carta c) {
-		sorteadas.addElement(c);
+		int id = c.getId();
+		if (id == Carta.ID_NENHUM) {
+			return;
+		}
+		int posicao = posicaoPorId[id];
+		if (posicao >= numSorteadas) {
+			troca(numSorteadas++, posicao);
+		}
+	}
+
+	/**
+	 * Troca duas cartas de posição no array, mantendo o índice por id
+	 */
+	private void troca(int i, int j) {
+		Carta c = cartas[i];
+		cartas[i] = cartas[j];
+		cartas[j] = c;
+		posicaoPorId[cartas[i].getId()] = i;
+		posicaoPorId[c.getId()] = j;
 	}
 
 }
@@ -105,6 +105,41 @@ public class Carta {
 
 	private static final String LETRAS_VALIDAS = "A23456789JQK";
 
+	/**
+	 * Letras usadas no truco, na ordem crescente de valor (a posição da letra
+	 * nesta string, multiplicada por 4 e somada ao naipe, é o id da carta)
+	 */
+	static final String LETRAS_TRUCO = "4567QJKA23";
+
+	/**
+	 * Quantidade de cartas distintas no truco (e, portanto, de ids)
+	 */
+	public static final int NUM_IDS = 40;
+
+	/**
+	 * Id das cartas que não existem no truco (ex.: sem letra, sem naipe, 8 ou
+	 * 9)
+	 */
+	public static final int ID_NENHUM = -1;
+
+	/**
+	 * Bit que indica, no código compacto da carta, que ela foi jogada fechada
+	 * 
+	 * @see Carta#getCodigo()
+	 */
+	public static final int BIT_FECHADA = 64;
+
+	/**
+	 * Posição de cada letra em LETRAS_TRUCO (-1 para as demais letras)
+	 */
+	private static final byte[] INDICE_LETRA = new byte[128];
+
+	static {
+		for (int i = 0; i < INDICE_LETRA.length; i++) {
+			INDICE_LETRA[i] = (byte) LETRAS_TRUCO.indexOf((char) i);
+		}
+	}
+
 	private boolean cartaEmJogo = true;
 
 	private char letra = LETRA_NENHUMA;
@@ -113,6 +148,8 @@ public class Carta {
 
 	private boolean fechada = false;
 
+	private int id = ID_NENHUM;
+
 	/**
 	 * Determina a letra (valor facial) da carta.
 	 * <p>
@@ -124,6 +161,7 @@ public class Carta {
 	public void setLetra(char letra) {
 		if (LETRAS_VALIDAS.indexOf(letra) != -1 || letra == LETRA_NENHUMA) {
 			this.letra = letra;
+			this.id = getId(this.letra, this.naipe);
 		}
 	}
 
@@ -143,6 +181,7 @@ public class Carta {
 		if (naipe == NAIPE_COPAS || naipe == NAIPE_OUROS || naipe == NAIPE_PAUS
 				|| naipe == NAIPE_ESPADAS || naipe == NAIPE_NENHUM) {
 			this.naipe = naipe;
+			this.id = getId(this.letra, this.naipe);
 		}
 	}
 
@@ -168,6 +207,58 @@ public class Carta {
 		return fechada;
 	}
 
+	/**
+	 * Id da carta: um número de 0 a 39 que a identifica unicamente (e que
+	 * cresce junto com a letra na ordem do truco, ou seja, id / 4 + 1 é o
+	 * valor da carta quando ela não é manilha).
+	 * 
+	 * @return id da carta, ou ID_NENHUM se ela não tiver letra/naipe de truco
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Código compacto da carta: o id acrescido de BIT_FECHADA se ela tiver
+	 * sido jogada fechada.
+	 * 
+	 * @return código da carta, ou ID_NENHUM se ela não tiver letra/naipe de
+	 *         truco
+	 */
+	public int getCodigo() {
+		if (id == ID_NENHUM) {
+			return ID_NENHUM;
+		}
+		return fechada ? id | BIT_FECHADA : id;
+	}
+
+	/**
+	 * @return id correspondente à letra e naipe, ou ID_NENHUM se não for uma
+	 *         carta do truco
+	 * @see Carta#getId()
+	 */
+	public static int getId(char letra, int naipe) {
+		if (letra >= INDICE_LETRA.length || INDICE_LETRA[letra] == -1
+				|| naipe < 0 || naipe > 3) {
+			return ID_NENHUM;
+		}
+		return INDICE_LETRA[letra] * 4 + naipe;
+	}
+
+	/**
+	 * @return letra da carta com o id (ou código) informado
+	 */
+	public static char getLetra(int id) {
+		return LETRAS_TRUCO.charAt((id & ~BIT_FECHADA) >> 2);
+	}
+
+	/**
+	 * @return naipe da carta com o id (ou código) informado
+	 */
+	public static int getNaipe(int id) {
+		return id & 3;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
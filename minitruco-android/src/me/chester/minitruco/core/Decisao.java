@@ -0,0 +1,254 @@
+package me.chester.minitruco.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Resposta futura de uma estratégia (jogada, aceite de truco ou de mão de
+ * 11), com prazo.
+ * <p>
+ * A estratégia vai informando a melhor resposta que já tem (atualiza()) e
+ * conclui a decisão quando termina (conclui()). Quem pediu pode cancelar a
+ * decisão se ela ficar velha (ex.: o parceiro já respondeu o truco), e quando
+ * o prazo acaba a decisão é encerrada com a melhor resposta até então (ou,
+ * se não houver nenhuma, com a resposta padrão).
+ * <p>
+ * O prazo é aplicado por get(), que nunca espera além dele, e por
+ * encerra(), que quem usa aoConcluir() deve chamar quando o prazo acabar.
+ *
+ * @see EstrategiaAssincrona
+ */
+public class Decisao<V> implements Future<V> {
+
+	private final long prazo;
+
+	private V melhorAteAgora;
+
+	private V resultado;
+
+	private boolean concluida, cancelada;
+
+	private boolean liberada;
+
+	private Runnable aoConcluir;
+
+	/**
+	 * @param padrao
+	 *            resposta a usar se o prazo acabar sem nenhuma outra
+	 * @param prazoMs
+	 *            tempo (em milissegundos, a partir de agora) para decidir
+	 */
+	public Decisao(V padrao, long prazoMs) {
+		this.melhorAteAgora = padrao;
+		this.prazo = System.currentTimeMillis() + prazoMs;
+	}
+
+	/**
+	 * @return momento (em System.currentTimeMillis()) em que o prazo acaba
+	 */
+	public long getPrazo() {
+		return prazo;
+	}
+
+	/**
+	 * @return milissegundos até o fim do prazo (0 se já acabou)
+	 */
+	public long getTempoRestante() {
+		return Math.max(0, prazo - System.currentTimeMillis());
+	}
+
+	/**
+	 * Registra a melhor resposta que a estratégia tem até o momento (usada se
+	 * o prazo acabar antes de ela concluir)
+	 */
+	public synchronized void atualiza(V melhor) {
+		if (!concluida) {
+			melhorAteAgora = melhor;
+		}
+	}
+
+	/**
+	 * Conclui a decisão com a resposta final
+	 *
+	 * @return true se a decisão foi concluída agora, false se já estava
+	 *         concluída (ou cancelada)
+	 */
+	public boolean conclui(V valor) {
+		Runnable tarefa;
+		synchronized (this) {
+			if (concluida) {
+				return false;
+			}
+			resultado = valor;
+			concluida = true;
+			tarefa = aoConcluir;
+			aoConcluir = null;
+			notifyAll();
+		}
+		if (tarefa != null) {
+			tarefa.run();
+		}
+		return true;
+	}
+
+	/**
+	 * Conclui a decisão com a melhor resposta até agora (ex.: porque o prazo
+	 * acabou ou porque a estratégia falhou)
+	 *
+	 * @return true se a decisão foi concluída agora
+	 */
+	public boolean encerra() {
+		V melhor;
+		synchronized (this) {
+			melhor = melhorAteAgora;
+		}
+		return conclui(melhor);
+	}
+
+	/**
+	 * Registra uma tarefa a executar quando a decisão for concluída (na
+	 * thread que concluir, ou na hora, se já estiver concluída). Não é
+	 * executada se a decisão for cancelada.
+	 */
+	public void aoConcluir(Runnable tarefa) {
+		synchronized (this) {
+			if (!concluida) {
+				aoConcluir = tarefa;
+				return;
+			}
+			if (cancelada) {
+				return;
+			}
+		}
+		tarefa.run();
+	}
+
+	/**
+	 * Cancela a decisão (a estratégia deve parar assim que perceber, via
+	 * isDone() ou isCancelled()).
+	 */
+	public synchronized boolean cancel(boolean podeInterromper) {
+		if (concluida) {
+			return false;
+		}
+		concluida = true;
+		cancelada = true;
+		aoConcluir = null;
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Indica que a estratégia não vai mais usar a situação recebida no
+	 * pedido (porque terminou ou desistiu), e quem pediu pode reaproveitá-la
+	 */
+	public synchronized void libera() {
+		liberada = true;
+	}
+
+	/**
+	 * @return true se a estratégia já liberou a situação (ver libera())
+	 */
+	public synchronized boolean isLiberada() {
+		return liberada;
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelada;
+	}
+
+	public synchronized boolean isDone() {
+		return concluida;
+	}
+
+	/**
+	 * Espera a decisão, no máximo até o fim do prazo (quando ela é encerrada
+	 * com a melhor resposta até então).
+	 *
+	 * @throws CancellationException
+	 *             se a decisão foi cancelada
+	 */
+	public V get() throws InterruptedException {
+		aguarda(prazo);
+		encerra();
+		return resultado();
+	}
+
+	/**
+	 * Espera a decisão por um tempo (sem passar do prazo).
+	 *
+	 * @throws TimeoutException
+	 *             se o tempo acabar antes do prazo e da conclusão
+	 * @throws CancellationException
+	 *             se a decisão foi cancelada
+	 */
+	public V get(long tempo, TimeUnit unidade) throws InterruptedException,
+			TimeoutException {
+		long limite = System.currentTimeMillis() + unidade.toMillis(tempo);
+		if (limite >= prazo) {
+			return get();
+		}
+		aguarda(limite);
+		if (!isDone()) {
+			throw new TimeoutException();
+		}
+		return resultado();
+	}
+
+	private synchronized void aguarda(long limite) throws InterruptedException {
+		while (!concluida) {
+			long restante = limite - System.currentTimeMillis();
+			if (restante <= 0) {
+				return;
+			}
+			wait(restante);
+		}
+	}
+
+	private synchronized V resultado() {
+		if (cancelada) {
+			throw new CancellationException();
+		}
+		return resultado;
+	}
+
+}
@@ -0,0 +1,160 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * O que um jogador sabe sobre a mão em andamento (suas cartas, as que estão
+ * na mesa e as que ele ainda não viu), a partir do qual sorteia mãos completas
+ * coerentes com esse conhecimento para as estratégias que decidem por
+ * simulação.
+ *
+ * @see EstrategiaMonteCarlo
+ * @see EstrategiaMCTS
+ *
+ */
+class Determinizacao {
+
+	/**
+	 * Estado da mão sem as cartas ocultas
+	 */
+	EstadoMao estadoBase = new EstadoMao();
+
+	/**
+	 * Cartas que podem estar nas mãos dos outros jogadores
+	 */
+	int[] cartasOcultas = new int[Carta.NUM_IDS];
+
+	int numCartasOcultas;
+
+	/**
+	 * Quantas cartas ocultas sortear para cada posição (0 a 3)
+	 */
+	int[] numCartasASortear = new int[4];
+
+	/**
+	 * Monta o estado da mão com o que o jogador sabe (suas cartas e as que
+	 * estão na mesa), as cartas que ele não viu e quantas delas cada um dos
+	 * outros jogadores tem
+	 */
+	void prepara(SituacaoJogo s) {
+		int rodada = s.numRodadaAtual - 1;
+		EstadoMao e = estadoBase;
+		e.inicia(Jogo.getIndiceManilha(s.manilha), rodada,
+				s.posJogadorQueAbriuRodada - 1);
+		for (int i = 0; i < rodada; i++) {
+			e.resultadoRodada[i] = s.resultadoRodada[i];
+		}
+		int[] jogadas = s.codigosCartasJogadas[rodada];
+		while (e.numJogadasRodada < 4 && jogadas[e.posVez] != Carta.ID_NENHUM) {
+			e.colocaNaMesa(jogadas[e.posVez]);
+		}
+		int eu = s.posJogador - 1;
+		for (int pos = 0; pos <= 3; pos++) {
+			boolean jogouNaRodada = jogadas[pos] != Carta.ID_NENHUM;
+			numCartasASortear[pos] = pos == eu ? 0 : 3 - rodada
+					- (jogouNaRodada ? 1 : 0);
+		}
+		for (int i = 0; i < s.numCartasJogador; i++) {
+			e.daCarta(eu, s.codigosCartasJogador[i]);
+		}
+		numCartasOcultas = 0;
+		long mascara = s.mascaraCartasNaoVistas;
+		while (mascara != 0) {
+			cartasOcultas[numCartasOcultas++] = Long
+					.numberOfTrailingZeros(mascara);
+			mascara &= mascara - 1;
+		}
+	}
+
+	/**
+	 * Registra cartas conhecidas de outra posição (ex.: as do parceiro na mão
+	 * de 11), que deixam de ser sorteadas
+	 */
+	void revelaCartas(int pos, Carta[] cartas) {
+		for (int i = 0; i < cartas.length; i++) {
+			int id = cartas[i].getId();
+			estadoBase.daCarta(pos, id);
+			for (int k = 0; k < numCartasOcultas; k++) {
+				if (cartasOcultas[k] == id) {
+					cartasOcultas[k] = cartasOcultas[--numCartasOcultas];
+					break;
+				}
+			}
+		}
+		numCartasASortear[pos] = 0;
+	}
+
+	/**
+	 * Copia as cartas ocultas para um array de trabalho de quem vai sortear
+	 * (que pode embaralhá-lo à vontade)
+	 */
+	void copiaOcultas(int[] ocultas) {
+		System.arraycopy(cartasOcultas, 0, ocultas, 0, numCartasOcultas);
+	}
+
+	/**
+	 * Sorteia uma mão completa coerente com o que o jogador sabe.
+	 * <p>
+	 * O array de trabalho é embaralhado aos poucos e não precisa ser
+	 * restaurado, já que qualquer ordem das mesmas cartas serve de ponto de
+	 * partida para o próximo sorteio.
+	 *
+	 * @param destino
+	 *            recebe o estado base com as cartas sorteadas
+	 * @param ocultas
+	 *            array de trabalho, preenchido por copiaOcultas()
+	 * @param random
+	 *            gerador de quem está sorteando
+	 */
+	void sorteia(EstadoMao destino, int[] ocultas, Random random) {
+		destino.copia(estadoBase);
+		int restantes = numCartasOcultas;
+		for (int pos = 0; pos <= 3; pos++) {
+			for (int i = numCartasASortear[pos]; i > 0 && restantes > 0; i--) {
+				int j = random.nextInt(restantes--);
+				int id = ocultas[j];
+				ocultas[j] = ocultas[restantes];
+				ocultas[restantes] = id;
+				destino.daCarta(pos, id);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,294 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Estado compacto de uma mão em andamento, com as cartas de todos os
+ * jogadores, que pode ser jogado até o fim rapidamente (sem objetos, só com
+ * arrays de primitivos).
+ * <p>
+ * As regras de fechamento de rodada e de mão são as mesmas do
+ * <code>JogoLocal</code>. Não há pedidos de aumento: o valor da mão é
+ * responsabilidade de quem usa o estado.
+ * <p>
+ * As posições aqui vão de 0 a 3 (posição do jogador - 1), e as cartas são
+ * representadas pelos seus códigos (ver <code>Carta.getCodigo()</code>).
+ *
+ * @see EstrategiaMonteCarlo
+ *
+ */
+class EstadoMao {
+
+	/**
+	 * Índice da manilha, conforme Jogo.getIndiceManilha()
+	 */
+	int indiceManilha;
+
+	/**
+	 * Cartas na mão de cada posição (só as numCartas[pos] primeiras valem)
+	 */
+	int[][] cartas = new int[4][3];
+
+	int[] numCartas = new int[4];
+
+	/**
+	 * Rodada atual (0 a 2)
+	 */
+	int rodada;
+
+	int posAbriuRodada;
+
+	int posVez;
+
+	int numJogadasRodada;
+
+	/**
+	 * Maior valor jogado na rodada, as equipes que o jogaram (1, 2 ou 3 para
+	 * empate, como em SituacaoJogo.resultadoRodada) e a menor posição que o
+	 * jogou (que vai abrir a próxima rodada, se não houver empate)
+	 */
+	int maiorValor, equipesMaiorValor, posMaiorValor;
+
+	int[] resultadoRodada = new int[3];
+
+	/**
+	 * 0 enquanto a mão não acabou; depois 1 ou 2 para a equipe vencedora, ou 3
+	 * se empatou
+	 */
+	int resultadoMao;
+
+	/**
+	 * Inicia a mão (ou rodada) sem cartas na mesa e nas mãos
+	 */
+	void inicia(int indiceManilha, int rodada, int posAbriuRodada) {
+		this.indiceManilha = indiceManilha;
+		this.rodada = rodada;
+		for (int i = 0; i <= 3; i++) {
+			numCartas[i] = 0;
+		}
+		for (int i = rodada; i <= 2; i++) {
+			resultadoRodada[i] = 0;
+		}
+		resultadoMao = 0;
+		abreRodada(posAbriuRodada);
+	}
+
+	/**
+	 * Copia outro estado para este (sem criar objetos)
+	 */
+	void copia(EstadoMao outro) {
+		indiceManilha = outro.indiceManilha;
+		for (int i = 0; i <= 3; i++) {
+			numCartas[i] = outro.numCartas[i];
+			System.arraycopy(outro.cartas[i], 0, cartas[i], 0, 3);
+		}
+		rodada = outro.rodada;
+		posAbriuRodada = outro.posAbriuRodada;
+		posVez = outro.posVez;
+		numJogadasRodada = outro.numJogadasRodada;
+		maiorValor = outro.maiorValor;
+		equipesMaiorValor = outro.equipesMaiorValor;
+		posMaiorValor = outro.posMaiorValor;
+		System.arraycopy(outro.resultadoRodada, 0, resultadoRodada, 0, 3);
+		resultadoMao = outro.resultadoMao;
+	}
+
+	/**
+	 * Acrescenta uma carta à mão de uma posição
+	 */
+	void daCarta(int pos, int codigo) {
+		cartas[pos][numCartas[pos]++] = codigo;
+	}
+
+	/**
+	 * @return equipe (1 ou 2) da posição (0 a 3)
+	 */
+	static int equipe(int pos) {
+		return (pos & 1) == 0 ? 1 : 2;
+	}
+
+	/**
+	 * Registra a carta jogada pelo jogador da vez na rodada atual, fechando a
+	 * rodada (e talvez a mão) se for a quarta carta. Não mexe nas cartas na
+	 * mão (serve para cartas que já estavam na mesa).
+	 */
+	void colocaNaMesa(int codigo) {
+		int pos = posVez;
+		int valor = Jogo.getValorTruco(codigo, indiceManilha);
+		if (valor > maiorValor) {
+			maiorValor = valor;
+			equipesMaiorValor = equipe(pos);
+			posMaiorValor = pos;
+		} else if (valor == maiorValor) {
+			equipesMaiorValor |= equipe(pos);
+			if (pos < posMaiorValor) {
+				posMaiorValor = pos;
+			}
+		}
+		numJogadasRodada++;
+		posVez = (pos + 1) & 3;
+		if (numJogadasRodada == 4) {
+			fechaRodada();
+		}
+	}
+
+	/**
+	 * O jogador da vez joga uma das cartas da sua mão
+	 *
+	 * @param indice
+	 *            posição da carta na mão do jogador da vez
+	 */
+	void joga(int indice) {
+		int[] mao = cartas[posVez];
+		int codigo = mao[indice];
+		mao[indice] = mao[--numCartas[posVez]];
+		colocaNaMesa(codigo);
+	}
+
+	private void abreRodada(int pos) {
+		posAbriuRodada = pos;
+		posVez = pos;
+		numJogadasRodada = 0;
+		maiorValor = -1;
+		equipesMaiorValor = 0;
+		posMaiorValor = pos;
+	}
+
+	/**
+	 * Determina o resultado da rodada e, se for o caso, da mão (com as mesmas
+	 * regras do JogoLocal)
+	 */
+	private void fechaRodada() {
+		resultadoRodada[rodada] = equipesMaiorValor;
+		if (rodada == 1) {
+			int r1 = resultadoRodada[0], r2 = resultadoRodada[1];
+			if (r1 == 3 && r2 != 3) {
+				resultadoMao = r2;
+			} else if (r1 != 3 && r2 == 3) {
+				resultadoMao = r1;
+			} else if (r1 == r2 && r1 != 3) {
+				resultadoMao = r2;
+			}
+		} else if (rodada == 2) {
+			resultadoMao = resultadoRodada[2] != 3 ? resultadoRodada[2]
+					: resultadoRodada[0];
+			if (resultadoMao == 0) {
+				resultadoMao = 3;
+			}
+		}
+		if (resultadoMao == 0) {
+			rodada++;
+			abreRodada(equipesMaiorValor != 3 ? posMaiorValor : posAbriuRodada);
+		}
+	}
+
+	/**
+	 * Escolhe a carta do jogador da vez com uma política simples e rápida:
+	 * quem abre joga a maior; se o parceiro está ganhando, joga a menor; senão
+	 * joga a menor que ganha (ou que empata, ou a menor de todas). De vez em
+	 * quando escolhe ao acaso, para variar as jogadas.
+	 *
+	 * @return índice da carta na mão do jogador da vez
+	 */
+	int escolheCarta(Random random) {
+		int pos = posVez;
+		int n = numCartas[pos];
+		if (n == 1) {
+			return 0;
+		}
+		if ((random.nextInt() & 7) == 0) {
+			return random.nextInt(n);
+		}
+		int[] mao = cartas[pos];
+		int menor = 0, maior = 0, menorQueGanha = -1, menorQueEmpata = -1;
+		int valorMenor = 99, valorMaior = -1, valorGanha = 99, valorEmpata = 99;
+		for (int i = 0; i < n; i++) {
+			int v = Jogo.getValorTruco(mao[i], indiceManilha);
+			if (v < valorMenor) {
+				valorMenor = v;
+				menor = i;
+			}
+			if (v > valorMaior) {
+				valorMaior = v;
+				maior = i;
+			}
+			if (v > maiorValor && v < valorGanha) {
+				valorGanha = v;
+				menorQueGanha = i;
+			}
+			if (v == maiorValor && v < valorEmpata) {
+				valorEmpata = v;
+				menorQueEmpata = i;
+			}
+		}
+		if (numJogadasRodada == 0) {
+			return maior;
+		}
+		if (equipesMaiorValor == equipe(pos)) {
+			return menor;
+		}
+		if (menorQueGanha != -1) {
+			return menorQueGanha;
+		}
+		if (menorQueEmpata != -1) {
+			return menorQueEmpata;
+		}
+		return menor;
+	}
+
+	/**
+	 * Joga a mão até o fim usando a política de escolheCarta()
+	 *
+	 * @return resultado da mão (1 ou 2 para a equipe vencedora, 3 para
+	 *         empate)
+	 */
+	int completa(Random random) {
+		while (resultadoMao == 0) {
+			if (numCartas[posVez] == 0) {
+				// Estado inconsistente (não deveria acontecer)
+				resultadoMao = 3;
+				break;
+			}
+			joga(escolheCarta(random));
+		}
+		return resultadoMao;
+	}
+
+}
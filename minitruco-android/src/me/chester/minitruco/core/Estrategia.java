@@ -53,7 +53,8 @@ package me.chester.minitruco.core;
  * partidas.
  * <p>
  * Para que a estratégia apareça no jogo, adicione uma instância dela ao array
- * ESTRATEGIAS da classe Jogador.
+ * ESTRATEGIAS da classe Jogador. Estratégias pesadas demais para o aparelho,
+ * usadas só em simulações e torneios, ficam no Simulador.
  * <p>
  * Se você criar uma nova estratégia, pode contribui-la para o jogo (desde que
  * concorde em licenciá-la sob os termos acima, baseados na licença "new BSD").
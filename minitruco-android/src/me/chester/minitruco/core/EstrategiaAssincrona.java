@@ -0,0 +1,86 @@
+package me.chester.minitruco.core;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Estratégia que decide de forma assíncrona, com prazo.
+ * <p>
+ * Cada pedido devolve na hora uma <code>Decisao</code>, que a estratégia
+ * conclui quando terminar de pensar. Estratégias que melhoram a resposta
+ * com o tempo (ex.: buscas) devem ir atualizando a decisão com a melhor
+ * resposta até o momento, que é a usada se o prazo acabar, e parar assim que
+ * a decisão for cancelada ou encerrada.
+ * <p>
+ * A situação passada pertence à estratégia até ela chamar libera() na
+ * decisão, o que deve fazer quando parar de usá-la (quem pede não deve
+ * alterá-la antes disso, mesmo que a decisão já tenha sido concluída ou
+ * cancelada). Estratégias comuns podem ser usadas através do
+ * <code>AdaptadorAssincrono</code>.
+ *
+ * @see AdaptadorAssincrono#adapta(Estrategia)
+ */
+public interface EstrategiaAssincrona extends Estrategia {
+
+	/**
+	 * Versão assíncrona de joga() (a resposta padrão é 0, a primeira carta)
+	 *
+	 * @param prazoMs
+	 *            tempo máximo para decidir, em milissegundos
+	 */
+	public abstract Decisao<Integer> solicitaJogada(SituacaoJogo s,
+			long prazoMs);
+
+	/**
+	 * Versão assíncrona de aceitaTruco() (a resposta padrão é recusar)
+	 *
+	 * @param prazoMs
+	 *            tempo máximo para decidir, em milissegundos
+	 */
+	public abstract Decisao<Boolean> solicitaRespostaTruco(SituacaoJogo s,
+			long prazoMs);
+
+	/**
+	 * Versão assíncrona de aceitaMao11() (a resposta padrão é recusar)
+	 *
+	 * @param prazoMs
+	 *            tempo máximo para decidir, em milissegundos
+	 */
+	public abstract Decisao<Boolean> solicitaRespostaMao11(
+			Carta[] cartasParceiro, SituacaoJogo s, long prazoMs);
+
+}
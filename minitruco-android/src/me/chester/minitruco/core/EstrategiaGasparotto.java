@@ -48,9 +48,72 @@ import java.util.Random;
  * 
  */
 public class EstrategiaGasparotto implements Estrategia {
-	private static Random rand = new Random();
 
-	int[] C = new int[3];
+	/**
+	 * Gerador de números aleatórios (um por instância, para que estratégias
+	 * rodando em threads diferentes não disputem o mesmo gerador)
+	 */
+	private Random rand;
+
+	public EstrategiaGasparotto() {
+		this(new Random());
+	}
+
+	/**
+	 * Cria a estratégia usando um gerador de números aleatórios específico
+	 * (ex.: com semente fixa, para reproduzir partidas)
+	 * 
+	 * @param rand
+	 *            gerador usado nas decisões "na dúvida"
+	 */
+	public EstrategiaGasparotto(Random rand) {
+		this.rand = rand;
+	}
+
+	/**
+	 * Resolve exatamente os finais de mão pequenos (criado só quando
+	 * necessário)
+	 */
+	private SolucionadorFinalMao solucionador;
+
+	/**
+	 * Valor de retorno de jogaFinalMao() quando a situação não pode ser
+	 * resolvida exatamente
+	 */
+	private static final int NAO_RESOLVIDO = -2;
+
+	/**
+	 * Valor de retorno das funções auxiliares de jogada quando não escolheram
+	 * nenhuma carta (e a decisão continua na função que as chamou)
+	 */
+	private static final int NENHUMA = -3;
+
+	/**
+	 * Equidades mínimas (ver TabelaEquidade) para aceitar um truco na
+	 * primeira rodada e para jogar a mão de 11
+	 */
+	private static final double EQUIDADE_ACEITA_TRUCO = 0.8;
+	private static final double EQUIDADE_MAO_11 = 0.5;
+	private static final double EQUIDADE_MAO_11_ADVERSARIO_LONGE = 0.42;
+
+	/**
+	 * Análise da situação sendo decidida (feita no início de cada decisão)
+	 */
+	private final AnaliseSituacao analise = new AnaliseSituacao();
+
+	/**
+	 * Índices das cartas da mão, da maior para a menor (calculados pela
+	 * análise)
+	 */
+	int[] C = analise.ordem;
+
+	/**
+	 * Qualificação de cada valor de carta (ver qualidadeCarta()) para a
+	 * manilha em manilhaQualidades
+	 */
+	private final int[] qualidadePorValor = new int[15];
+
+	private char manilhaQualidades = 0;
 
 	private static int LIXO = 0;
 	private static int AS = 1;
@@ -131,31 +194,6 @@ public class EstrategiaGasparotto implements Estrategia {
 				: false;
 	}
 
-	/**
-	 * Seta as variáveis C[0],C[1] e C[2] com o índice da maior para menor carta
-	 * da minha mão
-	 */
-	private void classificaCartas(SituacaoJogo s) {
-		int i, i2, cAux;
-
-		C[0] = 0;
-		C[1] = 1;
-		C[2] = 2;
-
-		for (i = 0; i < s.cartasJogador.length; i++) {
-			for (i2 = i; i2 < 3; i2++) {
-				if (i2 > 0 && i2 >= s.cartasJogador.length)
-					C[i2] = C[i2 - 1];
-				else if (s.cartasJogador[C[i2]].getValorTruco(s.manilha) >= s.cartasJogador[C[i]]
-						.getValorTruco(s.manilha)) {
-					cAux = C[i];
-					C[i] = C[i2];
-					C[i2] = cAux;
-				}
-			}
-		}
-	}
-
 	/**
 	 * Retorna minha posição na rodada (0..3) (mão..pé)
 	 */
@@ -216,26 +254,7 @@ public class EstrategiaGasparotto implements Estrategia {
 	 * para o índice (pos. do jogador) apontar para nós em caso verdadeiro
 	 */
 	private int maiorCartaMesa(SituacaoJogo s) {
-		int maiorCarta = 0;
-
-		for (int i = 0; i <= 3; i++) {
-			if (s.cartasJogadas[s.numRodadaAtual - 1][i] == null)
-				continue;
-			if (s.cartasJogadas[s.numRodadaAtual - 1][maiorCarta] == null) {
-				maiorCarta = i;
-				continue;
-			}
-			if ((eu(s) == i || parceiro(s) == i)
-					&& s.cartasJogadas[s.numRodadaAtual - 1][i]
-							.getValorTruco(s.manilha) >= s.cartasJogadas[s.numRodadaAtual - 1][maiorCarta]
-							.getValorTruco(s.manilha))
-				maiorCarta = i;
-			else if (s.cartasJogadas[s.numRodadaAtual - 1][i]
-					.getValorTruco(s.manilha) > s.cartasJogadas[s.numRodadaAtual - 1][maiorCarta]
-					.getValorTruco(s.manilha))
-				maiorCarta = i;
-		}
-		return maiorCarta;
+		return analise.posMaiorCartaMesa;
 	}
 
 	/**
@@ -244,57 +263,7 @@ public class EstrategiaGasparotto implements Estrategia {
 	 * verdadeiro
 	 */
 	private int maiorCartaPossivelMesa(SituacaoJogo s) {
-		int maiorCarta = -1;
-
-		boolean m12 = false, m13 = false, m14 = false;
-
-		// procura pelas manilhas que já sairam nas rodadas anteriores
-		for (int rodada = 0; rodada < (s.numRodadaAtual - 1); rodada++)
-			for (int jogador = 0; jogador <= 3; jogador++) {
-				if (s.cartasJogadas[rodada][jogador] != null) {
-					switch (s.cartasJogadas[rodada][jogador]
-							.getValorTruco(s.manilha)) {
-					case 12:
-						m12 = true;
-						break; // espadilha já saiu
-					case 13:
-						m13 = true;
-						break; // copas já saiu
-					case 14:
-						m14 = true;
-						break; // zap já saiu
-					}
-				}
-			}
-
-		for (int i = 0; i <= 3; i++) {
-			if (s.cartasJogadas[s.numRodadaAtual - 1][i] == null)
-				continue;
-			if ((eu(s) == i || parceiro(s) == i)
-					&& s.cartasJogadas[s.numRodadaAtual - 1][i]
-							.getValorTruco(s.manilha) == 14)
-				maiorCarta = i;
-			if ((eu(s) == i || parceiro(s) == i)
-					&& m14
-					&& s.cartasJogadas[s.numRodadaAtual - 1][i]
-							.getValorTruco(s.manilha) == 13)
-				maiorCarta = i;
-			if ((eu(s) == i || parceiro(s) == i)
-					&& m14
-					&& m13
-					&& s.cartasJogadas[s.numRodadaAtual - 1][i]
-							.getValorTruco(s.manilha) == 12)
-				maiorCarta = i;
-			if ((eu(s) == i || parceiro(s) == i)
-					&& m14
-					&& m13
-					&& m12
-					&& s.cartasJogadas[s.numRodadaAtual - 1][i]
-							.getValorTruco(s.manilha) == 11)
-				maiorCarta = i;
-		}
-
-		return maiorCarta;
+		return analise.posMaiorCartaPossivelMesa;
 	}
 
 	/**
@@ -342,12 +311,11 @@ public class EstrategiaGasparotto implements Estrategia {
 	private boolean matoAdversario(SituacaoJogo s, boolean consideraEmpate) {
 		if (minhaPosicao(s) == 0)
 			return true;
-		for (int i = 0; i < s.cartasJogador.length; i++) {
-			if (s.cartasJogador[i].getValorTruco(s.manilha) > s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha))
+		int valorMesa = valorMaiorCartaMesa();
+		for (int i = 0; i < analise.numCartas; i++) {
+			if (analise.valoresMao[i] > valorMesa)
 				return true;
-			if ((s.cartasJogador[i].getValorTruco(s.manilha) >= s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha)) && consideraEmpate)
+			if ((analise.valoresMao[i] >= valorMesa) && consideraEmpate)
 				return true;
 		}
 		return false;
@@ -359,20 +327,18 @@ public class EstrategiaGasparotto implements Estrategia {
 	 */
 	private int menorCartaParaMatar(SituacaoJogo s) {
 		// procura pela primeira carta que mata
-		for (int i = (s.cartasJogador.length - 1); i >= 0; i--)
-			if (s.cartasJogador[C[i]].getValorTruco(s.manilha) > s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha))
-				return C[i]; // é essa!
+		int i = menorCartaQueMata();
+		if (i != -1)
+			return i; // é essa!
 		// se não encontrou nenhuma, joga a menor
 		return C[2];
 	}
 
 	private int menorCartaParaMatarNaSegunda(SituacaoJogo s) {
 		// procura pela primeira carta que mata
-		for (int i = (s.cartasJogador.length - 1); i >= 0; i--)
-			if (s.cartasJogador[C[i]].getValorTruco(s.manilha) > s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha))
-				return C[i]; // é essa!
+		int i = menorCartaQueMata();
+		if (i != -1)
+			return i; // é essa!
 		// se não encontrou nenhuma, joga a menor
 		return C[1];
 	}
@@ -384,64 +350,49 @@ public class EstrategiaGasparotto implements Estrategia {
 	 */
 	private int menorCartaParaMatarOuAmarrar(SituacaoJogo s) {
 		// procura pela primeira carta que mata
-		for (int i = (s.cartasJogador.length - 1); i >= 0; i--)
-			if (s.cartasJogador[C[i]].getValorTruco(s.manilha) > s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha))
-				return C[i]; // é essa!
+		int i = menorCartaQueMata();
+		if (i != -1)
+			return i; // é essa!
 		// procura pela primeira carta que amarra
-		for (int i = (s.cartasJogador.length - 1); i >= 0; i--)
-			if (s.cartasJogador[C[i]].getValorTruco(s.manilha) == s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)]
-					.getValorTruco(s.manilha))
+		int valorMesa = valorMaiorCartaMesa();
+		for (i = (analise.numCartas - 1); i >= 0; i--)
+			if (analise.valoresMao[C[i]] == valorMesa)
 				return C[i]; // é essa!
 		// se não encontrou nenhuma, joga a menor
 		return C[2];
 	}
 
+	/**
+	 * Retorna o índice da menor carta da mão que mata a maior carta da mesa,
+	 * ou -1 se não houver
+	 */
+	private int menorCartaQueMata() {
+		int valorMesa = valorMaiorCartaMesa();
+		for (int i = (analise.numCartas - 1); i >= 0; i--)
+			if (analise.valoresMao[C[i]] > valorMesa)
+				return C[i];
+		return -1;
+	}
+
+	/**
+	 * Retorna o valor da maior carta da mesa na rodada atual (que deve ter
+	 * pelo menos uma carta)
+	 */
+	private int valorMaiorCartaMesa() {
+		if (analise.valorMaiorCartaMesa == AnaliseSituacao.SEM_CARTA)
+			throw new IllegalStateException("Nenhuma carta na mesa");
+		return analise.valorMaiorCartaMesa;
+	}
+
 	/**
 	 * Verifica se eu tenho a maior carta do jogo na mão, (por exemplo, o 7
 	 * Copas já tendo saido o Zap), considerando apenas as manilhas.
 	 */
 	private boolean tenhoMaiorCartaSemContarRodadaAtual(SituacaoJogo s) {
-		boolean m12 = false, m13 = false, m14 = false;
-
-		if (s.cartasJogador.length == 0)
-			return false;
-
 		// o correto seria checar se todos os 3s já sairam, mas para
 		// efeitos práticos vamos considerar que não, então com
 		// certeza o nosso 3 não é a maior...
-		if (s.cartasJogador[C[0]].getValorTruco(s.manilha) <= 10)
-			return false;
-
-		// se eu estiver com o zap, então não tem nem o que pensar
-		if (s.cartasJogador[C[0]].getValorTruco(s.manilha) == 14)
-			return true;
-
-		// procura pelas manilhas que já sairam nas rodadas anteriores
-		for (int rodada = 0; rodada < (s.numRodadaAtual - 1); rodada++)
-			for (int jogador = 0; jogador <= 3; jogador++) {
-				if (s.cartasJogadas[rodada][jogador] != null) {
-					switch (s.cartasJogadas[rodada][jogador]
-							.getValorTruco(s.manilha)) {
-					case 12:
-						m12 = true;
-						break; // espadilha já saiu
-					case 13:
-						m13 = true;
-						break; // copas já saiu
-					case 14:
-						m14 = true;
-						break; // zap já saiu
-					}
-				}
-			}
-		// checa se estou com a maior manilha do jogo na mão
-		if ((s.cartasJogador[C[0]].getValorTruco(s.manilha) == 13 && m14)
-				|| (s.cartasJogador[C[0]].getValorTruco(s.manilha) == 12 && m14 && m13)
-				|| (s.cartasJogador[C[0]].getValorTruco(s.manilha) == 11 && m14
-						&& m13 && m12))
-			return true; // ha!!!
-		return false;
+		return analise.tenhoMaiorCarta;
 	}
 
 	/**
@@ -450,8 +401,8 @@ public class EstrategiaGasparotto implements Estrategia {
 	 */
 	private boolean partidaGanha(SituacaoJogo s) {
 		if (s.numRodadaAtual == 1 && s.cartasJogador.length >= 2
-				&& s.cartasJogador[C[0]].getValorTruco(s.manilha) == 14
-				&& s.cartasJogador[C[1]].getValorTruco(s.manilha) == 13)
+				&& analise.valoresMao[C[0]] == 14
+				&& analise.valoresMao[C[1]] == 13)
 			return true;
 		if (s.numRodadaAtual == 2
 				&& (primeiraENossa(s) && tenhoMaiorCartaSemContarRodadaAtual(s) && (qualidadeMinhaMaior(s) > qualidadeMaiorMesa(s) || maiorCartaENossa(s)))
@@ -473,30 +424,10 @@ public class EstrategiaGasparotto implements Estrategia {
 	 */
 	private boolean partidaGanhaParaAdversario(SituacaoJogo s) {
 		// vamos verificar quais manilhas já sairam
-		boolean ZAPJaSaiu = false;
-		boolean ESCOPETAJaSaiu = false;
-		boolean ESPADILHAJaSaiu = false;
-		boolean PICAFUMOJaSaiu = false;
-		for (int rodada = 0; rodada <= (s.numRodadaAtual - 1); rodada++)
-			for (int jogador = 0; jogador <= 3; jogador++) {
-				if (s.cartasJogadas[rodada][jogador] != null) {
-					switch (s.cartasJogadas[rodada][jogador]
-							.getValorTruco(s.manilha)) {
-					case 11:
-						PICAFUMOJaSaiu = true;
-						break; // PICAFUMO já saiu
-					case 12:
-						ESPADILHAJaSaiu = true;
-						break; // ESPADILHA já saiu
-					case 13:
-						ESCOPETAJaSaiu = true;
-						break; // ESCOPETA já saiu
-					case 14:
-						ZAPJaSaiu = true;
-						break; // ZAP já saiu
-					}
-				}
-			}
+		boolean ZAPJaSaiu = analise.saiu(14);
+		boolean ESCOPETAJaSaiu = analise.saiu(13);
+		boolean ESPADILHAJaSaiu = analise.saiu(12);
+		boolean PICAFUMOJaSaiu = analise.saiu(11);
 
 		// Análise para 2a rodada
 		if (s.numRodadaAtual == 2 && !primeiraENossa(s)
@@ -552,32 +483,7 @@ public class EstrategiaGasparotto implements Estrategia {
 	 * Retorna se a mesa está amarrada
 	 */
 	private boolean taAmarrado(SituacaoJogo s) {
-		if (s.cartasJogadas[s.numRodadaAtual - 1][adversario1(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][parceiro(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][parceiro(s)]
-						.getValorTruco(s.manilha) == s.cartasJogadas[s.numRodadaAtual - 1][adversario1(s)]
-						.getValorTruco(s.manilha))
-			return true;
-		if (s.cartasJogadas[s.numRodadaAtual - 1][adversario2(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][parceiro(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][parceiro(s)]
-						.getValorTruco(s.manilha) == s.cartasJogadas[s.numRodadaAtual - 1][adversario2(s)]
-						.getValorTruco(s.manilha))
-			return true;
-		if (s.cartasJogadas[s.numRodadaAtual - 1][adversario1(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][eu(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][eu(s)]
-						.getValorTruco(s.manilha) == s.cartasJogadas[s.numRodadaAtual - 1][adversario1(s)]
-						.getValorTruco(s.manilha))
-			return true;
-		if (s.cartasJogadas[s.numRodadaAtual - 1][adversario2(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][eu(s)] != null
-				&& s.cartasJogadas[s.numRodadaAtual - 1][eu(s)]
-						.getValorTruco(s.manilha) == s.cartasJogadas[s.numRodadaAtual - 1][adversario2(s)]
-						.getValorTruco(s.manilha))
-			return true;
-		return false;
-
+		return analise.amarrado;
 	}
 
 	/**
@@ -585,34 +491,25 @@ public class EstrategiaGasparotto implements Estrategia {
 	 * adaptação para o caso de "baralho limpo"
 	 */
 	private int qualidadeCarta(Carta carta, SituacaoJogo s) {
-		// Declarações
-		int qcarta; // return do método
-		qcarta = LIXO; // apenas para ter a variável inicializada com algo
-		// 4, 5, 6, 7, Q, J, K
-		if (carta.getValorTruco(s.manilha) <= 7)
-			qcarta = LIXO;
-		// A
-		else if (carta.getValorTruco(s.manilha) == 8)
-			qcarta = AS;
-		// 2
-		else if (carta.getValorTruco(s.manilha) == 9)
-			qcarta = DOIS;
-		// 3
-		else if (carta.getValorTruco(s.manilha) == 10)
-			qcarta = TRES;
-		// Picafumo
-		else if (carta.getValorTruco(s.manilha) == 11)
-			qcarta = PICAFUMO;
-		// Espadilha
-		else if (carta.getValorTruco(s.manilha) == 12)
-			qcarta = ESPADILHA;
-		// Escopeta
-		else if (carta.getValorTruco(s.manilha) == 13)
-			qcarta = ESCOPETA;
-		// Zap
-		else if (carta.getValorTruco(s.manilha) == 14)
-			qcarta = ZAP;
+		if (s.manilha != manilhaQualidades)
+			calculaQualidades(s.manilha);
+		return qualidadePorValor[carta.getValorTruco(s.manilha)];
+	}
 
+	/**
+	 * Retorna a qualificação de uma carta a partir do seu valor
+	 */
+	private int qualidadeCarta(int valor, SituacaoJogo s) {
+		if (s.manilha != manilhaQualidades)
+			calculaQualidades(s.manilha);
+		return qualidadePorValor[valor];
+	}
+
+	/**
+	 * Monta a tabela de qualificação de cada valor de carta para a manilha
+	 * informada
+	 */
+	private void calculaQualidades(char manilha) {
 		// caso a manilha seja um 3, o 2 passa a ter qualidade de 3!
 		// e o A passa a ter valor de 2!
 		// Obs: logicamente isso não se aplica para o caso de manilha velha...
@@ -623,39 +520,65 @@ public class EstrategiaGasparotto implements Estrategia {
 		// abaixo
 		Carta tres_testedemanilha = new Carta('3', 3);
 		Carta dois_testedemanilha = new Carta('2', 3);
-		if (qcarta == DOIS
-				&& tres_testedemanilha.getValorTruco(s.manilha) == 14)
-			qcarta = TRES;
-		if (qcarta == AS && tres_testedemanilha.getValorTruco(s.manilha) == 14)
-			qcarta = DOIS;
-		// caso a manilha seja um 2, o A passa a ter valor de 2!
-		if (qcarta == AS && dois_testedemanilha.getValorTruco(s.manilha) == 14)
-			qcarta = DOIS;
-
-		return qcarta;
+		boolean manilhaETres = tres_testedemanilha.getValorTruco(manilha) == 14;
+		boolean manilhaEDois = dois_testedemanilha.getValorTruco(manilha) == 14;
+
+		for (int valor = 0; valor < qualidadePorValor.length; valor++) {
+			int qcarta;
+			// 4, 5, 6, 7, Q, J, K
+			if (valor <= 7)
+				qcarta = LIXO;
+			// A
+			else if (valor == 8)
+				qcarta = AS;
+			// 2
+			else if (valor == 9)
+				qcarta = DOIS;
+			// 3
+			else if (valor == 10)
+				qcarta = TRES;
+			// Picafumo
+			else if (valor == 11)
+				qcarta = PICAFUMO;
+			// Espadilha
+			else if (valor == 12)
+				qcarta = ESPADILHA;
+			// Escopeta
+			else if (valor == 13)
+				qcarta = ESCOPETA;
+			// Zap
+			else
+				qcarta = ZAP;
+
+			if (qcarta == DOIS && manilhaETres)
+				qcarta = TRES;
+			if (qcarta == AS && manilhaETres)
+				qcarta = DOIS;
+			// caso a manilha seja um 2, o A passa a ter valor de 2!
+			if (qcarta == AS && manilhaEDois)
+				qcarta = DOIS;
+
+			qualidadePorValor[valor] = qcarta;
+		}
+		manilhaQualidades = manilha;
 	}
 
 	/**
 	 * Retorna a qualificação da maior carta da mesa na rodada atual
 	 */
 	private int qualidadeMaiorMesa(SituacaoJogo s) {
-		if (s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)] == null)
+		if (analise.valorMaiorCartaMesa == AnaliseSituacao.SEM_CARTA)
 			return 0;
-		return qualidadeCarta(
-				s.cartasJogadas[s.numRodadaAtual - 1][maiorCartaMesa(s)], s);
+		return qualidadeCarta(analise.valorMaiorCartaMesa, s);
 	}
 
 	/**
 	 * Retorna a qualificação da maior carta da minha mão
 	 */
 	private int qualidadeMinhaMaior(SituacaoJogo s) {
-		try {
-			if (s.cartasJogador[C[0]] == null)
-				return 0;
-		} catch (Exception e) {
+		if (analise.numCartas == 0)
 			return 0;
-		}
-		return qualidadeCarta(s.cartasJogador[C[0]], s);
+		return qualidadeCarta(analise.valoresMao[C[0]], s);
 	}
 
 	/**
@@ -886,166 +809,18 @@ public class EstrategiaGasparotto implements Estrategia {
 		if (qualidadeMaiorMesa(s) >= PICAFUMO)
 			return menorCartaParaMatar(s);
 		if (qualidadeMaiorMesa(s) == TRES) {
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
+			// Se temos zap e três, jogar o três
+			int carta = cartaQueAcompanhaOZap(TRES, s);
+			if (carta != NENHUMA)
+				return carta;
 			return menorCartaParaMatar(s);
 		}
-		if (qualidadeMaiorMesa(s) == DOIS && mandaBala(90)) {
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			// Checa se temos zap e dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == DOIS)
-				// Jogar o dois
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outros
-			// três/dois),
-			// mesmo assim vamos jogar o dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == DOIS)
-				// Jogar o dois
-				return C[2];
-			// Aqui vamos jogar a menor manilha (menos o zap)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == PICAFUMO)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == PICAFUMO)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == PICAFUMO)
-				return C[2];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESPADILHA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESPADILHA)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == ESPADILHA)
-				return C[0]; // hummmm... podemos jogar o zap para tentar
-								// enganar os adversários...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESCOPETA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESCOPETA)
-				return C[0]; // hummmm.. podemos jogar o zap para tentar enganar
-								// os adversários...
-			// Aqui vamos jogar o três ou dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == DOIS)
-				return C[0]; // ok se amarrar
-			return C[2]; // retorna a menor então
-		}
-
-		if (qualidadeMaiorMesa(s) == AS && mandaBala(80)) {
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			// Checa se temos zap e dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == DOIS)
-				// Jogar o dois
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outros
-			// três/dois),
-			// mesmo assim vamos jogar o dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == DOIS)
-				// Jogar o dois
-				return C[2];
-			// Checa se temos zap e ás
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == AS)
-				// Jogar o ás
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outos
-			// três/dois/ás),
-			// mesmo assim vamos jogar o ás
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == AS)
-				// Jogar o ás
-				return C[2];
-			// Aqui vamos jogar a menor manilha (menos o zap)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == PICAFUMO)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == PICAFUMO)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == PICAFUMO)
-				return C[2];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESPADILHA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESPADILHA)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == ESPADILHA)
-				return C[0]; // hummmm... podemos jogar o zap para tentar
-								// enganar os adversários...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESCOPETA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESCOPETA)
-				return C[0]; // hummmm... podemos jogar o zap para tentar
-								// enganar os adversários...
-			// Aqui vamos jogar o três ou dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == DOIS)
-				return C[0];
-			return C[2]; // retorna a menor então
-		}
-
-		if (qualidadeMaiorMesa(s) == LIXO && mandaBala(60)) {
-			// Aqui vamos jogar a menor manilha (menos o zap)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == PICAFUMO)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == PICAFUMO)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == PICAFUMO)
-				return C[2];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESPADILHA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESPADILHA)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == ESPADILHA)
-				return C[0]; // hummmm... podemos jogar o zap para tentar
-								// enganar os adversários...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESCOPETA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESCOPETA)
-				return C[0]; // hummmm... podemos jogar o zap para tentar
-								// enganar os adversários...
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			return C[2]; // retorna a menor então
-		}
+		if (qualidadeMaiorMesa(s) == DOIS && mandaBala(90))
+			return joga_primeira_rodada_posmao_mata(DOIS, s);
+		if (qualidadeMaiorMesa(s) == AS && mandaBala(80))
+			return joga_primeira_rodada_posmao_mata(AS, s);
+		if (qualidadeMaiorMesa(s) == LIXO && mandaBala(60))
+			return joga_primeira_rodada_posmao_lixo(s);
 		// frases
 		if (mandaBala(25)) {
 			String[] m = new String[] { "Deixando para o p&eacute;...",
@@ -1057,6 +832,105 @@ public class EstrategiaGasparotto implements Estrategia {
 		return C[2]; // retorna a menor então
 	}
 
+	/**
+	 * Pós mão na primeira rodada, tentando matar um dois ou ás que está
+	 * vindo (qualidadeMesa)
+	 */
+	private int joga_primeira_rodada_posmao_mata(int qualidadeMesa,
+			SituacaoJogo s) {
+		// Se temos o zap, jogar a carta que mata junto com ele (do três até
+		// a carta da mesa)
+		int carta = cartaQueAcompanhaOZap(qualidadeMesa, s);
+		if (carta != NENHUMA)
+			return carta;
+		// Aqui vamos jogar a menor manilha (menos o zap)
+		carta = menorManilhaMenosZap(s);
+		if (carta != NENHUMA)
+			return carta;
+		if (qualidadeC(1, s) == ESCOPETA)
+			return C[0]; // hummmm... podemos jogar o zap para tentar
+							// enganar os adversários...
+		// Aqui vamos jogar o três ou dois
+		if (qualidadeC(0, s) == TRES)
+			return C[0];
+		if (qualidadeC(0, s) == DOIS)
+			return C[0]; // ok se amarrar
+		return C[2]; // retorna a menor então
+	}
+
+	/**
+	 * Pós mão na primeira rodada, com lixo vindo
+	 */
+	private int joga_primeira_rodada_posmao_lixo(SituacaoJogo s) {
+		// Aqui vamos jogar a menor manilha (menos o zap)
+		int carta = menorManilhaMenosZap(s);
+		if (carta != NENHUMA)
+			return carta;
+		if (qualidadeC(1, s) == ESCOPETA)
+			return C[0]; // hummmm... podemos jogar o zap para tentar
+							// enganar os adversários...
+		// Se temos zap e três, jogar o três
+		carta = cartaQueAcompanhaOZap(TRES, s);
+		if (carta != NENHUMA)
+			return carta;
+		return C[2]; // retorna a menor então
+	}
+
+	/**
+	 * Se temos o zap, retorna a carta que vai acompanhá-lo: um três, ou
+	 * (não tendo) um dois, ou um ás, até a qualidade mínima informada.
+	 * Quando temos mais de uma (ex.: zap, três e três, ou zap, manilha e
+	 * três), vai a menor delas.
+	 * 
+	 * @return índice da carta, ou NENHUMA se não temos o zap ou a carta
+	 */
+	private int cartaQueAcompanhaOZap(int qualidadeMinima, SituacaoJogo s) {
+		if (qualidadeC(0, s) != ZAP)
+			return NENHUMA;
+		for (int qualidade = TRES; qualidade >= qualidadeMinima; qualidade--) {
+			if (qualidadeC(1, s) == qualidade)
+				return C[1];
+			// Vai que temos uma manilha também (C[1]) (ou mesmo outra carta
+			// igual), mesmo assim vamos jogar essa
+			if (qualidadeC(2, s) == qualidade)
+				return C[2];
+		}
+		return NENHUMA;
+	}
+
+	/**
+	 * Retorna a menor manilha da mão, sem contar o zap (se só as manilhas
+	 * maiores sobrarem, joga a maior para tentar enganar os adversários).
+	 * Com escopeta e zap não decide, já que cada posição trata de um jeito.
+	 * 
+	 * @return índice da carta, ou NENHUMA se não decidiu
+	 */
+	private int menorManilhaMenosZap(SituacaoJogo s) {
+		if (qualidadeC(0, s) == PICAFUMO)
+			return C[0];
+		if (qualidadeC(1, s) == PICAFUMO)
+			return C[1];
+		if (qualidadeC(2, s) == PICAFUMO)
+			return C[2];
+		if (qualidadeC(0, s) == ESPADILHA)
+			return C[0];
+		if (qualidadeC(1, s) == ESPADILHA)
+			return C[1];
+		if (qualidadeC(2, s) == ESPADILHA)
+			return C[0]; // hummmm... podemos jogar o zap para tentar
+							// enganar os adversários...
+		if (qualidadeC(0, s) == ESCOPETA)
+			return C[0];
+		return NENHUMA;
+	}
+
+	/**
+	 * Retorna a qualificação da carta C[i] (i = 0 para a maior da mão)
+	 */
+	private int qualidadeC(int i, SituacaoJogo s) {
+		return qualidadeCarta(s.cartasJogador[C[i]], s);
+	}
+
 	private int joga_primeira_rodada_parape(SituacaoJogo s) {
 		// 1) Caso a maior carta da mesa seja do parceiro:
 		// Se for maior ou igual que um ás, ok, deixar passar
@@ -1089,84 +963,19 @@ public class EstrategiaGasparotto implements Estrategia {
 		// A maior carta que está vindo é do adversário portanto:
 
 		if (qualidadeMaiorMesa(s) >= PICAFUMO) {
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP)
+			if (qualidadeC(0, s) == ZAP)
 				return C[0];
 			return menorCartaParaMatar(s);
 		}
 		if (qualidadeMaiorMesa(s) == TRES) {
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			// Aqui jogamos a melhor que temos então desde que não seja menor
-			// que a que está já na mesa
-			// Vamos tentar fazer com a maior ou pelo menos amarrar
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s))
-				return C[0];
-			return C[2];
-		}
-		if (qualidadeMaiorMesa(s) == DOIS) {
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			// Checa se temos zap e dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == DOIS)
-				// Jogar o dois
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outros
-			// três/dois),
-			// mesmo assim vamos jogar o dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == DOIS)
-				// Jogar o dois
-				return C[2];
-			// Aqui vamos primeiro tentar matar com a menor manilha
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == PICAFUMO)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == PICAFUMO)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == PICAFUMO)
-				return C[2];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESPADILHA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESPADILHA)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == ESPADILHA)
-				return C[0]; // jogar o zap para tentar ludibriar os
-								// adversários...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESCOPETA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESCOPETA)
-				if (mandaBala(50))
-					return C[0]; // hummmm... podemos jogar o zap para tentar
-									// ludibriar os adversários...
-				else
-					return C[2]; // ou fazer "cama"...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP)
-				return C[0];
-			// Aqui jogamos a melhor que temos então desde que não seja menor
-			// que a que está já na mesa
-			// Vamos tentar fazer com a maior ou pelo menos amarrar
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s))
-				return C[0];
-			return C[2];
-		}
+			// Se temos zap e três, jogar o três
+			int carta = cartaQueAcompanhaOZap(TRES, s);
+			if (carta != NENHUMA)
+				return carta;
+			return maiorSeNaoPerder(s);
+		}
+		if (qualidadeMaiorMesa(s) == DOIS)
+			return joga_primeira_rodada_parape_mata(DOIS, C[0], s);
 		if (qualidadeMaiorMesa(s) <= AS) {
 			// frases
 			if (mandaBala(5)) {
@@ -1176,76 +985,55 @@ public class EstrategiaGasparotto implements Estrategia {
 				int i = Math.abs(rand.nextInt()) % 2 + 1;
 				chatMsg = m[i];
 			}
-			// Checa se temos zap e três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES)
-				// Jogar o três
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outro três),
-			// mesmo assim vamos jogar o três
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == TRES)
-				// Jogar o três
-				return C[2];
-			// Checa se temos zap e dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == DOIS)
-				// Jogar o dois
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outros
-			// três/dois),
-			// mesmo assim vamos jogar o dois
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == DOIS)
-				// Jogar o dois
-				return C[2];
-			// Checa se temos zap e ás
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == AS)
-				// Jogar o ás
-				return C[1];
-			// Vai que temos uma manilha também (C[1]) (ou mesmo outros
-			// três/dois/ás),
-			// mesmo assim vamos jogar o ás
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& qualidadeCarta(s.cartasJogador[C[2]], s) == AS)
-				// Jogar o ás
-				return C[2];
-			// Aqui vamos jogar a menor manilha
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == PICAFUMO)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == PICAFUMO)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == PICAFUMO)
-				return C[2];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESPADILHA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESPADILHA)
-				return C[1];
-			if (qualidadeCarta(s.cartasJogador[C[2]], s) == ESPADILHA)
-				return C[0]; // jogar o zap para tentar ludibriar os
-								// adversários...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ESCOPETA)
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[1]], s) == ESCOPETA)
-				if (mandaBala(50))
-					return C[0]; // hummmm... podemos jogar o zap para tentar
-									// ludibriar os adversários...
-				else
-					return C[2]; // ou fazer "cama"...
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP)
-				return C[1]; // carta intermediária para tentar fazer a
-								// primeira...
-			// Aqui jogamos a melhor que temos então desde que não seja menor
-			// que a que está já na mesa
-			// Vamos tentar fazer com a maior ou pelo menos amarrar
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s))
-				return C[0];
-			return C[2];
+			// com o zap, vai a carta intermediária para tentar fazer a
+			// primeira...
+			return joga_primeira_rodada_parape_mata(AS, C[1], s);
 		}
 		return C[0]; // para satisfazer o corretor do método (Eclipse)...
 	}
 
+	/**
+	 * Para pé na primeira rodada, tentando matar um dois, ás ou lixo do
+	 * adversário
+	 * 
+	 * @param qualidadeMinima
+	 *            menor carta que vale a pena jogar junto com o zap
+	 * @param cartaComZap
+	 *            carta a jogar se tivermos o zap e nada melhor
+	 */
+	private int joga_primeira_rodada_parape_mata(int qualidadeMinima,
+			int cartaComZap, SituacaoJogo s) {
+		// Se temos o zap, jogar a carta que mata junto com ele
+		int carta = cartaQueAcompanhaOZap(qualidadeMinima, s);
+		if (carta != NENHUMA)
+			return carta;
+		// Aqui vamos primeiro tentar matar com a menor manilha (ou jogar o
+		// zap para tentar ludibriar os adversários)
+		carta = menorManilhaMenosZap(s);
+		if (carta != NENHUMA)
+			return carta;
+		if (qualidadeC(1, s) == ESCOPETA)
+			if (mandaBala(50))
+				return C[0]; // hummmm... podemos jogar o zap para tentar
+								// ludibriar os adversários...
+			else
+				return C[2]; // ou fazer "cama"...
+		if (qualidadeC(0, s) == ZAP)
+			return cartaComZap;
+		return maiorSeNaoPerder(s);
+	}
+
+	/**
+	 * Aqui jogamos a melhor que temos então desde que não seja menor que a
+	 * que está já na mesa (vamos tentar fazer com a maior ou pelo menos
+	 * amarrar); senão, a menor
+	 */
+	private int maiorSeNaoPerder(SituacaoJogo s) {
+		if (qualidadeC(0, s) >= qualidadeMaiorMesa(s))
+			return C[0];
+		return C[2];
+	}
+
 	private int joga_primeira_rodada_pe(SituacaoJogo s) {
 		// Aqui é fácil, tudo que o pé tem a fazer é garantir a primeira,
 		// ou pelo menos tentar amarrar.
@@ -1385,22 +1173,8 @@ public class EstrategiaGasparotto implements Estrategia {
 		// probabilidade - facão).
 
 		// Se a 1a amarrou, jogar a maior
-		if (rodadaAmarrou(s, 0)) {
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-					&& podeEValeAPenaAumentar(s, 100, 100, 100, 100))
-				return -1;
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= PICAFUMO
-					&& qualidadeCarta(s.cartasJogador[C[0]], s) > qualidadeMaiorMesa(s)
-					&& podeEValeAPenaAumentar(s, 50, 15, 5, 1))
-				return -1;
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s)
-					&& parceiro(s) != maiorCartaMesa(s))
-				return C[0];
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) > qualidadeMaiorMesa(s)
-					&& parceiro(s) == maiorCartaMesa(s))
-				return C[0];
-			return C[1];
-		}
+		if (rodadaAmarrou(s, 0))
+			return joga_segunda_rodada_parape_amarrada(s);
 
 		if (partidaGanha(s)) {
 			// "cama": jogar encoberto para não fechar o pé
@@ -1451,25 +1225,8 @@ public class EstrategiaGasparotto implements Estrategia {
 			return C[0];
 		}
 
-		if (qualidadeCarta(s.cartasJogador[C[0]], s) == LIXO) {
-			// facão
-			if (podeEValeAPenaAumentar(s, 20, 5, 1, 0)
-					&& !partidaGanhaParaAdversario(s)) {
-				// frases
-				if (mandaBala(20)) {
-					String[] m = new String[] { "E agora Jos&eacute;?",
-							"Fechando o p&eacute; mais uma vez...",
-							"O p&eacute n&atilde;o &eacute; de nada, posso sentir!" };
-					int i = Math.abs(rand.nextInt()) % 2 + 1;
-					chatMsg = m[i];
-				}
-
-				return -1;
-			}
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s))
-				return C[0];
-			return C[1];
-		}
+		if (qualidadeCarta(s.cartasJogador[C[0]], s) == LIXO)
+			return joga_segunda_rodada_parape_lixo(s);
 		// vamos fechar (se der...)
 		if (qualidadeCarta(s.cartasJogador[C[0]], s) > qualidadeMaiorMesa(s))
 			return C[0];
@@ -1482,6 +1239,49 @@ public class EstrategiaGasparotto implements Estrategia {
 		return C[1];
 	}
 
+	/**
+	 * Para pé na segunda rodada, com a primeira amarrada
+	 */
+	private int joga_segunda_rodada_parape_amarrada(SituacaoJogo s) {
+		if (qualidadeC(0, s) == ZAP
+				&& podeEValeAPenaAumentar(s, 100, 100, 100, 100))
+			return -1;
+		if (qualidadeC(0, s) >= PICAFUMO
+				&& qualidadeC(0, s) > qualidadeMaiorMesa(s)
+				&& podeEValeAPenaAumentar(s, 50, 15, 5, 1))
+			return -1;
+		if (qualidadeC(0, s) >= qualidadeMaiorMesa(s)
+				&& parceiro(s) != maiorCartaMesa(s))
+			return C[0];
+		if (qualidadeC(0, s) > qualidadeMaiorMesa(s)
+				&& parceiro(s) == maiorCartaMesa(s))
+			return C[0];
+		return C[1];
+	}
+
+	/**
+	 * Para pé na segunda rodada, só com lixo na mão
+	 */
+	private int joga_segunda_rodada_parape_lixo(SituacaoJogo s) {
+		// facão
+		if (podeEValeAPenaAumentar(s, 20, 5, 1, 0)
+				&& !partidaGanhaParaAdversario(s)) {
+			// frases
+			if (mandaBala(20)) {
+				String[] m = new String[] { "E agora Jos&eacute;?",
+						"Fechando o p&eacute; mais uma vez...",
+						"O p&eacute n&atilde;o &eacute; de nada, posso sentir!" };
+				int i = Math.abs(rand.nextInt()) % 2 + 1;
+				chatMsg = m[i];
+			}
+
+			return -1;
+		}
+		if (qualidadeC(0, s) >= qualidadeMaiorMesa(s))
+			return C[0];
+		return C[1];
+	}
+
 	private int joga_segunda_rodada_pe(SituacaoJogo s) {
 		// A primeira é deles
 		// Temos que fazer de qualquer jeito
@@ -1762,8 +1562,41 @@ public class EstrategiaGasparotto implements Estrategia {
 		return C[0]; // para satisfazer o corretor do método (Eclipse)...
 	}
 
+	/**
+	 * Tenta resolver exatamente o final da mão
+	 * 
+	 * @return true se resolveu (e o resultado está no solucionador)
+	 */
+	private boolean resolveFinalMao(SituacaoJogo s) {
+		if (solucionador == null)
+			solucionador = new SolucionadorFinalMao();
+		return solucionador.resolve(s);
+	}
+
+	/**
+	 * Se o final da mão é pequeno o suficiente para ser resolvido exatamente,
+	 * joga a melhor carta, pedindo aumento se a vitória estiver garantida (ou
+	 * for bem provável, com a dose de sorte de sempre)
+	 * 
+	 * @return jogada a fazer, ou NAO_RESOLVIDO
+	 */
+	private int jogaFinalMao(SituacaoJogo s) {
+		if (!resolveFinalMao(s))
+			return NAO_RESOLVIDO;
+		double p = solucionador.getProbabilidadeVitoria();
+		if (p > 0.999 && podeEValeAPenaAumentar(s, 100, 100, 100, 100))
+			return -1;
+		if (p >= 0.8 && podeEValeAPenaAumentar(s, 50, 10, 1, 0))
+			return -1;
+		return solucionador.getMelhorCarta();
+	}
+
 	private int joga_segunda_rodada(SituacaoJogo s) {
 
+		int jogadaFinalMao = jogaFinalMao(s);
+		if (jogadaFinalMao != NAO_RESOLVIDO)
+			return jogadaFinalMao;
+
 		switch (minhaPosicao(s)) {
 		// Mão
 		case 0:
@@ -1783,6 +1616,10 @@ public class EstrategiaGasparotto implements Estrategia {
 
 	private int joga_terceira_rodada(SituacaoJogo s) {
 
+		int jogadaFinalMao = jogaFinalMao(s);
+		if (jogadaFinalMao != NAO_RESOLVIDO)
+			return jogadaFinalMao;
+
 		switch (minhaPosicao(s)) {
 		// Mão
 		case 0:
@@ -1817,13 +1654,14 @@ public class EstrategiaGasparotto implements Estrategia {
 	 *         para pedir truco
 	 */
 	public int joga(SituacaoJogo s) {
-		// Classifica as cartas que tenho na mão, da maior para a menor,
-		// de maneira que vamos ter:
+		// Analisa a situação uma vez só (as funções auxiliares consultam a
+		// análise), classificando as cartas que tenho na mão, da maior para
+		// a menor, de maneira que vamos ter:
 		// C[0] = maior carta (1a, 2a e 3a mão);
 		// C[1] = carta intermediária (1a mão) OU
 		// C[1] = menor carta (2a mão);
 		// C[2] = menor carta (1a mão)
-		classificaCartas(s);
+		analise.analisa(s);
 
 		switch (s.numRodadaAtual) {
 		// Primeira rodada
@@ -1869,251 +1707,256 @@ public class EstrategiaGasparotto implements Estrategia {
 	 * decisões de acordo
 	 */
 	public boolean aceitaTruco(SituacaoJogo s) {
-		classificaCartas(s);
+		analise.analisa(s);
 
 		// não vai nem ter graça...
 		if (partidaGanha(s))
 			return true;
 
-		switch (s.numRodadaAtual) {
+		// no final da mão dá pra saber se a vitória é certa (ou impossível)
+		if (s.numRodadaAtual > 1 && resolveFinalMao(s)) {
+			if (solucionador.getProbabilidadeVitoria() > 0.999)
+				return true;
+			if (solucionador.getProbabilidadeVitoria() < 0.001)
+				return false;
+		}
 
+		switch (s.numRodadaAtual) {
 		// primeira rodada
 		case 1:
-
-			// se eu tenho uma manilha e na mesa já estiver pelo menos um 3
-			// nosso, aceito
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) >= TRES
-					&& maiorCartaENossa(s) && qualidadeMaiorMesa(s) >= TRES)
-				return true;
-			// se eu tenho um três e na mesa já estiver pelo menos um 3 nosso,
-			// aceito
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-					&& maiorCartaENossa(s) && qualidadeMaiorMesa(s) >= TRES)
-				return true;
-			// se na mesa já estiver vindo uma manilha nossa, e eu tenho um 2
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == DOIS
-					&& maiorCartaENossa(s) && qualidadeMaiorMesa(s) > TRES)
-				return true;
-			// se eu tenho manilha e três pelo menos, aceito sem pensar
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) >= TRES)
-				return true;
-			// se na mesa já estiver vindo uma manilha nossa, aceito com
-			// media para alta prob.
-			if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) > TRES
-					&& valeAPenaAceitar(s, 70))
-				return true;
-			// se na mesa já estiver vindo um tres nosso, aceito com
-			// media para alta prob.
-			if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) >= TRES
-					&& valeAPenaAceitar(s, 75))
-				return true;
-			// se eu tenho uma manilha seca, aceito (alta prob.)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-					&& valeAPenaAceitar(s, 90))
-				return true;
-			// se eu tenho dois três, aceito (alta prob.)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-					&& qualidadeCarta(s.cartasJogador[C[1]], s) == TRES
-					&& valeAPenaAceitar(s, 80))
-				return true;
-			// se eu tenho um três, aceito (média p/ alta prob.)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-					&& valeAPenaAceitar(s, 60))
-				return true;
-			// se eu tenho um dois, aceito (baixa prob.)
-			if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-					&& valeAPenaAceitar(s, 20))
-				return true;
-			if (valeAPenaAceitar(s, 0))
-				return true; // last check if there are any relevant cases we
-								// should call before refuse it
-			return false;
-
+			return aceitaTrucoPrimeiraRodada(s);
 			// segunda rodada
 		case 2:
-
-			// se a primeira for nossa:
-			if (primeiraENossa(s)) {
-				// partida ganha?
-				if (partidaGanha(s))
-					return true;
-
-				// se na mesa já estiver pelo menos um 3 nosso, aceito
-				if (maiorCartaENossaPodendoEstarAmarrado(s)
-						&& qualidadeMaiorMesa(s) >= TRES)
-					return true;
-				// se na mesa já estiver um 2 nosso, aceito com média-alta
-				// probabilidade
-				if (maiorCartaENossaPodendoEstarAmarrado(s)
-						&& qualidadeMaiorMesa(s) == DOIS
-						&& valeAPenaAceitar(s, 75))
-					return true;
-				// se eu tiver pelo menos um dois, aceito
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) >= DOIS)
-					return true;
-			} else {
-				// se a primeira NÃO for nossa:
-				// se já está tudo decidido, somente estão trucando de bobeira
-				if (partidaGanhaParaAdversario(s))
-					return false;
-				// Se a 1a amarrou e tenho zap, aceito
-				if (rodadaAmarrou(s, 0)
-						&& qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP)
-					return true;
-				// se eu já joguei, e meu parceiro ainda não, vou deixar para
-				// ele decidir
-				if (minhaVez(s) == 1 && vezTrucador(s) == 2)
-					return false;
-				// Se a 1a amarrou e tenho manilha/três, aceito
-				if (rodadaAmarrou(s, 0)
-						&& qualidadeCarta(s.cartasJogador[C[0]], s) >= TRES
-						&& qualidadeCarta(s.cartasJogador[C[0]], s) >= qualidadeMaiorMesa(s)
-						&& valeAPenaAceitar(s, 70))
-					return true;
-				// Se a 1a amarrou e na mesa já está vindo pelo menos um três
-				// nosso, aceito
-				if (rodadaAmarrou(s, 0) && maiorCartaENossa(s)
-						&& qualidadeMaiorMesa(s) >= TRES
-						&& valeAPenaAceitar(s, 50))
-					return true;
-
-				// se eu tenho uma manilha e na mesa já estiver pelo menos um 3
-				// nosso, aceito
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) >= TRES
-						&& maiorCartaENossa(s) && qualidadeMaiorMesa(s) >= TRES)
-					return true;
-				// se eu tenho manilha e três pelo menos, aceito
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-						&& qualidadeCarta(s.cartasJogador[C[1]], s) >= TRES
-						&& !partidaGanhaParaAdversario(s))
-					return true;
-				// se eu tenho o zap, aceito (média prob.)
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) == ZAP
-						&& valeAPenaAceitar(s, 80))
-					return true;
-				// se eu tenho uma manilha seca, aceito (média prob.)
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-						&& !partidaGanhaParaAdversario(s)
-						&& valeAPenaAceitar(s, 40))
-					return true;
-				// se eu tenho uma três seco, aceito (baixa prob.)
-				if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-						&& !partidaGanhaParaAdversario(s)
-						&& valeAPenaAceitar(s, 10))
-					return true;
-			}
-			if (valeAPenaAceitar(s, 0))
-				return true; // last check if there are any relevant cases we
-								// should call before refuse it
-			return false;
-
+			return aceitaTrucoSegundaRodada(s);
 			// terceira rodada
 		case 3:
+			return aceitaTrucoTerceiraRodada(s);
+		}
+		return false;
+	}
+
+	private boolean aceitaTrucoPrimeiraRodada(SituacaoJogo s) {
+		// se eu tenho uma manilha e na mesa já estiver pelo menos um 3
+		// nosso, aceito
+		if (qualidadeC(0, s) >= TRES && maiorCartaENossa(s)
+				&& qualidadeMaiorMesa(s) >= TRES)
+			return true;
+		// se eu tenho um três e na mesa já estiver pelo menos um 3 nosso,
+		// aceito
+		if (qualidadeC(0, s) == TRES && maiorCartaENossa(s)
+				&& qualidadeMaiorMesa(s) >= TRES)
+			return true;
+		// se na mesa já estiver vindo uma manilha nossa, e eu tenho um 2
+		if (qualidadeC(0, s) == DOIS && maiorCartaENossa(s)
+				&& qualidadeMaiorMesa(s) > TRES)
+			return true;
+		// se a minha mão (ainda inteira) é muito forte, aceito
+		if (TabelaEquidade.getEquidade(s) >= EQUIDADE_ACEITA_TRUCO)
+			return true;
+		// se eu tenho manilha e três pelo menos, aceito sem pensar
+		if (qualidadeC(0, s) > TRES && qualidadeC(1, s) >= TRES)
+			return true;
+		// se na mesa já estiver vindo uma manilha nossa, aceito com
+		// media para alta prob.
+		if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) > TRES
+				&& valeAPenaAceitar(s, 70))
+			return true;
+		// se na mesa já estiver vindo um tres nosso, aceito com
+		// media para alta prob.
+		if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) >= TRES
+				&& valeAPenaAceitar(s, 75))
+			return true;
+		// se eu tenho uma manilha seca, aceito (alta prob.)
+		if (qualidadeC(0, s) > TRES && valeAPenaAceitar(s, 90))
+			return true;
+		// se eu tenho dois três, aceito (alta prob.)
+		if (qualidadeC(0, s) == TRES && qualidadeC(1, s) == TRES
+				&& valeAPenaAceitar(s, 80))
+			return true;
+		// se eu tenho um três, aceito (média p/ alta prob.)
+		if (qualidadeC(0, s) == TRES && valeAPenaAceitar(s, 60))
+			return true;
+		// se eu tenho um dois, aceito (baixa prob.)
+		if (qualidadeC(0, s) == TRES && valeAPenaAceitar(s, 20))
+			return true;
+		// last check if there are any relevant cases we should call before
+		// refuse it
+		return valeAPenaAceitar(s, 0);
+	}
 
+	private boolean aceitaTrucoSegundaRodada(SituacaoJogo s) {
+		if (primeiraENossa(s)) {
+			if (aceitaTrucoSegundaRodadaComAPrimeira(s))
+				return true;
+		} else {
 			// se já está tudo decidido, somente estão trucando de bobeira
 			if (partidaGanhaParaAdversario(s))
 				return false;
-
-			// já está tudo decidido a nosso favor
-			if (partidaGanha(s))
+			// Se a 1a amarrou e tenho zap, aceito
+			if (rodadaAmarrou(s, 0) && qualidadeC(0, s) == ZAP)
 				return true;
-
-			// se eu já joguei, e meu parceiro ainda não, vou deixar para ele
-			// decidir
-			if ((minhaVez(s) == 0 && vezTrucador(s) == 1)
-					|| (minhaVez(s) == 1 && vezTrucador(s) == 2))
+			// se eu já joguei, e meu parceiro ainda não, vou deixar para
+			// ele decidir
+			if (minhaVez(s) == 1 && vezTrucador(s) == 2)
 				return false;
+			if (aceitaTrucoSegundaRodadaSemAPrimeira(s))
+				return true;
+		}
+		// last check if there are any relevant cases we should call before
+		// refuse it
+		return valeAPenaAceitar(s, 0);
+	}
 
-			// se a primeira for nossa:
-			if (primeiraENossa(s)) {
-				// se na mesa já estiver uma manilha nossa, aceito com alta
-				// prob.
-				if (maiorCartaENossaPodendoEstarAmarrado(s)
-						&& qualidadeMaiorMesa(s) > TRES
-						&& valeAPenaAceitar(s, 80))
-					return true;
-				// se na mesa já estiver um 3 nosso, aceito com média-alta prob.
-				if (maiorCartaENossaPodendoEstarAmarrado(s)
-						&& qualidadeMaiorMesa(s) == TRES
-						&& valeAPenaAceitar(s, 60))
-					return true;
-				// se na mesa já estiver um 2 nosso, aceito com média-baixa
-				// prob.
-				if (maiorCartaENossaPodendoEstarAmarrado(s)
-						&& qualidadeMaiorMesa(s) == DOIS
-						&& valeAPenaAceitar(s, 40))
-					return true;
-				// checar se ainda tenho cartas na mão...
-				if (minhaVez(s) > vezTrucador(s)
-						&& !partidaGanhaParaAdversario(s)) {
-					// se eu tenho uma manilha, aceito com alta prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-							&& valeAPenaAceitar(s, 80))
-						return true;
-					// se eu tenho um três, aceito com média-alta prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-							&& valeAPenaAceitar(s, 60))
-						return true;
-					// se eu tenho um dois, aceito com média-baixa prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) == DOIS
-							&& valeAPenaAceitar(s, 30))
-						return true;
-				}
-			} else {
-				// se a primeira NÃO for nossa:
-				// Se a 1a e a 2a amarraram, aceito qualquer trucada!
-				if (rodadaAmarrou(s, 1) && maiorCartaENossa(s))
-					return true;
-				// se na mesa já estiver uma manilha nossa, aceito com alta
-				// prob.
-				if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) > TRES
-						&& valeAPenaAceitar(s, 75))
-					return true;
-				// se na mesa já estiver um 3 nosso, aceito com média prob.
-				if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) == TRES
-						&& valeAPenaAceitar(s, 50))
-					return true;
-				// se na mesa já estiver um 2 nosso, aceito com média-baixa
-				// prob.
-				if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) == DOIS
-						&& valeAPenaAceitar(s, 20))
-					return true;
-				// se na mesa estiver um lixo nosso, aceito com baixa prob. -
-				// devem estar blefando...
-				if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) <= AS
-						&& valeAPenaAceitar(s, 8))
-					return true;
-				// checar se ainda tenho cartas na mão...
-				if (minhaVez(s) > vezTrucador(s)
-						&& !partidaGanhaParaAdversario(s)) {
-					// se eu tenho uma manilha, aceito com alta prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) > TRES
-							&& valeAPenaAceitar(s, 70))
-						return true;
-					// se eu tenho um três, aceito com média-alta prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) == TRES
-							&& valeAPenaAceitar(s, 50))
-						return true;
-					// se eu tenho um dois, aceito com média-baixa prob.
-					if (qualidadeCarta(s.cartasJogador[C[0]], s) == DOIS
-							&& valeAPenaAceitar(s, 20))
-						return true;
-				}
-			}
-			if (valeAPenaAceitar(s, 0))
-				return true; // last check if there are any relevant cases we
-								// should call before refuse it
+	/**
+	 * Segunda rodada, com a primeira feita por nós
+	 */
+	private boolean aceitaTrucoSegundaRodadaComAPrimeira(SituacaoJogo s) {
+		// partida ganha?
+		if (partidaGanha(s))
+			return true;
+		// se na mesa já estiver pelo menos um 3 nosso, aceito
+		if (maiorCartaENossaPodendoEstarAmarrado(s)
+				&& qualidadeMaiorMesa(s) >= TRES)
+			return true;
+		// se na mesa já estiver um 2 nosso, aceito com média-alta
+		// probabilidade
+		if (maiorCartaENossaPodendoEstarAmarrado(s)
+				&& qualidadeMaiorMesa(s) == DOIS && valeAPenaAceitar(s, 75))
+			return true;
+		// se eu tiver pelo menos um dois, aceito
+		return qualidadeC(0, s) >= DOIS;
+	}
+
+	/**
+	 * Segunda rodada, com a primeira feita pelos adversários (ou amarrada)
+	 */
+	private boolean aceitaTrucoSegundaRodadaSemAPrimeira(SituacaoJogo s) {
+		// Se a 1a amarrou e tenho manilha/três, aceito
+		if (rodadaAmarrou(s, 0) && qualidadeC(0, s) >= TRES
+				&& qualidadeC(0, s) >= qualidadeMaiorMesa(s)
+				&& valeAPenaAceitar(s, 70))
+			return true;
+		// Se a 1a amarrou e na mesa já está vindo pelo menos um três
+		// nosso, aceito
+		if (rodadaAmarrou(s, 0) && maiorCartaENossa(s)
+				&& qualidadeMaiorMesa(s) >= TRES && valeAPenaAceitar(s, 50))
+			return true;
+
+		// se eu tenho uma manilha e na mesa já estiver pelo menos um 3
+		// nosso, aceito
+		if (qualidadeC(0, s) >= TRES && maiorCartaENossa(s)
+				&& qualidadeMaiorMesa(s) >= TRES)
+			return true;
+		// se eu tenho manilha e três pelo menos, aceito
+		if (qualidadeC(0, s) > TRES && qualidadeC(1, s) >= TRES
+				&& !partidaGanhaParaAdversario(s))
+			return true;
+		// se eu tenho o zap, aceito (média prob.)
+		if (qualidadeC(0, s) == ZAP && valeAPenaAceitar(s, 80))
+			return true;
+		// se eu tenho uma manilha seca, aceito (média prob.)
+		if (qualidadeC(0, s) > TRES && !partidaGanhaParaAdversario(s)
+				&& valeAPenaAceitar(s, 40))
+			return true;
+		// se eu tenho uma três seco, aceito (baixa prob.)
+		return qualidadeC(0, s) == TRES && !partidaGanhaParaAdversario(s)
+				&& valeAPenaAceitar(s, 10);
+	}
+
+	private boolean aceitaTrucoTerceiraRodada(SituacaoJogo s) {
+		// se já está tudo decidido, somente estão trucando de bobeira
+		if (partidaGanhaParaAdversario(s))
+			return false;
+
+		// já está tudo decidido a nosso favor
+		if (partidaGanha(s))
+			return true;
+
+		// se eu já joguei, e meu parceiro ainda não, vou deixar para ele
+		// decidir
+		if ((minhaVez(s) == 0 && vezTrucador(s) == 1)
+				|| (minhaVez(s) == 1 && vezTrucador(s) == 2))
 			return false;
 
+		if (primeiraENossa(s)) {
+			// se na mesa já estiver uma nossa (manilha, 3 ou 2), aceito com
+			// alta, média-alta ou média-baixa prob.
+			if (aceitaPelaMesa(s, maiorCartaENossaPodendoEstarAmarrado(s),
+					80, 60, 40))
+				return true;
+			if (aceitaPelaMao(s, 80, 60, 30))
+				return true;
+		} else {
+			// Se a 1a e a 2a amarraram, aceito qualquer trucada!
+			if (rodadaAmarrou(s, 1) && maiorCartaENossa(s))
+				return true;
+			// se na mesa já estiver uma nossa (manilha, 3 ou 2), aceito com
+			// alta, média ou média-baixa prob.
+			if (aceitaPelaMesa(s, maiorCartaENossa(s), 75, 50, 20))
+				return true;
+			// se na mesa estiver um lixo nosso, aceito com baixa prob. -
+			// devem estar blefando...
+			if (maiorCartaENossa(s) && qualidadeMaiorMesa(s) <= AS
+					&& valeAPenaAceitar(s, 8))
+				return true;
+			if (aceitaPelaMao(s, 70, 50, 20))
+				return true;
 		}
-		return false;
+		// last check if there are any relevant cases we should call before
+		// refuse it
+		return valeAPenaAceitar(s, 0);
+	}
+
+	/**
+	 * Aceita (com a probabilidade de cada caso) se a maior carta da mesa é
+	 * nossa e é uma manilha, um três ou um dois
+	 * 
+	 * @param nossa
+	 *            se a maior carta da mesa é nossa
+	 */
+	private boolean aceitaPelaMesa(SituacaoJogo s, boolean nossa,
+			int fatorManilha, int fatorTres, int fatorDois) {
+		if (nossa && qualidadeMaiorMesa(s) > TRES
+				&& valeAPenaAceitar(s, fatorManilha))
+			return true;
+		if (nossa && qualidadeMaiorMesa(s) == TRES
+				&& valeAPenaAceitar(s, fatorTres))
+			return true;
+		return nossa && qualidadeMaiorMesa(s) == DOIS
+				&& valeAPenaAceitar(s, fatorDois);
+	}
+
+	/**
+	 * Aceita (com a probabilidade de cada caso) se eu ainda tenho na mão uma
+	 * manilha, um três ou um dois
+	 */
+	private boolean aceitaPelaMao(SituacaoJogo s, int fatorManilha,
+			int fatorTres, int fatorDois) {
+		// checar se ainda tenho cartas na mão...
+		if (minhaVez(s) <= vezTrucador(s) || partidaGanhaParaAdversario(s))
+			return false;
+		if (qualidadeC(0, s) > TRES && valeAPenaAceitar(s, fatorManilha))
+			return true;
+		if (qualidadeC(0, s) == TRES && valeAPenaAceitar(s, fatorTres))
+			return true;
+		return qualidadeC(0, s) == DOIS && valeAPenaAceitar(s, fatorDois);
 	}
 
 	/**
 	 * Retorna se eu aceito jogar ou não esta mão de 11.
 	 */
 	public boolean aceitaMao11(Carta[] cartasParceiro, SituacaoJogo s) {
+		// Se tiver a tabela, é só consultar (com 50% na melhor mão a equipe
+		// ganha mais de 1/3 das vezes, o que compensa arriscar 3 pontos ao
+		// invés de perder 1; se os adversários estão longe, dá pra arriscar
+		// um pouco mais)
+		double equidade = TabelaEquidade.getEquidadeMao11(s, cartasParceiro);
+		if (equidade >= 0) {
+			if (s.pontosEquipe[adversario1(s) % 2] <= 6)
+				return equidade >= EQUIDADE_MAO_11_ADVERSARIO_LONGE;
+			return equidade >= EQUIDADE_MAO_11;
+		}
+
 		// Não vamos pensar muito...
 
 		int q3 = 0, q2 = 0, qManilhas = 0;
@@ -0,0 +1,668 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Estratégia que decide por busca em árvore de Monte Carlo sobre conjuntos de
+ * informação (ISMCTS).
+ * <p>
+ * A cada iteração sorteia uma distribuição das cartas que o jogador não viu
+ * (ver <code>Determinizacao</code>) e desce a árvore escolhendo, entre as
+ * jogadas possíveis naquela distribuição, a de melhor UCB (ou acrescentando
+ * uma jogada nova); o resto da mão é jogado com a política simples de
+ * <code>EstadoMao</code>. As estatísticas de cada nó valem para a equipe de
+ * quem fez a jogada que leva a ele.
+ * <p>
+ * A árvore é aproveitada entre as decisões da mesma mão: a cada decisão a raiz
+ * desce pelas cartas jogadas desde a anterior (que só chegam pela
+ * <code>SituacaoJogo</code>), e a subárvore que sobra é compactada no início
+ * dos arrays. Ela é descartada no início de cada mão (ou quando a mesa não
+ * bate com a árvore, ex.: carta fechada do adversário).
+ * <p>
+ * Os nós ficam em arrays de primitivos pré-alocados (e não em objetos), então
+ * a memória de cada instância é limitada pela capacidade escolhida; quando
+ * ela se esgota, a busca continua sem acrescentar nós.
+ * <p>
+ * Nas decisões assíncronas a busca respeita também o prazo pedido, publica a
+ * melhor resposta a cada 20ms e pára assim que a decisão é cancelada.
+ *
+ */
+public class EstrategiaMCTS implements EstrategiaAssincrona {
+
+	/**
+	 * Nome da estratégia (constante, para que o Simulador a encontre sem
+	 * carregar a classe)
+	 */
+	public static final String NOME = "MCTS";
+
+	/**
+	 * Tempo (em milissegundos) de cada decisão, se não for especificado
+	 */
+	public static final int ORCAMENTO_PADRAO_MS = 250;
+
+	/**
+	 * Quantidade de nós da árvore, se não for especificada (cada nó ocupa 30
+	 * bytes)
+	 */
+	public static final int CAPACIDADE_PADRAO = 8192;
+
+	/**
+	 * Peso da exploração na fórmula UCB
+	 */
+	private static final double EXPLORACAO = 0.7;
+
+	/**
+	 * Probabilidade de vitória a partir da qual a estratégia pede aumento
+	 */
+	private static final double PROBABILIDADE_PARA_AUMENTAR = 0.75;
+
+	/**
+	 * Quanto descontar da probabilidade de vitória ao avaliar um aumento
+	 * pedido pelo adversário (a busca supõe que ele tem cartas quaisquer, mas
+	 * quem pede aumento costuma ter cartas boas)
+	 */
+	private static final double DESCONTO_AUMENTO_ADVERSARIO = 0.3;
+
+	/**
+	 * Quantas iterações são feitas entre as consultas ao relógio
+	 */
+	private static final int ITERACOES_POR_CONSULTA_AO_RELOGIO = 16;
+
+	/**
+	 * Intervalo (em nanossegundos) entre as atualizações da melhor resposta
+	 * numa decisão assíncrona
+	 */
+	private static final long INTERVALO_PARCIAL_NANOS = 20 * 1000000L;
+
+	private static final int NENHUM = -1;
+
+	private int orcamentoMs;
+
+	private int limiteIteracoes;
+
+	private Random random;
+
+	// Nós da árvore (o índice é o nó; a raiz, quando existe, é o 0)
+
+	private int capacidade;
+
+	private int numNos;
+
+	private int[] pai, primeiroFilho, proximoIrmao;
+
+	/**
+	 * Carta jogada para chegar ao nó e posição (0 a 3) de quem a jogou
+	 */
+	private byte[] carta, posicao;
+
+	private int[] visitas, disponibilidade;
+
+	/**
+	 * Pontos (2 por vitória, 1 por empate) da equipe de quem jogou a carta
+	 */
+	private int[] pontos;
+
+	/**
+	 * Índices dos nós depois da compactação (só usado nela)
+	 */
+	private int[] novoIndice;
+
+	/**
+	 * Indica se a árvore (e o estado da raiz) valem para a mão atual
+	 */
+	private boolean arvoreValida;
+
+	/**
+	 * Mesa correspondente à raiz da árvore (as mãos não são usadas), usada
+	 * para descer a raiz pelas cartas jogadas depois da última decisão
+	 */
+	private EstadoMao estadoRaiz = new EstadoMao();
+
+	private Determinizacao determinizacao = new Determinizacao();
+
+	private EstadoMao simulado = new EstadoMao();
+
+	private int[] ocultas = new int[Carta.NUM_IDS];
+
+	/**
+	 * Nós percorridos na iteração atual (no máximo uma jogada de cada carta
+	 * da mão)
+	 */
+	private int[] caminho = new int[12];
+
+	private int[] naoTentadas = new int[3];
+
+	private int numIteracoes;
+
+	/**
+	 * Pontos da equipe do jogador na busca atual (a raiz não tem jogada, então
+	 * eles não ficam no nó)
+	 */
+	private long pontosRaiz;
+
+	/**
+	 * Decisão assíncrona sendo tomada (null nas chamadas síncronas)
+	 */
+	private Pedido<?> pedidoAtual;
+
+	public EstrategiaMCTS() {
+		this(ORCAMENTO_PADRAO_MS, CAPACIDADE_PADRAO, new Random());
+	}
+
+	/**
+	 * @param orcamentoMs
+	 *            tempo máximo (em milissegundos) de busca por decisão
+	 * @param capacidade
+	 *            quantidade máxima de nós da árvore
+	 * @param random
+	 *            gerador usado nos sorteios (ex.: com semente fixa, para
+	 *            reproduzir partidas, em conjunto com setLimiteIteracoes())
+	 */
+	public EstrategiaMCTS(int orcamentoMs, int capacidade, Random random) {
+		this.orcamentoMs = orcamentoMs;
+		this.capacidade = Math.max(1, capacidade);
+		this.random = random;
+	}
+
+	/**
+	 * Limita a quantidade de iterações por decisão (além do orçamento de
+	 * tempo), o que torna as decisões reprodutíveis com uma semente fixa.
+	 *
+	 * @param limiteIteracoes
+	 *            quantidade máxima de iterações, ou 0 para usar só o tempo
+	 */
+	public void setLimiteIteracoes(int limiteIteracoes) {
+		this.limiteIteracoes = limiteIteracoes;
+	}
+
+	/**
+	 * @return quantidade de iterações da última decisão
+	 */
+	public int getNumIteracoes() {
+		return numIteracoes;
+	}
+
+	/**
+	 * @return quantidade de nós na árvore
+	 */
+	public int getNumNos() {
+		return arvoreValida ? numNos : 0;
+	}
+
+	public String getNomeEstrategia() {
+		return NOME;
+	}
+
+	public String getInfoEstrategia() {
+		return "Busca em árvore de Monte Carlo (ISMCTS) com orçamento de tempo";
+	}
+
+	public int joga(SituacaoJogo s) {
+		int numCartas = s.numCartasJogador;
+		if (numCartas == 1 && s.valorProximaAposta == 0) {
+			return 0;
+		}
+		determinizacao.prepara(s);
+		if (determinizacao.estadoBase.posVez != s.posJogador - 1) {
+			return 0;
+		}
+		sincronizaRaiz(s);
+		busca(equipe(s));
+		return escolheJogada(s);
+	}
+
+	/**
+	 * Escolhe a jogada a partir da busca feita até agora: a carta mais
+	 * visitada (que é a mais confiável), ou aumento, se ela ganha quase
+	 * sempre
+	 */
+	private int escolheJogada(SituacaoJogo s) {
+		int numCartas = s.numCartasJogador;
+		int melhor = 0, noMelhor = NENHUM;
+		for (int i = 0; i < numCartas; i++) {
+			int no = filhoComCarta(0, s.codigosCartasJogador[i]);
+			if (no != NENHUM
+					&& (noMelhor == NENHUM || visitas[no] > visitas[noMelhor])) {
+				melhor = i;
+				noMelhor = no;
+			}
+		}
+		if (s.valorProximaAposta != 0 && noMelhor != NENHUM
+				&& pontos[noMelhor] / (2.0 * visitas[noMelhor]) >= PROBABILIDADE_PARA_AUMENTAR) {
+			return -1;
+		}
+		return melhor;
+	}
+
+	public boolean aceitaTruco(SituacaoJogo s) {
+		int pontosAdversarios = s.pontosEquipe[equipe(s) == 1 ? 1 : 0];
+		if (pontosAdversarios + s.valorMao >= 12) {
+			// Correr é perder a partida
+			return true;
+		}
+		determinizacao.prepara(s);
+		sincronizaRaiz(s);
+		busca(equipe(s));
+		return respostaTruco(s);
+	}
+
+	/**
+	 * Aceita o aumento se o saldo esperado (segundo a busca feita até agora)
+	 * for melhor que os pontos perdidos ao correr
+	 */
+	private boolean respostaTruco(SituacaoJogo s) {
+		int valorAumento = s.getValorAumento();
+		double p = probabilidadeRaiz() - DESCONTO_AUMENTO_ADVERSARIO;
+		return (2 * p - 1) * valorAumento > -s.valorMao;
+	}
+
+	public boolean aceitaMao11(Carta[] cartasParceiro, SituacaoJogo s) {
+		determinizacao.prepara(s);
+		determinizacao.revelaCartas((s.posJogador + 1) & 3, cartasParceiro);
+		arvoreValida = false;
+		sincronizaRaiz(s);
+		busca(equipe(s));
+		// A árvore usou as cartas do parceiro, que não vão mais estar visíveis
+		arvoreValida = false;
+		return respostaMao11();
+	}
+
+	/**
+	 * Aceitar vale 3 (ganhando ou perdendo); correr perde 1
+	 */
+	private boolean respostaMao11() {
+		return (2 * probabilidadeRaiz() - 1) * 3 > -1;
+	}
+
+	public Decisao<Integer> solicitaJogada(final SituacaoJogo s, long prazoMs) {
+		return solicita(new Pedido<Integer>(new Decisao<Integer>(0, prazoMs)) {
+			Integer decide() {
+				return joga(s);
+			}
+
+			Integer parcial() {
+				return escolheJogada(s);
+			}
+		});
+	}
+
+	public Decisao<Boolean> solicitaRespostaTruco(final SituacaoJogo s,
+			long prazoMs) {
+		return solicita(new Pedido<Boolean>(
+				new Decisao<Boolean>(false, prazoMs)) {
+			Boolean decide() {
+				return aceitaTruco(s);
+			}
+
+			Boolean parcial() {
+				return respostaTruco(s);
+			}
+		});
+	}
+
+	public Decisao<Boolean> solicitaRespostaMao11(
+			final Carta[] cartasParceiro, final SituacaoJogo s, long prazoMs) {
+		return solicita(new Pedido<Boolean>(
+				new Decisao<Boolean>(false, prazoMs)) {
+			Boolean decide() {
+				return aceitaMao11(cartasParceiro, s);
+			}
+
+			Boolean parcial() {
+				return respostaMao11();
+			}
+		});
+	}
+
+	private <V> Decisao<V> solicita(Pedido<V> pedido) {
+		AdaptadorAssincrono.executa(pedido);
+		return pedido.decisao;
+	}
+
+	/**
+	 * Decisão assíncrona: roda a versão síncrona, que, durante a busca,
+	 * publica a melhor resposta até o momento e pára se a decisão for
+	 * cancelada ou o prazo acabar
+	 */
+	private abstract class Pedido<V> implements Runnable {
+
+		final Decisao<V> decisao;
+
+		Pedido(Decisao<V> decisao) {
+			this.decisao = decisao;
+		}
+
+		/**
+		 * @return a resposta final (chamando o método síncrono)
+		 */
+		abstract V decide();
+
+		/**
+		 * @return a melhor resposta com a busca feita até agora
+		 */
+		abstract V parcial();
+
+		void publicaParcial() {
+			decisao.atualiza(parcial());
+		}
+
+		public void run() {
+			// Uma decisão de cada vez (as estruturas da busca são da instância)
+			synchronized (EstrategiaMCTS.this) {
+				if (decisao.isDone()) {
+					decisao.libera();
+					return;
+				}
+				pedidoAtual = this;
+				try {
+					decisao.conclui(decide());
+				} catch (RuntimeException e) {
+					decisao.encerra();
+				} finally {
+					pedidoAtual = null;
+					decisao.libera();
+				}
+			}
+		}
+	}
+
+	public void inicioPartida() {
+	}
+
+	public synchronized void inicioMao() {
+		arvoreValida = false;
+	}
+
+	public void pediuAumentoAposta(int posicao, int valor) {
+		// O aumento não muda as cartas (e a árvore só avalia quem ganha a
+		// mão), então a raiz continua valendo
+	}
+
+	public void aceitouAumentoAposta(int posicao, int valor) {
+	}
+
+	public synchronized void recusouAumentoAposta(int posicao) {
+		// A mão acabou
+		arvoreValida = false;
+	}
+
+	private static int equipe(SituacaoJogo s) {
+		return EstadoMao.equipe(s.posJogador - 1);
+	}
+
+	/**
+	 * @return probabilidade de vitória (contando empate como meia vitória) da
+	 *         equipe do jogador na última busca
+	 */
+	private double probabilidadeRaiz() {
+		return numIteracoes == 0 ? 0.5 : pontosRaiz / (2.0 * numIteracoes);
+	}
+
+	/**
+	 * Leva a raiz da árvore até a situação atual, descendo pelas cartas
+	 * jogadas desde a última decisão (e descartando o resto da árvore). Se não
+	 * for possível, recomeça a árvore. Deve ser chamado depois de preparar a
+	 * determinização.
+	 */
+	private void sincronizaRaiz(SituacaoJogo s) {
+		alocaArvore();
+		EstadoMao atual = determinizacao.estadoBase;
+		if (arvoreValida) {
+			int no = 0;
+			while (no != NENHUM && estadoRaiz.resultadoMao == 0
+					&& estadoRaiz.rodada <= atual.rodada) {
+				int codigo = s.codigosCartasJogadas[estadoRaiz.rodada][estadoRaiz.posVez];
+				if (codigo == Carta.ID_NENHUM) {
+					break;
+				}
+				no = filhoComCarta(no, codigo);
+				estadoRaiz.colocaNaMesa(codigo);
+			}
+			if (no != NENHUM && estadoRaiz.rodada == atual.rodada
+					&& estadoRaiz.posAbriuRodada == atual.posAbriuRodada
+					&& estadoRaiz.numJogadasRodada == atual.numJogadasRodada) {
+				compacta(no);
+				return;
+			}
+		}
+		estadoRaiz.copia(atual);
+		numNos = 0;
+		criaNo(NENHUM, Carta.ID_NENHUM, NENHUM);
+		arvoreValida = true;
+	}
+
+	private void alocaArvore() {
+		if (pai == null) {
+			pai = new int[capacidade];
+			primeiroFilho = new int[capacidade];
+			proximoIrmao = new int[capacidade];
+			carta = new byte[capacidade];
+			posicao = new byte[capacidade];
+			visitas = new int[capacidade];
+			disponibilidade = new int[capacidade];
+			pontos = new int[capacidade];
+			novoIndice = new int[capacidade];
+		}
+	}
+
+	/**
+	 * Acrescenta um nó (que deve caber nos arrays) como primeiro filho de
+	 * outro
+	 *
+	 * @return índice do novo nó
+	 */
+	private int criaNo(int noPai, int codigoCarta, int pos) {
+		int no = numNos++;
+		pai[no] = noPai;
+		primeiroFilho[no] = NENHUM;
+		carta[no] = (byte) codigoCarta;
+		posicao[no] = (byte) pos;
+		visitas[no] = 0;
+		disponibilidade[no] = 0;
+		pontos[no] = 0;
+		if (noPai == NENHUM) {
+			proximoIrmao[no] = NENHUM;
+		} else {
+			proximoIrmao[no] = primeiroFilho[noPai];
+			primeiroFilho[noPai] = no;
+		}
+		return no;
+	}
+
+	/**
+	 * @return filho do nó alcançado jogando aquela carta, ou NENHUM se não
+	 *         houver
+	 */
+	private int filhoComCarta(int no, int codigoCarta) {
+		for (int f = primeiroFilho[no]; f != NENHUM; f = proximoIrmao[f]) {
+			if (carta[f] == codigoCarta) {
+				return f;
+			}
+		}
+		return NENHUM;
+	}
+
+	/**
+	 * Faz de um nó a nova raiz, movendo a subárvore dele para o início dos
+	 * arrays (sem alocar nada).
+	 * <p>
+	 * Funciona no próprio array porque os filhos são sempre criados depois dos
+	 * pais: percorrendo os nós em ordem, cada um vai para uma posição menor ou
+	 * igual à sua, que já foi lida.
+	 */
+	private void compacta(int novaRaiz) {
+		if (novaRaiz == 0) {
+			return;
+		}
+		int n = 0;
+		for (int i = novaRaiz; i < numNos; i++) {
+			if (i == novaRaiz
+					|| (pai[i] >= novaRaiz && novoIndice[pai[i]] != NENHUM)) {
+				novoIndice[i] = n++;
+			} else {
+				novoIndice[i] = NENHUM;
+			}
+		}
+		for (int i = novaRaiz; i < numNos; i++) {
+			int k = novoIndice[i];
+			if (k == NENHUM) {
+				continue;
+			}
+			boolean raiz = i == novaRaiz;
+			pai[k] = raiz ? NENHUM : novoIndice[pai[i]];
+			proximoIrmao[k] = raiz ? NENHUM : remapeia(proximoIrmao[i]);
+			primeiroFilho[k] = remapeia(primeiroFilho[i]);
+			carta[k] = carta[i];
+			posicao[k] = posicao[i];
+			visitas[k] = visitas[i];
+			disponibilidade[k] = disponibilidade[i];
+			pontos[k] = pontos[i];
+		}
+		numNos = n;
+	}
+
+	private int remapeia(int no) {
+		return no == NENHUM ? NENHUM : novoIndice[no];
+	}
+
+	/**
+	 * Faz iterações até esgotar o orçamento (ou o limite de iterações, ou o
+	 * prazo da decisão assíncrona em andamento)
+	 *
+	 * @param equipe
+	 *            equipe (1 ou 2) do jogador
+	 */
+	private void busca(int equipe) {
+		long agora = System.nanoTime();
+		long prazoNanos = agora + orcamentoMs * 1000000L;
+		Pedido<?> pedido = pedidoAtual;
+		if (pedido != null) {
+			prazoNanos = Math.min(prazoNanos, agora
+					+ pedido.decisao.getTempoRestante() * 1000000L);
+		}
+		long proximaParcial = agora + INTERVALO_PARCIAL_NANOS;
+		determinizacao.copiaOcultas(ocultas);
+		numIteracoes = 0;
+		pontosRaiz = 0;
+		do {
+			for (int k = 0; k < ITERACOES_POR_CONSULTA_AO_RELOGIO; k++) {
+				itera(equipe);
+				if (++numIteracoes == limiteIteracoes) {
+					return;
+				}
+			}
+			agora = System.nanoTime();
+			if (pedido != null) {
+				if (pedido.decisao.isDone()) {
+					// Cancelada (ou encerrada por quem pediu)
+					return;
+				}
+				if (agora >= proximaParcial) {
+					pedido.publicaParcial();
+					proximaParcial = agora + INTERVALO_PARCIAL_NANOS;
+				}
+			}
+		} while (agora < prazoNanos);
+	}
+
+	/**
+	 * Uma iteração: sorteia as cartas, desce a árvore (seleção e expansão),
+	 * completa a mão (simulação) e atualiza os nós do caminho (retropropagação)
+	 */
+	private void itera(int equipe) {
+		EstadoMao e = simulado;
+		determinizacao.sorteia(e, ocultas, random);
+		int no = 0;
+		int tamanhoCaminho = 0;
+		while (e.resultadoMao == 0) {
+			int pos = e.posVez;
+			int n = e.numCartas[pos];
+			if (n == 0) {
+				break;
+			}
+			int[] mao = e.cartas[pos];
+			int numNaoTentadas = 0;
+			int melhorIndice = 0, melhorFilho = NENHUM;
+			double melhorValor = -1;
+			for (int i = 0; i < n; i++) {
+				int filho = filhoComCarta(no, mao[i]);
+				if (filho == NENHUM) {
+					naoTentadas[numNaoTentadas++] = i;
+					continue;
+				}
+				disponibilidade[filho]++;
+				double valor = pontos[filho] / (2.0 * visitas[filho])
+						+ EXPLORACAO
+						* Math.sqrt(Math.log(disponibilidade[filho])
+								/ visitas[filho]);
+				if (valor > melhorValor) {
+					melhorValor = valor;
+					melhorIndice = i;
+					melhorFilho = filho;
+				}
+			}
+			if (numNaoTentadas > 0) {
+				// Expansão (se couber) e simulação a partir daqui
+				int i = naoTentadas[random.nextInt(numNaoTentadas)];
+				if (numNos < capacidade) {
+					caminho[tamanhoCaminho++] = criaNo(no, mao[i], pos);
+				}
+				e.joga(i);
+				break;
+			}
+			no = melhorFilho;
+			caminho[tamanhoCaminho++] = no;
+			e.joga(melhorIndice);
+		}
+		int resultado = e.completa(random);
+		for (int i = 0; i < tamanhoCaminho; i++) {
+			int c = caminho[i];
+			visitas[c]++;
+			pontos[c] += pontua(resultado, EstadoMao.equipe(posicao[c]));
+		}
+		visitas[0]++;
+		pontosRaiz += pontua(resultado, equipe);
+	}
+
+	private static int pontua(int resultado, int equipe) {
+		return resultado == equipe ? 2 : resultado == 3 ? 1 : 0;
+	}
+
+}
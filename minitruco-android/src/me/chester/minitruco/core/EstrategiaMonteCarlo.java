@@ -0,0 +1,385 @@
+package me.chester.minitruco.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Estratégia que decide por simulação (Monte Carlo com determinização).
+ * <p>
+ * A cada decisão, sorteia muitas distribuições possíveis das cartas que o
+ * jogador ainda não viu entre os outros jogadores e joga cada uma delas até o
+ * fim da mão (com uma política simples, ver <code>EstadoMao</code>). A opção
+ * que vence mais vezes é a escolhida; as probabilidades de vitória também
+ * decidem os pedidos de aumento, o aceite do truco e o da mão de 11.
+ * <p>
+ * As simulações rodam em paralelo (num pool compartilhado por todas as
+ * instâncias, com uma thread por processador) até esgotar um orçamento de
+ * tempo configurável, e não criam objetos durante a simulação.
+ * <p>
+ * Não joga cartas fechadas nem tenta deduzir as cartas dos adversários pelas
+ * apostas: todas as distribuições coerentes com o que foi visto são
+ * consideradas igualmente prováveis.
+ *
+ */
+public class EstrategiaMonteCarlo implements Estrategia {
+
+	/**
+	 * Nome da estratégia (constante, para que o Simulador a encontre sem
+	 * carregar a classe)
+	 */
+	public static final String NOME = "Monte Carlo";
+
+	/**
+	 * Tempo (em milissegundos) de cada decisão, se não for especificado
+	 */
+	public static final int ORCAMENTO_PADRAO_MS = 250;
+
+	/**
+	 * Probabilidade de vitória a partir da qual a estratégia pede aumento
+	 */
+	private static final double PROBABILIDADE_PARA_AUMENTAR = 0.75;
+
+	/**
+	 * Quanto descontar da probabilidade de vitória ao avaliar um aumento
+	 * pedido pelo adversário (as simulações supõem que ele tem cartas
+	 * quaisquer, mas quem pede aumento costuma ter cartas boas)
+	 */
+	private static final double DESCONTO_AUMENTO_ADVERSARIO = 0.3;
+
+	/**
+	 * Quantas amostras cada thread processa entre as consultas ao relógio
+	 */
+	private static final int AMOSTRAS_POR_CONSULTA_AO_RELOGIO = 8;
+
+	private static ExecutorService executor;
+
+	/**
+	 * @return pool compartilhado de threads das simulações (criado na
+	 *         primeira decisão paralela)
+	 */
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+					.availableProcessors(), new ThreadFactory() {
+				private AtomicInteger numThread = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "MonteCarlo-"
+							+ numThread.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return executor;
+	}
+
+	private int orcamentoMs;
+
+	private int limiteAmostras;
+
+	private Trabalhador[] trabalhadores;
+
+	/**
+	 * O que o jogador sabe da mão (montado a cada decisão e lido pelos
+	 * trabalhadores)
+	 */
+	private Determinizacao determinizacao = new Determinizacao();
+
+	/**
+	 * Pontos (2 por vitória, 1 por empate) de cada ação na última simulação
+	 */
+	private long[] pontos = new long[3];
+
+	private long numAmostras;
+
+	public EstrategiaMonteCarlo() {
+		this(ORCAMENTO_PADRAO_MS, Runtime.getRuntime().availableProcessors(),
+				new Random());
+	}
+
+	/**
+	 * @param orcamentoMs
+	 *            tempo máximo (em milissegundos) de simulação por decisão
+	 * @param numThreads
+	 *            quantidade de threads simulando em paralelo (com 1, simula na
+	 *            própria thread do jogador)
+	 * @param random
+	 *            gerador que semeia os sorteios (ex.: com semente fixa, para
+	 *            reproduzir partidas, em conjunto com setLimiteAmostras())
+	 */
+	public EstrategiaMonteCarlo(int orcamentoMs, int numThreads, Random random) {
+		this.orcamentoMs = orcamentoMs;
+		trabalhadores = new Trabalhador[Math.max(1, numThreads)];
+		for (int i = 0; i < trabalhadores.length; i++) {
+			trabalhadores[i] = new Trabalhador(new Random(random.nextLong()));
+		}
+	}
+
+	/**
+	 * Limita a quantidade de distribuições simuladas por decisão (além do
+	 * orçamento de tempo), o que torna as decisões reprodutíveis com uma
+	 * thread e uma semente fixa.
+	 *
+	 * @param limiteAmostras
+	 *            quantidade máxima de distribuições, ou 0 para usar só o tempo
+	 */
+	public void setLimiteAmostras(int limiteAmostras) {
+		this.limiteAmostras = limiteAmostras;
+	}
+
+	/**
+	 * @return quantidade de distribuições simuladas na última decisão
+	 */
+	public long getNumAmostras() {
+		return numAmostras;
+	}
+
+	public String getNomeEstrategia() {
+		return NOME;
+	}
+
+	public String getInfoEstrategia() {
+		return "Simulação de Monte Carlo com orçamento de tempo";
+	}
+
+	public int joga(SituacaoJogo s) {
+		int numCartas = s.numCartasJogador;
+		if (numCartas == 1 && s.valorProximaAposta == 0) {
+			return 0;
+		}
+		determinizacao.prepara(s);
+		if (determinizacao.estadoBase.posVez != s.posJogador - 1
+				|| !simula(numCartas, equipe(s))) {
+			return 0;
+		}
+		int melhor = 0;
+		for (int i = 1; i < numCartas; i++) {
+			if (pontos[i] > pontos[melhor]) {
+				melhor = i;
+			}
+		}
+		if (s.valorProximaAposta != 0
+				&& probabilidade(melhor) >= PROBABILIDADE_PARA_AUMENTAR) {
+			return -1;
+		}
+		return melhor;
+	}
+
+	public boolean aceitaTruco(SituacaoJogo s) {
+		int pontosAdversarios = s.pontosEquipe[equipe(s) == 1 ? 1 : 0];
+		if (pontosAdversarios + s.valorMao >= 12) {
+			// Correr é perder a partida
+			return true;
+		}
+		determinizacao.prepara(s);
+		if (!simula(0, equipe(s))) {
+			return false;
+		}
+		// Aceita se o saldo esperado for melhor que os pontos perdidos ao correr
+		int valorAumento = s.getValorAumento();
+		double p = probabilidade(0) - DESCONTO_AUMENTO_ADVERSARIO;
+		return (2 * p - 1) * valorAumento > -s.valorMao;
+	}
+
+	public boolean aceitaMao11(Carta[] cartasParceiro, SituacaoJogo s) {
+		determinizacao.prepara(s);
+		determinizacao.revelaCartas((s.posJogador + 1) & 3, cartasParceiro);
+		if (!simula(0, equipe(s))) {
+			return false;
+		}
+		// Aceitar vale 3 (ganhando ou perdendo); correr perde 1
+		return (2 * probabilidade(0) - 1) * 3 > -1;
+	}
+
+	public void inicioPartida() {
+	}
+
+	public void inicioMao() {
+	}
+
+	public void pediuAumentoAposta(int posicao, int valor) {
+	}
+
+	public void aceitouAumentoAposta(int posicao, int valor) {
+	}
+
+	public void recusouAumentoAposta(int posicao) {
+	}
+
+	private static int equipe(SituacaoJogo s) {
+		return EstadoMao.equipe(s.posJogador - 1);
+	}
+
+	/**
+	 * @return probabilidade de vitória (contando empate como meia vitória) da
+	 *         ação na última simulação
+	 */
+	private double probabilidade(int acao) {
+		return pontos[acao] / (2.0 * numAmostras);
+	}
+
+	/**
+	 * Simula distribuições até esgotar o orçamento (ou o limite de amostras),
+	 * acumulando em pontos[] o resultado de cada ação para a equipe do
+	 * jogador.
+	 *
+	 * @param numAcoes
+	 *            quantidade de cartas a avaliar para o jogador da vez, ou 0
+	 *            para só completar a mão a partir do estado atual
+	 * @param equipe
+	 *            equipe (1 ou 2) do jogador
+	 * @return false se a simulação foi interrompida sem resultado
+	 */
+	private boolean simula(int numAcoes, int equipe) {
+		long prazoNanos = System.nanoTime() + orcamentoMs * 1000000L;
+		int limitePorTrabalhador = limiteAmostras == 0 ? 0
+				: (limiteAmostras + trabalhadores.length - 1)
+						/ trabalhadores.length;
+		for (int i = 0; i < trabalhadores.length; i++) {
+			trabalhadores[i].prepara(numAcoes, equipe, prazoNanos,
+					limitePorTrabalhador);
+		}
+		if (trabalhadores.length == 1) {
+			trabalhadores[0].call();
+		} else {
+			List<Trabalhador> tarefas = new ArrayList<Trabalhador>(
+					trabalhadores.length);
+			for (int i = 0; i < trabalhadores.length; i++) {
+				tarefas.add(trabalhadores[i]);
+			}
+			try {
+				for (Future<Void> f : getExecutor()
+						.invokeAll(tarefas)) {
+					f.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		numAmostras = 0;
+		for (int a = 0; a < pontos.length; a++) {
+			pontos[a] = 0;
+		}
+		for (int i = 0; i < trabalhadores.length; i++) {
+			Trabalhador t = trabalhadores[i];
+			numAmostras += t.numAmostras;
+			for (int a = 0; a < pontos.length; a++) {
+				pontos[a] += t.pontos[a];
+			}
+		}
+		return numAmostras != 0;
+	}
+
+	/**
+	 * Faz as simulações de uma thread, com seus próprios gerador e estados
+	 * (para não disputar nada com as outras)
+	 */
+	private class Trabalhador implements Callable<Void> {
+
+		private Random random;
+
+		private EstadoMao sorteado = new EstadoMao();
+
+		private EstadoMao simulado = new EstadoMao();
+
+		private int[] ocultas = new int[Carta.NUM_IDS];
+
+		private int numAcoes, equipe, limite;
+
+		private long prazoNanos;
+
+		long[] pontos = new long[3];
+
+		long numAmostras;
+
+		Trabalhador(Random random) {
+			this.random = random;
+		}
+
+		void prepara(int numAcoes, int equipe, long prazoNanos, int limite) {
+			this.numAcoes = numAcoes;
+			this.equipe = equipe;
+			this.prazoNanos = prazoNanos;
+			this.limite = limite;
+			determinizacao.copiaOcultas(ocultas);
+		}
+
+		public Void call() {
+			numAmostras = 0;
+			pontos[0] = pontos[1] = pontos[2] = 0;
+			do {
+				for (int k = 0; k < AMOSTRAS_POR_CONSULTA_AO_RELOGIO; k++) {
+					determinizacao.sorteia(sorteado, ocultas, random);
+					if (numAcoes == 0) {
+						simulado.copia(sorteado);
+						pontos[0] += pontua(simulado.completa(random));
+					} else {
+						for (int a = 0; a < numAcoes; a++) {
+							simulado.copia(sorteado);
+							simulado.joga(a);
+							pontos[a] += pontua(simulado.completa(random));
+						}
+					}
+					if (++numAmostras == limite) {
+						return null;
+					}
+				}
+			} while (System.nanoTime() < prazoNanos);
+			return null;
+		}
+
+		private int pontua(int resultado) {
+			return resultado == equipe ? 2 : resultado == 3 ? 1 : 0;
+		}
+	}
+
+}
@@ -44,11 +44,39 @@ import java.util.Random;
  * 
  */
 public class EstrategiaSellani implements Estrategia {
-	private static Random rand = new Random();
+
+	/**
+	 * Gerador de números aleatórios (um por instância, para que estratégias
+	 * rodando em threads diferentes não disputem o mesmo gerador)
+	 */
+	private Random rand;
+
+	public EstrategiaSellani() {
+		this(new Random());
+	}
+
+	/**
+	 * Cria a estratégia usando um gerador de números aleatórios específico
+	 * (ex.: com semente fixa, para reproduzir partidas)
+	 * 
+	 * @param rand
+	 *            gerador usado nas decisões "na dúvida"
+	 */
+	public EstrategiaSellani(Random rand) {
+		this.rand = rand;
+	}
 	private static int CARTA_RUIM = 0;
 	private static int CARTA_MEDIA = 1;
 	private static int CARTA_BOA = 2;
 	private static int CARTA_EXCELENTE = 3;
+
+	/**
+	 * Equidades mínimas (ver TabelaEquidade) para aceitar um truco na
+	 * primeira rodada e para jogar a mão de 11
+	 */
+	private static final double EQUIDADE_ACEITA_TRUCO = 0.8;
+	private static final double EQUIDADE_MAO_11 = 0.5;
+
 	int[] C = new int[3];
 
 	public String getNomeEstrategia() {
@@ -654,6 +682,9 @@ public class EstrategiaSellani implements Estrategia {
 		switch (s.numRodadaAtual) {
 		// primeira rodada
 		case 1:
+			// se a minha mão (ainda inteira) é muito forte eu aceito
+			if (TabelaEquidade.getEquidade(s) >= EQUIDADE_ACEITA_TRUCO)
+				return true;
 			// se eu tiver pelo menos uma manilha e uma carta boa eu aceito
 			if (qualidadeMinhaMaior(s) == CARTA_EXCELENTE
 					&& qualidadeCarta(s.cartasJogador[C[1]], s) >= CARTA_BOA)
@@ -788,6 +819,11 @@ public class EstrategiaSellani implements Estrategia {
 	 * Retorna se eu aceito jogar ou não esta mão de 11.
 	 */
 	public boolean aceitaMao11(Carta[] cartasParceiro, SituacaoJogo s) {
+		// com a tabela de equidade nem precisa contar as cartas
+		double equidade = TabelaEquidade.getEquidadeMao11(s, cartasParceiro);
+		if (equidade >= 0)
+			return equidade >= EQUIDADE_MAO_11;
+
 		int qBoa = 0, qExcelente = 0;
 
 		for (int i = 0; i <= 2; i++) {
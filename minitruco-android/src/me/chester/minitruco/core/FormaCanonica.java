@@ -0,0 +1,217 @@
+package me.chester.minitruco.core;
+
+import java.util.Arrays;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Reduz situações de jogo e mãos equivalentes a uma mesma chave de 64 bits,
+ * para que caches, tabelas e tabelas de transposição das buscas guardem uma
+ * entrada só para todas elas.
+ * <p>
+ * No truco o naipe só importa nas manilhas: qualquer outra carta vale o
+ * mesmo que as da sua letra. Por isso as cartas que não são manilha recebem,
+ * letra a letra, naipes "canônicos" na ordem em que aparecem (vira, cartas
+ * jogadas por rodada e posição, e por fim a mão), pulando os naipes das
+ * manilhas, que ficam como estão. Isso vale tanto para a manilha nova (onde
+ * as 4 cartas da letra da manilha são fixas) quanto para a velha (onde só o
+ * 7 de ouros, o ás de espadas, o 7 de copas e o 4 de paus são fixos), e
+ * cobre as 24 permutações de naipes (e mais, já que cada letra é tratada
+ * separadamente).
+ * <p>
+ * O mapeamento preserva o valor de cada carta (Jogo.getValorTruco()) e leva
+ * cartas diferentes em cartas diferentes, então a situação canônica é uma
+ * situação válida equivalente à original.
+ * <p>
+ * Um objeto desta classe reaproveita seus arrays entre as chamadas, e não
+ * deve ser compartilhado entre threads.
+ */
+public class FormaCanonica {
+
+	/**
+	 * Valor da menor manilha (ver Jogo.getValorTruco())
+	 */
+	private static final int VALOR_MENOR_MANILHA = 11;
+
+	/**
+	 * Para cada índice de manilha e letra, os naipes (bit 1 &lt;&lt; naipe)
+	 * das cartas que são manilha
+	 */
+	private static final int[][] NAIPES_FIXOS = new int[Jogo.INDICE_MANILHA_VELHA + 1][10];
+
+	static {
+		for (int m = 0; m <= Jogo.INDICE_MANILHA_VELHA; m++) {
+			for (int id = 0; id < Carta.NUM_IDS; id++) {
+				if (Jogo.getValorTruco(id, m) >= VALOR_MENOR_MANILHA) {
+					NAIPES_FIXOS[m][id >> 2] |= 1 << (id & 3);
+				}
+			}
+		}
+	}
+
+	private static final int NAO_MAPEADA = -1;
+
+	private int indiceManilha;
+
+	/**
+	 * Id canônico de cada id já visto no mapeamento atual
+	 */
+	private final int[] mapa = new int[Carta.NUM_IDS];
+
+	/**
+	 * Naipes já usados (ou fixos) de cada letra no mapeamento atual
+	 */
+	private final int[] naipesUsados = new int[10];
+
+	private final int[] mao = new int[3];
+
+	/**
+	 * Começa um novo mapeamento de cartas
+	 *
+	 * @param indiceManilha
+	 *            índice da manilha, conforme Jogo.getIndiceManilha()
+	 */
+	public void inicia(int indiceManilha) {
+		this.indiceManilha = indiceManilha;
+		Arrays.fill(mapa, NAO_MAPEADA);
+		System.arraycopy(NAIPES_FIXOS[indiceManilha], 0, naipesUsados, 0, 10);
+	}
+
+	/**
+	 * Converte uma carta para a forma canônica, continuando o mapeamento
+	 * atual (cartas que já apareceram mantêm a conversão anterior).
+	 *
+	 * @param codigo
+	 *            código da carta (ver Carta.getCodigo())
+	 * @return código canônico, com o BIT_FECHADA se houver. Códigos sem id
+	 *         (ID_NENHUM ou fechada sem id) são devolvidos como estão.
+	 */
+	public int canoniza(int codigo) {
+		if (codigo < 0 || codigo == Carta.BIT_FECHADA) {
+			return codigo;
+		}
+		int id = codigo & ~Carta.BIT_FECHADA;
+		if (mapa[id] == NAO_MAPEADA) {
+			int letra = id >> 2;
+			if ((NAIPES_FIXOS[indiceManilha][letra] & (1 << (id & 3))) != 0) {
+				mapa[id] = id;
+			} else {
+				int usados = naipesUsados[letra];
+				int naipe = Integer.numberOfTrailingZeros(~usados);
+				naipesUsados[letra] = usados | (1 << naipe);
+				mapa[id] = (letra << 2) | naipe;
+			}
+		}
+		return (codigo & Carta.BIT_FECHADA) | mapa[id];
+	}
+
+	/**
+	 * Chave de uma mão de 3 cartas, que é a mesma para todas as mãos
+	 * equivalentes (e diferente para as que não são).
+	 *
+	 * @param codigoVira
+	 *            id do vira, ou Carta.ID_NENHUM (manilha velha ou vira
+	 *            irrelevante)
+	 * @param indiceManilha
+	 *            índice da manilha, conforme Jogo.getIndiceManilha()
+	 */
+	public long chaveMao(int codigo1, int codigo2, int codigo3,
+			int codigoVira, int indiceManilha) {
+		inicia(indiceManilha);
+		int vira = canoniza(codigoVira);
+		mao[0] = canoniza(codigo1);
+		mao[1] = canoniza(codigo2);
+		mao[2] = canoniza(codigo3);
+		Arrays.sort(mao);
+		return indiceManilha | ((vira + 1) << 4) | ((long) mao[0] << 10)
+				| ((long) mao[1] << 17) | ((long) mao[2] << 24);
+	}
+
+	/**
+	 * Chave da situação de jogo (cartas, placar, apostas, posições e
+	 * regras), que é a mesma para todas as situações equivalentes.
+	 * <p>
+	 * Como a situação não cabe em 64 bits, a chave é um hash da forma
+	 * canônica: situações diferentes podem, muito raramente, colidir.
+	 * <p>
+	 * Depois desta chamada, canoniza() devolve a forma canônica das cartas da
+	 * situação.
+	 */
+	public long chave(SituacaoJogo s) {
+		inicia(Jogo.getIndiceManilha(s.manilha));
+		long h = mistura(indiceManilha, s.numRodadaAtual | (s.posJogador << 2)
+				| (s.posJogadorQueAbriuRodada << 5)
+				| (s.posJogadorPedindoAumento << 8)
+				| (s.resultadoRodada[0] << 11) | (s.resultadoRodada[1] << 13)
+				| (s.resultadoRodada[2] << 15) | (s.baralhoSujo ? 1 << 17 : 0)
+				| (s.podeFechada ? 1 << 18 : 0));
+		h = mistura(h, s.valorMao | (s.valorProximaAposta << 8)
+				| (s.pontosEquipe[0] << 16) | (s.pontosEquipe[1] << 24));
+		h = mistura(h, canoniza(s.codigoVira));
+		for (int i = 0; i <= 2; i++) {
+			int[] jogadas = s.codigosCartasJogadas[i];
+			int rodada = 0;
+			for (int k = 0; k <= 3; k++) {
+				rodada |= (canoniza(jogadas[k]) + 1) << (k << 3);
+			}
+			h = mistura(h, rodada);
+		}
+		int n = s.numCartasJogador;
+		for (int i = 0; i < n; i++) {
+			mao[i] = canoniza(s.codigosCartasJogador[i]);
+		}
+		Arrays.sort(mao, 0, n);
+		int cartas = n;
+		for (int i = 0; i < n; i++) {
+			cartas |= (mao[i] + 1) << (2 + 8 * i);
+		}
+		return finaliza(mistura(h, cartas));
+	}
+
+	private static long mistura(long h, int valor) {
+		h = (h ^ (valor & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private static long finaliza(long h) {
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+}
@@ -0,0 +1,312 @@
+package me.chester.minitruco.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Hospeda várias partidas (mesas) simultâneas na mesma JVM, processando todas
+ * elas num pool pequeno de threads.
+ * <p>
+ * Nenhuma mesa tem thread própria: elas só ocupam uma thread do pool enquanto
+ * processam os comandos recebidos dos jogadores (ver <code>Mesa</code>).
+ * Isso permite hospedar milhares de mesas num servidor.
+ * <p>
+ * O gerenciador também mantém métricas agregadas (mesas ativas, eventos por
+ * segundo) e mede a memória por mesa, para dimensionar o servidor.
+ *
+ * @see Mesa
+ *
+ */
+public class GerenciadorMesas {
+
+	private ExecutorService pool;
+
+	private AtomicInteger ultimoIdMesa = new AtomicInteger();
+
+	/**
+	 * Mesas criadas e ainda não encerradas (aguardando jogadores ou jogando)
+	 */
+	private ConcurrentHashMap<Integer, Mesa> mesas = new ConcurrentHashMap<Integer, Mesa>();
+
+	private AtomicInteger numMesasJogando = new AtomicInteger();
+
+	private AtomicInteger numMesasEncerradas = new AtomicInteger();
+
+	private AtomicLong numEventos = new AtomicLong();
+
+	private long criacaoNanos = System.nanoTime();
+
+	/**
+	 * Heap retido antes de qualquer mesa (ver marcaMemoriaBase())
+	 */
+	private long memoriaBase = -1;
+
+	private boolean logHabilitado;
+
+	/**
+	 * Cria um gerenciador com uma thread por processador
+	 */
+	public GerenciadorMesas() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param numThreads
+	 *            quantidade de threads que processarão todas as mesas
+	 */
+	public GerenciadorMesas(int numThreads) {
+		pool = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			private AtomicInteger numThread = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Mesas-"
+						+ numThread.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Liga ou desliga o log dos jogos das mesas criadas a partir de agora
+	 * (desligado por default, já que milhares de mesas gerariam log demais)
+	 */
+	public void setLogHabilitado(boolean logHabilitado) {
+		this.logHabilitado = logHabilitado;
+	}
+
+	/**
+	 * Cria uma mesa vazia (os parâmetros são os mesmos do construtor de
+	 * <code>JogoLocal</code>). Os jogadores devem sentar e a mesa deve ser
+	 * iniciada.
+	 */
+	public Mesa criaMesa(boolean baralhoLimpo, boolean manilhaVelha,
+			boolean tentoMineiro) {
+		JogoLocal jogo = new JogoLocal(baralhoLimpo, manilhaVelha,
+				tentoMineiro);
+		jogo.setLogHabilitado(logHabilitado);
+		Mesa mesa = new Mesa(ultimoIdMesa.incrementAndGet(), this, jogo);
+		mesas.put(mesa.getId(), mesa);
+		return mesa;
+	}
+
+	/**
+	 * @return mesa com aquele id, ou null se ela não existe ou já encerrou
+	 */
+	public Mesa getMesa(int id) {
+		return mesas.get(id);
+	}
+
+	/**
+	 * @return mesas ainda não encerradas
+	 */
+	public List<Mesa> getMesas() {
+		return new ArrayList<Mesa>(mesas.values());
+	}
+
+	/**
+	 * Aborta todas as mesas e libera as threads do pool
+	 */
+	public void encerra() {
+		for (Mesa mesa : mesas.values()) {
+			mesa.aborta();
+		}
+		pool.shutdown();
+	}
+
+	// /// CHAMADOS PELAS MESAS
+
+	void executa(Runnable tarefa) {
+		pool.execute(tarefa);
+	}
+
+	void mesaIniciada(Mesa mesa) {
+		numMesasJogando.incrementAndGet();
+	}
+
+	void mesaEncerrada(Mesa mesa) {
+		if (mesas.remove(mesa.getId()) != null) {
+			if (mesa.isIniciada()) {
+				numMesasJogando.decrementAndGet();
+			}
+			numMesasEncerradas.incrementAndGet();
+		}
+	}
+
+	void contabilizaEventos(int eventos) {
+		numEventos.addAndGet(eventos);
+	}
+
+	// /// MÉTRICAS
+
+	/**
+	 * @return quantidade de mesas com partida em andamento
+	 */
+	public int getNumMesasJogando() {
+		return numMesasJogando.get();
+	}
+
+	/**
+	 * @return quantidade de mesas criadas e não encerradas (jogando ou
+	 *         aguardando jogadores)
+	 */
+	public int getNumMesasAtivas() {
+		return mesas.size();
+	}
+
+	public int getNumMesasEncerradas() {
+		return numMesasEncerradas.get();
+	}
+
+	/**
+	 * @return total de eventos (início de partida e comandos dos jogadores)
+	 *         processados em todas as mesas
+	 */
+	public long getNumEventos() {
+		return numEventos.get();
+	}
+
+	/**
+	 * Momento e total de eventos de uma amostra, para calcular a taxa de
+	 * eventos num intervalo (ver getEventosPorSegundo()). Cada monitor
+	 * mantém a sua (não é thread-safe).
+	 */
+	public static class AmostraEventos {
+		private long nanos, eventos;
+	}
+
+	/**
+	 * @return amostra com o momento e o total de eventos atuais
+	 */
+	public AmostraEventos criaAmostraEventos() {
+		AmostraEventos amostra = new AmostraEventos();
+		amostra.nanos = System.nanoTime();
+		amostra.eventos = numEventos.get();
+		return amostra;
+	}
+
+	/**
+	 * Taxa de eventos desde a amostra, que passa a ser a do momento atual.
+	 * Para acompanhar a carga, basta chamá-lo periodicamente com a mesma
+	 * amostra (obtida em criaAmostraEventos()).
+	 *
+	 * @return eventos por segundo no intervalo
+	 */
+	public double getEventosPorSegundo(AmostraEventos amostra) {
+		long agora = System.nanoTime();
+		long eventos = numEventos.get();
+		long nanos = agora - amostra.nanos;
+		double taxa = nanos == 0 ? 0 : (eventos - amostra.eventos)
+				* 1000000000.0 / nanos;
+		amostra.nanos = agora;
+		amostra.eventos = eventos;
+		return taxa;
+	}
+
+	/**
+	 * @return média de eventos por segundo desde a criação do gerenciador
+	 */
+	public double getEventosPorSegundoMedia() {
+		long nanos = System.nanoTime() - criacaoNanos;
+		return nanos == 0 ? 0 : numEventos.get() * 1000000000.0 / nanos;
+	}
+
+	/**
+	 * Registra o heap retido (após coletar o lixo) como referência para
+	 * medeMemoriaPorMesa(). Deve ser chamado antes de criar as mesas.
+	 */
+	public void marcaMemoriaBase() {
+		memoriaBase = memoriaRetida();
+	}
+
+	/**
+	 * Mede a memória retida por mesa: coleta o lixo e divide o crescimento do
+	 * heap em relação a marcaMemoriaBase() pelas mesas ativas. Como força
+	 * coletas, serve para dimensionamento (ex.: num teste de carga), e não
+	 * para monitoração frequente.
+	 *
+	 * @return bytes por mesa ativa, ou 0 se não houver nenhuma
+	 * @throws IllegalStateException
+	 *             se a base não foi marcada
+	 */
+	public long medeMemoriaPorMesa() {
+		if (memoriaBase < 0) {
+			throw new IllegalStateException("Memória base não marcada");
+		}
+		int numMesas = mesas.size();
+		if (numMesas == 0) {
+			return 0;
+		}
+		return Math.max(0, memoriaRetida() - memoriaBase) / numMesas;
+	}
+
+	/**
+	 * @return heap em uso depois de coletar o lixo (repetindo a coleta até ele
+	 *         parar de cair, já que System.gc() é só uma sugestão)
+	 */
+	private static long memoriaRetida() {
+		Runtime runtime = Runtime.getRuntime();
+		long retida = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			long usada = runtime.totalMemory() - runtime.freeMemory();
+			if (usada >= retida) {
+				break;
+			}
+			retida = usada;
+		}
+		return retida;
+	}
+
+	@Override
+	public String toString() {
+		return getNumMesasAtivas() + " mesas ativas (" + getNumMesasJogando()
+				+ " jogando), " + getNumMesasEncerradas() + " encerradas, "
+				+ getNumEventos() + " eventos, "
+				+ (int) getEventosPorSegundoMedia() + " eventos/s";
+	}
+
+}
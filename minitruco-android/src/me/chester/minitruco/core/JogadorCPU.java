@@ -38,6 +38,10 @@ package me.chester.minitruco.core;
  */
 
 import java.util.Vector;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import android.util.Log;
 
@@ -45,11 +49,23 @@ import android.util.Log;
  * Jogador controlado pelo celular ou pelo servidor.
  * <p>
  * É preciso "plugar" uma estratégia para que o jogador funcione.
+ * <p>
+ * O jogador não tem thread própria: cada notificação que exige uma decisão
+ * (vez, pedido de aumento, mão de 11) agenda uma tarefa num executor
+ * compartilhado por todos os JogadorCPU, com um atraso que simula o tempo de
+ * "pensar". As tarefas de um mesmo jogador são executadas uma de cada vez
+ * (sincronizadas no jogador).
+ * <p>
+ * As decisões são pedidas à estratégia de forma assíncrona (estratégias
+ * comuns passam pelo AdaptadorAssincrono), com prazo de PRAZO_DECISAO_MS. A
+ * resposta é aplicada numa nova tarefa quando a decisão é concluída (ou
+ * quando o prazo acaba), e decisões que ficaram velhas (ex.: a mão acabou, ou
+ * o parceiro já respondeu o truco) são canceladas e descartadas.
  * 
  * @see Estrategia
  * 
  */
-public class JogadorCPU extends Jogador implements Runnable {
+public class JogadorCPU extends Jogador {
 
 	/**
 	 * Cria um novo jogador CPU, usando a estratégia fornecida.
@@ -58,10 +74,8 @@ public class JogadorCPU extends Jogador implements Runnable {
 	 *            Estratégia a ser adotada por este jogador
 	 */
 	public JogadorCPU(Estrategia estrategia) {
-		this.estrategia = estrategia;
+		this.estrategia = AdaptadorAssincrono.adapta(estrategia);
 		this.setNome(estrategia.getNomeEstrategia());
-		this.thread = new Thread(this);
-		thread.start();
 	}
 
 	/**
@@ -83,36 +97,59 @@ public class JogadorCPU extends Jogador implements Runnable {
 	}
 
 	/**
-	 * Thread que processa as notificações recebidas pelo jogador (para não
-	 * travar o jogo enquanto isso oacontece)
+	 * Executor que roda as decisões de todos os JogadorCPU. As tarefas são
+	 * curtas (o tempo de "pensar" é um atraso no agendamento, e não um sleep),
+	 * então poucas threads atendem muitas mesas.
+	 */
+	private static final ScheduledExecutorService executor = Executors
+			.newScheduledThreadPool(
+					Math.max(2, Runtime.getRuntime().availableProcessors()),
+					new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "JogadorCPU");
+							// Não impede a aplicação de terminar
+							t.setDaemon(true);
+							return t;
+						}
+					});
+
+	/**
+	 * Tempo máximo que a estratégia tem para cada decisão, em milissegundos
+	 * (além do atraso de "pensar")
 	 */
-	Thread thread;
+	static final long PRAZO_DECISAO_MS = 2000;
 
 	/**
 	 * Estrategia que está controlando este jogador
 	 */
-	private Estrategia estrategia;
+	private EstrategiaAssincrona estrategia;
 
 	/**
-	 * Situação atual do jogo (para o estrategia)
+	 * Jogada pedida à estratégia e ainda não aplicada (ou null)
 	 */
-	SituacaoJogo situacaoJogo = new SituacaoJogo();
+	private Decisao<Integer> jogadaPendente;
 
 	/**
-	 * Quantidade de jogadores cuja resposta estamos esperando para um pedido de
-	 * truco.
+	 * Resposta (truco ou mão de 11) pedida à estratégia e ainda não aplicada
+	 * (ou null)
 	 */
-	private int numRespostasAguardando = 0;
+	private Decisao<Boolean> respostaPendente;
 
 	/**
-	 * Sinaliza se os adversários aceitaram um pedido de truco
+	 * Situações reaproveitadas nos pedidos à estratégia. Cada uma só é
+	 * preenchida de novo depois que a estratégia liberar a decisão que a
+	 * usou (em decisoesSituacoes), já que a estratégia pode continuar com
+	 * ela mesmo depois de um cancelamento.
 	 */
-	private boolean aceitaramTruco;
+	private final SituacaoJogo[] situacoes = new SituacaoJogo[2];
+
+	private final Decisao<?>[] decisoesSituacoes = new Decisao<?>[2];
 
 	/**
-	 * Indica que é a vez deste jogador (para que a thread execute a jogada)
+	 * Quantidade de jogadores cuja resposta estamos esperando para um pedido de
+	 * truco.
 	 */
-	private boolean minhaVez = false;
+	private int numRespostasAguardando = 0;
 
 	/**
 	 * Indica se o jogador pode jogar uma carta fechada (sendo a vez dele)
@@ -123,189 +160,340 @@ public class JogadorCPU extends Jogador implements Runnable {
 		if (this.equals(j)) {
 			Log.i("JogadorCPU", "Jogador " + this.getPosicao()
 					+ " recebeu notificacao de vez");
-			this.podeFechada = podeFechada;
-			this.minhaVez = true;
+			synchronized (this) {
+				this.podeFechada = podeFechada;
+			}
+			agendaJogada();
 		}
 	}
 
-	public void run() {
+	/**
+	 * Agenda uma tarefa para daqui a um tempo aleatório entre os limites
+	 * 
+	 * @param tarefa
+	 *            tarefa a executar (sincronizada no jogador)
+	 * @param atrasoMinimo
+	 *            atraso mínimo, em milissegundos
+	 * @param atrasoMaximo
+	 *            atraso máximo (exclusive), em milissegundos
+	 */
+	private void agenda(final Runnable tarefa, int atrasoMinimo,
+			int atrasoMaximo) {
+		int atraso = atrasoMinimo + random.nextInt(atrasoMaximo - atrasoMinimo);
+		executor.schedule(new Runnable() {
+			public void run() {
+				synchronized (JogadorCPU.this) {
+					if (jogo == null || jogo.jogoFinalizado) {
+						return;
+					}
+					try {
+						tarefa.run();
+					} catch (RuntimeException e) {
+						// Não deixa o erro passar para o executor, que o
+						// engoliria silenciosamente
+						Log.w("JogadorCPU", "Erro em tarefa do jogador "
+								+ getPosicao(), e);
+					}
+				}
+			}
+		}, atraso, TimeUnit.MILLISECONDS);
+	}
 
-		Log.i("JogadorCPU", "JogadorCPU " + this + " (.run) iniciado");
-		while (jogo == null || !jogo.jogoFinalizado) {
-			sleep(100);
+	/**
+	 * Agenda a jogada (dando um tempinho, pra fingir que está "pensando")
+	 */
+	private void agendaJogada() {
+		agenda(new Runnable() {
+			public void run() {
+				joga();
+			}
+		}, 200, 450);
+	}
 
-			if (minhaVez) {
+	/**
+	 * Pede à estratégia uma carta (ou aumento de aposta), que será enviada ao
+	 * jogo por aplicaJogada()
+	 */
+	private void joga() {
 
-				minhaVez = false;
-				Log.i("JogadorCPU", "Jogador " + this.getPosicao()
-						+ " viu que e' sua vez");
+		Log.i("JogadorCPU", "Jogador " + this.getPosicao()
+				+ " vai decidir sua jogada");
 
-				// Dá um tempinho, pra fingir que está "pensando"
-				try {
-					Thread.sleep(Math.abs(random.nextInt()) % 250 + 200);
-				} catch (InterruptedException e) {
-					// Nada, apenas timing...
-				}
+		if (cartasRestantes.isEmpty()) {
+			return;
+		}
 
-				// Atualiza a situação do jogo (incluindo as cartas na mão)
-				atualizaSituacaoJogo();
-				situacaoJogo.podeFechada = podeFechada;
-
-				// Solicita que o estrategia jogue
-				int posCarta;
-				try {
-					posCarta = estrategia.joga(situacaoJogo);
-				} catch (Exception e) {
-					Log.w("JogadorCPU", "Erro em joga", e);
-					posCarta = 0;
-				}
+		cancela(jogadaPendente);
+		int i = preencheSituacaoJogo();
+		SituacaoJogo s = situacoes[i];
+		s.podeFechada = podeFechada;
+
+		final Decisao<Integer> decisao = estrategia.solicitaJogada(s,
+				PRAZO_DECISAO_MS);
+		decisoesSituacoes[i] = decisao;
+		jogadaPendente = decisao;
+		aguarda(decisao, new Runnable() {
+			public void run() {
+				jogadaPendente = null;
+				aplicaJogada(resultado(decisao, 0));
+			}
+		});
+	}
 
-				// Se a estratégia pediu truco, processa e desencana de jogar
-				// agora
-				if ((posCarta == -1) && (situacaoJogo.valorProximaAposta != 0)) {
-					// Faz a
-					// solicitação de truco numa nova thread // (usando o
-					// próprio
-					// JogadorCPU como Runnable - era uma inner // class, mas
-					// otimizei para reduzir o .jar)
-					aceitaramTruco = false;
-					numRespostasAguardando = 2;
-					Log.i("JogadorCPU", "Jogador " + this.getPosicao()
-							+ " vai aumentar aposta");
-					estouAguardandoRepostaAumento = true;
-					jogo.aumentaAposta(this);
-					Log.i("JogadorCPU", "Jogador " + this.getPosicao()
-							+ " aguardando resposta");
-					continue;
-				}
+	/**
+	 * Envia ao jogo a carta (ou aumento de aposta) decidida pela estratégia
+	 * 
+	 * @param posCarta
+	 *            resposta da estratégia (ver Estrategia.joga())
+	 */
+	private void aplicaJogada(int posCarta) {
 
-				// Se a estratégia pediu truco fora de hora, ignora e joga a
-				// primeira carta
-				if (posCarta == -1) {
-					posCarta = 0;
-				}
+		if (cartasRestantes.isEmpty()) {
+			return;
+		}
 
-				// Joga a carta selecionada e remove ela da mão
-				boolean isFechada = posCarta >= 10;
-				if (isFechada) {
-					posCarta -= 10;
-				}
+		// Se a estratégia pediu truco, processa e desencana de jogar agora (a
+		// jogada será agendada de novo se aceitarem)
+		if ((posCarta == -1) && (valorProximaAposta != 0)) {
+			numRespostasAguardando = 2;
+			Log.i("JogadorCPU", "Jogador " + this.getPosicao()
+					+ " vai aumentar aposta");
+			estouAguardandoRepostaAumento = true;
+			jogo.aumentaAposta(this);
+			Log.i("JogadorCPU", "Jogador " + this.getPosicao()
+					+ " aguardando resposta");
+			return;
+		}
 
-				Carta c = (Carta) cartasRestantes.elementAt(posCarta);
-				c.setFechada(isFechada && podeFechada);
-				cartasRestantes.removeElement(c);
-				Log.i("JogadorCPU", "Jogador " + this.getPosicao()
-						+ " vai pedir para jogar " + c);
-				jogo.jogaCarta(this, c);
+		// Se a estratégia pediu truco fora de hora, ignora e joga a
+		// primeira carta
+		if (posCarta == -1) {
+			posCarta = 0;
+		}
 
-			}
+		// Joga a carta selecionada e remove ela da mão
+		boolean isFechada = posCarta >= 10;
+		if (isFechada) {
+			posCarta -= 10;
+		}
+		if (posCarta < 0 || posCarta >= cartasRestantes.size()) {
+			posCarta = 0;
+		}
 
-			if (recebiPedidoDeAumento) {
-				recebiPedidoDeAumento = false;
-				atualizaSituacaoJogo();
-				sleep(1000 + random.nextInt(1000));
-				// O sync/if é só pra evitar resposta dupla entre 2 CPUs
-				synchronized (jogo) {
-					if (situacaoJogo.posJogadorPedindoAumento != 0) {
-						boolean resposta = false;
-						try {
-							resposta = estrategia.aceitaTruco(situacaoJogo);
-						} catch (Exception e) {
-							Log.d("JogadorCPU", "Erro em aceite-aumento", e);
-						}
-						jogo.respondeAumento(this, resposta);
-					}
+		Carta c = cartasRestantes.elementAt(posCarta);
+		c.setFechada(isFechada && podeFechada);
+		cartasRestantes.removeElement(c);
+		Log.i("JogadorCPU", "Jogador " + this.getPosicao()
+				+ " vai pedir para jogar " + c);
+		jogo.jogaCarta(this, c);
+	}
+
+	/**
+	 * Pede à estratégia a resposta ao pedido de aumento, que será enviada ao
+	 * jogo quando ela decidir
+	 */
+	private void respondeAumento() {
+		int i = preencheSituacaoJogo();
+		SituacaoJogo s = situacoes[i];
+		// Se o parceiro já respondeu, o pedido não está mais pendente. Mesmo
+		// que os dois respondam juntos, o jogo ignora a resposta que chegar
+		// depois de o pedido ter sido resolvido.
+		if (s.posJogadorPedindoAumento != 0) {
+			cancela(respostaPendente);
+			final Decisao<Boolean> decisao = estrategia.solicitaRespostaTruco(
+					s, PRAZO_DECISAO_MS);
+			decisoesSituacoes[i] = decisao;
+			respostaPendente = decisao;
+			aguarda(decisao, new Runnable() {
+				public void run() {
+					respostaPendente = null;
+					jogo.respondeAumento(JogadorCPU.this,
+							resultado(decisao, false));
 				}
-			}
+			});
+		}
+	}
 
-			if (recebiPedidoDeMaoDe11) {
-				recebiPedidoDeMaoDe11 = false;
-				atualizaSituacaoJogo();
-				sleep(1000 + random.nextInt(1000));
-				boolean respostaMao11 = false;
-				try {
-					respostaMao11 = estrategia.aceitaMao11(
-							cartasDoParceiroDaMaoDe11, situacaoJogo);
-					// Atendendo a pedidos no Market, o parceiro do humano vai
-					// ignorar a estratégia com 90% de chance e recusar,
-					// deixando a decisão na mão do humano.
-					if (getPosicao() == 3) {
-						boolean aceitaEstrategia = random.nextInt(10) == 5;
-						Log.i("JogadorCPU",
-								"Mão de 11 do parceiro do humano. AceitaEstrategia="
-										+ aceitaEstrategia);
-						respostaMao11 = respostaMao11 && aceitaEstrategia;
-					}
-				} catch (Exception e) {
-					Log.d("JogadorCPU",
-							"Erro em aceite-11 no jogador" + this.getPosicao(),
-							e);
-					respostaMao11 = random.nextBoolean();
+	/**
+	 * Pede à estratégia a decisão da mão de 11, que será enviada ao jogo
+	 * quando ela decidir
+	 */
+	private void decideMao11() {
+		// O parceiro pode ter aceitado (e a mão começado) antes desta tarefa
+		// rodar
+		if (!aguardandoMao11 || cartasRestantes.size() != 3) {
+			return;
+		}
+		cancela(respostaPendente);
+		int i = preencheSituacaoJogo();
+		final Decisao<Boolean> decisao = estrategia.solicitaRespostaMao11(
+				cartasDoParceiroDaMaoDe11, situacoes[i], PRAZO_DECISAO_MS);
+		decisoesSituacoes[i] = decisao;
+		respostaPendente = decisao;
+		aguarda(decisao, new Runnable() {
+			public void run() {
+				respostaPendente = null;
+				aguardandoMao11 = false;
+				boolean respostaMao11 = resultado(decisao, false);
+				// Atendendo a pedidos no Market, o parceiro do humano vai
+				// ignorar a estratégia com 90% de chance e recusar,
+				// deixando a decisão na mão do humano.
+				if (getPosicao() == 3) {
+					boolean aceitaEstrategia = random.nextInt(10) == 5;
+					Log.i("JogadorCPU",
+							"Mão de 11 do parceiro do humano. AceitaEstrategia="
+									+ aceitaEstrategia);
+					respostaMao11 = respostaMao11 && aceitaEstrategia;
 				}
-				jogo.decideMao11(this, respostaMao11);
+				jogo.decideMao11(JogadorCPU.this, respostaMao11);
 			}
+		});
+	}
 
-			if (estouAguardandoRepostaAumento && (numRespostasAguardando == 0)) {
-				estouAguardandoRepostaAumento = false;
-				// Se aceitaram, vamos seguir o jogo
-				if (aceitaramTruco) {
-					atualizaSituacaoJogo();
-					situacaoJogo.valorProximaAposta = 0;
-					minhaVez = true;
-				}
+	/**
+	 * Aplica a decisão numa tarefa do jogador quando ela for concluída (pela
+	 * estratégia ou pelo fim do prazo), se ela ainda estiver pendente nessa
+	 * hora.
+	 * 
+	 * @param aplica
+	 *            tarefa que envia a resposta ao jogo (e limpa o pendente)
+	 */
+	private void aguarda(final Decisao<?> decisao, final Runnable aplica) {
+		decisao.aoConcluir(new Runnable() {
+			public void run() {
+				agenda(new Runnable() {
+					public void run() {
+						if (decisao == jogadaPendente
+								|| decisao == respostaPendente) {
+							aplica.run();
+						}
+					}
+				}, 0, 1);
 			}
+		});
+		executor.schedule(new Runnable() {
+			public void run() {
+				decisao.encerra();
+			}
+		}, decisao.getTempoRestante(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return resposta de uma decisão já concluída, ou o padrão se ela não
+	 *         puder ser obtida
+	 */
+	private static <V> V resultado(Decisao<V> decisao, V padrao) {
+		try {
+			V valor = decisao.get();
+			return valor == null ? padrao : valor;
+		} catch (Exception e) {
+			Log.w("JogadorCPU", "Erro obtendo decisão da estratégia", e);
+			return padrao;
+		}
+	}
 
+	/**
+	 * Cancela uma decisão pendente (se houver), para que ela não seja
+	 * aplicada
+	 */
+	private void cancela(Decisao<?> decisao) {
+		if (decisao != null) {
+			decisao.cancel(false);
+			if (decisao == jogadaPendente) {
+				jogadaPendente = null;
+			}
+			if (decisao == respostaPendente) {
+				respostaPendente = null;
+			}
 		}
-		Log.i("JogadorCPU", "JogadorCPU " + this + " (.run) finalizado");
+	}
 
+	/**
+	 * Cancela todas as decisões pendentes (ex.: quando a mão acaba)
+	 */
+	private synchronized void cancelaPendentes() {
+		cancela(jogadaPendente);
+		cancela(respostaPendente);
 	}
 
-	private boolean recebiPedidoDeAumento = false;
 	private boolean estouAguardandoRepostaAumento = false;
 
-	private boolean recebiPedidoDeMaoDe11 = false;
-
 	private Carta[] cartasDoParceiroDaMaoDe11;
 
+	/**
+	 * Indica que falta este jogador decidir a mão de 11. Desliga quando ele
+	 * decide, quando o parceiro aceita (e a decisão deixa de caber) ou quando
+	 * começa outra mão.
+	 */
+	private boolean aguardandoMao11;
+
 	public void pediuAumentoAposta(Jogador j, int valor) {
 		// Notifica a estrategia
 		estrategia.pediuAumentoAposta(j.getPosicao(), valor);
 		// Se foi a equipe oposta que pediu, gera uma resposta
 		if (j.getEquipe() == this.getEquipeAdversaria()) {
-			recebiPedidoDeAumento = true;
+			agenda(new Runnable() {
+				public void run() {
+					respondeAumento();
+				}
+			}, 1000, 2000);
 		}
 	}
 
 	/**
-	 * Atualiza a situação do jogo (para as estratégias)
+	 * Preenche uma situação livre (cuja última decisão já foi liberada pela
+	 * estratégia) com o jogo atual e as cartas na mão do jogador. Se as duas
+	 * estiverem em uso, uma nova toma o lugar da primeira.
+	 * 
+	 * @return índice da situação em situacoes
 	 */
-	private void atualizaSituacaoJogo() {
+	private int preencheSituacaoJogo() {
+		int i = 0;
+		while (i < situacoes.length && decisoesSituacoes[i] != null
+				&& !decisoesSituacoes[i].isLiberada()) {
+			i++;
+		}
+		if (i == situacoes.length) {
+			i = 0;
+			situacoes[i] = null;
+		}
+		if (situacoes[i] == null) {
+			situacoes[i] = new SituacaoJogo();
+		}
+		decisoesSituacoes[i] = null;
+		SituacaoJogo situacaoJogo = situacoes[i];
 		jogo.atualizaSituacao(situacaoJogo, this);
+		situacaoJogo.podeFechada = false;
 		if (jogo.isAlguemTem11Pontos()) {
 			situacaoJogo.valorProximaAposta = 0;
 		} else {
 			situacaoJogo.valorProximaAposta = valorProximaAposta;
 		}
-		int numCartas = cartasRestantes.size();
-		situacaoJogo.cartasJogador = new Carta[numCartas];
-		for (int i = 0; i < numCartas; i++) {
-			Carta c = (Carta) cartasRestantes.elementAt(i);
-			situacaoJogo.cartasJogador[i] = new Carta(c.getLetra(),
-					c.getNaipe());
+		situacaoJogo.limpaCartasJogador();
+		for (int c = 0; c < cartasRestantes.size(); c++) {
+			situacaoJogo.adicionaCartaJogador(cartasRestantes.elementAt(c));
 		}
+		synchronized (this) {
+			rastreador.preenche(situacaoJogo);
+		}
+		return i;
 	}
 
 	int valorProximaAposta;
 
-	public void aceitouAumentoAposta(Jogador j, int valor) {
+	public synchronized void aceitouAumentoAposta(Jogador j, int valor) {
 
 		// Notifica o estrategia
 		estrategia.aceitouAumentoAposta(j.getPosicao(), valor);
 
-		// Se estou esperando resposta, contabiliza
-		if (numRespostasAguardando > 0) {
+		// Se ainda estávamos pensando na resposta, não precisa mais
+		cancela(respostaPendente);
+
+		// Se estou esperando resposta, aceitaram: vamos seguir o jogo
+		if (estouAguardandoRepostaAumento && numRespostasAguardando > 0) {
 			numRespostasAguardando = 0;
-			aceitaramTruco = true;
+			estouAguardandoRepostaAumento = false;
+			agendaJogada();
 		}
 
 		if (j.getEquipe() == this.getEquipe()) {
@@ -322,16 +510,17 @@ public class JogadorCPU extends Jogador implements Runnable {
 
 	}
 
-	public void recusouAumentoAposta(Jogador j) {
+	public synchronized void recusouAumentoAposta(Jogador j) {
 
 		// Notifica o estrategia
 		estrategia.recusouAumentoAposta(j.getPosicao());
 
-		// Se estivermos aguardando resposta, contabiliza (e deixa o adversário
-		// perceber)
+		// Se estivermos aguardando resposta, contabiliza
 		if (numRespostasAguardando > 0) {
 			numRespostasAguardando--;
-			Thread.yield();
+			if (numRespostasAguardando == 0) {
+				estouAguardandoRepostaAumento = false;
+			}
 		}
 
 	}
@@ -341,8 +530,9 @@ public class JogadorCPU extends Jogador implements Runnable {
 		// Não faz nada
 	}
 
-	public void rodadaFechada(int numMao, int resultado, Jogador jogadorQueTorna) {
-		// Não faz nada
+	public synchronized void rodadaFechada(int numMao, int resultado,
+			Jogador jogadorQueTorna) {
+		rastreador.rodadaFechada();
 	}
 
 	public void maoFechada(int[] pontosEquipe) {
@@ -350,14 +540,18 @@ public class JogadorCPU extends Jogador implements Runnable {
 	}
 
 	public void jogoFechado(int numEquipeVencedora) {
-		// Não faz nada
+		cancelaPendentes();
 	}
 
-	public void cartaJogada(Jogador j, Carta c) {
-		// Não faz nada
+	public synchronized void cartaJogada(Jogador j, Carta c) {
+		rastreador.cartaJogada(c);
 	}
 
-	public void inicioMao() {
+	public synchronized void inicioMao() {
+
+		// Decisões da mão anterior não servem mais
+		cancelaPendentes();
+		aguardandoMao11 = false;
 
 		// Notifica o estrategia
 		estrategia.inicioMao();
@@ -367,6 +561,7 @@ public class JogadorCPU extends Jogador implements Runnable {
 		for (int i = 0; i <= 2; i++) {
 			cartasRestantes.addElement(this.getCartas()[i]);
 		}
+		rastreador.inicioMao(jogo, this.getCartas());
 
 		// Libera o jogador para pedir truco (se nao estivermos em mao de 11)
 		valorProximaAposta = (jogo.isAlguemTem11Pontos() ? 0 : 3);
@@ -378,30 +573,43 @@ public class JogadorCPU extends Jogador implements Runnable {
 	 */
 	private Vector<Carta> cartasRestantes = new Vector<Carta>(3);
 
+	/**
+	 * Cartas vistas e manilhas que saíram na mão (para as situações passadas
+	 * à estratégia)
+	 */
+	private final RastreadorCartas rastreador = new RastreadorCartas();
+
 	public void inicioPartida(int placarEquipe1, int placarEquipe2) {
 		// Avisa o estrategia
 		estrategia.inicioPartida();
 	}
 
 	public void decidiuMao11(Jogador j, boolean aceita) {
-		// Por ora não faz nada
+		// Se o parceiro aceitou, a mão vai começar sem a nossa decisão
+		if (aceita && !j.equals(this) && j.getEquipe() == getEquipe()) {
+			synchronized (this) {
+				if (aguardandoMao11) {
+					aguardandoMao11 = false;
+					cancela(respostaPendente);
+				}
+			}
+		}
 	}
 
 	public void informaMao11(Carta[] cartasParceiro) {
-		cartasDoParceiroDaMaoDe11 = cartasParceiro;
-		recebiPedidoDeMaoDe11 = true;
+		synchronized (this) {
+			cartasDoParceiroDaMaoDe11 = cartasParceiro;
+			aguardandoMao11 = true;
+		}
+		agenda(new Runnable() {
+			public void run() {
+				decideMao11();
+			}
+		}, 1000, 2000);
 	}
 
 	public void jogoAbortado(int posicao) {
-		// Não precisa tratar
-	}
-
-	private void sleep(int i) {
-		try {
-			Thread.sleep(i);
-		} catch (InterruptedException e) {
-			Log.i("JogadorCPU", "Interrupted during sleep", e);
-		}
+		cancelaPendentes();
 	}
 
 }
@@ -0,0 +1,317 @@
+package me.chester.minitruco.core;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Jogador controlado por uma estratégia, para uso em simulações.
+ * <p>
+ * Ao contrário do <code>JogadorCPU</code>, não tem thread própria, não finge
+ * que está "pensando" e não gera log: as decisões são tomadas (e enviadas ao
+ * jogo) durante as próprias notificações. Isso só funciona porque o
+ * <code>JogoLocal</code> enfileira os comandos, processando-os depois que a
+ * notificação retorna.
+ * <p>
+ * Se receber um <code>ResultadoSimulacao</code>, o jogador contabiliza nele
+ * as exceções da sua estratégia e, se estiver na posição 1, os eventos da
+ * partida (só um jogador por mesa faz isso, já que todos recebem as mesmas
+ * notificações). Sem ele, as exceções da estratégia são repassadas.
+ *
+ * @see Simulador
+ *
+ */
+public class JogadorSimulado extends Jogador {
+
+	/**
+	 * Estrategia que está controlando este jogador
+	 */
+	private Estrategia estrategia;
+
+	/**
+	 * Onde as estatísticas da partida são contabilizadas (se for null, não
+	 * contabiliza)
+	 */
+	private ResultadoSimulacao resultado;
+
+	/**
+	 * Situação atual do jogo (para o estrategia)
+	 */
+	private SituacaoJogo situacaoJogo = new SituacaoJogo();
+
+	/**
+	 * Cartas que ainda não foram jogadas
+	 */
+	private Carta[] cartasRestantes = new Carta[3];
+
+	private int numCartasRestantes;
+
+	/**
+	 * Cartas vistas e manilhas que saíram na mão (para a situação do jogo)
+	 */
+	private RastreadorCartas rastreador = new RastreadorCartas();
+
+	/**
+	 * Valor da mão caso este jogador peça aumento (0 se não puder pedir)
+	 */
+	private int valorProximaAposta;
+
+	/**
+	 * Indica que pedimos aumento e, se os adversários aceitarem, temos que
+	 * jogar
+	 */
+	private boolean aguardandoRespostaAumento;
+
+	/**
+	 * Indica se o jogador pode jogar carta fechada (sendo a vez dele)
+	 */
+	private boolean podeFechada;
+
+	/**
+	 * Placar do final da mão anterior (para calcular os pontos de cada mão)
+	 */
+	private int[] placarAnterior = new int[2];
+
+	/**
+	 * Cria um novo jogador simulado, usando a estratégia fornecida.
+	 *
+	 * @param estrategia
+	 *            Estratégia a ser adotada por este jogador
+	 * @param resultado
+	 *            Objeto no qual as estatísticas da partida serão
+	 *            contabilizadas, ou null para não contabilizar
+	 */
+	public JogadorSimulado(Estrategia estrategia, ResultadoSimulacao resultado) {
+		this.estrategia = estrategia;
+		this.resultado = resultado;
+		this.setNome(estrategia.getNomeEstrategia());
+	}
+
+	public void inicioPartida(int placarEquipe1, int placarEquipe2) {
+		estrategia.inicioPartida();
+		placarAnterior[0] = placarEquipe1;
+		placarAnterior[1] = placarEquipe2;
+	}
+
+	public void inicioMao() {
+		estrategia.inicioMao();
+		for (int i = 0; i <= 2; i++) {
+			cartasRestantes[i] = this.getCartas()[i];
+		}
+		numCartasRestantes = 3;
+		rastreador.inicioMao(jogo, this.getCartas());
+		aguardandoRespostaAumento = false;
+		valorProximaAposta = (jogo.isAlguemTem11Pontos() ? 0 : 3);
+	}
+
+	public void vez(Jogador j, boolean podeFechada) {
+		if (this.equals(j)) {
+			this.podeFechada = podeFechada;
+			joga();
+		}
+	}
+
+	/**
+	 * Consulta a estratégia e envia a jogada (ou o pedido de aumento) ao jogo
+	 */
+	private void joga() {
+
+		atualizaSituacaoJogo();
+		situacaoJogo.podeFechada = podeFechada;
+
+		int posCarta;
+		try {
+			posCarta = estrategia.joga(situacaoJogo);
+		} catch (RuntimeException e) {
+			falhaEstrategia(e);
+			posCarta = 0;
+		}
+
+		// Se a estratégia pediu truco, a jogada fica para quando os
+		// adversários aceitarem
+		if ((posCarta == -1) && (situacaoJogo.valorProximaAposta != 0)) {
+			aguardandoRespostaAumento = true;
+			jogo.aumentaAposta(this);
+			return;
+		}
+
+		// Se a estratégia pediu truco fora de hora (ou escolheu uma carta que
+		// não tem), joga a primeira carta
+		boolean isFechada = posCarta >= 10;
+		if (isFechada) {
+			posCarta -= 10;
+		}
+		if (posCarta < 0 || posCarta >= numCartasRestantes) {
+			posCarta = 0;
+		}
+
+		Carta c = cartasRestantes[posCarta];
+		c.setFechada(isFechada && podeFechada);
+		numCartasRestantes--;
+		for (int i = posCarta; i < numCartasRestantes; i++) {
+			cartasRestantes[i] = cartasRestantes[i + 1];
+		}
+		jogo.jogaCarta(this, c);
+
+	}
+
+	public void pediuAumentoAposta(Jogador j, int valor) {
+		estrategia.pediuAumentoAposta(j.getPosicao(), valor);
+		if (resultado != null && isContabilizador()) {
+			resultado.pedidosAumento[j.getEquipe() - 1]++;
+		}
+		// Se foi a equipe oposta que pediu, responde
+		if (j.getEquipe() == this.getEquipeAdversaria()) {
+			atualizaSituacaoJogo();
+			boolean resposta = false;
+			try {
+				resposta = estrategia.aceitaTruco(situacaoJogo);
+			} catch (RuntimeException e) {
+				// Na dúvida, corre
+				falhaEstrategia(e);
+			}
+			jogo.respondeAumento(this, resposta);
+		}
+	}
+
+	public void aceitouAumentoAposta(Jogador j, int valor) {
+		estrategia.aceitouAumentoAposta(j.getPosicao(), valor);
+		if (resultado != null && isContabilizador()) {
+			resultado.aumentosAceitos[j.getEquipe() - 1]++;
+		}
+		if (j.getEquipe() == this.getEquipe()) {
+			// Nós aceitamos, então podemos pedir o próximo aumento
+			if (valor != 12) {
+				valorProximaAposta = valor + 3;
+			}
+		} else {
+			// Eles aceitaram, temos que esperar eles pedirem
+			valorProximaAposta = 0;
+			if (aguardandoRespostaAumento) {
+				aguardandoRespostaAumento = false;
+				joga();
+			}
+		}
+	}
+
+	public void recusouAumentoAposta(Jogador j) {
+		estrategia.recusouAumentoAposta(j.getPosicao());
+	}
+
+	public void informaMao11(Carta[] cartasParceiro) {
+		atualizaSituacaoJogo();
+		boolean aceita;
+		try {
+			aceita = estrategia.aceitaMao11(cartasParceiro, situacaoJogo);
+		} catch (RuntimeException e) {
+			falhaEstrategia(e);
+			aceita = false;
+		}
+		jogo.decideMao11(this, aceita);
+	}
+
+	public void maoFechada(int[] pontosEquipe) {
+		if (resultado != null && isContabilizador()) {
+			resultado.numMaos++;
+			for (int i = 0; i <= 1; i++) {
+				resultado.pontos[i] += pontosEquipe[i] - placarAnterior[i];
+				placarAnterior[i] = pontosEquipe[i];
+			}
+		}
+	}
+
+	public void jogoFechado(int numEquipeVencedora) {
+		if (resultado != null && isContabilizador()) {
+			resultado.numPartidas++;
+			resultado.vitorias[numEquipeVencedora - 1]++;
+		}
+	}
+
+	public void cartaJogada(Jogador j, Carta c) {
+		rastreador.cartaJogada(c);
+	}
+
+	public void rodadaFechada(int numRodada, int resultado,
+			Jogador jogadorQueTorna) {
+		rastreador.rodadaFechada();
+	}
+
+	public void decidiuMao11(Jogador j, boolean aceita) {
+		// Não faz nada
+	}
+
+	public void jogoAbortado(int posicao) {
+		// Não faz nada
+	}
+
+	/**
+	 * Contabiliza uma exceção da estratégia (para que uma estratégia quebrada
+	 * não fique escondida atrás das respostas padrão), ou a repassa se não
+	 * houver onde contabilizar
+	 */
+	private void falhaEstrategia(RuntimeException e) {
+		if (resultado == null) {
+			throw e;
+		}
+		resultado.falhasEstrategia[getEquipe() - 1]++;
+	}
+
+	/**
+	 * Apenas o jogador da posição 1 contabiliza os eventos (que são
+	 * notificados a todos os jogadores)
+	 */
+	private boolean isContabilizador() {
+		return getPosicao() == 1;
+	}
+
+	/**
+	 * Atualiza a situação do jogo (para as estratégias)
+	 */
+	private void atualizaSituacaoJogo() {
+		jogo.atualizaSituacao(situacaoJogo, this);
+		if (jogo.isAlguemTem11Pontos()) {
+			situacaoJogo.valorProximaAposta = 0;
+		} else {
+			situacaoJogo.valorProximaAposta = valorProximaAposta;
+		}
+		situacaoJogo.limpaCartasJogador();
+		for (int i = 0; i < numCartasRestantes; i++) {
+			situacaoJogo.adicionaCartaJogador(cartasRestantes[i]);
+		}
+		rastreador.preenche(situacaoJogo);
+	}
+
+}
@@ -58,7 +58,41 @@ public abstract class Jogo implements Runnable {
 	/**
 	 * Referência para determinar a ordem das cartas no truco
 	 */
-	protected static final String letrasOrdenadas = "4567QJKA23";
+	protected static final String letrasOrdenadas = Carta.LETRAS_TRUCO;
+
+	/**
+	 * Índice que representa a manilha velha (MANILHA_INDETERMINADA) nas
+	 * tabelas de valores (as demais manilhas são representadas pela posição
+	 * de sua letra em letrasOrdenadas)
+	 */
+	public static final int INDICE_MANILHA_VELHA = 10;
+
+	/**
+	 * Índice de manilha para cada letra (-1 se a letra não for manilha
+	 * válida)
+	 */
+	private static final byte[] INDICES_MANILHA = new byte[128];
+
+	/**
+	 * Valores das cartas no truco, pré-calculados para cada índice de manilha
+	 * e id de carta
+	 */
+	private static final byte[][] VALORES_TRUCO = new byte[INDICE_MANILHA_VELHA + 1][Carta.NUM_IDS];
+
+	static {
+		for (int i = 0; i < INDICES_MANILHA.length; i++) {
+			INDICES_MANILHA[i] = (byte) letrasOrdenadas.indexOf((char) i);
+		}
+		INDICES_MANILHA[SituacaoJogo.MANILHA_INDETERMINADA] = INDICE_MANILHA_VELHA;
+		for (int m = 0; m <= INDICE_MANILHA_VELHA; m++) {
+			char letraManilha = m == INDICE_MANILHA_VELHA ? SituacaoJogo.MANILHA_INDETERMINADA
+					: letrasOrdenadas.charAt(m);
+			for (int id = 0; id < Carta.NUM_IDS; id++) {
+				VALORES_TRUCO[m][id] = (byte) calculaValorTruco(
+						Carta.getLetra(id), Carta.getNaipe(id), letraManilha);
+			}
+		}
+	}
 
 	/**
 	 * Rodada que estamos jogando (de 1 a 3).
@@ -84,22 +118,67 @@ public abstract class Jogo implements Runnable {
 			return 0;
 		}
 
+		int id = c.getId();
+		int indiceManilha = getIndiceManilha(letraManilha);
+		if (id != Carta.ID_NENHUM && indiceManilha != -1) {
+			return VALORES_TRUCO[indiceManilha][id];
+		}
+		return calculaValorTruco(c.getLetra(), c.getNaipe(), letraManilha);
+	}
+
+	/**
+	 * Versão de getValorTruco() para quem trabalha com códigos de carta e
+	 * índices de manilha (é apenas uma consulta a uma tabela).
+	 * 
+	 * @param codigo
+	 *            código da carta (id, com BIT_FECHADA se for fechada)
+	 * @param indiceManilha
+	 *            índice da manilha, conforme getIndiceManilha()
+	 * @see Carta#getCodigo()
+	 */
+	public static int getValorTruco(int codigo, int indiceManilha) {
+		if ((codigo & Carta.BIT_FECHADA) != 0) {
+			return 0;
+		}
+		return VALORES_TRUCO[indiceManilha][codigo];
+	}
+
+	/**
+	 * @param letraManilha
+	 *            letra da manilha ou MANILHA_INDETERMINADA
+	 * @return índice da manilha nas tabelas de valores (0 a 9 para as letras,
+	 *         na ordem do truco, e INDICE_MANILHA_VELHA para manilha velha),
+	 *         ou -1 se não for uma manilha válida
+	 */
+	public static int getIndiceManilha(char letraManilha) {
+		if (letraManilha >= INDICES_MANILHA.length) {
+			return -1;
+		}
+		return INDICES_MANILHA[letraManilha];
+	}
+
+	/**
+	 * Calcula o valor de uma carta (usado para montar a tabela de valores e
+	 * para cartas que não estão nela, como as "sem letra/naipe")
+	 */
+	private static int calculaValorTruco(char letra, int naipe,
+			char letraManilha) {
+
 		if (letraManilha == SituacaoJogo.MANILHA_INDETERMINADA) {
-			if (c.getLetra() == '7' && c.getNaipe() == Carta.NAIPE_OUROS) {
+			if (letra == '7' && naipe == Carta.NAIPE_OUROS) {
 				return 11;
-			} else if (c.getLetra() == 'A'
-					&& c.getNaipe() == Carta.NAIPE_ESPADAS) {
+			} else if (letra == 'A' && naipe == Carta.NAIPE_ESPADAS) {
 				return 12;
-			} else if (c.getLetra() == '7' && c.getNaipe() == Carta.NAIPE_COPAS) {
+			} else if (letra == '7' && naipe == Carta.NAIPE_COPAS) {
 				return 13;
-			} else if (c.getLetra() == '4' && c.getNaipe() == Carta.NAIPE_PAUS) {
+			} else if (letra == '4' && naipe == Carta.NAIPE_PAUS) {
 				return 14;
 			}
 		}
 
-		if (c.getLetra() == letraManilha) {
+		if (letra == letraManilha) {
 			// Valor de 11 a 14, conforme o naipe
-			switch (c.getNaipe()) {
+			switch (naipe) {
 			case Carta.NAIPE_OUROS:
 				return 11;
 			case Carta.NAIPE_ESPADAS:
@@ -113,7 +192,7 @@ public abstract class Jogo implements Runnable {
 			}
 		} else {
 			// Valor de 1 a 10 conforme a letra
-			return letrasOrdenadas.indexOf(c.getLetra()) + 1;
+			return letrasOrdenadas.indexOf(letra) + 1;
 		}
 	}
 
@@ -1,5 +1,8 @@
 package me.chester.minitruco.core;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
 import android.util.Log;
 
 /*
@@ -51,7 +54,14 @@ import android.util.Log;
  * <code>jogaCarta()</code>, <code>aumentaAposta</code>, etc.) para interagir
  * com o jogo.
  * <p>
- * 
+ * Esses métodos de entrada apenas enfileiram um comando numa fila sem locks
+ * (nenhum jogador fica bloqueado esperando outro); é a thread do jogo (aquela
+ * que chamou <code>run()</code>) que os valida e processa, na ordem em que
+ * chegaram, ficando estacionada enquanto não houver comando a processar.
+ * <p>
+ * Alternativamente, o jogo pode ser conduzido sem thread própria (ex.: pela
+ * <code>Mesa</code>, que o processa num pool compartilhado), sendo avisado a
+ * cada comando enfileirado e chamando <code>processaComandosPendentes()</code>.
  * 
  */
 public class JogoLocal extends Jogo {
@@ -69,13 +79,7 @@ public class JogoLocal extends Jogo {
 	 */
 	public JogoLocal(boolean baralhoLimpo, boolean manilhaVelha,
 			boolean tentoMineiro) {
-		this.manilhaVelha = manilhaVelha;
-		this.baralhoLimpo = baralhoLimpo;
-		if (tentoMineiro && manilhaVelha)
-			this.tento = new TentoMineiro();
-		else
-			this.tento = new TentoPaulista();
-		this.baralho = new Baralho(baralhoLimpo);
+		this(new Baralho(baralhoLimpo), manilhaVelha, tentoMineiro);
 	}
 
 	/**
@@ -89,8 +93,30 @@ public class JogoLocal extends Jogo {
 	 *            Instância de baralho a ser utilizado no jogo.
 	 */
 	public JogoLocal(Baralho baralho, boolean manilhaVelha) {
+		this(baralho, manilhaVelha, false);
+	}
+
+	/**
+	 * Cria um novo jogo.
+	 * <p>
+	 * O jogo é criado, mas apenas inicia quando forem adicionados jogadores
+	 * 
+	 * @param baralho
+	 *            Instância de baralho a ser utilizado no jogo.
+	 * @param manilhaVelha
+	 *            true para jogo com manilhas fixas, false para jogar com "vira"
+	 * @param tentoMineiro
+	 *            true para tento mineiro (só vale com manilha velha), false
+	 *            para paulista
+	 */
+	public JogoLocal(Baralho baralho, boolean manilhaVelha,
+			boolean tentoMineiro) {
 		this.manilhaVelha = manilhaVelha;
 		this.baralhoLimpo = baralho.isLimpo();
+		if (tentoMineiro && manilhaVelha)
+			this.tento = new TentoMineiro();
+		else
+			this.tento = new TentoPaulista();
 		this.baralho = baralho;
 	}
 
@@ -151,49 +177,165 @@ public class JogoLocal extends Jogo {
 	private boolean[] aguardandoRespostaMaoDe11 = new boolean[4];
 
 	/**
-	 * Sinaliza para o loop principal que alguém jogou uma carta
+	 * Comandos recebidos dos jogadores (jogadas, pedidos/respostas de aumento e
+	 * decisões de mão de 11) que aguardam processamento pela thread do jogo
 	 */
-	boolean alguemJogou = false;
+	private ConcurrentLinkedQueue<Comando> filaComandos = new ConcurrentLinkedQueue<Comando>();
 
 	/**
-	 * Se alguemJogou = true, é o alguém que jogou
+	 * Thread que está rodando o <code>run()</code>, acordada a cada comando
+	 * enfileirado (null se o jogo não é conduzido por <code>run()</code>)
 	 */
-	private Jogador jogadorQueJogou;
+	private volatile Thread threadJogo;
 
 	/**
-	 * Se alguemJogou = true, é a carta jogada
+	 * Se não for null, é executado (na thread do jogador) a cada comando
+	 * enfileirado, para que quem conduz o jogo agende seu processamento
 	 */
-	private Carta cartaJogada;
+	private Runnable avisoComandoEnfileirado;
+
+	/**
+	 * Se não for null, é executado (na thread do jogo) ao fim de cada comando
+	 * processado e da abertura da partida
+	 */
+	private Runnable avisoComandoProcessado;
 
 	private boolean manilhaVelha, baralhoLimpo;
 
+	/**
+	 * Indica se o jogo deve gerar log
+	 */
+	private boolean logHabilitado = true;
+
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see mt.JogoGenerico#run()
 	 */
 	public void run() {
+		threadJogo = Thread.currentThread();
+		iniciaPartida();
+		while (!isPartidaEncerrada()) {
+			Comando comando = filaComandos.poll();
+			if (comando == null) {
+				// Se um comando chegar entre o poll() e o park(), o unpark()
+				// dele já deixou a permissão, e o park() retorna na hora
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					Log.w("Jogo", "Jogo (.run) interrompido");
+					break;
+				}
+				continue;
+			}
+			processaComando(comando);
+		}
+		threadJogo = null;
+		if (logHabilitado)
+			Log.i("Jogo", "Jogo (.run) finalizado");
+	}
+
+	/**
+	 * Avisa os jogadores que a partida vai começar e abre a primeira mão, sem
+	 * processar nenhum comando.
+	 * <p>
+	 * O <code>run()</code> chama este método e depois fica bloqueado
+	 * aguardando os comandos. Quem preferir conduzir a partida na própria
+	 * thread (ex.: simulações, com jogadores que respondem às notificações
+	 * imediatamente) chama este método e depois
+	 * <code>processaComandosPendentes()</code>.
+	 */
+	void iniciaPartida() {
 
 		// Avisa os jogadores que o jogo vai começar
-		Log.i("Jogo", "Jogo (.run) iniciado");
+		if (logHabilitado)
+			Log.i("Jogo", "Jogo (.run) iniciado");
 		for (Jogador interessado : jogadores) {
 			interessado.inicioPartida(pontosEquipe[0], pontosEquipe[1]);
 		}
 
-		// Inicia a primeira rodada, usando o jogador na posição 1, e processa
-		// as jogadas até alguém ganhar ou o jogo ser abortado (o que pode
+		// Inicia a primeira rodada, usando o jogador na posição 1. As jogadas
+		// são processadas até alguém ganhar ou o jogo ser abortado (o que pode
 		// ocorrer em paralelo, daí os múltiplos checks a jogoFinalizado)
 		iniciaMao(getJogador(1));
-		while (pontosEquipe[0] < 12 && pontosEquipe[1] < 12 && !jogoFinalizado) {
-			while ((!alguemJogou) && (!jogoFinalizado)) {
-				sleep(100);
-			}
-			if (!jogoFinalizado) {
-				processaJogada();
-				alguemJogou = false;
-			}
+		avisaComandoProcessado();
+	}
+
+	/**
+	 * Processa os comandos que já estiverem na fila (incluindo os que forem
+	 * enfileirados durante o processamento), sem bloquear a thread.
+	 * 
+	 * @return número de comandos processados
+	 */
+	int processaComandosPendentes() {
+		int numComandos = 0;
+		Comando comando;
+		while (!isPartidaEncerrada()
+				&& (comando = filaComandos.poll()) != null) {
+			processaComando(comando);
+			numComandos++;
+		}
+		return numComandos;
+	}
+
+	/**
+	 * Define um aviso para cada comando enfileirado, permitindo que o jogo seja
+	 * conduzido sem chamar <code>run()</code> (ver
+	 * <code>processaComandosPendentes()</code>).
+	 * 
+	 * @param avisoComandoEnfileirado
+	 *            tarefa executada, na thread de quem enfileirou, após cada
+	 *            comando. Deve ser rápida (ex.: apenas agendar o
+	 *            processamento).
+	 */
+	void setAvisoComandoEnfileirado(Runnable avisoComandoEnfileirado) {
+		this.avisoComandoEnfileirado = avisoComandoEnfileirado;
+	}
+
+	/**
+	 * Define um aviso para o fim do processamento de cada comando (e da
+	 * abertura da partida), quando todas as notificações geradas por ele já
+	 * foram feitas aos jogadores. Permite, por exemplo, que as mensagens
+	 * geradas por um evento sejam enviadas juntas pela rede.
+	 * 
+	 * @param avisoComandoProcessado
+	 *            tarefa executada na thread do jogo. Deve ser rápida, pois
+	 *            atrasa o próximo comando.
+	 */
+	public void setAvisoComandoProcessado(Runnable avisoComandoProcessado) {
+		this.avisoComandoProcessado = avisoComandoProcessado;
+	}
+
+	private void avisaComandoProcessado() {
+		if (avisoComandoProcessado != null) {
+			avisoComandoProcessado.run();
 		}
-		Log.i("Jogo", "Jogo (.run) finalizado");
+	}
+
+	/**
+	 * @return true se há comandos aguardando processamento
+	 */
+	boolean temComandosPendentes() {
+		return !filaComandos.isEmpty();
+	}
+
+	/**
+	 * @return true se a partida acabou (alguém ganhou ou ela foi abortada)
+	 */
+	boolean isPartidaEncerrada() {
+		return pontosEquipe[0] >= 12 || pontosEquipe[1] >= 12 || jogoFinalizado;
+	}
+
+	/**
+	 * Liga ou desliga o log do jogo.
+	 * <p>
+	 * Simulações devem desligar, tanto pelo custo de montar as mensagens
+	 * quanto por rodarem fora do Android.
+	 * 
+	 * @param logHabilitado
+	 *            false para não gerar log
+	 */
+	public void setLogHabilitado(boolean logHabilitado) {
+		this.logHabilitado = logHabilitado;
 	}
 
 	/**
@@ -229,8 +371,9 @@ public class JogoLocal extends Jogo {
 		numRodadaAtual = 1;
 		jogadorAbriuMao = jogadorAbriuRodada = jogadorQueAbre;
 
-		Log.i("JogoLocal", "Abrindo mao com j" + jogadorQueAbre.getPosicao()
-				+ ",manilha=" + getManilha());
+		if (logHabilitado)
+			Log.i("JogoLocal", "Abrindo mao com j" + jogadorQueAbre.getPosicao()
+					+ ",manilha=" + getManilha());
 
 		// Abre a primeira rodada, informando a carta da mesa e quem vai abrir
 		posJogadorDaVez = jogadorQueAbre.getPosicao();
@@ -268,6 +411,33 @@ public class JogoLocal extends Jogo {
 
 	}
 
+	/**
+	 * Executa um comando retirado da fila, na thread do jogo.
+	 * 
+	 * @param comando
+	 *            comando enfileirado por um dos métodos de entrada
+	 */
+	private void processaComando(Comando comando) {
+		if (jogoFinalizado) {
+			return;
+		}
+		switch (comando.tipo) {
+		case Comando.JOGA_CARTA:
+			processaJogada(comando.jogador, comando.carta);
+			break;
+		case Comando.DECIDE_MAO_11:
+			processaDecisaoMao11(comando.jogador, comando.aceita);
+			break;
+		case Comando.AUMENTA_APOSTA:
+			processaAumentoAposta(comando.jogador);
+			break;
+		case Comando.RESPONDE_AUMENTO:
+			processaRespostaAumento(comando.jogador, comando.aceita);
+			break;
+		}
+		avisaComandoProcessado();
+	}
+
 	/**
 	 * Processa uma jogada e passa a vez para o próximo jogador (ou finaliza a
 	 * rodoada/mão/jogo), notificando os jogadores apropriadamente
@@ -277,10 +447,7 @@ public class JogoLocal extends Jogo {
 	 * @param c
 	 *            Carta que foi jogada
 	 */
-	private void processaJogada() {
-
-		Jogador j = this.jogadorQueJogou;
-		Carta c = this.cartaJogada;
+	private void processaJogada(Jogador j, Carta c) {
 
 		// Se o jogo acabou, a mesa não estiver completa, já houver alguém
 		// trucando, estivermos aguardando ok da mão de 11 ou não for a vez do
@@ -306,7 +473,8 @@ public class JogoLocal extends Jogo {
 			c.setFechada(false);
 		}
 
-		Log.i("JogoLocal", "J" + j.getPosicao() + " joga " + c);
+		if (logHabilitado)
+			Log.i("JogoLocal", "J" + j.getPosicao() + " joga " + c);
 
 		// Dá a carta como jogada, notificando os jogadores
 		cartasJogadasPorRodada[numRodadaAtual - 1][j.getPosicao() - 1] = c;
@@ -347,8 +515,9 @@ public class JogoLocal extends Jogo {
 				}
 			}
 
-			Log.i("JogoLocal", "Rodada fechou. Resultado: "
-					+ getResultadoRodada(numRodadaAtual));
+			if (logHabilitado)
+				Log.i("JogoLocal", "Rodada fechou. Resultado: "
+						+ getResultadoRodada(numRodadaAtual));
 
 			// Se houve vencedor, passa a vez para o jogador que fechou a
 			// vitória, senão deixa quem abriu a mão anterior abrir a próxima
@@ -416,8 +585,9 @@ public class JogoLocal extends Jogo {
 	 */
 	private void fechaMao() {
 
-		Log.i("JogoLocal", "Mao fechou. Placar: " + pontosEquipe[0] + " a "
-				+ pontosEquipe[1]);
+		if (logHabilitado)
+			Log.i("JogoLocal", "Mao fechou. Placar: " + pontosEquipe[0] + " a "
+					+ pontosEquipe[1]);
 
 		// Notifica os interessados que a rodada acabou, e, se for o caso, que o
 		// jogo acabou também
@@ -452,29 +622,65 @@ public class JogoLocal extends Jogo {
 	 * 
 	 * @see mt.JogoGenerico#jogaCarta(mt.Jogador, mt.Carta)
 	 */
-	public synchronized void jogaCarta(Jogador j, Carta c) {
-
-		// Se alguém tiver jogado e ainda não foi processado, segura a onda
-		while (alguemJogou) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				// No worries
-			}
-		}
+	public void jogaCarta(Jogador j, Carta c) {
+		enfileira(new Comando(Comando.JOGA_CARTA, j, c, false));
+	}
 
-		this.jogadorQueJogou = j;
-		this.cartaJogada = c;
-		this.alguemJogou = true;
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see mt.JogoGenerico#decideMao11(mt.Jogador, boolean)
+	 */
+	public void decideMao11(Jogador j, boolean aceita) {
+		enfileira(new Comando(Comando.DECIDE_MAO_11, j, null, aceita));
+	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see mt.JogoGenerico#aumentaAposta(mt.Jogador)
+	 */
+	public void aumentaAposta(Jogador j) {
+		enfileira(new Comando(Comando.AUMENTA_APOSTA, j, null, false));
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see mt.JogoGenerico#decideMao11(mt.Jogador, boolean)
+	 * @see mt.JogoGenerico#respondeAumento(mt.Jogador, boolean)
+	 */
+	public void respondeAumento(Jogador j, boolean aceitou) {
+		enfileira(new Comando(Comando.RESPONDE_AUMENTO, j, null,
+				aceitou));
+	}
+
+	/**
+	 * Coloca um comando na fila, avisando quem conduz o jogo (se for o caso)
 	 */
-	public synchronized void decideMao11(Jogador j, boolean aceita) {
+	private void enfileira(Comando comando) {
+		filaComandos.offer(comando);
+		Thread t = threadJogo;
+		if (t != null) {
+			LockSupport.unpark(t);
+		}
+		if (avisoComandoEnfileirado != null) {
+			avisoComandoEnfileirado.run();
+		}
+	}
+
+	/**
+	 * Libera a thread do jogo (que pode estar aguardando comandos) para que
+	 * ela perceba a finalização
+	 */
+	public void abortaJogo(int posicao) {
+		super.abortaJogo(posicao);
+		enfileira(new Comando(Comando.NENHUM, null, null, false));
+	}
+
+	/**
+	 * Processa a decisão de um jogador sobre a mão de 11
+	 */
+	private void processaDecisaoMao11(Jogador j, boolean aceita) {
 
 		// Só entra se estivermos jogando e se estivermos agurardando resposta
 		// daquele jogador para a pergunta (isso é importante para evitar duplo
@@ -482,8 +688,9 @@ public class JogoLocal extends Jogo {
 		if (jogoFinalizado || !aguardandoRespostaMaoDe11[j.getPosicao() - 1])
 			return;
 
-		Log.i("JogoLocal", "J" + j.getPosicao() + (aceita ? "" : " nao")
-				+ " quer jogar mao de 11 ");
+		if (logHabilitado)
+			Log.i("JogoLocal", "J" + j.getPosicao() + (aceita ? "" : " nao")
+					+ " quer jogar mao de 11 ");
 
 		// Avisa os outros jogadores da decisão
 		for (Jogador interessado : jogadores) {
@@ -510,12 +717,10 @@ public class JogoLocal extends Jogo {
 
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see mt.JogoGenerico#aumentaAposta(mt.Jogador)
+	/**
+	 * Processa o pedido de aumento de aposta de um jogador
 	 */
-	public void aumentaAposta(Jogador j) {
+	private void processaAumentoAposta(Jogador j) {
 
 		// Se o jogo estiver fianlizado, a mesa não estiver completa, já houver
 		// alguém trucando, estivermos aguardando a mão de 11 ou não for a vez
@@ -526,7 +731,8 @@ public class JogoLocal extends Jogo {
 			return;
 		}
 
-		Log.i("JogoLocal", "Jogador  " + j.getPosicao() + " pede aumento");
+		if (logHabilitado)
+			Log.i("JogoLocal", "Jogador  " + j.getPosicao() + " pede aumento");
 
 		// Atualiza o status e notifica os outros jogadores do pedido
 		jogadorPedindoAumento = j;
@@ -539,26 +745,26 @@ public class JogoLocal extends Jogo {
 		for (Jogador interessado : jogadores) {
 			interessado.pediuAumentoAposta(j, valor);
 		}
-		Log.i("JogoLocal", "Jogadores notificados do aumento");
+		if (logHabilitado)
+			Log.i("JogoLocal", "Jogadores notificados do aumento");
 
 		return;
 
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see mt.JogoGenerico#respondeAumento(mt.Jogador, boolean)
+	/**
+	 * Processa a resposta de um jogador a um pedido de aumento de aposta
 	 */
-	public synchronized void respondeAumento(Jogador j, boolean aceitou) {
+	private void processaRespostaAumento(Jogador j, boolean aceitou) {
 		// Apenas os adversários de quem trucou respondem
 		if (jogadorPedindoAumento == null
 				|| jogadorPedindoAumento.getEquipeAdversaria() != j.getEquipe()) {
 			return;
 		}
 
-		Log.i("JogoLocal", "Jogador  " + j.getPosicao()
-				+ (aceitou ? "aceitou" : "recusou"));
+		if (logHabilitado)
+			Log.i("JogoLocal", "Jogador  " + j.getPosicao()
+					+ (aceitou ? "aceitou" : "recusou"));
 
 		if (aceitou) {
 			// Se o jogador aceitou, seta o novo valor, notifica a galera e tira
@@ -662,9 +868,8 @@ public class JogoLocal extends Jogo {
 		s.numRodadaAtual = this.numRodadaAtual;
 		s.posJogador = j.getPosicao();
 		s.posJogadorQueAbriuRodada = this.jogadorAbriuRodada.getPosicao();
-		if (this.jogadorPedindoAumento != null)
-			s.posJogadorPedindoAumento = this.jogadorPedindoAumento
-					.getPosicao();
+		s.posJogadorPedindoAumento = (this.jogadorPedindoAumento == null) ? 0
+				: this.jogadorPedindoAumento.getPosicao();
 		s.valorMao = this.valorMao;
 
 		for (int i = 0; i <= 1; i++) {
@@ -674,26 +879,10 @@ public class JogoLocal extends Jogo {
 			s.resultadoRodada[i] = this.resultadoRodada[i];
 
 		for (int i = 0; i <= 2; i++)
-			for (int k = 0; k <= 3; k++) {
-				Carta c = cartasJogadasPorRodada[i][k];
-				if (c == null) {
-					s.cartasJogadas[i][k] = null;
-				} else if (s.cartasJogadas[i][k] == null) {
-					s.cartasJogadas[i][k] = new Carta(c.getLetra(),
-							c.getNaipe());
-				} else {
-					s.cartasJogadas[i][k].setLetra(c.getLetra());
-					s.cartasJogadas[i][k].setNaipe(c.getNaipe());
-				}
-				// Se for uma carta fechada, limpa letra/naipe na cópia (pra
-				// evitar que uma estratégia maligna tente espiar uma carta
-				// fechada)
-				if (c != null && c.isFechada()) {
-					s.cartasJogadas[i][k].setFechada(true);
-					s.cartasJogadas[i][k].setLetra(Carta.LETRA_NENHUMA);
-					s.cartasJogadas[i][k].setNaipe(Carta.NAIPE_NENHUM);
-				}
-			}
+			for (int k = 0; k <= 3; k++)
+				s.setCartaJogada(i, k, cartasJogadasPorRodada[i][k]);
+		s.codigoVira = (manilhaVelha || cartaDaMesa == null) ? Carta.ID_NENHUM
+				: cartaDaMesa.getId();
 
 	}
 
@@ -725,14 +914,6 @@ public class JogoLocal extends Jogo {
 		return false;
 	}
 
-	private void sleep(int i) {
-		try {
-			Thread.sleep(100);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-	}
-
 	/**
 	 * Seta o placar atual (apenas para fins de testes)
 	 * 
@@ -744,4 +925,29 @@ public class JogoLocal extends Jogo {
 		pontosEquipe[1] = pontosEquipe2;
 	}
 
+	/**
+	 * Comando enviado por um jogador, aguardando processamento na thread do
+	 * jogo
+	 */
+	private static class Comando {
+
+		static final int NENHUM = 0;
+		static final int JOGA_CARTA = 1;
+		static final int DECIDE_MAO_11 = 2;
+		static final int AUMENTA_APOSTA = 3;
+		static final int RESPONDE_AUMENTO = 4;
+
+		final int tipo;
+		final Jogador jogador;
+		final Carta carta;
+		final boolean aceita;
+
+		Comando(int tipo, Jogador jogador, Carta carta, boolean aceita) {
+			this.tipo = tipo;
+			this.jogador = jogador;
+			this.carta = carta;
+			this.aceita = aceita;
+		}
+	}
+
 }
@@ -0,0 +1,253 @@
+package me.chester.minitruco.core;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Uma partida hospedada num <code>GerenciadorMesas</code>.
+ * <p>
+ * O <code>JogoLocal</code> da mesa não tem thread própria: cada comando
+ * enfileirado por um jogador agenda (uma única vez, até ser atendido) uma
+ * tarefa no pool do gerenciador, que processa todos os comandos pendentes.
+ * Assim o jogo nunca é processado por duas threads ao mesmo tempo, e mesas
+ * sem atividade não ocupam thread nenhuma.
+ * <p>
+ * Os lugares podem ser ocupados por qualquer <code>Jogador</code> (humano,
+ * remoto ou CPU), na ordem em que sentarem.
+ *
+ * @see GerenciadorMesas
+ *
+ */
+public class Mesa {
+
+	private int id;
+
+	private GerenciadorMesas gerenciador;
+
+	private JogoLocal jogo;
+
+	/**
+	 * Indica que há uma tarefa de processamento agendada (ou rodando) no pool
+	 */
+	private AtomicBoolean processamentoAgendado = new AtomicBoolean();
+
+	/**
+	 * Estes campos só são alterados pela tarefa de processamento (que nunca
+	 * roda em paralelo consigo mesma) ou, antes de a partida começar, por
+	 * inicia() e aborta(), mas podem ser lidos de qualquer thread
+	 */
+	private volatile boolean iniciada, encerrada;
+	private boolean partidaAberta;
+	private volatile long numEventos;
+	private volatile long inicioNanos, fimNanos;
+
+	Mesa(int id, GerenciadorMesas gerenciador, JogoLocal jogo) {
+		this.id = id;
+		this.gerenciador = gerenciador;
+		this.jogo = jogo;
+		jogo.setAvisoComandoEnfileirado(new Runnable() {
+			public void run() {
+				agendaProcessamento();
+			}
+		});
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return jogo da mesa (para configurar, ex.: placar inicial ou log)
+	 */
+	public JogoLocal getJogo() {
+		return jogo;
+	}
+
+	/**
+	 * Senta um jogador no próximo lugar livre
+	 *
+	 * @return true se sentou, false se a mesa já estava cheia
+	 */
+	public boolean senta(Jogador jogador) {
+		return jogo.adiciona(jogador);
+	}
+
+	/**
+	 * Ocupa os lugares livres com jogadores CPU
+	 *
+	 * @param nomeEstrategia
+	 *            nome da estratégia (se não existir, sorteia uma para cada
+	 *            jogador)
+	 */
+	public void completaComCPU(String nomeEstrategia) {
+		while (jogo.numJogadores < 4) {
+			jogo.adiciona(new JogadorCPU(nomeEstrategia));
+		}
+	}
+
+	/**
+	 * Inicia a partida (no pool do gerenciador). A mesa deve estar completa
+	 * (e não pode ter sido abortada).
+	 */
+	public synchronized void inicia() {
+		if (jogo.numJogadores < 4) {
+			throw new IllegalStateException("Mesa " + id + " incompleta");
+		}
+		if (encerrada) {
+			throw new IllegalStateException("Mesa " + id + " encerrada");
+		}
+		inicioNanos = System.nanoTime();
+		iniciada = true;
+		gerenciador.mesaIniciada(this);
+		agendaProcessamento();
+	}
+
+	/**
+	 * Encerra a partida antes do fim, avisando os jogadores
+	 */
+	public void aborta() {
+		jogo.abortaJogo(0);
+		// Sem partida iniciada, não há processamento para tirar a mesa do
+		// gerenciador
+		synchronized (this) {
+			if (!iniciada) {
+				encerra();
+			}
+		}
+	}
+
+	/**
+	 * Agenda o processamento dos comandos, caso já não esteja agendado
+	 */
+	private void agendaProcessamento() {
+		if (iniciada && !encerrada
+				&& processamentoAgendado.compareAndSet(false, true)) {
+			gerenciador.executa(processamento);
+		}
+	}
+
+	/**
+	 * Tarefa executada no pool: processa os comandos pendentes
+	 */
+	private Runnable processamento = new Runnable() {
+		public void run() {
+			try {
+				processa();
+			} catch (RuntimeException e) {
+				Log.w("Mesa", "Erro na mesa " + id + ", encerrando", e);
+				jogo.jogoFinalizado = true;
+				encerra();
+			}
+		}
+	};
+
+	private void processa() {
+		if (encerrada) {
+			return;
+		}
+		int eventos = 0;
+		if (!partidaAberta) {
+			// A abertura da partida já gera notificações (e, provavelmente,
+			// comandos)
+			partidaAberta = true;
+			jogo.iniciaPartida();
+			eventos++;
+		}
+		eventos += jogo.processaComandosPendentes();
+		numEventos += eventos;
+		gerenciador.contabilizaEventos(eventos);
+		if (jogo.isPartidaEncerrada()) {
+			encerra();
+			return;
+		}
+		processamentoAgendado.set(false);
+		// Um comando pode ter chegado depois do processamento e antes da
+		// liberação do flag (e o aviso dele não agendou nada)
+		if (jogo.temComandosPendentes()) {
+			agendaProcessamento();
+		}
+	}
+
+	private void encerra() {
+		if (encerrada) {
+			return;
+		}
+		fimNanos = System.nanoTime();
+		encerrada = true;
+		gerenciador.mesaEncerrada(this);
+	}
+
+	public boolean isIniciada() {
+		return iniciada;
+	}
+
+	public boolean isEncerrada() {
+		return encerrada;
+	}
+
+	/**
+	 * @return quantidade de eventos (início da partida e comandos dos
+	 *         jogadores) processados na mesa
+	 */
+	public long getNumEventos() {
+		return numEventos;
+	}
+
+	/**
+	 * @return média de eventos por segundo desde o início da partida (até o
+	 *         fim, se ela já acabou)
+	 */
+	public double getEventosPorSegundo() {
+		if (!iniciada) {
+			return 0;
+		}
+		long nanos = (encerrada ? fimNanos : System.nanoTime()) - inicioNanos;
+		return nanos == 0 ? 0 : numEventos * 1000000000.0 / nanos;
+	}
+
+	@Override
+	public String toString() {
+		return "Mesa " + id + ": " + jogo.numJogadores + " jogadores, "
+				+ numEventos + " eventos"
+				+ (encerrada ? " (encerrada)" : iniciada ? "" : " (aguardando)");
+	}
+
+}
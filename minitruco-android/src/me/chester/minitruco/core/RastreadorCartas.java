@@ -0,0 +1,210 @@
+package me.chester.minitruco.core;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Acompanha, ao longo de uma mão, as cartas que um jogador já viu (as da sua
+ * mão, o vira e as jogadas abertas), as manilhas que já saíram e a maior
+ * carta que ainda pode aparecer na mesa.
+ * <p>
+ * É alimentado pelas notificações que o jogador recebe (inicioMao(),
+ * cartaJogada() e rodadaFechada()), com custo constante por evento, e
+ * preenche as máscaras da SituacaoJogo (preenche()) sem percorrer as cartas
+ * jogadas. Assim todas as estratégias recebem essas informações prontas, e
+ * quem sorteia as cartas ocultas (ver Determinizacao) parte direto da
+ * máscara das não vistas.
+ * <p>
+ * Ao contrário de SituacaoJogo.atualizaMascaras(), que só enxerga a
+ * situação, o rastreador lembra das cartas que o próprio jogador jogou
+ * fechadas (que continuam vistas para ele).
+ * <p>
+ * Não deve ser compartilhado entre threads sem sincronização externa.
+ *
+ */
+public class RastreadorCartas {
+
+	private static final int MENOR_MANILHA = 11;
+
+	/**
+	 * Maior valor de carta (o zap)
+	 */
+	private static final int VALOR_MAXIMO = 14;
+
+	private int indiceManilha;
+
+	private long mascaraBaralho;
+
+	private long mascaraVistas;
+
+	private int manilhasSaidas;
+
+	private int manilhasRodadasAnteriores;
+
+	/**
+	 * Quantas cartas de cada valor o jogador ainda não viu
+	 */
+	private final int[] naoVistasPorValor = new int[VALOR_MAXIMO + 1];
+
+	/**
+	 * Valores dos quais ainda há carta não vista (bit 1 &lt;&lt; valor)
+	 */
+	private int valoresNaoVistos;
+
+	/**
+	 * Começa uma nova mão, a partir das regras e da carta virada de um jogo
+	 *
+	 * @param cartas
+	 *            cartas recebidas pelo jogador
+	 */
+	public void inicioMao(Jogo jogo, Carta[] cartas) {
+		int codigoVira = (jogo.isManilhaVelha() || jogo.cartaDaMesa == null) ? Carta.ID_NENHUM
+				: jogo.cartaDaMesa.getId();
+		inicioMao(Jogo.getIndiceManilha(jogo.getManilha()),
+				!jogo.isBaralhoLimpo(), codigoVira, cartas);
+	}
+
+	/**
+	 * Começa uma nova mão
+	 *
+	 * @param indiceManilha
+	 *            índice da manilha, conforme Jogo.getIndiceManilha()
+	 * @param codigoVira
+	 *            id do vira, ou Carta.ID_NENHUM se for jogo com manilha velha
+	 * @param cartas
+	 *            cartas recebidas pelo jogador
+	 */
+	public void inicioMao(int indiceManilha, boolean baralhoSujo,
+			int codigoVira, Carta[] cartas) {
+		this.indiceManilha = indiceManilha;
+		mascaraBaralho = baralhoSujo ? SituacaoJogo.MASCARA_BARALHO_SUJO
+				: SituacaoJogo.MASCARA_BARALHO_LIMPO;
+		mascaraVistas = 0;
+		manilhasSaidas = 0;
+		manilhasRodadasAnteriores = 0;
+		valoresNaoVistos = 0;
+		for (int valor = 0; valor <= VALOR_MAXIMO; valor++) {
+			naoVistasPorValor[valor] = 0;
+		}
+		long mascara = mascaraBaralho;
+		while (mascara != 0) {
+			int valor = Jogo.getValorTruco(Long.numberOfTrailingZeros(mascara),
+					indiceManilha);
+			naoVistasPorValor[valor]++;
+			valoresNaoVistos |= 1 << valor;
+			mascara &= mascara - 1;
+		}
+		ve(codigoVira);
+		for (int i = 0; i < cartas.length; i++) {
+			ve(cartas[i].getId());
+		}
+	}
+
+	/**
+	 * Registra uma carta jogada na mesa (por qualquer jogador, inclusive o
+	 * dono do rastreador). Cartas fechadas são ignoradas.
+	 */
+	public void cartaJogada(Carta c) {
+		if (c == null || c.isFechada()) {
+			return;
+		}
+		int id = c.getId();
+		if (id == Carta.ID_NENHUM) {
+			return;
+		}
+		ve(id);
+		int valor = Jogo.getValorTruco(id, indiceManilha);
+		if (valor >= MENOR_MANILHA) {
+			manilhasSaidas |= 1 << (valor - MENOR_MANILHA);
+		}
+	}
+
+	/**
+	 * Registra o fim de uma rodada (as manilhas que saíram nela passam a
+	 * contar como das rodadas anteriores)
+	 */
+	public void rodadaFechada() {
+		manilhasRodadasAnteriores = manilhasSaidas;
+	}
+
+	/**
+	 * Marca a carta como vista (se ainda não estava)
+	 */
+	private void ve(int id) {
+		if (id < 0 || id >= Carta.NUM_IDS) {
+			return;
+		}
+		long bit = 1L << id;
+		if ((mascaraVistas & bit) != 0 || (mascaraBaralho & bit) == 0) {
+			return;
+		}
+		mascaraVistas |= bit;
+		int valor = Jogo.getValorTruco(id, indiceManilha);
+		if (--naoVistasPorValor[valor] == 0) {
+			valoresNaoVistos &= ~(1 << valor);
+		}
+	}
+
+	/**
+	 * @return valor (conforme Jogo.getValorTruco()) da maior carta que o
+	 *         jogador ainda não viu, ou 0 se já viu todas
+	 */
+	public int getValorMaiorCartaNaoVista() {
+		return valoresNaoVistos == 0 ? 0 : 31 - Integer
+				.numberOfLeadingZeros(valoresNaoVistos);
+	}
+
+	/**
+	 * Preenche as máscaras de cartas e as informações de manilhas da
+	 * situação (no lugar de SituacaoJogo.atualizaMascaras()). A mão do
+	 * jogador já deve estar preenchida na situação.
+	 */
+	public void preenche(SituacaoJogo s) {
+		long naMao = 0;
+		for (int i = 0; i < s.numCartasJogador; i++) {
+			naMao |= 1L << s.codigosCartasJogador[i];
+		}
+		long vistas = mascaraVistas | naMao;
+		s.mascaraCartasJogador = naMao;
+		s.mascaraCartasVistas = vistas;
+		s.mascaraCartasNaoVistas = mascaraBaralho & ~vistas;
+		s.manilhasSaidas = manilhasSaidas;
+		s.manilhasRodadasAnteriores = manilhasRodadasAnteriores;
+		s.valorMaiorCartaNaoVista = getValorMaiorCartaNaoVista();
+	}
+
+}
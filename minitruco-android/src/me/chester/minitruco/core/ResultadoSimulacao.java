@@ -0,0 +1,209 @@
+package me.chester.minitruco.core;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Estatísticas agregadas de um conjunto de partidas simuladas.
+ * <p>
+ * Os arrays são indexados pela equipe - 1 (i.e., 0 para a equipe 1/3 e 1
+ * para a equipe 2/4).
+ *
+ * @see Simulador
+ *
+ */
+public class ResultadoSimulacao {
+
+	/**
+	 * Partidas que chegaram ao fim
+	 */
+	int numPartidas;
+
+	/**
+	 * Partidas que não chegaram ao fim (ex.: nenhum jogador respondeu a uma
+	 * notificação, deixando o jogo sem comandos para processar)
+	 */
+	int numPartidasTravadas;
+
+	/**
+	 * Mãos jogadas (em todas as partidas)
+	 */
+	int numMaos;
+
+	/**
+	 * Partidas vencidas por cada equipe
+	 */
+	int[] vitorias = new int[2];
+
+	/**
+	 * Pontos marcados por cada equipe (em todas as mãos)
+	 */
+	int[] pontos = new int[2];
+
+	/**
+	 * Pedidos de aumento (truco, seis, etc.) feitos por cada equipe
+	 */
+	int[] pedidosAumento = new int[2];
+
+	/**
+	 * Pedidos de aumento que cada equipe aceitou
+	 */
+	int[] aumentosAceitos = new int[2];
+
+	/**
+	 * Decisões em que a estratégia de cada equipe lançou uma exceção (e o
+	 * jogador seguiu com uma resposta padrão)
+	 */
+	int[] falhasEstrategia = new int[2];
+
+	/**
+	 * Tempo total gasto nas simulações, em nanossegundos
+	 */
+	long tempoNanos;
+
+	public int getNumPartidas() {
+		return numPartidas;
+	}
+
+	public int getNumPartidasTravadas() {
+		return numPartidasTravadas;
+	}
+
+	public int getNumMaos() {
+		return numMaos;
+	}
+
+	/**
+	 * @param equipe
+	 *            1 ou 2
+	 */
+	public int getVitorias(int equipe) {
+		return vitorias[equipe - 1];
+	}
+
+	/**
+	 * @param equipe
+	 *            1 ou 2
+	 * @return média de pontos que a equipe marcou por mão jogada
+	 */
+	public double getPontosPorMao(int equipe) {
+		return numMaos == 0 ? 0 : (double) pontos[equipe - 1] / numMaos;
+	}
+
+	/**
+	 * @param equipe
+	 *            1 ou 2
+	 */
+	public int getPedidosAumento(int equipe) {
+		return pedidosAumento[equipe - 1];
+	}
+
+	/**
+	 * @param equipe
+	 *            1 ou 2
+	 * @return fração (0 a 1) dos pedidos de aumento recebidos pela equipe que
+	 *         ela aceitou
+	 */
+	public double getTaxaAceiteAumento(int equipe) {
+		int pedidosRecebidos = pedidosAumento[2 - equipe];
+		return pedidosRecebidos == 0 ? 0
+				: (double) aumentosAceitos[equipe - 1] / pedidosRecebidos;
+	}
+
+	/**
+	 * @param equipe
+	 *            1 ou 2
+	 * @return decisões em que a estratégia da equipe lançou exceção (deve
+	 *         ser 0 para que o resultado signifique alguma coisa)
+	 */
+	public int getFalhasEstrategia(int equipe) {
+		return falhasEstrategia[equipe - 1];
+	}
+
+	/**
+	 * @return partidas simuladas por segundo
+	 */
+	public double getPartidasPorSegundo() {
+		return tempoNanos == 0 ? 0 : numPartidas * 1000000000.0 / tempoNanos;
+	}
+
+	/**
+	 * Soma as estatísticas de outro resultado a este.
+	 * 
+	 * @param outro
+	 *            resultado a somar
+	 * @param trocaEquipes
+	 *            true se as equipes do outro resultado estão invertidas em
+	 *            relação a este (ex.: quando as estratégias trocaram de lado)
+	 */
+	public void acumula(ResultadoSimulacao outro, boolean trocaEquipes) {
+		numPartidas += outro.numPartidas;
+		numPartidasTravadas += outro.numPartidasTravadas;
+		numMaos += outro.numMaos;
+		tempoNanos += outro.tempoNanos;
+		for (int i = 0; i <= 1; i++) {
+			int j = trocaEquipes ? 1 - i : i;
+			vitorias[i] += outro.vitorias[j];
+			pontos[i] += outro.pontos[j];
+			pedidosAumento[i] += outro.pedidosAumento[j];
+			aumentosAceitos[i] += outro.aumentosAceitos[j];
+			falhasEstrategia[i] += outro.falhasEstrategia[j];
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer sb = new StringBuffer();
+		sb.append(numPartidas).append(" partidas (")
+				.append(numPartidasTravadas).append(" travadas), ")
+				.append(numMaos).append(" maos, ")
+				.append((int) getPartidasPorSegundo()).append(" partidas/s");
+		for (int equipe = 1; equipe <= 2; equipe++) {
+			sb.append("\nEquipe ").append(equipe).append(": ")
+					.append(getVitorias(equipe)).append(" vitorias, ")
+					.append(getPontosPorMao(equipe)).append(" pontos/mao, ")
+					.append(getPedidosAumento(equipe))
+					.append(" pedidos de aumento, ")
+					.append(getTaxaAceiteAumento(equipe))
+					.append(" de aceite, ")
+					.append(getFalhasEstrategia(equipe))
+					.append(" falhas da estrategia");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,205 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Roda partidas completas entre duas estratégias, na thread que chamou e sem
+ * pausas, threads extras ou log (para avaliar estratégias em milhões de
+ * partidas).
+ * <p>
+ * Cada equipe tem uma <code>FabricaEstrategia</code>, que cria uma instância
+ * para cada um dos seus jogadores. As instâncias são reaproveitadas de uma
+ * partida para outra.
+ * <p>
+ * Cada simulador tem suas próprias instâncias e gerador de números
+ * aleatórios, então simuladores diferentes podem rodar em paralelo (um por
+ * thread).
+ *
+ * @see FabricaEstrategia
+ * @see JogadorSimulado
+ * @see ResultadoSimulacao
+ *
+ */
+public class Simulador {
+
+	private FabricaEstrategia fabricaEquipe1, fabricaEquipe2;
+
+	private boolean baralhoLimpo, manilhaVelha, tentoMineiro;
+
+	/**
+	 * Gerador usado para embaralhar as cartas das partidas deste simulador
+	 */
+	private Random random = new Random();
+
+	/**
+	 * Estratégias que só existem para simulações e torneios: gastam centenas
+	 * de ms e vários núcleos por decisão, então não entram em
+	 * Jogador.ESTRATEGIAS (que sorteia os adversários no aparelho). Ficam as
+	 * classes, e não instâncias, para não alocar nada (ex.: a árvore da
+	 * EstrategiaMCTS) antes do uso. Os nomes são constantes, então
+	 * procurá-los não carrega as classes.
+	 */
+	private static final Class<?>[] ESTRATEGIAS_EXPERIMENTAIS = {
+			EstrategiaMonteCarlo.class, EstrategiaMCTS.class };
+
+	private static final String[] NOMES_EXPERIMENTAIS = {
+			EstrategiaMonteCarlo.NOME, EstrategiaMCTS.NOME };
+
+	/**
+	 * Cria um simulador para partidas com baralho sujo, manilha nova e tento
+	 * paulista.
+	 *
+	 * @param fabricaEquipe1
+	 *            cria as estratégias dos jogadores 1 e 3
+	 * @param fabricaEquipe2
+	 *            cria as estratégias dos jogadores 2 e 4
+	 */
+	public Simulador(FabricaEstrategia fabricaEquipe1,
+			FabricaEstrategia fabricaEquipe2) {
+		this.fabricaEquipe1 = fabricaEquipe1;
+		this.fabricaEquipe2 = fabricaEquipe2;
+	}
+
+	/**
+	 * Define as regras das partidas simuladas (os parâmetros são os mesmos do
+	 * construtor de <code>JogoLocal</code>).
+	 */
+	public void setRegras(boolean baralhoLimpo, boolean manilhaVelha,
+			boolean tentoMineiro) {
+		this.baralhoLimpo = baralhoLimpo;
+		this.manilhaVelha = manilhaVelha;
+		this.tentoMineiro = tentoMineiro;
+	}
+
+	/**
+	 * Simula partidas completas.
+	 *
+	 * @param numPartidas
+	 *            quantidade de partidas a jogar
+	 * @return estatísticas das partidas
+	 */
+	public ResultadoSimulacao simula(int numPartidas) {
+		ResultadoSimulacao resultado = new ResultadoSimulacao();
+		Estrategia[] estrategias = new Estrategia[4];
+		for (int i = 0; i <= 3; i++) {
+			estrategias[i] = (i % 2 == 0 ? fabricaEquipe1 : fabricaEquipe2)
+					.cria();
+		}
+		long inicio = System.nanoTime();
+		for (int i = 0; i < numPartidas; i++) {
+			simulaPartida(estrategias, resultado);
+		}
+		resultado.tempoNanos = System.nanoTime() - inicio;
+		return resultado;
+	}
+
+	/**
+	 * Joga uma partida, contabilizando suas estatísticas
+	 *
+	 * @param estrategias
+	 *            estratégias dos jogadores (índice = posição - 1)
+	 */
+	void simulaPartida(Estrategia[] estrategias, ResultadoSimulacao resultado) {
+		JogoLocal jogo = new JogoLocal(new Baralho(baralhoLimpo, random),
+				manilhaVelha, tentoMineiro);
+		jogo.setLogHabilitado(false);
+		for (int i = 0; i <= 3; i++) {
+			jogo.adiciona(new JogadorSimulado(estrategias[i], resultado));
+		}
+
+		// Os jogadores simulados respondem às notificações na hora, então
+		// cada comando processado gera o próximo. Se a fila esvaziar antes do
+		// fim, a partida travou.
+		jogo.iniciaPartida();
+		jogo.processaComandosPendentes();
+		if (!jogo.isPartidaEncerrada()) {
+			resultado.numPartidasTravadas++;
+			jogo.jogoFinalizado = true;
+		}
+	}
+
+	/**
+	 * Obtém a fábrica de uma estratégia para simulações e torneios,
+	 * procurando tanto as do jogo quanto as experimentais. As instâncias são
+	 * criadas com o construtor vazio.
+	 * 
+	 * @param nomeEstrategia
+	 *            nome da estratégia (ver Estrategia.getNomeEstrategia())
+	 * @throws IllegalArgumentException
+	 *             se nenhuma estratégia tiver esse nome
+	 */
+	public static FabricaEstrategia fabricaEstrategia(String nomeEstrategia) {
+		for (Estrategia modelo : Jogador.ESTRATEGIAS) {
+			if (modelo.getNomeEstrategia().equals(nomeEstrategia)) {
+				return fabricaEstrategia(modelo.getClass());
+			}
+		}
+		for (int i = 0; i < NOMES_EXPERIMENTAIS.length; i++) {
+			if (NOMES_EXPERIMENTAIS[i].equals(nomeEstrategia)) {
+				return fabricaEstrategia(ESTRATEGIAS_EXPERIMENTAIS[i]);
+			}
+		}
+		throw new IllegalArgumentException("Estratégia desconhecida: "
+				+ nomeEstrategia);
+	}
+
+	/**
+	 * @return nova instância da estratégia com esse nome (ver
+	 *         fabricaEstrategia())
+	 */
+	public static Estrategia criaEstrategia(String nomeEstrategia) {
+		return fabricaEstrategia(nomeEstrategia).cria();
+	}
+
+	private static FabricaEstrategia fabricaEstrategia(final Class<?> classe) {
+		return new FabricaEstrategia() {
+			public Estrategia cria() {
+				try {
+					return (Estrategia) classe.newInstance();
+				} catch (InstantiationException e) {
+					throw new Error(e.getMessage());
+				} catch (IllegalAccessException e) {
+					throw new Error(e.getMessage());
+				}
+			}
+		};
+	}
+
+}
@@ -117,14 +117,239 @@ public class SituacaoJogo {
 
 	/**
 	 * Para cada rodada (0-2) dá as cartas jogadas pelas 4 posicões (0-3)
+	 * <p>
+	 * Deve ser preenchido via setCartaJogada(), que mantém as cartas e os
+	 * códigos em sincronia
 	 */
 	public Carta[][] cartasJogadas = new Carta[3][4];
 
 	/**
 	 * Cartas que ainda estão na mão do jogador
+	 * <p>
+	 * Deve ser preenchido via limpaCartasJogador()/adicionaCartaJogador(), que
+	 * mantém as cartas, os códigos e as máscaras em sincronia
 	 */
 	public Carta[] cartasJogador;
 
+	/**
+	 * Código (ver Carta.getCodigo()) de cada carta de cartasJogadas, ou
+	 * Carta.ID_NENHUM se a posição não jogou na rodada. Uma carta fechada tem
+	 * o código Carta.BIT_FECHADA, sem o id (que não pode ser revelado).
+	 */
+	public int[][] codigosCartasJogadas = new int[3][4];
+
+	/**
+	 * Ids das cartas que ainda estão na mão do jogador (só as
+	 * numCartasJogador primeiras posições são válidas)
+	 */
+	public int[] codigosCartasJogador = new int[3];
+
+	/**
+	 * Quantidade de cartas na mão do jogador
+	 */
+	public int numCartasJogador;
+
+	/**
+	 * Id da carta virada na mesa (o "vira"), ou Carta.ID_NENHUM se for jogo
+	 * com manilha velha
+	 */
+	public int codigoVira = Carta.ID_NENHUM;
+
+	/**
+	 * Máscara das cartas na mão do jogador (bit 1 &lt;&lt; id ligado para cada
+	 * carta)
+	 */
+	public long mascaraCartasJogador;
+
+	/**
+	 * Máscara das cartas que o jogador já viu na mão atual (as da sua mão, as
+	 * jogadas abertas e o vira)
+	 */
+	public long mascaraCartasVistas;
+
+	/**
+	 * Máscara das cartas do baralho que o jogador ainda não viu (estão na mão
+	 * de outros jogadores, no monte ou foram jogadas fechadas)
+	 */
+	public long mascaraCartasNaoVistas;
+
+	/**
+	 * Manilhas abertas que já saíram na mão (bit valor - 11 para cada uma,
+	 * conforme Jogo.getValorTruco(); ex.: bit 3 para o zap)
+	 */
+	public int manilhasSaidas;
+
+	/**
+	 * Manilhas abertas que saíram nas rodadas anteriores à atual
+	 */
+	public int manilhasRodadasAnteriores;
+
+	/**
+	 * Valor (conforme Jogo.getValorTruco()) da maior carta que o jogador ainda
+	 * não viu, i.e., a maior que ainda pode aparecer na mesa (0 se não houver)
+	 */
+	public int valorMaiorCartaNaoVista;
+
+	/**
+	 * Máscara com todas as cartas do baralho sujo
+	 */
+	public static final long MASCARA_BARALHO_SUJO = (1L << Carta.NUM_IDS) - 1;
+
+	/**
+	 * Máscara com todas as cartas do baralho limpo (sem 4, 5, 6 e 7, que são
+	 * os ids de 0 a 15)
+	 */
+	public static final long MASCARA_BARALHO_LIMPO = MASCARA_BARALHO_SUJO
+			& ~((1L << 16) - 1);
+
+	private static final int MENOR_MANILHA = 11;
+
+	/**
+	 * Objetos reaproveitados em cartasJogadas e cartasJogador, para que a
+	 * situação possa ser atualizada sem criar objetos
+	 */
+	private Carta[][] cartasJogadasReaproveitadas = new Carta[3][4];
+	private Carta[] cartasJogadorReaproveitadas = new Carta[3];
+	private Carta[][] arraysCartasJogador = { new Carta[0], new Carta[1],
+			new Carta[2], new Carta[3] };
+
+	public SituacaoJogo() {
+		for (int i = 0; i <= 2; i++) {
+			for (int k = 0; k <= 3; k++) {
+				codigosCartasJogadas[i][k] = Carta.ID_NENHUM;
+				cartasJogadasReaproveitadas[i][k] = new Carta(
+						Carta.LETRA_NENHUMA, Carta.NAIPE_NENHUM);
+			}
+			cartasJogadorReaproveitadas[i] = new Carta(Carta.LETRA_NENHUMA,
+					Carta.NAIPE_NENHUM);
+		}
+	}
+
+	/**
+	 * Registra a carta jogada por uma posição numa rodada, sem criar objetos.
+	 * <p>
+	 * Se a carta for fechada, a cópia não tem letra/naipe (pra evitar que uma
+	 * estratégia maligna tente espiar uma carta fechada).
+	 * 
+	 * @param rodada
+	 *            rodada (0-2)
+	 * @param posicao
+	 *            posição do jogador (0-3)
+	 * @param c
+	 *            carta jogada, ou null se a posição não jogou na rodada
+	 */
+	public void setCartaJogada(int rodada, int posicao, Carta c) {
+		if (c == null) {
+			codigosCartasJogadas[rodada][posicao] = Carta.ID_NENHUM;
+			cartasJogadas[rodada][posicao] = null;
+			return;
+		}
+		Carta copia = cartasJogadasReaproveitadas[rodada][posicao];
+		if (c.isFechada()) {
+			codigosCartasJogadas[rodada][posicao] = Carta.BIT_FECHADA;
+			copia.setLetra(Carta.LETRA_NENHUMA);
+			copia.setNaipe(Carta.NAIPE_NENHUM);
+			copia.setFechada(true);
+		} else {
+			codigosCartasJogadas[rodada][posicao] = c.getId();
+			copia.setLetra(c.getLetra());
+			copia.setNaipe(c.getNaipe());
+			copia.setFechada(false);
+		}
+		cartasJogadas[rodada][posicao] = copia;
+	}
+
+	/**
+	 * Esvazia a mão do jogador (para ser preenchida com adicionaCartaJogador())
+	 */
+	public void limpaCartasJogador() {
+		numCartasJogador = 0;
+		cartasJogador = arraysCartasJogador[0];
+	}
+
+	/**
+	 * Acrescenta uma carta à mão do jogador, sem criar objetos.
+	 * 
+	 * @param c
+	 *            carta (a situação guarda uma cópia)
+	 */
+	public void adicionaCartaJogador(Carta c) {
+		Carta copia = cartasJogadorReaproveitadas[numCartasJogador];
+		copia.setLetra(c.getLetra());
+		copia.setNaipe(c.getNaipe());
+		copia.setFechada(false);
+		codigosCartasJogador[numCartasJogador] = c.getId();
+		numCartasJogador++;
+		cartasJogador = arraysCartasJogador[numCartasJogador];
+		for (int i = 0; i < numCartasJogador; i++) {
+			cartasJogador[i] = cartasJogadorReaproveitadas[i];
+		}
+	}
+
+	/**
+	 * Recalcula as máscaras de cartas e as manilhas que saíram a partir dos
+	 * códigos. Deve ser chamado depois de atualizar as cartas jogadas, a mão,
+	 * o vira e a rodada.
+	 * <p>
+	 * Os jogadores da CPU não usam este método: eles acompanham as cartas com
+	 * um RastreadorCartas, que preenche as mesmas informações sem percorrer a
+	 * situação.
+	 */
+	public void atualizaMascaras() {
+		long naMao = 0;
+		for (int i = 0; i < numCartasJogador; i++) {
+			naMao |= mascara(codigosCartasJogador[i]);
+		}
+		long vistas = naMao | mascara(codigoVira);
+		for (int i = 0; i <= 2; i++) {
+			for (int k = 0; k <= 3; k++) {
+				vistas |= mascara(codigosCartasJogadas[i][k]);
+			}
+		}
+		mascaraCartasJogador = naMao;
+		mascaraCartasVistas = vistas;
+		mascaraCartasNaoVistas = (baralhoSujo ? MASCARA_BARALHO_SUJO
+				: MASCARA_BARALHO_LIMPO) & ~vistas;
+
+		int indiceManilha = Jogo.getIndiceManilha(manilha);
+		manilhasSaidas = 0;
+		manilhasRodadasAnteriores = 0;
+		for (int i = 0; i <= 2; i++) {
+			for (int k = 0; k <= 3; k++) {
+				int codigo = codigosCartasJogadas[i][k];
+				if (mascara(codigo) == 0 || indiceManilha == -1) {
+					continue;
+				}
+				int valor = Jogo.getValorTruco(codigo, indiceManilha);
+				if (valor >= MENOR_MANILHA) {
+					manilhasSaidas |= 1 << (valor - MENOR_MANILHA);
+					if (i < numRodadaAtual - 1) {
+						manilhasRodadasAnteriores |= 1 << (valor - MENOR_MANILHA);
+					}
+				}
+			}
+		}
+		valorMaiorCartaNaoVista = 0;
+		long naoVistas = mascaraCartasNaoVistas;
+		while (naoVistas != 0 && indiceManilha != -1) {
+			valorMaiorCartaNaoVista = Math.max(valorMaiorCartaNaoVista, Jogo
+					.getValorTruco(Long.numberOfTrailingZeros(naoVistas),
+							indiceManilha));
+			naoVistas &= naoVistas - 1;
+		}
+	}
+
+	/**
+	 * @return máscara com o bit do id, ou 0 se o código não for de uma carta
+	 *         conhecida (vazio ou fechada)
+	 */
+	private static long mascara(int codigo) {
+		if (codigo < 0 || codigo >= Carta.NUM_IDS) {
+			return 0;
+		}
+		return 1L << codigo;
+	}
+
 	/**
 	 * Determina se o baralho inclui as cartas 4, 5, 6 e 7 (true) ou não
 	 * (false).
@@ -137,4 +362,21 @@ public class SituacaoJogo {
 	 */
 	public boolean podeFechada;
 
+	private static final Tento TENTO_PAULISTA = new TentoPaulista();
+
+	private static final Tento TENTO_MINEIRO = new TentoMineiro();
+
+	/**
+	 * Valor que a mão passa a ter se for aceito o próximo aumento (o que
+	 * estiver pedido, ou o que o jogador pedir). Como os valores de mão do
+	 * tento paulista e do mineiro não se repetem, o valorMao basta para saber
+	 * qual dos dois está valendo.
+	 *
+	 * @return valor após o aumento, ou 0 se a mão não puder ser aumentada
+	 */
+	public int getValorAumento() {
+		int valor = TENTO_PAULISTA.calcValorTento(valorMao);
+		return valor != 0 ? valor : TENTO_MINEIRO.calcValorTento(valorMao);
+	}
+
 }
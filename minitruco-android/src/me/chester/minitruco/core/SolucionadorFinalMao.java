@@ -0,0 +1,368 @@
+package me.chester.minitruco.core;
+
+import java.util.Arrays;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Resolve exatamente o final de uma mão (quando o jogador tem uma ou duas
+ * cartas e faltam poucas cartas ocultas), dizendo qual carta jogar e qual a
+ * probabilidade de vitória da equipe.
+ * <p>
+ * Enumera todas as distribuições das cartas ocultas coerentes com a
+ * <code>SituacaoJogo</code> e resolve cada uma por minimax (como se todos
+ * vissem todas as cartas), ponderando pela quantidade de distribuições
+ * equivalentes. Só o valor das cartas importa para o resultado, então cartas
+ * de mesmo valor são enumeradas uma vez só, e os estados do início de cada
+ * rodada já avaliados ficam numa tabela de transposição (indexada por um
+ * resumo do estado num long), que é reaproveitada entre as decisões.
+ * <p>
+ * Ninguém joga carta fechada nas distribuições (as que já estão na mesa
+ * valem 0, como no jogo).
+ *
+ */
+class SolucionadorFinalMao {
+
+	/**
+	 * Quantidade máxima de cartas ocultas (nas mãos dos outros jogadores) para
+	 * tentar resolver. Com 2 são no máximo umas 100 distribuições; com 4
+	 * chegavam a 20 mil, e o solucionador tomava quase todo o tempo da
+	 * estratégia sem melhorar o resultado.
+	 */
+	static final int MAX_CARTAS_OCULTAS = 2;
+
+	/**
+	 * Tamanho da tabela de transposição (potência de 2)
+	 */
+	private static final int TAMANHO_TABELA = 1 << 13;
+
+	/**
+	 * Valor das cartas (de 1 a 14; 0 é a carta fechada)
+	 */
+	private static final int NUM_VALORES = 15;
+
+	private Determinizacao determinizacao = new Determinizacao();
+
+	/**
+	 * Quantas cartas ocultas há de cada valor, e uma delas (representante)
+	 */
+	private int[] ocultasPorValor = new int[NUM_VALORES];
+	private int[] representantePorValor = new int[NUM_VALORES];
+
+	/**
+	 * Posições (0 a 3) que recebem cartas ocultas, com uma entrada por carta
+	 */
+	private int[] posicaoDaCartaOculta = new int[MAX_CARTAS_OCULTAS];
+	private int numCartasOcultas;
+
+	/**
+	 * Valores sorteados na distribuição sendo enumerada
+	 */
+	private int[] valorDaCartaOculta = new int[MAX_CARTAS_OCULTAS];
+
+	private EstadoMao mundo = new EstadoMao();
+
+	/**
+	 * Estados do minimax (um por profundidade, para não alocar)
+	 */
+	private EstadoMao[] pilha = new EstadoMao[13];
+
+	/**
+	 * Tabela de transposição: estado resumido (ver chave()) e resultado do
+	 * minimax, em posições escolhidas pelo hash do estado
+	 */
+	private long[] chavesTabela = new long[TAMANHO_TABELA];
+	private byte[] valoresTabela = new byte[TAMANHO_TABELA];
+	private long numAcertosTabela;
+
+	private int posJogador, equipeJogador, numAcoes;
+
+	/**
+	 * Soma das probabilidades (ponderadas) de vitória para cada carta do
+	 * jogador (ou do estado atual, se não for a vez dele)
+	 */
+	private double[] somaPorAcao = new double[3];
+	private double somaPesos;
+
+	private int melhorCarta;
+	private double probabilidadeVitoria;
+	private long numDistribuicoes;
+
+	SolucionadorFinalMao() {
+		for (int i = 0; i < pilha.length; i++) {
+			pilha[i] = new EstadoMao();
+		}
+	}
+
+	/**
+	 * Resolve a situação, se ela for pequena o suficiente
+	 *
+	 * @return true se resolveu (e getMelhorCarta() e
+	 *         getProbabilidadeVitoria() valem), false se não é o caso
+	 */
+	boolean resolve(SituacaoJogo s) {
+		if (s.numCartasJogador > 2 || s.numCartasJogador == 0) {
+			return false;
+		}
+		determinizacao.prepara(s);
+		EstadoMao base = determinizacao.estadoBase;
+		numCartasOcultas = 0;
+		for (int pos = 0; pos <= 3; pos++) {
+			int n = determinizacao.numCartasASortear[pos];
+			if (numCartasOcultas + n > MAX_CARTAS_OCULTAS) {
+				return false;
+			}
+			for (int i = 0; i < n; i++) {
+				posicaoDaCartaOculta[numCartasOcultas++] = pos;
+			}
+		}
+		if (numCartasOcultas > determinizacao.numCartasOcultas) {
+			return false;
+		}
+		Arrays.fill(ocultasPorValor, 0);
+		for (int i = 0; i < determinizacao.numCartasOcultas; i++) {
+			int id = determinizacao.cartasOcultas[i];
+			int valor = Jogo.getValorTruco(id, base.indiceManilha);
+			ocultasPorValor[valor]++;
+			representantePorValor[valor] = id;
+		}
+		posJogador = s.posJogador - 1;
+		equipeJogador = EstadoMao.equipe(posJogador);
+		numAcoes = base.posVez == posJogador ? s.numCartasJogador : 0;
+		Arrays.fill(somaPorAcao, 0);
+		somaPesos = 0;
+		numDistribuicoes = 0;
+
+		distribui(0, 0, 1);
+
+		if (somaPesos == 0) {
+			return false;
+		}
+		melhorCarta = 0;
+		for (int i = 1; i < numAcoes; i++) {
+			if (somaPorAcao[i] > somaPorAcao[melhorCarta]) {
+				melhorCarta = i;
+			}
+		}
+		probabilidadeVitoria = somaPorAcao[melhorCarta] / somaPesos;
+		return true;
+	}
+
+	/**
+	 * @return índice (em cartasJogador) da carta que maximiza a probabilidade
+	 *         de vitória, se for a vez do jogador
+	 */
+	int getMelhorCarta() {
+		return melhorCarta;
+	}
+
+	/**
+	 * @return probabilidade de vitória da equipe do jogador (contando empate
+	 *         como meia vitória), jogando a melhor carta se for a vez dele
+	 */
+	double getProbabilidadeVitoria() {
+		return probabilidadeVitoria;
+	}
+
+	/**
+	 * @return quantidade de distribuições (por valor) avaliadas na última
+	 *         resolução
+	 */
+	long getNumDistribuicoes() {
+		return numDistribuicoes;
+	}
+
+	/**
+	 * @return quantidade de estados encontrados na tabela de transposição (em
+	 *         todas as resoluções)
+	 */
+	long getNumAcertosTabela() {
+		return numAcertosTabela;
+	}
+
+	/**
+	 * Enumera os valores possíveis para as cartas ocultas a partir da i-ésima.
+	 * As cartas de uma mesma posição recebem valores em ordem não-decrescente
+	 * (a ordem na mão não importa), e o peso conta quantas distribuições de
+	 * cartas reais dão aqueles valores.
+	 *
+	 * @param i
+	 *            carta oculta a sortear
+	 * @param repeticoes
+	 *            quantas cartas da mesma posição, antes desta, têm o mesmo
+	 *            valor da anterior
+	 * @param peso
+	 *            quantidade de distribuições equivalentes até aqui
+	 */
+	private void distribui(int i, int repeticoes, double peso) {
+		if (i == numCartasOcultas) {
+			avalia(peso);
+			return;
+		}
+		boolean mesmaPosicao = i > 0
+				&& posicaoDaCartaOculta[i] == posicaoDaCartaOculta[i - 1];
+		int valorMinimo = mesmaPosicao ? valorDaCartaOculta[i - 1] : 1;
+		for (int valor = valorMinimo; valor < NUM_VALORES; valor++) {
+			int disponiveis = ocultasPorValor[valor];
+			if (disponiveis == 0) {
+				continue;
+			}
+			int r = mesmaPosicao && valor == valorDaCartaOculta[i - 1] ? repeticoes + 1
+					: 1;
+			valorDaCartaOculta[i] = valor;
+			ocultasPorValor[valor]--;
+			distribui(i + 1, r, peso * disponiveis / r);
+			ocultasPorValor[valor]++;
+		}
+	}
+
+	/**
+	 * Resolve uma distribuição, acumulando o resultado de cada ação
+	 */
+	private void avalia(double peso) {
+		numDistribuicoes++;
+		mundo.copia(determinizacao.estadoBase);
+		for (int i = 0; i < numCartasOcultas; i++) {
+			mundo.daCarta(posicaoDaCartaOculta[i],
+					representantePorValor[valorDaCartaOculta[i]]);
+		}
+		somaPesos += peso;
+		if (numAcoes == 0) {
+			pilha[0].copia(mundo);
+			somaPorAcao[0] += peso * probabilidade(minimax(0));
+			return;
+		}
+		for (int a = 0; a < numAcoes; a++) {
+			pilha[0].copia(mundo);
+			pilha[0].joga(a);
+			somaPorAcao[a] += peso * probabilidade(minimax(0));
+		}
+	}
+
+	/**
+	 * @return probabilidade de vitória da equipe do jogador, dado o resultado
+	 *         do minimax (do ponto de vista da equipe 1)
+	 */
+	private double probabilidade(int resultado) {
+		return (equipeJogador == 1 ? resultado : 2 - resultado) / 2.0;
+	}
+
+	/**
+	 * Resolve o estado da pilha naquela profundidade
+	 *
+	 * @return 2 se a equipe 1 ganha, 1 se empata, 0 se perde
+	 */
+	private int minimax(int profundidade) {
+		EstadoMao e = pilha[profundidade];
+		if (e.resultadoMao != 0) {
+			return e.resultadoMao == 1 ? 2 : e.resultadoMao == 2 ? 0 : 1;
+		}
+		int pos = e.posVez;
+		int n = e.numCartas[pos];
+		if (n == 0) {
+			// Estado inconsistente (não deveria acontecer)
+			return 1;
+		}
+		// Só vale a pena consultar a tabela no início das rodadas (é onde
+		// distribuições e jogadas diferentes chegam ao mesmo estado)
+		boolean usaTabela = e.numJogadasRodada == 0;
+		long chave = 0;
+		int indice = 0;
+		if (usaTabela) {
+			chave = chave(e);
+			indice = (int) (chave ^ (chave >>> 23) ^ (chave >>> 41))
+					& (TAMANHO_TABELA - 1);
+			if (chavesTabela[indice] == chave) {
+				numAcertosTabela++;
+				return valoresTabela[indice];
+			}
+		}
+		boolean maximiza = EstadoMao.equipe(pos) == 1;
+		int melhor = maximiza ? -1 : 3;
+		EstadoMao proximo = pilha[profundidade + 1];
+		for (int i = 0; i < n; i++) {
+			proximo.copia(e);
+			proximo.joga(i);
+			int valor = minimax(profundidade + 1);
+			if (maximiza ? valor > melhor : valor < melhor) {
+				melhor = valor;
+				if (melhor == (maximiza ? 2 : 0)) {
+					break;
+				}
+			}
+		}
+		if (usaTabela) {
+			// Em caso de colisão, fica o mais recente
+			chavesTabela[indice] = chave;
+			valoresTabela[indice] = (byte) melhor;
+		}
+		return melhor;
+	}
+
+	/**
+	 * Resume o estado num long: os valores das cartas nas mãos (em ordem, até
+	 * 2 por posição), o andamento da rodada e os resultados das anteriores. O
+	 * bit mais alto é ligado para que a chave nunca seja 0 (vazio na tabela).
+	 * Estados com os mesmos valores nas mãos têm o mesmo resultado, então as
+	 * cartas em si não entram na chave.
+	 */
+	private static long chave(EstadoMao e) {
+		long chave = 1;
+		for (int pos = 0; pos <= 3; pos++) {
+			int v1 = 0, v2 = 0;
+			if (e.numCartas[pos] >= 1) {
+				v1 = Jogo.getValorTruco(e.cartas[pos][0], e.indiceManilha);
+			}
+			if (e.numCartas[pos] >= 2) {
+				v2 = Jogo.getValorTruco(e.cartas[pos][1], e.indiceManilha);
+			}
+			chave = (chave << 8) | (Math.max(v1, v2) << 4) | Math.min(v1, v2);
+		}
+		chave = (chave << 4) | (e.maiorValor + 1);
+		chave = (chave << 2) | e.equipesMaiorValor;
+		chave = (chave << 2) | e.posMaiorValor;
+		chave = (chave << 2) | e.posVez;
+		chave = (chave << 3) | e.numJogadasRodada;
+		chave = (chave << 2) | e.rodada;
+		for (int i = 0; i <= 2; i++) {
+			chave = (chave << 2) | e.resultadoRodada[i];
+		}
+		return chave;
+	}
+
+}
@@ -0,0 +1,297 @@
+package me.chester.minitruco.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Tabela pré-calculada com a equidade (chance de a equipe ganhar a mão, com
+ * empate contando meio) de cada mão de 3 cartas, para cada baralho (limpo ou
+ * sujo), manilha e posição na primeira rodada.
+ * <p>
+ * Como só o valor das cartas importa, a mão é identificada pelo conjunto dos
+ * três valores (ver Jogo.getValorTruco()), o que dá 560 combinações. Cada
+ * equidade ocupa um byte (0 a 255), e a tabela inteira fica em torno de 48KB.
+ * <p>
+ * A tabela é gerada offline pelo <code>GeradorTabelaEquidade</code> (projeto
+ * minitruco-benchmark) e gravada no recurso <code>equidade.bin</code>, ao
+ * lado desta classe. Ela só é lida na primeira consulta; fora do Android (ex.:
+ * simulações e testes) o arquivo é mapeado em memória ao invés de copiado.
+ * <p>
+ * Formato: "EQTR", byte de versão, int com o número de amostras por mão e os
+ * bytes de equidade, na ordem de indice().
+ *
+ */
+class TabelaEquidade {
+
+	static final String RECURSO = "equidade.bin";
+
+	static final int MAGICO = 0x45515452; // "EQTR"
+
+	static final byte VERSAO = 1;
+
+	static final int TAMANHO_CABECALHO = 9;
+
+	/**
+	 * Maior valor de carta (manilha de paus)
+	 */
+	static final int VALOR_MAXIMO = 14;
+
+	/**
+	 * Número de índices de manilha (as 10 letras e a manilha velha)
+	 */
+	static final int NUM_MANILHAS = Jogo.INDICE_MANILHA_VELHA + 1;
+
+	/**
+	 * Número de mãos distintas (combinações de 3 valores de 1 a 14, com
+	 * repetição)
+	 */
+	static final int NUM_MAOS;
+
+	static final int TAMANHO_DADOS;
+
+	/**
+	 * Índice de cada mão, a partir dos valores em ordem crescente
+	 */
+	private static final short[] INDICE_MAO = new short[(VALOR_MAXIMO + 1)
+			* (VALOR_MAXIMO + 1) * (VALOR_MAXIMO + 1)];
+
+	static {
+		int n = 0;
+		for (int v1 = 1; v1 <= VALOR_MAXIMO; v1++) {
+			for (int v2 = v1; v2 <= VALOR_MAXIMO; v2++) {
+				for (int v3 = v2; v3 <= VALOR_MAXIMO; v3++) {
+					INDICE_MAO[chaveValores(v1, v2, v3)] = (short) n++;
+				}
+			}
+		}
+		NUM_MAOS = n;
+		TAMANHO_DADOS = 2 * NUM_MANILHAS * 4 * NUM_MAOS;
+	}
+
+	private static int chaveValores(int v1, int v2, int v3) {
+		return (v1 * (VALOR_MAXIMO + 1) + v2) * (VALOR_MAXIMO + 1) + v3;
+	}
+
+	/**
+	 * @return índice da mão com os valores informados (em qualquer ordem), de
+	 *         0 a NUM_MAOS - 1
+	 */
+	static int indiceMao(int a, int b, int c) {
+		int t;
+		if (a > b) {
+			t = a;
+			a = b;
+			b = t;
+		}
+		if (b > c) {
+			t = b;
+			b = c;
+			c = t;
+		}
+		if (a > b) {
+			t = a;
+			a = b;
+			b = t;
+		}
+		return INDICE_MAO[chaveValores(a, b, c)];
+	}
+
+	/**
+	 * @param posicao
+	 *            posição do jogador em relação a quem abriu a mão (0 para quem
+	 *            abre, 3 para o pé)
+	 * @return posição da equidade na tabela (sem contar o cabeçalho)
+	 */
+	static int indice(boolean baralhoLimpo, int indiceManilha, int posicao,
+			int indiceMao) {
+		return (((baralhoLimpo ? 1 : 0) * NUM_MANILHAS + indiceManilha) * 4 + posicao)
+				* NUM_MAOS + indiceMao;
+	}
+
+	/**
+	 * Os dados só são carregados quando esta classe é usada pela primeira vez
+	 */
+	private static class Carregador {
+		static final ByteBuffer DADOS = carrega();
+	}
+
+	/**
+	 * @return true se a tabela foi encontrada e é válida
+	 */
+	static boolean isDisponivel() {
+		return Carregador.DADOS != null;
+	}
+
+	/**
+	 * @return equidade (de 0 a 1) da mão com as cartas informadas, ou -1 se a
+	 *         tabela não estiver disponível
+	 */
+	static double getEquidade(boolean baralhoLimpo, int indiceManilha,
+			int posicao, int codigo1, int codigo2, int codigo3) {
+		ByteBuffer dados = Carregador.DADOS;
+		if (dados == null) {
+			return -1;
+		}
+		int i = indice(baralhoLimpo, indiceManilha, posicao, indiceMao(
+				Jogo.getValorTruco(codigo1, indiceManilha),
+				Jogo.getValorTruco(codigo2, indiceManilha),
+				Jogo.getValorTruco(codigo3, indiceManilha)));
+		return (dados.get(TAMANHO_CABECALHO + i) & 0xFF) / 255.0;
+	}
+
+	/**
+	 * @return equidade da mão do jogador, ou -1 se ele não estiver com as 3
+	 *         cartas da primeira rodada (ou se a tabela não estiver
+	 *         disponível)
+	 */
+	static double getEquidade(SituacaoJogo s) {
+		if (s.numRodadaAtual != 1 || s.numCartasJogador != 3) {
+			return -1;
+		}
+		int[] c = s.codigosCartasJogador;
+		return getEquidade(!s.baralhoSujo, Jogo.getIndiceManilha(s.manilha),
+				posicao(s, s.posJogador), c[0], c[1], c[2]);
+	}
+
+	/**
+	 * @return equidade das cartas do parceiro (ex.: na mão de 11), ou -1 se
+	 *         não forem as 3 cartas da primeira rodada (ou se a tabela não
+	 *         estiver disponível)
+	 */
+	static double getEquidadeParceiro(SituacaoJogo s, Carta[] cartasParceiro) {
+		if (s.numRodadaAtual != 1 || cartasParceiro == null
+				|| cartasParceiro.length != 3) {
+			return -1;
+		}
+		int posParceiro = (s.posJogador + 1) % 4 + 1;
+		return getEquidade(!s.baralhoSujo, Jogo.getIndiceManilha(s.manilha),
+				posicao(s, posParceiro), cartasParceiro[0].getId(),
+				cartasParceiro[1].getId(), cartasParceiro[2].getId());
+	}
+
+	/**
+	 * Equidade da equipe na mão de 11, aproximada pela melhor das duas mãos
+	 * (que, nas simulações, acompanha de perto a chance real da equipe com as
+	 * duas mãos conhecidas)
+	 *
+	 * @return equidade de 0 a 1, ou -1 se a tabela não estiver disponível
+	 */
+	static double getEquidadeMao11(SituacaoJogo s, Carta[] cartasParceiro) {
+		double minha = getEquidade(s);
+		double parceiro = getEquidadeParceiro(s, cartasParceiro);
+		if (minha < 0 || parceiro < 0) {
+			return -1;
+		}
+		return Math.max(minha, parceiro);
+	}
+
+	/**
+	 * @return posição (0 a 3) do jogador em relação a quem abriu a rodada
+	 */
+	private static int posicao(SituacaoJogo s, int posJogador) {
+		return (posJogador - s.posJogadorQueAbriuRodada + 4) % 4;
+	}
+
+	/**
+	 * Lê a tabela do recurso, mapeando o arquivo em memória quando ele está
+	 * no sistema de arquivos (ao invés de dentro de um .jar/.apk)
+	 *
+	 * @return dados da tabela, ou null se o recurso não existir ou for
+	 *         inválido
+	 */
+	private static ByteBuffer carrega() {
+		URL url = TabelaEquidade.class.getResource(RECURSO);
+		if (url == null) {
+			Log.w("TabelaEquidade", "Recurso " + RECURSO + " não encontrado");
+			return null;
+		}
+		ByteBuffer dados;
+		try {
+			if ("file".equals(url.getProtocol())) {
+				RandomAccessFile arquivo = new RandomAccessFile(new File(
+						url.toURI()), "r");
+				try {
+					FileChannel canal = arquivo.getChannel();
+					dados = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+							canal.size());
+				} finally {
+					// O mapeamento continua válido depois do close()
+					arquivo.close();
+				}
+			} else {
+				InputStream is = url.openStream();
+				try {
+					ByteArrayOutputStream baos = new ByteArrayOutputStream(
+							TAMANHO_CABECALHO + TAMANHO_DADOS);
+					byte[] buffer = new byte[4096];
+					int lidos;
+					while ((lidos = is.read(buffer)) != -1) {
+						baos.write(buffer, 0, lidos);
+					}
+					dados = ByteBuffer.wrap(baos.toByteArray());
+				} finally {
+					is.close();
+				}
+			}
+		} catch (IOException e) {
+			Log.w("TabelaEquidade", "Erro lendo " + RECURSO + ": " + e);
+			return null;
+		} catch (Exception e) {
+			// URISyntaxException, IllegalArgumentException do File
+			Log.w("TabelaEquidade", "Erro abrindo " + url + ": " + e);
+			return null;
+		}
+		if (dados.capacity() != TAMANHO_CABECALHO + TAMANHO_DADOS
+				|| dados.getInt(0) != MAGICO || dados.get(4) != VERSAO) {
+			Log.w("TabelaEquidade", RECURSO + " inválido ou de outra versão");
+			return null;
+		}
+		return dados;
+	}
+
+}
@@ -0,0 +1,156 @@
+package me.chester.minitruco.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Torneio entre duas estratégias, distribuindo as partidas simuladas entre
+ * várias threads.
+ * <p>
+ * As partidas são divididas em lotes. Cada lote roda num
+ * <code>Simulador</code> próprio, com seus próprios jogos, baralhos,
+ * estratégias e geradores de números aleatórios, ou seja, as threads não
+ * compartilham nada enquanto jogam. Metade dos lotes é jogada com as
+ * estratégias trocando de lado, para que nenhuma delas seja favorecida pela
+ * posição.
+ * <p>
+ * As fábricas das estratégias podem ser obtidas pelo nome com
+ * <code>Simulador.fabricaEstrategia()</code>, que também conhece as que não
+ * são usadas no jogo (ex.: EstrategiaMonteCarlo).
+ *
+ * @see Simulador
+ *
+ */
+public class Torneio {
+
+	private FabricaEstrategia estrategiaA, estrategiaB;
+
+	private boolean baralhoLimpo, manilhaVelha, tentoMineiro;
+
+	private int numThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Cria um torneio com baralho sujo, manilha nova e tento paulista,
+	 * usando todos os processadores disponíveis.
+	 *
+	 * @param estrategiaA
+	 *            cria a estratégia que será contabilizada como equipe 1 no
+	 *            resultado
+	 * @param estrategiaB
+	 *            cria a estratégia que será contabilizada como equipe 2 no
+	 *            resultado
+	 */
+	public Torneio(FabricaEstrategia estrategiaA,
+			FabricaEstrategia estrategiaB) {
+		this.estrategiaA = estrategiaA;
+		this.estrategiaB = estrategiaB;
+	}
+
+	/**
+	 * Define as regras das partidas (os parâmetros são os mesmos do
+	 * construtor de <code>JogoLocal</code>).
+	 */
+	public void setRegras(boolean baralhoLimpo, boolean manilhaVelha,
+			boolean tentoMineiro) {
+		this.baralhoLimpo = baralhoLimpo;
+		this.manilhaVelha = manilhaVelha;
+		this.tentoMineiro = tentoMineiro;
+	}
+
+	/**
+	 * @param numThreads
+	 *            quantidade de threads que vão jogar as partidas
+	 */
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Joga as partidas do torneio, bloqueando até que todas terminem.
+	 *
+	 * @param numPartidas
+	 *            quantidade total de partidas
+	 * @return estatísticas consolidadas, com a equipe 1 correspondendo à
+	 *         estratégia A e a equipe 2 à estratégia B (o tempo é o decorrido
+	 *         no torneio, e não a soma dos tempos das threads)
+	 * @throws InterruptedException
+	 *             se a thread for interrompida enquanto aguarda as partidas
+	 */
+	public ResultadoSimulacao joga(int numPartidas)
+			throws InterruptedException {
+		long inicio = System.nanoTime();
+		int numLotes = 2 * numThreads;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<ResultadoSimulacao>> lotes = new ArrayList<Future<ResultadoSimulacao>>();
+			for (int i = 0; i < numLotes; i++) {
+				final int numPartidasLote = numPartidas / numLotes
+						+ (i < numPartidas % numLotes ? 1 : 0);
+				final Simulador simulador = (i % 2 == 0) ? new Simulador(
+						estrategiaA, estrategiaB) : new Simulador(estrategiaB,
+						estrategiaA);
+				simulador.setRegras(baralhoLimpo, manilhaVelha, tentoMineiro);
+				lotes.add(executor.submit(new Callable<ResultadoSimulacao>() {
+					public ResultadoSimulacao call() {
+						return simulador.simula(numPartidasLote);
+					}
+				}));
+			}
+			ResultadoSimulacao resultado = new ResultadoSimulacao();
+			for (int i = 0; i < numLotes; i++) {
+				try {
+					resultado.acumula(lotes.get(i).get(), i % 2 == 1);
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+			resultado.tempoNanos = System.nanoTime() - inicio;
+			return resultado;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,290 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+
+import me.chester.minitruco.core.Jogador;
+import me.chester.minitruco.core.Jogo;
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Sala do lado do cliente: recebe do servidor a situação da mesa (fora do
+ * jogo) e encaminha as notificações do jogo em andamento para o JogoRemoto.
+ * <p>
+ * A conexão já deve estar estabelecida (a forma de encontrar o servidor
+ * depende do meio).
+ */
+public class Cliente extends Sala implements Runnable {
+
+	private Conexao conexao;
+	private Thread threadConexao;
+	private Thread threadMonitoraConexao;
+	private JogoRemoto jogo;
+	private EscritorMensagens escritor;
+	private boolean ofereceBinario = true;
+	private volatile boolean protocoloBinario;
+	private int posJogador;
+	private boolean encerrado;
+
+	public Cliente(Conexao conexao, ObservadorSala observador) {
+		super(observador);
+		this.conexao = conexao;
+	}
+
+	/**
+	 * Define se o cliente deve oferecer o protocolo binário ao servidor (o
+	 * padrão é oferecer). Deve ser chamado antes de inicia().
+	 */
+	public void setOfereceBinario(boolean ofereceBinario) {
+		this.ofereceBinario = ofereceBinario;
+	}
+
+	/**
+	 * @return true se o servidor aceitou o protocolo binário (e a conexão já
+	 *         passou a usá-lo)
+	 */
+	public boolean isProtocoloBinario() {
+		return protocoloBinario;
+	}
+
+	/**
+	 * Começa a processar as notificações do servidor (e a monitorar a
+	 * conexão)
+	 */
+	public void inicia() {
+		if (threadConexao == null) {
+			threadConexao = new Thread(this);
+			threadConexao.start();
+		}
+	}
+
+	public void run() {
+		atualizaSala();
+		// Loop principal: decodifica as notificações recebidas e as
+		// processa (ou encaminha ao JogoRemoto, se estivermos em jogo)
+		Mensagem m = new Mensagem();
+		try {
+			LeitorMensagens leitor = new LeitorMensagens(
+					conexao.getInputStream());
+			synchronized (this) {
+				escritor = new EscritorMensagens(conexao.getOutputStream());
+			}
+			if (ofereceBinario) {
+				enviaMensagem(new Mensagem().inicia('B').numero(
+						VERSAO_PROTOCOLO_BINARIO));
+			}
+			iniciaMonitorConexao();
+			while (leitor.le(m)) {
+				Log.w("MINITRUCO", "Recebeu:" + m);
+				switch (m.getTipo()) {
+				case 'B':
+					// Servidor aceitou o binário: o que vier depois já está
+					// nele; confirmamos (ainda em texto) e passamos a enviar
+					// em binário também
+					if (ofereceBinario && !protocoloBinario
+							&& m.getNumArgs() > 0 && m.getNumero(0) >= 1) {
+						leitor.setBinario(true);
+						confirmaBinario(m.getNumero(0));
+					}
+					break;
+				case 'I':
+					exibeMesaForaDoJogo(m.getTexto());
+					break;
+				case 'P':
+					if (observador != null) {
+						observador.partidaIniciando();
+					}
+					// Não tem mesmo um break aqui, o início de partida
+					// também precisa ser processado pelo jogo anterior
+					// (para limpar o placar)
+				default:
+					if (jogo != null) {
+						jogo.processaMensagem(m);
+					}
+				}
+			}
+			throw new IOException("Conexão encerrada pelo servidor");
+		} catch (IOException e) {
+			if (!encerrado) {
+				if (jogo != null) {
+					jogo.abortaJogo(0);
+				}
+				if (observador != null) {
+					observador.erroFatal("Você foi desconectado");
+				}
+			}
+		}
+	}
+
+	private void iniciaMonitorConexao() {
+		if (threadMonitoraConexao == null) {
+			threadMonitoraConexao = new Thread() {
+				public void run() {
+					while (threadConexao.isAlive()) {
+						// Envia comando vazio, apenas para garantir desbloqueio
+						// de I/O na thread principal se o servidor sumir
+						for (int i = 0; i <= 2; i++) {
+							enviaVazia();
+						}
+						Sala.sleep(2000);
+					}
+				}
+			};
+			threadMonitoraConexao.start();
+		}
+	}
+
+	private void exibeMesaForaDoJogo(String parametros) {
+		parametros = tiraEspacoDosNomes(parametros);
+		if (jogo != null) {
+			jogo.abortaJogo(0);
+			jogo = null;
+		}
+		// Exibe as informações recebidas fora do jogo
+		String[] tokens = parametros.split(" ");
+		posJogador = Integer.parseInt(tokens[2]);
+		regras = tokens[1];
+		encaixaApelidosNaMesa(tokens[0].split("\\|"));
+		atualizaSala();
+	}
+
+	private void encaixaApelidosNaMesa(String[] apelidosOriginais) {
+		for (int n = 1; n <= 4; n++) {
+			apelidos[getPosicaoMesa(n) - 1] = apelidosOriginais[n - 1];
+		}
+	}
+
+	private String tiraEspacoDosNomes(String parametros) {
+		while (parametros.split(" ").length > 3) {
+			parametros = parametros.replaceFirst(" ", "_");
+		}
+		return parametros;
+	}
+
+	@Override
+	public int getNumClientes() {
+		return 0;
+	}
+
+	/**
+	 * Manda uma mensagem para o servidor (se houver um conectado).
+	 * 
+	 * @param m
+	 */
+	public synchronized void enviaMensagem(Mensagem m) {
+		try {
+			if (escritor == null) {
+				return;
+			}
+			Log.w("MINITRUCO", "Enviando:" + m);
+			escritor.escreve(m);
+		} catch (IOException e) {
+			Log.w("MINITRUCO", e);
+			// Não preciso tratar, desconexões são identificadas no loop do in
+		}
+	}
+
+	private synchronized void enviaVazia() {
+		try {
+			if (escritor != null) {
+				escritor.escreveVazia();
+			}
+		} catch (IOException e) {
+			// Idem
+		}
+	}
+
+	/**
+	 * Envia a confirmação do protocolo binário (a última mensagem em texto)
+	 * e passa a escrever nele, sem deixar outro envio entrar no meio
+	 */
+	private synchronized void confirmaBinario(int versao) {
+		enviaMensagem(new Mensagem().inicia('B').numero(versao));
+		escritor.setBinario(true);
+		protocoloBinario = true;
+	}
+
+	/**
+	 * @return posição do jogador local no servidor (2 a 4)
+	 */
+	public int getPosJogador() {
+		return posJogador;
+	}
+
+	/**
+	 * Recupera a posição "visual" correspondente a uma posição de jogo (i.e.,
+	 * uma posição no servidor)
+	 * <p>
+	 * A idéia é que o jogador local fique sempre na parte inferior da tela,
+	 * então o método retorna 1 para o jogador local, 2 para quem está à direita
+	 * dele, etc.
+	 * 
+	 * @param i
+	 *            posição (no servidor) do jogador que queremos consultar
+	 */
+	public int getPosicaoMesa(int i) {
+		int retorno = i - posJogador + 1;
+		if (retorno < 1)
+			retorno += 4;
+		return retorno;
+	}
+
+	public void encerra() {
+		encerrado = true;
+		conexao.fecha();
+	}
+
+	/**
+	 * Cria um JogoRemoto com o jogador local na posição informada pelo
+	 * servidor (preenchendo as outras com dummies)
+	 */
+	@Override
+	public Jogo criaNovoJogo(Jogador jogadorLocal) {
+		jogo = new JogoRemoto(this, jogadorLocal);
+		for (int i = 1; i <= 4; i++) {
+			if (i == posJogador) {
+				jogo.adiciona(jogadorLocal);
+			} else {
+				jogo.adiciona(new JogadorDummy());
+			}
+		}
+		return jogo;
+	}
+
+}
@@ -0,0 +1,181 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Conexão TCP (java.nio), permitindo jogos multiplayer em rede local,
+ * internet ou no próprio aparelho (localhost).
+ * <p>
+ * Os streams leem e escrevem diretamente no SocketChannel (em modo
+ * bloqueante). Não usamos Channels.newInputStream()/newOutputStream() porque
+ * eles sincronizam no mesmo lock do canal, e aí uma thread bloqueada lendo
+ * impediria as outras de escrever.
+ * <p>
+ * O algoritmo de Nagle é desligado: o protocolo troca linhas curtas, e cada
+ * uma deve sair assim que for escrita.
+ */
+public class ConexaoTCP implements Conexao {
+
+	private SocketChannel canal;
+	private InputStream in;
+	private OutputStream out;
+
+	public ConexaoTCP(SocketChannel canal) throws IOException {
+		this.canal = canal;
+		canal.configureBlocking(true);
+		canal.socket().setTcpNoDelay(true);
+		in = new InputStreamCanal();
+		out = new OutputStreamCanal();
+	}
+
+	/**
+	 * Conecta num servidor
+	 * 
+	 * @param host
+	 *            nome ou IP do servidor
+	 * @param porta
+	 *            porta na qual o servidor está ouvindo (ver
+	 *            ServidorConexoesTCP)
+	 */
+	public static ConexaoTCP conecta(String host, int porta) throws IOException {
+		SocketChannel canal = SocketChannel.open();
+		try {
+			canal.connect(new InetSocketAddress(host, porta));
+			return new ConexaoTCP(canal);
+		} catch (IOException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	public InputStream getInputStream() {
+		return in;
+	}
+
+	public OutputStream getOutputStream() {
+		return out;
+	}
+
+	public String getNomeRemoto() {
+		return canal.socket().getInetAddress().getHostAddress();
+	}
+
+	public void fecha() {
+		try {
+			canal.close();
+		} catch (IOException e) {
+			// Já estava fechado
+		}
+	}
+
+	private class InputStreamCanal extends InputStream {
+
+		private final ByteBuffer umByte = ByteBuffer.allocate(1);
+
+		@Override
+		public synchronized int read() throws IOException {
+			umByte.clear();
+			int lidos;
+			do {
+				lidos = canal.read(umByte);
+			} while (lidos == 0);
+			return lidos < 0 ? -1 : umByte.get(0) & 0xFF;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len)
+				throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int lidos;
+			do {
+				lidos = canal.read(ByteBuffer.wrap(b, off, len));
+			} while (lidos == 0);
+			return lidos;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return canal.socket().getInputStream().available();
+		}
+
+		@Override
+		public void close() {
+			fecha();
+		}
+	}
+
+	private class OutputStreamCanal extends OutputStream {
+
+		private final ByteBuffer umByte = ByteBuffer.allocate(1);
+
+		@Override
+		public synchronized void write(int b) throws IOException {
+			umByte.clear();
+			umByte.put((byte) b);
+			umByte.flip();
+			escreve(umByte);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len)
+				throws IOException {
+			escreve(ByteBuffer.wrap(b, off, len));
+		}
+
+		private void escreve(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				canal.write(buffer);
+			}
+		}
+
+		@Override
+		public void close() {
+			fecha();
+		}
+	}
+
+}
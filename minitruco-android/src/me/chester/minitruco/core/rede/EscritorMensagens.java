@@ -0,0 +1,244 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import me.chester.minitruco.core.Carta;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Escreve mensagens numa conexão, no protocolo texto ou no binário.
+ * <p>
+ * No texto, cada mensagem é uma linha (ex.: "J 2 Kc T") terminada por
+ * Sala.SEPARADOR_ENV. No binário, cada mensagem é um quadro com:
+ * <ul>
+ * <li>o tamanho (um byte, ou 255 seguido de dois bytes se passar de 254),
+ * contando a partir do byte seguinte;</li>
+ * <li>o tipo (a mesma letra do protocolo texto);</li>
+ * <li>um byte por argumento: números de 0 a 63 como estão, flags como 0x40
+ * ou 0x41 e cartas como 0x80 mais o id; ou, se houver texto livre, os bytes
+ * dele.</li>
+ * </ul>
+ * Um quadro de tamanho 0 é vazio (usado como keepalive, assim como a linha
+ * vazia no texto).
+ * <p>
+ * Cada mensagem vai num único write(), seguido de flush(). Para enviar
+ * várias de uma vez (ex.: todas as geradas por um evento do jogo), elas podem
+ * ser acumuladas e descarregadas juntas, num único write() e flush(). Não é
+ * thread-safe: quem escreve deve sincronizar.
+ */
+public class EscritorMensagens {
+
+	static final int BIT_FLAG = 0x40;
+
+	static final int BIT_CARTA = 0x80;
+
+	/**
+	 * Id que representa ID_NENHUM no protocolo binário
+	 */
+	static final int ID_NENHUM_BINARIO = 0x3F;
+
+	/**
+	 * Tamanho a partir do qual o quadro usa dois bytes de tamanho
+	 */
+	static final int TAMANHO_ESTENDIDO = 0xFF;
+
+	private final OutputStream out;
+
+	private byte[] saida = new byte[64];
+
+	private int tamanho;
+
+	private boolean binario;
+
+	public EscritorMensagens(OutputStream out) {
+		this.out = out;
+	}
+
+	public boolean isBinario() {
+		return binario;
+	}
+
+	/**
+	 * Passa a escrever (ou não) no protocolo binário. As mensagens já
+	 * escritas não são afetadas.
+	 */
+	public void setBinario(boolean binario) {
+		this.binario = binario;
+	}
+
+	public void escreve(Mensagem m) throws IOException {
+		acumula(m);
+		descarrega();
+	}
+
+	/**
+	 * Escreve uma mensagem vazia (que o outro lado descarta), apenas para
+	 * testar a conexão
+	 */
+	public void escreveVazia() throws IOException {
+		acumulaVazia();
+		descarrega();
+	}
+
+	/**
+	 * Codifica a mensagem no fim do que já foi acumulado, sem escrever nada
+	 * na conexão (ver descarrega())
+	 */
+	public void acumula(Mensagem m) {
+		if (binario) {
+			codificaBinario(m);
+		} else {
+			codificaTexto(m);
+		}
+	}
+
+	/**
+	 * Acumula uma mensagem vazia (ver escreveVazia())
+	 */
+	public void acumulaVazia() {
+		if (binario) {
+			acrescenta(0);
+		} else {
+			acrescenta(Sala.SEPARADOR_ENV);
+		}
+	}
+
+	/**
+	 * Escreve tudo o que foi acumulado num único write(), seguido de flush()
+	 */
+	public void descarrega() throws IOException {
+		if (tamanho == 0) {
+			return;
+		}
+		try {
+			out.write(saida, 0, tamanho);
+			out.flush();
+		} finally {
+			tamanho = 0;
+		}
+	}
+
+	private void codificaTexto(Mensagem m) {
+		acrescenta(m.tipo);
+		for (int i = 0; i < m.numArgs; i++) {
+			acrescenta(' ');
+			int valor = m.args[i];
+			switch (m.tiposArgs[i]) {
+			case Mensagem.CARTA:
+				if (valor == Carta.ID_NENHUM) {
+					acrescenta(Carta.LETRA_NENHUMA);
+					acrescenta(Mensagem.NAIPES_TEXTO.charAt(Carta.NAIPE_NENHUM));
+				} else {
+					acrescenta(Carta.getLetra(valor));
+					acrescenta(Mensagem.NAIPES_TEXTO.charAt(Carta
+							.getNaipe(valor)));
+				}
+				break;
+			case Mensagem.FLAG:
+				acrescenta(valor != 0 ? 'T' : 'F');
+				break;
+			default:
+				if (valor >= 10) {
+					acrescenta('0' + valor / 10);
+				}
+				acrescenta('0' + valor % 10);
+			}
+		}
+		if (m.texto != null) {
+			acrescenta(' ');
+			acrescenta(m.texto.getBytes());
+		}
+		acrescenta(Sala.SEPARADOR_ENV);
+	}
+
+	private void codificaBinario(Mensagem m) {
+		byte[] bytesTexto = m.texto == null ? null : m.texto.getBytes();
+		int tamanhoQuadro = 1 + (bytesTexto == null ? m.numArgs
+				: bytesTexto.length);
+		if (tamanhoQuadro < TAMANHO_ESTENDIDO) {
+			acrescenta(tamanhoQuadro);
+		} else {
+			acrescenta(TAMANHO_ESTENDIDO);
+			acrescenta(tamanhoQuadro >> 8);
+			acrescenta(tamanhoQuadro);
+		}
+		acrescenta(m.tipo);
+		if (bytesTexto != null) {
+			acrescenta(bytesTexto);
+			return;
+		}
+		for (int i = 0; i < m.numArgs; i++) {
+			int valor = m.args[i];
+			switch (m.tiposArgs[i]) {
+			case Mensagem.CARTA:
+				acrescenta(BIT_CARTA
+						| (valor == Carta.ID_NENHUM ? ID_NENHUM_BINARIO : valor));
+				break;
+			case Mensagem.FLAG:
+				acrescenta(BIT_FLAG | valor);
+				break;
+			default:
+				acrescenta(valor);
+			}
+		}
+	}
+
+	private void acrescenta(int b) {
+		if (tamanho == saida.length) {
+			aumentaSaida(tamanho + 1);
+		}
+		saida[tamanho++] = (byte) b;
+	}
+
+	private void acrescenta(byte[] bytes) {
+		if (tamanho + bytes.length > saida.length) {
+			aumentaSaida(tamanho + bytes.length);
+		}
+		System.arraycopy(bytes, 0, saida, tamanho, bytes.length);
+		tamanho += bytes.length;
+	}
+
+	private void aumentaSaida(int minimo) {
+		byte[] maior = new byte[Math.max(minimo, saida.length * 2)];
+		System.arraycopy(saida, 0, maior, 0, tamanho);
+		saida = maior;
+	}
+
+}
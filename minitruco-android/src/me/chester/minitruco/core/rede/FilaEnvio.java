@@ -0,0 +1,412 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Fila de envio de um cliente no Servidor: as mensagens são copiadas para uma
+ * fila de tamanho limitado e escritas na conexão por uma thread própria, de
+ * forma que um cliente lento (ou travado) não segura a thread do jogo nem os
+ * outros clientes.
+ * <p>
+ * As mensagens podem ser acumuladas (ex.: as geradas por um evento do jogo)
+ * até que descarrega() as libere: a thread escreve todas as liberadas de uma
+ * vez, num único write() e flush(). As enfileiradas com enfileira() liberam
+ * a si mesmas e às acumuladas antes delas.
+ * <p>
+ * O que acontece quando a fila enche depende da política (ver
+ * POLITICA_DESCONECTA, POLITICA_BLOQUEIA e POLITICA_AGRUPA). Se ela encher só
+ * com mensagens acumuladas, elas são liberadas antes de aplicar a política.
+ * <p>
+ * A fila também mede o seu tamanho (atual e máximo), o tempo que as mensagens
+ * esperam nela e o tempo e o número de escritas na conexão.
+ */
+public class FilaEnvio implements Runnable {
+
+	/**
+	 * Com a fila cheia (e a thread presa escrevendo), o cliente é
+	 * desconectado (como se a conexão tivesse caído)
+	 */
+	public static final int POLITICA_DESCONECTA = 0;
+
+	/**
+	 * Com a fila cheia, quem envia espera abrir espaço (i.e., a mesa anda no
+	 * ritmo do cliente mais lento, como antes das filas)
+	 */
+	public static final int POLITICA_BLOQUEIA = 1;
+
+	/**
+	 * Uma nova situação da mesa ("I") substitui a anterior, se esta ainda
+	 * estiver no fim da fila. As mensagens do jogo não podem ser agrupadas
+	 * sem perder informação, então se a fila encher mesmo assim o cliente é
+	 * desconectado.
+	 */
+	public static final int POLITICA_AGRUPA = 2;
+
+	public static final int CAPACIDADE_PADRAO = 128;
+
+	/**
+	 * Tipo que representa, na fila, a mensagem vazia (keepalive)
+	 */
+	private static final char VAZIA = 0;
+
+	private final Servidor servidor;
+	private final Conexao conexao;
+	private final EscritorMensagens escritor;
+	private final int politica;
+
+	/**
+	 * Fila circular: as mensagens pendentes vão de inicio até inicio +
+	 * tamanho - 1 (módulo a capacidade)
+	 */
+	private final Mensagem[] mensagens;
+	private final boolean[] passaParaBinario;
+	private final long[] instantesEnfileiramento;
+	private int inicio;
+	private int tamanho;
+
+	/**
+	 * Quantas das mensagens pendentes (a partir do início) podem ser escritas
+	 */
+	private int liberadas;
+
+	private boolean binario;
+	private boolean encerrada;
+	private boolean escrevendo;
+
+	private int tamanhoMaximo;
+	private long mensagensEnviadas;
+	private long mensagensAgrupadas;
+	private long escritas;
+	private long nanosEspera;
+	private long nanosEscrita;
+	private long maiorNanosEscrita;
+
+	/**
+	 * @param servidor
+	 *            avisado (via conexaoCaiu()) se a conexão cair ou a fila
+	 *            encher
+	 * @param capacidade
+	 *            número máximo de mensagens pendentes
+	 * @param politica
+	 *            o que fazer com a fila cheia (ver POLITICA_*)
+	 */
+	public FilaEnvio(Servidor servidor, Conexao conexao, int capacidade,
+			int politica) throws IOException {
+		this.servidor = servidor;
+		this.conexao = conexao;
+		this.politica = politica;
+		escritor = new EscritorMensagens(conexao.getOutputStream());
+		mensagens = new Mensagem[capacidade];
+		for (int i = 0; i < capacidade; i++) {
+			mensagens[i] = new Mensagem();
+		}
+		passaParaBinario = new boolean[capacidade];
+		instantesEnfileiramento = new long[capacidade];
+	}
+
+	/**
+	 * Começa a escrever as mensagens enfileiradas
+	 */
+	public void inicia() {
+		new Thread(this).start();
+	}
+
+	/**
+	 * Pára de aceitar e de escrever mensagens (as pendentes são descartadas)
+	 */
+	public synchronized void encerra() {
+		encerrada = true;
+		notifyAll();
+	}
+
+	public synchronized boolean isEncerrada() {
+		return encerrada;
+	}
+
+	/**
+	 * @return true se já foi enfileirada a passagem para o protocolo binário
+	 */
+	public synchronized boolean isBinario() {
+		return binario;
+	}
+
+	/**
+	 * Enfileira uma cópia da mensagem (que pode ser reaproveitada assim que o
+	 * método retornar), liberando-a para escrita junto com as acumuladas
+	 */
+	public void enfileira(Mensagem m) {
+		enfileira(m, false, true);
+	}
+
+	/**
+	 * Enfileira uma cópia da mensagem, mas só a escreve quando ela for
+	 * liberada (por descarrega() ou por uma mensagem enfileirada depois)
+	 */
+	public void acumula(Mensagem m) {
+		enfileira(m, false, false);
+	}
+
+	/**
+	 * Libera para escrita todas as mensagens pendentes
+	 */
+	public synchronized void descarrega() {
+		if (liberadas < tamanho) {
+			liberadas = tamanho;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Enfileira uma mensagem (que ainda vai no protocolo atual), passando a
+	 * escrever no protocolo binário a partir da seguinte
+	 */
+	public void enfileiraEPassaParaBinario(Mensagem m) {
+		enfileira(m, true, true);
+	}
+
+	/**
+	 * Enfileira uma mensagem vazia, apenas para testar a conexão. Se já houver
+	 * mensagens pendentes, não faz nada (a próxima escrita já vai testar).
+	 */
+	public synchronized void enfileiraVazia() {
+		if (!encerrada && tamanho == 0) {
+			adiciona(null, false, true);
+		}
+	}
+
+	private void enfileira(Mensagem m, boolean passaParaBinario,
+			boolean libera) {
+		boolean coube;
+		synchronized (this) {
+			coube = tentaEnfileirar(m, passaParaBinario, libera);
+			if (!coube) {
+				encerra();
+			}
+		}
+		if (!coube) {
+			Log.w("MINITRUCO", "Fila de envio cheia, desconectando "
+					+ conexao.getNomeRemoto());
+			servidor.conexaoCaiu(conexao);
+		}
+	}
+
+	/**
+	 * @return false se a mensagem não coube (e o cliente deve ser
+	 *         desconectado)
+	 */
+	private boolean tentaEnfileirar(Mensagem m, boolean passaParaBinario,
+			boolean libera) {
+		if (politica == POLITICA_AGRUPA && m.getTipo() == 'I' && tamanho > 0) {
+			Mensagem ultima = mensagens[(inicio + tamanho - 1)
+					% mensagens.length];
+			if (ultima.getTipo() == 'I') {
+				ultima.copia(m);
+				mensagensAgrupadas++;
+				if (libera) {
+					descarrega();
+				}
+				return true;
+			}
+		}
+		while (!encerrada && tamanho == mensagens.length) {
+			// Cheia só de acumuladas não é culpa do cliente: libera e dá a
+			// vez à thread (que não está presa numa escrita)
+			descarrega();
+			if (politica != POLITICA_BLOQUEIA && escrevendo) {
+				return false;
+			}
+			aguarda();
+		}
+		if (!encerrada) {
+			adiciona(m, passaParaBinario, libera);
+		}
+		return true;
+	}
+
+	private void adiciona(Mensagem m, boolean passaParaBinario,
+			boolean libera) {
+		int fim = (inicio + tamanho) % mensagens.length;
+		if (m == null) {
+			mensagens[fim].inicia(VAZIA);
+		} else {
+			mensagens[fim].copia(m);
+		}
+		this.passaParaBinario[fim] = passaParaBinario;
+		instantesEnfileiramento[fim] = System.nanoTime();
+		if (passaParaBinario) {
+			binario = true;
+		}
+		tamanho++;
+		if (tamanho > tamanhoMaximo) {
+			tamanhoMaximo = tamanho;
+		}
+		if (libera) {
+			liberadas = tamanho;
+			notifyAll();
+		}
+	}
+
+	private void aguarda() {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			// Quem chamou verifica de novo a condição
+		}
+	}
+
+	public void run() {
+		int n;
+		long espera;
+		try {
+			while (true) {
+				synchronized (this) {
+					while (!encerrada && liberadas == 0) {
+						aguarda();
+					}
+					if (encerrada) {
+						return;
+					}
+					// Codifica todas as liberadas (é rápido) e escreve fora
+					// do lock, para não segurar quem enfileira
+					n = liberadas;
+					espera = 0;
+					long agora = System.nanoTime();
+					for (int i = 0; i < n; i++) {
+						Mensagem m = mensagens[inicio];
+						if (m.getTipo() == VAZIA) {
+							escritor.acumulaVazia();
+						} else {
+							escritor.acumula(m);
+						}
+						if (passaParaBinario[inicio]) {
+							escritor.setBinario(true);
+						}
+						espera += agora - instantesEnfileiramento[inicio];
+						inicio = (inicio + 1) % mensagens.length;
+					}
+					tamanho -= n;
+					liberadas = 0;
+					escrevendo = true;
+					notifyAll();
+				}
+				long antes = System.nanoTime();
+				escritor.descarrega();
+				registraEnvio(n, espera, System.nanoTime() - antes);
+			}
+		} catch (IOException e) {
+			Log.w("MINITRUCO", e);
+			// Libera quem estiver esperando espaço (que pode estar com o
+			// servidor travado) antes de avisar o servidor
+			encerra();
+			servidor.conexaoCaiu(conexao);
+		}
+	}
+
+	private synchronized void registraEnvio(int n, long espera, long escrita) {
+		escrevendo = false;
+		mensagensEnviadas += n;
+		escritas++;
+		nanosEspera += espera;
+		nanosEscrita += escrita;
+		if (escrita > maiorNanosEscrita) {
+			maiorNanosEscrita = escrita;
+		}
+	}
+
+	/**
+	 * @return número de mensagens pendentes
+	 */
+	public synchronized int getTamanho() {
+		return tamanho;
+	}
+
+	/**
+	 * @return maior número de mensagens pendentes desde a criação da fila
+	 */
+	public synchronized int getTamanhoMaximo() {
+		return tamanhoMaximo;
+	}
+
+	/**
+	 * @return mensagens já escritas na conexão (incluindo as vazias)
+	 */
+	public synchronized long getMensagensEnviadas() {
+		return mensagensEnviadas;
+	}
+
+	/**
+	 * @return escritas (write() seguido de flush()) feitas na conexão, cada
+	 *         uma com uma ou mais mensagens
+	 */
+	public synchronized long getEscritas() {
+		return escritas;
+	}
+
+	/**
+	 * @return mensagens que substituíram uma pendente (ver POLITICA_AGRUPA)
+	 */
+	public synchronized long getMensagensAgrupadas() {
+		return mensagensAgrupadas;
+	}
+
+	/**
+	 * @return soma do tempo que as mensagens enviadas esperaram na fila
+	 */
+	public synchronized long getNanosEspera() {
+		return nanosEspera;
+	}
+
+	/**
+	 * @return soma do tempo das escritas na conexão (ver getEscritas())
+	 */
+	public synchronized long getNanosEscrita() {
+		return nanosEscrita;
+	}
+
+	/**
+	 * @return tempo da escrita mais demorada
+	 */
+	public synchronized long getMaiorNanosEscrita() {
+		return maiorNanosEscrita;
+	}
+
+}
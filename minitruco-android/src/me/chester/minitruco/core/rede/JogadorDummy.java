@@ -1,4 +1,4 @@
-package me.chester.minitruco.android.bluetooth;
+package me.chester.minitruco.core.rede;
 
 import me.chester.minitruco.core.Carta;
 import me.chester.minitruco.core.Jogador;
@@ -41,10 +41,10 @@ import me.chester.minitruco.core.Jogador;
  */
 
 /**
- * Jogador (no cliente) que participa de um jogo bluetooth (além do
- * JogadorHumano).
+ * Jogador (no cliente) que participa de um jogo remoto (além do jogador
+ * local).
  * <p>
- * A classe não faz nada - é só para o JogadorHumano não se sentir sozinho
+ * A classe não faz nada - é só para o jogador local não se sentir sozinho
  * (i.e., ter a quem referenciar nos eventos remotos).
  * 
  */
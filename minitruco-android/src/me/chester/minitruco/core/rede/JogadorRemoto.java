@@ -0,0 +1,245 @@
+package me.chester.minitruco.core.rede;
+
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.Jogador;
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Representa, no servidor, um jogador que está num aparelho remoto (cliente).
+ * <p>
+ * Converte os eventos do JogoLocal em linhas de texto para o cliente (via
+ * Servidor) e as linhas recebidas do cliente em jogadas no JogoLocal.
+ * 
+ */
+public class JogadorRemoto extends Jogador {
+
+	private Servidor servidor;
+
+	public JogadorRemoto(Servidor servidor) {
+		this.servidor = servidor;
+	}
+
+	/**
+	 * Processa uma mensagem vinda do cliente (i.e., do JogoRemoto no aparelho
+	 * remoto), transformando-a novamente em evento no Jogo local.
+	 * <p>
+	 * A leitura fica a cargo do Servidor, que mantém uma thread por conexão
+	 * (bloqueada até chegar a próxima mensagem), já que a conexão sobrevive
+	 * às partidas.
+	 * <p>
+	 * Mensagens com argumentos faltando ou de tipo errado são descartadas (a
+	 * Mensagem é reaproveitada, então leríamos o que sobrou da anterior).
+	 */
+	public void processaMensagem(Mensagem m) {
+		switch (m.getTipo()) {
+		case 'J':
+			// Carta, opcionalmente seguida da flag de fechada
+			if (!m.isArgumento(0, Mensagem.CARTA)
+					|| m.getNumArgs() > 2
+					|| (m.getNumArgs() == 2 && !m.isArgumento(1,
+							Mensagem.FLAG))) {
+				descarta(m);
+				break;
+			}
+			// Procura a carta correspondente ao parâmetro
+			Carta[] cartas = getCartas();
+			for (int i = 0; i < cartas.length; i++) {
+				if (cartas[i] != null
+						&& cartas[i].getId() == m.getIdCarta(0)) {
+					cartas[i].setFechada(m.getNumArgs() > 1 && m.getFlag(1));
+					jogo.jogaCarta(this, cartas[i]);
+				}
+			}
+			break;
+		case 'H':
+			if (m.getNumArgs() != 1 || !m.isArgumento(0, Mensagem.FLAG)) {
+				descarta(m);
+				break;
+			}
+			jogo.decideMao11(this, m.getFlag(0));
+			break;
+		case 'T':
+			jogo.aumentaAposta(this);
+			break;
+		case 'D':
+			jogo.respondeAumento(this, true);
+			break;
+		case 'A':
+			jogo.abortaJogo(getPosicao());
+			break;
+		case 'C':
+			jogo.respondeAumento(this, false);
+			break;
+		}
+	}
+
+	private void descarta(Mensagem m) {
+		Log.w("MINITRUCO", "Mensagem inválida descartada: " + m);
+	}
+
+	/**
+	 * Mensagem reaproveitada nos envios.
+	 * <p>
+	 * Não precisa de lock: o JogoLocal faz todas as notificações a partir da
+	 * thread que processa os comandos, exceto jogoAbortado(), que pode vir de
+	 * qualquer thread (inclusive com o Servidor travado, quando ele descobre
+	 * uma desconexão) e por isso usa uma mensagem própria.
+	 */
+	private final Mensagem mensagem = new Mensagem();
+
+	/**
+	 * Manda uma mensagem para o aparelho do cliente.
+	 * <p>
+	 * Estas mensagens representam eventos gerados pelo JogoLocal, e são
+	 * acumuladas até que ele termine de processar o comando que as gerou (ver
+	 * Servidor.criaNovoJogo()), para irem juntas numa única escrita.
+	 */
+	private void envia(Mensagem m) {
+		servidor.acumulaMensagem(getPosicao() - 2, m);
+	}
+
+	/**
+	 * Manda uma mensagem para o aparelho do cliente imediatamente (junto com
+	 * as que estiverem acumuladas), para eventos que não vêm da thread de
+	 * comandos do JogoLocal
+	 */
+	private void enviaJa(Mensagem m) {
+		servidor.enviaMensagem(getPosicao() - 2, m);
+	}
+
+	// Os métodos restantes convertem as notificações do JogoLocal em
+	// mensagens, que serão reconvertidas em solicitações no cliente para o
+	// jogador local.
+
+	public void cartaJogada(Jogador j, Carta c) {
+		mensagem.inicia('J').numero(j.getPosicao());
+		if (!c.isFechada()) {
+			mensagem.carta(c);
+		} else if (j.equals(this)) {
+			mensagem.carta(c).flag(true);
+		}
+		envia(mensagem);
+	}
+
+	public void inicioMao() {
+		mensagem.inicia('M');
+		for (int i = 0; i <= 2; i++)
+			mensagem.carta(getCartas()[i]);
+		// Se for manilha nova, também envia o "vira"
+		if (!jogo.isManilhaVelha()) {
+			mensagem.carta(jogo.cartaDaMesa);
+		}
+		envia(mensagem);
+	}
+
+	public void inicioPartida(int p1, int p2) {
+		envia(mensagem.inicia('P'));
+	}
+
+	public void vez(Jogador j, boolean podeFechada) {
+		envia(mensagem.inicia('V').numero(j.getPosicao()).flag(podeFechada));
+	}
+
+	public void pediuAumentoAposta(Jogador j, int valor) {
+		envia(mensagem.inicia('T').numero(j.getPosicao()).numero(valor));
+	}
+
+	public void aceitouAumentoAposta(Jogador j, int valor) {
+		envia(mensagem.inicia('D').numero(j.getPosicao()).numero(valor));
+	}
+
+	public void recusouAumentoAposta(Jogador j) {
+		envia(mensagem.inicia('C').numero(j.getPosicao()));
+	}
+
+	public void rodadaFechada(int numRodada, int resultado,
+			Jogador jogadorQueTorna) {
+		envia(mensagem.inicia('R').numero(resultado)
+				.numero(jogadorQueTorna.getPosicao()));
+	}
+
+	public void maoFechada(int[] pontosEquipe) {
+		envia(mensagem.inicia('O').numero(pontosEquipe[0])
+				.numero(pontosEquipe[1]));
+	}
+
+	public void decidiuMao11(Jogador j, boolean aceita) {
+		envia(mensagem.inicia('H').numero(j.getPosicao()).flag(aceita));
+	}
+
+	public void informaMao11(Carta[] cartasParceiro) {
+		mensagem.inicia('F');
+		for (int i = 0; i <= 2; i++) {
+			mensagem.carta(cartasParceiro[i]);
+		}
+		envia(mensagem);
+	}
+
+	// Eventos de fim-de-jogo
+
+	public void jogoFechado(int numEquipeVencedora) {
+		envia(mensagem.inicia('G').numero(numEquipeVencedora));
+	}
+
+	public void jogoAbortado(int posicao) {
+		enviaJa(new Mensagem().inicia('A').numero(posicao));
+	}
+
+	public void jogoAbortadoPorComando() {
+		enviaJa(new Mensagem().inicia('A'));
+	}
+
+	public void setGameLevel(int gameLevel) {
+		// n�o precisa tratar
+	}
+
+	public void setNickEstrategia() {
+		// n�o precisa tratar
+	}
+
+	public String getNickEstrategia() {
+		// n�o precisa tratar
+		return getNome(); // just to avoid unexpected usage of this method
+	}
+
+	public void mensagemEstrategia(Jogador j, String s) {
+		// n�o precisa tratar
+	}
+}
@@ -1,4 +1,4 @@
-package me.chester.minitruco.android.bluetooth;
+package me.chester.minitruco.core.rede;
 
 /*
  * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
@@ -37,7 +37,6 @@ package me.chester.minitruco.android.bluetooth;
  * 
  */
 
-import me.chester.minitruco.android.JogadorHumano;
 import me.chester.minitruco.core.Baralho;
 import me.chester.minitruco.core.Carta;
 import me.chester.minitruco.core.Jogador;
@@ -48,29 +47,33 @@ import android.util.Log;
 /**
  * Representa, no cliente, o <code>Jogo</code> que está executando no servidor.
  * <p>
- * De maneira análoga à <code>JogadorBT</code>, ela converte as notificações do
+ * De maneira análoga ao <code>JogadorRemoto</code>, ela converte as notificações do
  * jogador local em mensagens de texto (enviando-as ao servidor) e recebe
  * mensagens de texto do servidor, transformando-as em notificações para o
  * jogador local.
  * <p>
- * A conexão é gerenciada por <code>ClienteBT</code>, já que uma conexão pode
+ * A conexão é gerenciada pelo <code>Cliente</code>, já que uma conexão pode
  * ser usada em jogos sucessivos.
  * 
  */
-public class JogoBluetooth extends Jogo {
+public class JogoRemoto extends Jogo {
 
-	private JogadorHumano jogadorHumano;
+	private Jogador jogadorLocal;
 
-	private ClienteBluetoothActivity clienteBT;
+	private Cliente cliente;
 
 	/**
 	 * Cria um novo proxy de jogo remoto associado a um cliente
 	 * 
-	 * @param clienteBT
+	 * @param cliente
 	 *            Cliente que se conectou no jogo remoto
+	 * @param jogadorLocal
+	 *            Jogador que recebe as notificações (deve ser adicionado na
+	 *            posição do cliente)
 	 */
-	public JogoBluetooth(ClienteBluetoothActivity clienteBT) {
-		this.clienteBT = clienteBT;
+	public JogoRemoto(Cliente cliente, Jogador jogadorLocal) {
+		this.cliente = cliente;
+		this.jogadorLocal = jogadorLocal;
 	}
 
 	/**
@@ -82,39 +85,29 @@ public class JogoBluetooth extends Jogo {
 	private int numRodadaAtual;
 
 	/**
-	 * Retorna o jogador humano que está no jogo
-	 * 
-	 * @return objeto que representa o humano
+	 * Retorna o jogador local (o único que não é um JogadorDummy)
 	 */
-	public JogadorHumano getJogadorHumano() {
-		if (jogadorHumano == null)
-			for (int i = 1; i <= 4; i++)
-				if (getJogador(i) instanceof JogadorHumano)
-					jogadorHumano = (JogadorHumano) getJogador(i);
-		return jogadorHumano;
-
+	public Jogador getJogadorLocal() {
+		return jogadorLocal;
 	}
 
 	/**
 	 * Processa uma notificação "in-game", gerando o evento apropriado no
-	 * jogador humano
+	 * jogador local
 	 * 
-	 * @param tipoNotificacao
-	 *            caractere identificador
-	 * @param parametros
-	 *            dependem do caractere
+	 * @param m
+	 *            notificação recebida do servidor
 	 */
-	public void processaNotificacao(char tipoNotificacao, String parametros) {
+	public void processaMensagem(Mensagem m) {
 
 		// Uso geral
-		String[] tokens = parametros.split(" ");
 		Jogador j;
 
-		switch (tipoNotificacao) {
+		switch (m.getTipo()) {
 		case 'P':
 			// Início de partida
 			pontosEquipe[0] = pontosEquipe[1] = 0;
-			getJogadorHumano().maoFechada(pontosEquipe);
+			getJogadorLocal().maoFechada(pontosEquipe);
 			break;
 		case 'M':
 			// Início da mão
@@ -124,44 +117,44 @@ public class JogoBluetooth extends Jogo {
 			// Gera as cartas e notifica
 			Carta[] cartas = new Carta[3];
 			for (int i = 0; i <= 2; i++) {
-				cartas[i] = new Carta(tokens[i]);
+				cartas[i] = m.getCarta(i);
 				baralho.tiraDoBaralho(cartas[i]);
 			}
 			if (!isManilhaVelha()) {
-				cartaDaMesa = new Carta(tokens[3]);
+				cartaDaMesa = m.getCarta(3);
 				baralho.tiraDoBaralho(cartaDaMesa);
 			}
 			setManilha(cartaDaMesa);
-			getJogadorHumano().setCartas(cartas);
-			getJogadorHumano().inicioMao();
+			getJogadorLocal().setCartas(cartas);
+			getJogadorLocal().inicioMao();
 			break;
 		case 'J':
 			// Recupera o jogador que jogou a carta
-			int posicao = Integer.parseInt(tokens[0]);
+			int posicao = m.getNumero(0);
 			j = getJogador(posicao);
 			// Recupera a carta jogada (isso depende do jogaodr ser local ou
 			// remoto, e de a carta ser aberta ou fechada)
 			Carta c;
-			Log.w("MINITRUCO", "posicoes: " + getJogadorHumano().getPosicao()
+			Log.w("MINITRUCO", "posicoes: " + getJogadorLocal().getPosicao()
 					+ "," + posicao);
-			if (getJogadorHumano().getPosicao() == posicao) {
-				// Recupera a carta jogada pelo humano
+			if (getJogadorLocal().getPosicao() == posicao) {
+				// Recupera a carta jogada pelo jogador local
 				c = null;
-				Carta[] cartasHumano = getJogadorHumano().getCartas();
-				for (int i = 0; i < cartasHumano.length; i++) {
-					if (cartasHumano[i].toString().equals(tokens[1])) {
-						c = cartasHumano[i];
+				Carta[] cartasLocal = getJogadorLocal().getCartas();
+				for (int i = 0; i < cartasLocal.length; i++) {
+					if (cartasLocal[i].getId() == m.getIdCarta(1)) {
+						c = cartasLocal[i];
 						break;
 					}
 				}
 				// Se solicitou carta fechada, muda o status
-				if (tokens.length > 2 && tokens[2].equals("T")) {
+				if (m.getNumArgs() > 2 && m.getFlag(2)) {
 					c.setFechada(true);
 				}
 			} else {
-				if (tokens.length > 1) {
+				if (m.getNumArgs() > 1) {
 					// Cria a carta jogada pela CPU
-					c = new Carta(tokens[1]);
+					c = m.getCarta(1);
 					baralho.tiraDoBaralho(c);
 				} else {
 					// Carta fechada, cria uma qualquer e seta o status
@@ -171,69 +164,67 @@ public class JogoBluetooth extends Jogo {
 			}
 			// Guarda a carta no array de cartas jogadas, para consulta
 			cartasJogadasPorRodada[numRodadaAtual - 1][posicao - 1] = c;
-			// Avisa o jogador humano que a jogada foi feita
-			getJogadorHumano().cartaJogada(j, c);
+			// Avisa o jogador local que a jogada foi feita
+			getJogadorLocal().cartaJogada(j, c);
 			break;
 		case 'V':
-			// Informa o jogador humano que é a vez de alguém
-			getJogadorHumano().vez(getJogador(Integer.parseInt(tokens[0])),
-					tokens[1].equals("T"));
+			// Informa o jogador local que é a vez de alguém
+			getJogadorLocal().vez(getJogador(m.getNumero(0)),
+					m.getFlag(1));
 			break;
 		case 'T':
-			getJogadorHumano().pediuAumentoAposta(
-					getJogador(Integer.parseInt(tokens[0])),
-					Integer.parseInt(tokens[1]));
+			getJogadorLocal().pediuAumentoAposta(
+					getJogador(m.getNumero(0)), m.getNumero(1));
 			break;
 		case 'D':
-			getJogadorHumano().aceitouAumentoAposta(
-					getJogador(Integer.parseInt(tokens[0])),
-					Integer.parseInt(tokens[1]));
+			getJogadorLocal().aceitouAumentoAposta(
+					getJogador(m.getNumero(0)), m.getNumero(1));
 			break;
 		case 'C':
-			getJogadorHumano().recusouAumentoAposta(
-					getJogador(Integer.parseInt(tokens[0])));
+			getJogadorLocal().recusouAumentoAposta(
+					getJogador(m.getNumero(0)));
 			break;
 		case 'H':
 			// Alguém aceitou mão de 11, informa
-			getJogadorHumano().decidiuMao11(
-					getJogador(Integer.parseInt(tokens[0])),
-					tokens[1].equals("T"));
+			getJogadorLocal().decidiuMao11(
+					getJogador(m.getNumero(0)), m.getFlag(1));
 			break;
 		case 'F':
 			// Mão de 11. Recupera as cartas do parceiro e informa o jogador
 			Carta[] cartasMao11 = new Carta[3];
 			for (int i = 0; i <= 2; i++) {
-				cartasMao11[i] = new Carta(tokens[i]);
+				cartasMao11[i] = m.getCarta(i);
 			}
-			getJogadorHumano().informaMao11(cartasMao11);
+			getJogadorLocal().informaMao11(cartasMao11);
 			break;
 		case 'R':
 			// Fim de rodada, recupera o resultado e o jogador que torna
-			int resultado = Integer.parseInt(tokens[0]);
-			j = getJogador(Integer.parseInt(tokens[1]));
-			getJogadorHumano().rodadaFechada(numRodadaAtual, resultado, j);
+			int resultado = m.getNumero(0);
+			j = getJogador(m.getNumero(1));
+			getJogadorLocal().rodadaFechada(numRodadaAtual, resultado, j);
 			numRodadaAtual++;
 			break;
 		case 'O':
 			// Fim de mão, recupera os placares
-			pontosEquipe[0] = Integer.parseInt(tokens[0]);
-			pontosEquipe[1] = Integer.parseInt(tokens[1]);
-			getJogadorHumano().maoFechada(pontosEquipe);
+			pontosEquipe[0] = m.getNumero(0);
+			pontosEquipe[1] = m.getNumero(1);
+			getJogadorLocal().maoFechada(pontosEquipe);
 			break;
 		case 'G':
 			// Fim de jogo
-			getJogadorHumano().jogoFechado(Integer.parseInt(parametros));
+			getJogadorLocal().jogoFechado(m.getNumero(0));
 
 			break;
 		case 'A':
 			// Jogo abortado por alguém
-			getJogadorHumano().jogoAbortado(Integer.parseInt(parametros));
+			getJogadorLocal().jogoAbortado(
+					m.getNumArgs() > 0 ? m.getNumero(0) : 0);
 			break;
 		}
 	}
 
 	/**
-	 * Não implementado em jogo bluetooth (apenas o JogadorCPU usa isso, e ele
+	 * Não implementado em jogo remoto (apenas o JogadorCPU usa isso, e ele
 	 * não participa desses jogos).
 	 */
 	public void atualizaSituacao(SituacaoJogo s, Jogador j) {
@@ -241,37 +232,46 @@ public class JogoBluetooth extends Jogo {
 	}
 
 	public boolean isBaralhoLimpo() {
-		return clienteBT.regras.charAt(0) == 'T';
+		return cliente.isBaralhoLimpo();
 	}
 
 	public boolean isManilhaVelha() {
-		return clienteBT.regras.charAt(1) == 'T';
+		return cliente.isManilhaVelha();
 	}
 
 	public void run() {
-		// Notifica o jogador humano que a partida começou
-		getJogadorHumano().inicioPartida(0, 0);
+		// Notifica o jogador local que a partida começou
+		getJogadorLocal().inicioPartida(0, 0);
 	}
 
-	public void jogaCarta(Jogador j, Carta c) {
-		clienteBT.enviaLinha("J " + c + (c.isFechada() ? " T" : ""));
+	/**
+	 * Mensagem reaproveitada nos envios (que são todos synchronized)
+	 */
+	private final Mensagem mensagem = new Mensagem();
+
+	public synchronized void jogaCarta(Jogador j, Carta c) {
+		mensagem.inicia('J').carta(c);
+		if (c.isFechada()) {
+			mensagem.flag(true);
+		}
+		cliente.enviaMensagem(mensagem);
 	}
 
-	public void decideMao11(Jogador j, boolean aceita) {
-		clienteBT.enviaLinha("H " + (aceita ? "T" : "F"));
+	public synchronized void decideMao11(Jogador j, boolean aceita) {
+		cliente.enviaMensagem(mensagem.inicia('H').flag(aceita));
 	}
 
-	public void aumentaAposta(Jogador j) {
-		if (j.equals(getJogadorHumano()))
-			clienteBT.enviaLinha("T");
+	public synchronized void aumentaAposta(Jogador j) {
+		if (j.equals(getJogadorLocal()))
+			cliente.enviaMensagem(mensagem.inicia('T'));
 	}
 
-	public void respondeAumento(Jogador j, boolean aceitou) {
-		if (j.equals(getJogadorHumano())) {
+	public synchronized void respondeAumento(Jogador j, boolean aceitou) {
+		if (j.equals(getJogadorLocal())) {
 			if (aceitou)
-				clienteBT.enviaLinha("D");
+				cliente.enviaMensagem(mensagem.inicia('D'));
 			else
-				clienteBT.enviaLinha("C");
+				cliente.enviaMensagem(mensagem.inicia('C'));
 		}
 	}
 
@@ -279,12 +279,12 @@ public class JogoBluetooth extends Jogo {
 	}
 
 	/**
-	 * Se o jogador humano aborta, encaminha para o jogo "de verdade"
+	 * Se o jogador local aborta, encaminha para o jogo "de verdade"
 	 */
 	@Override
-	public void abortaJogo(int posicao) {
+	public synchronized void abortaJogo(int posicao) {
 		if (posicao == 1) {
-			clienteBT.enviaLinha("A");
+			cliente.enviaMensagem(mensagem.inicia('A'));
 		}
 	}
 
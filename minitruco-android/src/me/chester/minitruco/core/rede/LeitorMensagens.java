@@ -0,0 +1,287 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import me.chester.minitruco.core.Carta;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Lê as mensagens que chegam de uma conexão, no protocolo texto (linhas
+ * separadas por Sala.SEPARADOR_REC) ou no binário (quadros, ver
+ * EscritorMensagens).
+ * <p>
+ * Lê em blocos (bloqueando até chegar algo) e decodifica as mensagens direto
+ * do buffer, sem criar strings (exceto para o texto livre). No texto, os
+ * bytes são convertidos em caracteres um-a-um (como no protocolo original),
+ * e cada argumento é reconhecido pelo formato: T/F é flag, só dígitos é
+ * número e o resto é carta. Mensagens vazias (keepalive) são descartadas.
+ * <p>
+ * O protocolo pode ser trocado entre uma mensagem e outra (mesmo que a
+ * seguinte já esteja no buffer). Não é thread-safe: cada conexão deve ter uma
+ * única thread lendo.
+ */
+public class LeitorMensagens {
+
+	private final InputStream in;
+
+	private byte[] buffer = new byte[1024];
+
+	/**
+	 * Início e fim dos bytes do buffer ainda não processados
+	 */
+	private int inicio, fim;
+
+	private boolean binario;
+
+	/**
+	 * Quantos bytes do separador (Sala.SEPARADOR_ENV) da última linha ainda
+	 * faltam descartar (só o primeiro encerra a linha; os outros precisam ser
+	 * pulados se o protocolo mudar para o binário logo depois dela)
+	 */
+	private int separadoresPendentes;
+
+	public LeitorMensagens(InputStream in) {
+		this.in = in;
+	}
+
+	public boolean isBinario() {
+		return binario;
+	}
+
+	/**
+	 * Passa a ler (ou não) no protocolo binário, a partir da próxima mensagem
+	 */
+	public void setBinario(boolean binario) {
+		this.binario = binario;
+	}
+
+	/**
+	 * Aguarda a próxima mensagem não-vazia
+	 * 
+	 * @param m
+	 *            mensagem que será preenchida com a lida
+	 * @return false se a conexão foi encerrada
+	 * @throws IOException
+	 *             se houver erro na conexão
+	 */
+	public boolean le(Mensagem m) throws IOException {
+		while (true) {
+			if (binario ? extraiQuadro(m) : extraiLinha(m)) {
+				return true;
+			}
+			if (!leMais()) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Lê mais bytes da conexão, preservando os ainda não processados
+	 * 
+	 * @return false se a conexão foi encerrada
+	 */
+	private boolean leMais() throws IOException {
+		int pendentes = fim - inicio;
+		if (inicio > 0) {
+			System.arraycopy(buffer, inicio, buffer, 0, pendentes);
+			inicio = 0;
+			fim = pendentes;
+		}
+		if (fim == buffer.length) {
+			byte[] maior = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, maior, 0, fim);
+			buffer = maior;
+		}
+		int lidos = in.read(buffer, fim, buffer.length - fim);
+		if (lidos < 0) {
+			return false;
+		}
+		fim += lidos;
+		return true;
+	}
+
+	/**
+	 * Decodifica a próxima linha completa (não-vazia) do buffer
+	 * 
+	 * @return false se não há linha completa no buffer
+	 */
+	private boolean extraiLinha(Mensagem m) {
+		pulaSeparadores();
+		while (true) {
+			int separador = inicio;
+			while (separador < fim && buffer[separador] != Sala.SEPARADOR_REC) {
+				separador++;
+			}
+			if (separador == fim) {
+				return false;
+			}
+			int comeco = inicio;
+			inicio = separador + 1;
+			if (separador > comeco) {
+				separadoresPendentes = Sala.SEPARADOR_ENV.length - 1;
+				decodificaLinha(m, comeco, separador);
+				return true;
+			}
+		}
+	}
+
+	private void decodificaLinha(Mensagem m, int comeco, int fimLinha) {
+		m.inicia((char) (buffer[comeco] & 0xFF));
+		int pos = comeco + 2;
+		if (m.tipo == 'I') {
+			if (pos < fimLinha) {
+				m.texto(textoDoBuffer(pos, fimLinha));
+			}
+			return;
+		}
+		while (pos < fimLinha && m.numArgs < Mensagem.MAX_ARGS) {
+			int fimToken = pos;
+			while (fimToken < fimLinha && buffer[fimToken] != ' ') {
+				fimToken++;
+			}
+			if (fimToken > pos) {
+				decodificaToken(m, pos, fimToken);
+			}
+			pos = fimToken + 1;
+		}
+	}
+
+	private void decodificaToken(Mensagem m, int pos, int fimToken) {
+		int c = buffer[pos] & 0xFF;
+		if (fimToken - pos == 1 && (c == 'T' || c == 'F')) {
+			m.adiciona(Mensagem.FLAG, c == 'T' ? 1 : 0);
+			return;
+		}
+		int numero = 0;
+		for (int i = pos; i < fimToken; i++) {
+			int digito = buffer[i] - '0';
+			if (digito < 0 || digito > 9) {
+				int naipe = fimToken - pos == 2 ? Mensagem.NAIPES_TEXTO
+						.indexOf((char) (buffer[pos + 1] & 0xFF)) : -1;
+				m.adiciona(Mensagem.CARTA, Carta.getId((char) c, naipe));
+				return;
+			}
+			numero = numero * 10 + digito;
+		}
+		m.adiciona(Mensagem.NUMERO, numero);
+	}
+
+	/**
+	 * Decodifica o próximo quadro completo (não-vazio) do buffer
+	 * 
+	 * @return false se não há quadro completo no buffer
+	 */
+	private boolean extraiQuadro(Mensagem m) {
+		if (!pulaSeparadores()) {
+			return false;
+		}
+		while (true) {
+			if (inicio == fim) {
+				return false;
+			}
+			int tamanho = buffer[inicio] & 0xFF;
+			int cabecalho = 1;
+			if (tamanho == EscritorMensagens.TAMANHO_ESTENDIDO) {
+				if (fim - inicio < 3) {
+					return false;
+				}
+				tamanho = ((buffer[inicio + 1] & 0xFF) << 8)
+						| (buffer[inicio + 2] & 0xFF);
+				cabecalho = 3;
+			}
+			if (fim - inicio < cabecalho + tamanho) {
+				return false;
+			}
+			int comeco = inicio + cabecalho;
+			inicio = comeco + tamanho;
+			if (tamanho > 0) {
+				decodificaQuadro(m, comeco, inicio);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Descarta o que estiver no buffer do separador da última linha
+	 * 
+	 * @return false se ainda falta chegar parte dele
+	 */
+	private boolean pulaSeparadores() {
+		while (separadoresPendentes > 0 && inicio < fim) {
+			if (buffer[inicio] != Sala.SEPARADOR_REC) {
+				separadoresPendentes = 0;
+				break;
+			}
+			inicio++;
+			separadoresPendentes--;
+		}
+		return separadoresPendentes == 0;
+	}
+
+	private void decodificaQuadro(Mensagem m, int comeco, int fimQuadro) {
+		m.inicia((char) (buffer[comeco] & 0xFF));
+		if (m.tipo == 'I') {
+			m.texto(textoDoBuffer(comeco + 1, fimQuadro));
+			return;
+		}
+		int fimArgs = Math.min(fimQuadro, comeco + 1 + Mensagem.MAX_ARGS);
+		for (int i = comeco + 1; i < fimArgs; i++) {
+			int b = buffer[i] & 0xFF;
+			if ((b & EscritorMensagens.BIT_CARTA) != 0) {
+				int id = b & ~EscritorMensagens.BIT_CARTA;
+				m.adiciona(Mensagem.CARTA, id < Carta.NUM_IDS ? id
+						: Carta.ID_NENHUM);
+			} else if ((b & EscritorMensagens.BIT_FLAG) != 0) {
+				m.adiciona(Mensagem.FLAG, b & 1);
+			} else {
+				m.adiciona(Mensagem.NUMERO, b);
+			}
+		}
+	}
+
+	private String textoDoBuffer(int comeco, int fimTexto) {
+		char[] chars = new char[fimTexto - comeco];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) (buffer[comeco + i] & 0xFF);
+		}
+		return new String(chars);
+	}
+
+}
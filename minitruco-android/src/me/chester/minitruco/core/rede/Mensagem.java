@@ -0,0 +1,211 @@
+package me.chester.minitruco.core.rede;
+
+import me.chester.minitruco.core.Carta;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Comando/notificação trocado entre servidor e cliente: um tipo (a letra que
+ * inicia a linha no protocolo texto) e seus argumentos, que podem ser
+ * números (posições, placares, valores de aposta), cartas ou flags (T/F).
+ * <p>
+ * A mesma mensagem é escrita em texto (ex.: "J 2 Kc T") ou em binário (ver
+ * EscritorMensagens), e é lida de volta sem criar strings (ver
+ * LeitorMensagens). A exceção é o texto livre da mensagem "I" (informações
+ * da mesa), que é raro e de tamanho variável.
+ * <p>
+ * Os objetos são reaproveitados (inicia() limpa os argumentos), então não
+ * devem ser compartilhados entre threads sem sincronização.
+ */
+public class Mensagem {
+
+	public static final int MAX_ARGS = 8;
+
+	/**
+	 * Maior número que pode ser enviado (cabe com folga em posições,
+	 * placares e valores de aposta)
+	 */
+	public static final int MAX_NUMERO = 63;
+
+	/**
+	 * Naipes na representação texto das cartas (ver Carta.toString())
+	 */
+	static final String NAIPES_TEXTO = "coepx";
+
+	static final byte NUMERO = 0;
+	static final byte CARTA = 1;
+	static final byte FLAG = 2;
+
+	char tipo;
+
+	final int[] args = new int[MAX_ARGS];
+
+	final byte[] tiposArgs = new byte[MAX_ARGS];
+
+	int numArgs;
+
+	String texto;
+
+	/**
+	 * Limpa a mensagem, definindo o seu tipo
+	 * 
+	 * @return a própria mensagem (para encadear os argumentos)
+	 */
+	public Mensagem inicia(char tipo) {
+		this.tipo = tipo;
+		numArgs = 0;
+		texto = null;
+		return this;
+	}
+
+	public Mensagem numero(int n) {
+		if (n < 0 || n > MAX_NUMERO) {
+			throw new IllegalArgumentException("Número fora da faixa: " + n);
+		}
+		return adiciona(NUMERO, n);
+	}
+
+	public Mensagem carta(Carta c) {
+		return adiciona(CARTA, c.getId());
+	}
+
+	public Mensagem flag(boolean b) {
+		return adiciona(FLAG, b ? 1 : 0);
+	}
+
+	/**
+	 * Define o texto livre (que vai depois dos argumentos)
+	 */
+	public Mensagem texto(String texto) {
+		this.texto = texto;
+		return this;
+	}
+
+	/**
+	 * Torna esta mensagem igual a outra (sem compartilhar os arrays)
+	 */
+	void copia(Mensagem m) {
+		tipo = m.tipo;
+		numArgs = m.numArgs;
+		texto = m.texto;
+		System.arraycopy(m.args, 0, args, 0, numArgs);
+		System.arraycopy(m.tiposArgs, 0, tiposArgs, 0, numArgs);
+	}
+
+	Mensagem adiciona(byte tipoArg, int valor) {
+		if (numArgs == MAX_ARGS) {
+			throw new IllegalStateException("Argumentos demais para " + tipo);
+		}
+		tiposArgs[numArgs] = tipoArg;
+		args[numArgs++] = valor;
+		return this;
+	}
+
+	public char getTipo() {
+		return tipo;
+	}
+
+	public int getNumArgs() {
+		return numArgs;
+	}
+
+	/**
+	 * @return true se a mensagem tem o argumento i e ele é do tipo indicado
+	 *         (NUMERO, CARTA ou FLAG)
+	 */
+	boolean isArgumento(int i, byte tipoArg) {
+		return i < numArgs && tiposArgs[i] == tipoArg;
+	}
+
+	public int getNumero(int i) {
+		return args[i];
+	}
+
+	/**
+	 * @return id da carta (ver Carta.getId()), ou Carta.ID_NENHUM se o
+	 *         argumento não corresponde a uma carta do truco
+	 */
+	public int getIdCarta(int i) {
+		return args[i];
+	}
+
+	/**
+	 * Cria uma carta a partir do argumento (que deve ser um id válido)
+	 */
+	public Carta getCarta(int i) {
+		return new Carta(Carta.getLetra(args[i]), Carta.getNaipe(args[i]));
+	}
+
+	public boolean getFlag(int i) {
+		return args[i] != 0;
+	}
+
+	public String getTexto() {
+		return texto;
+	}
+
+	/**
+	 * @return representação da mensagem no protocolo texto (sem o separador)
+	 */
+	public String toString() {
+		StringBuffer sb = new StringBuffer();
+		sb.append(tipo);
+		for (int i = 0; i < numArgs; i++) {
+			sb.append(' ');
+			switch (tiposArgs[i]) {
+			case CARTA:
+				if (args[i] == Carta.ID_NENHUM) {
+					sb.append("Xx");
+				} else {
+					sb.append(Carta.getLetra(args[i])).append(
+							NAIPES_TEXTO.charAt(Carta.getNaipe(args[i])));
+				}
+				break;
+			case FLAG:
+				sb.append(args[i] != 0 ? 'T' : 'F');
+				break;
+			default:
+				sb.append(args[i]);
+			}
+		}
+		if (texto != null) {
+			sb.append(' ').append(texto);
+		}
+		return sb.toString();
+	}
+}
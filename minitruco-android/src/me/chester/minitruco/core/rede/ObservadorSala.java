@@ -0,0 +1,79 @@
+package me.chester.minitruco.core.rede;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Recebe as notificações de uma Sala (servidor ou cliente) que interessam a
+ * quem a exibe (ex.: as Activities de Bluetooth).
+ * <p>
+ * As notificações vêm das threads da sala (não da UI thread).
+ */
+public interface ObservadorSala {
+
+	/**
+	 * Os apelidos, regras ou número de clientes da sala mudaram
+	 */
+	public abstract void atualizaSala();
+
+	/**
+	 * Mensagem de status para o usuário
+	 * 
+	 * @param mensagem
+	 *            texto a exibir, ou null para esconder a mensagem atual
+	 */
+	public abstract void mensagem(String mensagem);
+
+	/**
+	 * Erro que impede a continuidade da sala (ex.: desconexão do cliente)
+	 */
+	public abstract void erroFatal(String mensagem);
+
+	/**
+	 * O servidor está fora de jogo, com vagas, e vai aguardar a próxima
+	 * conexão (ex.: para manter o aparelho visível aos clientes)
+	 */
+	public abstract void aguardandoConexoes();
+
+	/**
+	 * O servidor vai iniciar uma partida (só é chamado no cliente). O jogo deve
+	 * ser criado via Cliente.criaNovoJogo(); se isso for feito antes do
+	 * retorno deste método, nenhuma notificação da partida se perde.
+	 */
+	public abstract void partidaIniciando();
+
+}
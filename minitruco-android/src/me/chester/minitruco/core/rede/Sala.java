@@ -0,0 +1,164 @@
+package me.chester.minitruco.core.rede;
+
+import me.chester.minitruco.core.Jogador;
+import me.chester.minitruco.core.Jogo;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mesa de um jogo multiplayer, vista pelo servidor ou por um cliente.
+ * <p>
+ * Servidor e cliente conversam por linhas de texto, cada uma iniciada por um
+ * caractere que identifica o comando/notificação. Fora do jogo, o servidor
+ * informa a mesa aos clientes (linha "I"). Durante o jogo, o JogadorRemoto
+ * (no servidor) converte os eventos do JogoLocal em linhas, e o JogoRemoto
+ * (no cliente) os converte de volta em eventos para o jogador local (e
+ * vice-versa para as jogadas do cliente).
+ * <p>
+ * O meio de transmissão é abstraído por Conexao, de forma que esta classe e
+ * suas filhas não dependem de Android (podem rodar em qualquer JVM).
+ */
+public abstract class Sala {
+
+	/**
+	 * Separador de linha recebido
+	 */
+	public static final int SEPARADOR_REC = '*';
+
+	/**
+	 * Separador de linha enviado (tanto no sentido client-server quanto no
+	 * server-client).
+	 * <p>
+	 * É propositalmente um conjunto de SEPARADOR_REC, para garantir que o
+	 * recebimento seja detectado (linhas em branco são ignoradas de qualquer
+	 * forma).
+	 */
+	public static final byte[] SEPARADOR_ENV = "**".getBytes();
+
+	/**
+	 * Maior versão do protocolo binário suportada (ver EscritorMensagens).
+	 * <p>
+	 * A conexão sempre começa no protocolo texto. O cliente oferece o binário
+	 * com "B versão"; o servidor que entende responde "B versão" (a menor
+	 * das duas) e passa a escrever em binário; o cliente confirma com um
+	 * último "B versão" em texto e também passa para o binário. Servidores e
+	 * clientes antigos ignoram a mensagem "B", e a conexão segue em texto.
+	 */
+	public static final int VERSAO_PROTOCOLO_BINARIO = 1;
+
+	protected String[] apelidos = new String[4];
+
+	protected String regras;
+
+	protected ObservadorSala observador;
+
+	public Sala(ObservadorSala observador) {
+		this.observador = observador;
+	}
+
+	/**
+	 * @return apelido do jogador na posição (1 a 4) indicada. No cliente, a
+	 *         posição é a da mesa "visual" (ver Cliente.getPosicaoMesa())
+	 */
+	public String getApelido(int posicao) {
+		return apelidos[posicao - 1];
+	}
+
+	/**
+	 * @return regras no formato do protocolo (um T/F para baralho limpo e
+	 *         outro para manilha velha), ou null se ainda não foram recebidas
+	 */
+	public String getRegras() {
+		return regras;
+	}
+
+	public boolean isBaralhoLimpo() {
+		return regras.charAt(0) == 'T';
+	}
+
+	public boolean isManilhaVelha() {
+		return regras.charAt(1) == 'T';
+	}
+
+	public String getTextoRegras() {
+		if (regras == null || regras.length() < 2) {
+			return "";
+		}
+		return (isBaralhoLimpo() ? "Baralho Limpo" : "Baralho Sujo") + " / "
+				+ (isManilhaVelha() ? "Manilha Velha" : "Manilha Nova");
+	}
+
+	/**
+	 * @return número de clientes conectados (só é diferente de 0 no servidor)
+	 */
+	public abstract int getNumClientes();
+
+	/**
+	 * Cria um jogo para esta sala, com o jogador local na sua posição (os
+	 * demais são definidos pela sala).
+	 * <p>
+	 * O jogo deve ser iniciado (numa thread própria) por quem chamou.
+	 */
+	public abstract Jogo criaNovoJogo(Jogador jogadorLocal);
+
+	/**
+	 * Fecha as conexões e encerra as threads da sala.
+	 */
+	public abstract void encerra();
+
+	protected void atualizaSala() {
+		if (observador != null) {
+			observador.atualizaSala();
+		}
+	}
+
+	protected void mensagem(String mensagem) {
+		if (observador != null) {
+			observador.mensagem(mensagem);
+		}
+	}
+
+	protected static void sleep(int ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			// não precisa tratar
+		}
+	}
+
+}
@@ -0,0 +1,484 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+
+import me.chester.minitruco.core.Jogador;
+import me.chester.minitruco.core.JogadorCPU;
+import me.chester.minitruco.core.Jogo;
+import me.chester.minitruco.core.JogoLocal;
+import android.util.Log;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Sala do lado do servidor: aceita as conexões dos clientes (até 3), mantém a
+ * mesa atualizada neles e cria o JogoLocal, no qual cada cliente é
+ * representado por um JogadorRemoto (e cada vaga não preenchida por um
+ * JogadorCPU).
+ * <p>
+ * O jogador local (o "dono" do servidor) fica sempre na posição 1.
+ */
+public class Servidor extends Sala implements Runnable {
+
+	private static final char STATUS_AGUARDANDO = 'A';
+	private static final char STATUS_LOTADO = 'L';
+	private static final char STATUS_EM_JOGO = 'J';
+	private static final char STATUS_ENCERRADO = 'X';
+	private static final String[] APELIDOS_CPU = { "CPU1", "CPU2", "CPU3" };
+
+	private char status;
+	private ServidorConexoes servidorConexoes;
+	private Thread threadAguardaConexoes;
+	private Thread threadMonitoraClientes;
+	private Jogo jogo;
+	private Conexao[] connClientes = new Conexao[3];
+	private FilaEnvio[] filas = new FilaEnvio[3];
+	private int capacidadeFila = FilaEnvio.CAPACIDADE_PADRAO;
+	private int politicaFilaCheia = FilaEnvio.POLITICA_DESCONECTA;
+	private JogadorRemoto[] jogadoresRemotos = new JogadorRemoto[3];
+
+	/**
+	 * @param servidorConexoes
+	 *            meio pelo qual os clientes vão se conectar
+	 * @param regras
+	 *            regras do jogo, no formato do protocolo (ver getRegras())
+	 * @param apelido
+	 *            apelido do jogador local
+	 */
+	public Servidor(ServidorConexoes servidorConexoes, String regras,
+			String apelido, ObservadorSala observador) {
+		super(observador);
+		this.servidorConexoes = servidorConexoes;
+		this.regras = regras;
+		apelidos[0] = apelido;
+		for (int i = 0; i <= 2; i++) {
+			apelidos[i + 1] = APELIDOS_CPU[i];
+		}
+	}
+
+	/**
+	 * Define o tamanho das filas de envio dos clientes que se conectarem a
+	 * partir de agora (ver FilaEnvio)
+	 */
+	public void setCapacidadeFila(int capacidadeFila) {
+		this.capacidadeFila = capacidadeFila;
+	}
+
+	/**
+	 * Define o que acontece quando a fila de envio de um cliente (que se
+	 * conectar a partir de agora) enche
+	 * 
+	 * @param politicaFilaCheia
+	 *            uma das constantes FilaEnvio.POLITICA_*
+	 */
+	public void setPoliticaFilaCheia(int politicaFilaCheia) {
+		this.politicaFilaCheia = politicaFilaCheia;
+	}
+
+	/**
+	 * Começa a aceitar conexões (e a monitorar os clientes conectados)
+	 */
+	public void inicia() {
+		if (threadAguardaConexoes == null) {
+			threadAguardaConexoes = new Thread(this);
+			threadAguardaConexoes.start();
+		}
+		if (threadMonitoraClientes == null) {
+			threadMonitoraClientes = new Thread() {
+				public void run() {
+					// Executa enquanto o servidor não for encerrado
+					while (status != STATUS_ENCERRADO) {
+						// Envia um comando vazio (apenas para testar a conexão
+						// e processar qualquer desconexão que tenha ocorrido)
+						for (int i = 0; i <= 2; i++) {
+							enviaVazia(i);
+						}
+						Sala.sleep(2000);
+					}
+				}
+			};
+			threadMonitoraClientes.start();
+		}
+	}
+
+	public void run() {
+		Log.w("MINITRUCO", "iniciou servidor");
+		atualizaSala();
+		while (status != STATUS_ENCERRADO) {
+			while (status == STATUS_EM_JOGO) {
+				sleep(500);
+				continue;
+			}
+			atualizaSala();
+			atualizaClientes();
+			if (status == STATUS_LOTADO) {
+				mensagem(null);
+				sleep(1000);
+				continue;
+			}
+			if (observador != null) {
+				observador.aguardandoConexoes();
+			}
+			mensagem("Aguardando conexões...");
+			// Se chegamos aqui, estamos fora de jogo e com vagas
+			try {
+				Conexao conexao = servidorConexoes.aceita();
+				mensagem(null);
+				if (conexao != null) {
+					encaixaEmUmSlot(conexao);
+				}
+			} catch (IOException e) {
+				Log.w("MINITRUCO", e);
+			}
+		}
+		encerra();
+		Log.w("MINITRUCO", "finalizou servidor");
+	}
+
+	public void encerra() {
+		status = STATUS_ENCERRADO;
+		for (int slot = 0; slot <= 2; slot++) {
+			desconecta(slot);
+		}
+		servidorConexoes.fecha();
+	}
+
+	/**
+	 * @return true se já foi criado um jogo (ver criaNovoJogo()) e nenhum
+	 *         cliente saiu desde então
+	 */
+	public boolean isEmJogo() {
+		return status == STATUS_EM_JOGO;
+	}
+
+	/**
+	 * @return true se o servidor está com todas as vagas ocupadas por clientes
+	 */
+	public boolean isLotado() {
+		return status == STATUS_LOTADO;
+	}
+
+	@Override
+	public int getNumClientes() {
+		int numClientes = 0;
+		for (int i = 0; i <= 2; i++) {
+			if (connClientes[i] != null) {
+				numClientes++;
+			}
+		}
+		return numClientes;
+	}
+
+	private void atualizaClientes() {
+
+		// Monta o texto da mensagem no formato:
+		// apelido1|apelido2|apelido3|apelido4 regras
+		StringBuffer sbTexto = new StringBuffer();
+		for (int i = 0; i <= 3; i++) {
+			sbTexto.append(apelidos[i]);
+			sbTexto.append(i < 3 ? '|' : ' ');
+		}
+		sbTexto.append(regras);
+		sbTexto.append(' ');
+		String texto = sbTexto.toString();
+		// Envia a notificação para cada jogador (com sua posição)
+		Mensagem m = new Mensagem();
+		for (int i = 0; i <= 2; i++) {
+			enviaMensagem(i, m.inicia('I').texto(texto + (i + 2)));
+		}
+	}
+
+	void desconecta(int slot) {
+		Log.w("MINITRUCO", "desconecta() " + slot);
+		if (filas[slot] != null) {
+			filas[slot].encerra();
+		}
+		try {
+			connClientes[slot].fecha();
+		} catch (Exception e) {
+			// No prob, já deve ter morrido
+		}
+		if (slot >= 0) {
+			connClientes[slot] = null;
+			filas[slot] = null;
+			jogadoresRemotos[slot] = null;
+			apelidos[slot + 1] = APELIDOS_CPU[slot];
+		}
+		if (status != STATUS_ENCERRADO) {
+			status = STATUS_AGUARDANDO;
+			atualizaSala();
+			atualizaClientes();
+		}
+	}
+
+	/**
+	 * Cria um JogoLocal com o jogador local na posição 1, os clientes nas
+	 * demais (na ordem dos slots) e a CPU nas vagas. A partir daqui o servidor
+	 * não aceita novas conexões.
+	 * <p>
+	 * As mensagens geradas por cada comando do jogo são acumuladas nas filas
+	 * e descarregadas (uma escrita por cliente) quando o jogo termina de
+	 * processá-lo.
+	 */
+	@Override
+	public Jogo criaNovoJogo(Jogador jogadorLocal) {
+		status = STATUS_EM_JOGO;
+		JogoLocal jogo = new JogoLocal(isBaralhoLimpo(), isManilhaVelha(),
+				false);
+		jogo.setAvisoComandoProcessado(new Runnable() {
+			public void run() {
+				descarregaFilas();
+			}
+		});
+		jogo.adiciona(jogadorLocal);
+		for (int i = 0; i <= 2; i++) {
+			if (connClientes[i] != null) {
+				jogadoresRemotos[i] = new JogadorRemoto(this);
+				jogo.adiciona(jogadoresRemotos[i]);
+			} else {
+				jogadoresRemotos[i] = null;
+				jogo.adiciona(new JogadorCPU());
+			}
+		}
+		this.jogo = jogo;
+		return jogo;
+	}
+
+	/**
+	 * Enfileira uma mensagem para o cliente do slot (se houver). A escrita é
+	 * feita pela thread da fila, então quem chama só espera se a fila estiver
+	 * cheia e a política for FilaEnvio.POLITICA_BLOQUEIA.
+	 */
+	public void enviaMensagem(int slot, Mensagem m) {
+		FilaEnvio fila = getFilaEnvio(slot);
+		if (fila != null) {
+			fila.enfileira(m);
+		}
+	}
+
+	/**
+	 * Acumula uma mensagem na fila do cliente do slot (se houver), para ser
+	 * escrita junto com as demais na próxima chamada a descarregaFilas() (ou
+	 * no próximo enviaMensagem() para o mesmo slot).
+	 */
+	public void acumulaMensagem(int slot, Mensagem m) {
+		FilaEnvio fila = getFilaEnvio(slot);
+		if (fila != null) {
+			fila.acumula(m);
+		}
+	}
+
+	/**
+	 * Libera para escrita as mensagens acumuladas em todas as filas
+	 */
+	public void descarregaFilas() {
+		for (int i = 0; i <= 2; i++) {
+			FilaEnvio fila = getFilaEnvio(i);
+			if (fila != null) {
+				fila.descarrega();
+			}
+		}
+	}
+
+	private void enviaVazia(int slot) {
+		FilaEnvio fila = getFilaEnvio(slot);
+		if (fila != null) {
+			fila.enfileiraVazia();
+		}
+	}
+
+	/**
+	 * @return fila de envio do cliente no slot (0 a 2), ou null se não houver
+	 *         cliente nele. Serve para acompanhar as métricas da fila.
+	 */
+	public synchronized FilaEnvio getFilaEnvio(int slot) {
+		return filas[slot];
+	}
+
+	// Os métodos abaixo são synchronized para evitar trocas na mesa enquanto um
+	// jogador está entrando no jogo (ou uma desconexão é descoberta)
+
+	/**
+	 * Responde à oferta de protocolo binário de um cliente (ver
+	 * VERSAO_PROTOCOLO_BINARIO), passando a escrever em binário para ele.
+	 * 
+	 * @return true se esta era a confirmação do cliente (e a leitura também
+	 *         deve passar para o binário)
+	 */
+	private synchronized boolean negociaBinario(Conexao conexao, int versao) {
+		int slot = getSlot(conexao);
+		if (slot == -1 || versao < 1) {
+			return false;
+		}
+		if (filas[slot].isBinario()) {
+			return true;
+		}
+		filas[slot].enfileiraEPassaParaBinario(new Mensagem().inicia('B')
+				.numero(Math.min(versao, VERSAO_PROTOCOLO_BINARIO)));
+		return false;
+	}
+
+	/**
+	 * Libera o slot e encerra o jogo em andamento
+	 */
+	private synchronized void perdeuConexao(int slot) {
+		desconecta(slot);
+		if (jogo != null) {
+			jogo.abortaJogo(slot + 2);
+		}
+	}
+
+	/**
+	 * Lê as mensagens enviadas pelo cliente, repassando-as para o
+	 * JogadorRemoto que o representa no jogo atual (exceto as de negociação
+	 * do protocolo).
+	 * <p>
+	 * A thread dura o mesmo que a conexão (e não uma partida), e fica
+	 * bloqueada enquanto o cliente não manda nada.
+	 */
+	private void iniciaLeitura(final Conexao conexao) throws IOException {
+		final LeitorMensagens leitor = new LeitorMensagens(
+				conexao.getInputStream());
+		new Thread() {
+			public void run() {
+				Mensagem m = new Mensagem();
+				try {
+					while (leitor.le(m)) {
+						if (m.getTipo() == 'B') {
+							if (m.getNumArgs() > 0
+									&& negociaBinario(conexao, m.getNumero(0))) {
+								leitor.setBinario(true);
+							}
+							continue;
+						}
+						JogadorRemoto jogador = getJogadorRemoto(conexao);
+						if (jogador != null) {
+							jogador.processaMensagem(m);
+						}
+					}
+				} catch (IOException e) {
+					Log.w("MINITRUCO", e);
+				}
+				conexaoCaiu(conexao);
+			}
+		}.start();
+	}
+
+	/**
+	 * Libera o slot da conexão (se ela ainda estava ativa) e encerra o jogo em
+	 * andamento. Chamado quando a leitura ou a escrita falham, ou quando a
+	 * fila de envio enche.
+	 */
+	synchronized void conexaoCaiu(Conexao conexao) {
+		int slot = getSlot(conexao);
+		if (slot != -1 && status != STATUS_ENCERRADO) {
+			perdeuConexao(slot);
+		}
+	}
+
+	private synchronized int getSlot(Conexao conexao) {
+		for (int i = 0; i <= 2; i++) {
+			if (connClientes[i] == conexao) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private synchronized JogadorRemoto getJogadorRemoto(Conexao conexao) {
+		int slot = getSlot(conexao);
+		return slot == -1 ? null : jogadoresRemotos[slot];
+	}
+
+	private synchronized void encaixaEmUmSlot(Conexao conexao)
+			throws IOException {
+		for (int i = 0; i <= 2; i++) {
+			if (connClientes[i] == null) {
+				connClientes[i] = conexao;
+				filas[i] = new FilaEnvio(this, conexao, capacidadeFila,
+						politicaFilaCheia);
+				filas[i].inicia();
+				apelidos[i + 1] = conexao.getNomeRemoto().replace(' ', '_');
+				status = i == 2 ? STATUS_LOTADO : STATUS_AGUARDANDO;
+				iniciaLeitura(conexao);
+				return;
+			}
+		}
+	}
+
+	public synchronized void inverteAdversarios() {
+		Object temp;
+		temp = connClientes[0];
+		connClientes[0] = connClientes[2];
+		connClientes[2] = (Conexao) temp;
+		temp = filas[0];
+		filas[0] = filas[2];
+		filas[2] = (FilaEnvio) temp;
+		temp = jogadoresRemotos[0];
+		jogadoresRemotos[0] = jogadoresRemotos[2];
+		jogadoresRemotos[2] = (JogadorRemoto) temp;
+		temp = apelidos[1];
+		apelidos[1] = apelidos[3];
+		apelidos[3] = (String) temp;
+		atualizaSala();
+		atualizaClientes();
+	}
+
+	public synchronized void trocaParceiro() {
+		Object temp;
+		temp = connClientes[2];
+		connClientes[2] = connClientes[1];
+		connClientes[1] = connClientes[0];
+		connClientes[0] = (Conexao) temp;
+		temp = filas[2];
+		filas[2] = filas[1];
+		filas[1] = filas[0];
+		filas[0] = (FilaEnvio) temp;
+		temp = jogadoresRemotos[2];
+		jogadoresRemotos[2] = jogadoresRemotos[1];
+		jogadoresRemotos[1] = jogadoresRemotos[0];
+		jogadoresRemotos[0] = (JogadorRemoto) temp;
+		temp = apelidos[3];
+		apelidos[3] = apelidos[2];
+		apelidos[2] = apelidos[1];
+		apelidos[1] = (String) temp;
+		atualizaSala();
+		atualizaClientes();
+	}
+
+}
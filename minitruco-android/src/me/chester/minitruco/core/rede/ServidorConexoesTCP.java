@@ -0,0 +1,92 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Aguarda conexões TCP (java.nio) de clientes.
+ * 
+ * @see ConexaoTCP
+ */
+public class ServidorConexoesTCP implements ServidorConexoes {
+
+	/**
+	 * Porta padrão para jogos TCP
+	 */
+	public static final int PORTA_PADRAO = 6912;
+
+	private ServerSocketChannel canal;
+
+	/**
+	 * @param porta
+	 *            porta a ouvir (0 para usar qualquer uma livre, ver getPorta())
+	 */
+	public ServidorConexoesTCP(int porta) throws IOException {
+		canal = ServerSocketChannel.open();
+		try {
+			canal.socket().setReuseAddress(true);
+			canal.socket().bind(new InetSocketAddress(porta));
+		} catch (IOException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return porta na qual o servidor está ouvindo
+	 */
+	public int getPorta() {
+		return canal.socket().getLocalPort();
+	}
+
+	public Conexao aceita() throws IOException {
+		return new ConexaoTCP(canal.accept());
+	}
+
+	public void fecha() {
+		try {
+			canal.close();
+		} catch (IOException e) {
+			// Já estava fechado
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede o sorteio de cartas, isolado e na forma como o JogoLocal o usa a cada
+ * mão (embaralha e sorteia 3 cartas por jogador e o vira), e o sorteio
+ * original (com Vector) como referência.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BaralhoBenchmark {
+
+	/**
+	 * Cartas que o JogoLocal sorteia numa mão
+	 */
+	private static final int CARTAS_POR_MAO = 13;
+
+	@Param({ "false", "true" })
+	public boolean limpo;
+
+	private Baralho baralho;
+
+	private Random random = new Random(42);
+
+	@Setup
+	public void criaBaralho() {
+		baralho = new Baralho(limpo, new Random(42));
+	}
+
+	@Benchmark
+	public Carta embaralhaESorteiaCarta() {
+		baralho.embaralha();
+		return baralho.sorteiaCarta();
+	}
+
+	@Benchmark
+	public void embaralhaESorteiaMao(Blackhole bh) {
+		baralho.embaralha();
+		for (int i = 0; i < CARTAS_POR_MAO; i++) {
+			bh.consume(baralho.sorteiaCarta());
+		}
+	}
+
+	/**
+	 * Sorteio de uma mão do jeito antigo (sempre com o baralho sujo)
+	 */
+	@Benchmark
+	public void sorteiaMaoComVector(Blackhole bh) {
+		Vector<Carta> sorteadas = new Vector<Carta>();
+		for (int i = 0; i < CARTAS_POR_MAO; i++) {
+			bh.consume(sorteiaCartaComVector(sorteadas));
+		}
+	}
+
+	/**
+	 * Sorteio original do Baralho, usado como referência
+	 */
+	private Carta sorteiaCartaComVector(Vector<Carta> sorteadas) {
+		Carta c;
+		String cartas = "A234567JQK";
+		do {
+			char letra = cartas.charAt((random.nextInt() >>> 1)
+					% cartas.length());
+			int naipe = Carta.NAIPES[(random.nextInt() >>> 1) % 4];
+			c = new Carta(letra, naipe);
+		} while (sorteadas.contains(c));
+		sorteadas.addElement(c);
+		return c;
+	}
+
+}
@@ -0,0 +1,137 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.chester.test.GeradorSituacoes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede as decisões das estratégias (jogada, aceite de aumento e de mão de
+ * 11) sobre situações sorteadas.
+ * <p>
+ * As situações (e as cartas do parceiro na mão de 11) são sempre as mesmas,
+ * e as estratégias usam geradores com semente fixa, para que os resultados
+ * sejam comparáveis entre versões.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EstrategiasBenchmark {
+
+	private static final int NUM_SITUACOES = 1024;
+
+	@Param({ "Gasparotto", "Sellani" })
+	public String estrategia;
+
+	private Estrategia e;
+
+	private SituacaoJogo[] situacoes = new SituacaoJogo[NUM_SITUACOES];
+
+	/**
+	 * Situações de início de mão em que a equipe do jogador tem 11 pontos
+	 */
+	private SituacaoJogo[] situacoesMao11 = new SituacaoJogo[NUM_SITUACOES];
+
+	private Carta[][] cartasParceiro = new Carta[NUM_SITUACOES][3];
+
+	private int i;
+
+	@Setup
+	public void preparaSituacoes() {
+		if (estrategia.equals("Gasparotto")) {
+			e = new EstrategiaGasparotto(new Random(1));
+		} else {
+			e = new EstrategiaSellani(new Random(1));
+		}
+		GeradorSituacoes gerador = new GeradorSituacoes(42);
+		for (int k = 0; k < NUM_SITUACOES; k++) {
+			situacoes[k] = gerador.sorteia();
+		}
+		Random random = new Random(42);
+		for (int k = 0; k < NUM_SITUACOES; k++) {
+			SituacaoJogo s;
+			do {
+				s = gerador.sorteia();
+			} while (s.numRodadaAtual != 1);
+			s.pontosEquipe[(s.posJogador + 1) % 2] = 11;
+			s.valorProximaAposta = 0;
+			situacoesMao11[k] = s;
+			// As cartas do parceiro não precisam ser coerentes com as da mão
+			Baralho baralho = new Baralho(!s.baralhoSujo, random);
+			for (int c = 0; c <= 2; c++) {
+				cartasParceiro[k][c] = baralho.sorteiaCarta();
+			}
+		}
+	}
+
+	/**
+	 * @return índice da próxima situação (circulando pelo array)
+	 */
+	private int proxima() {
+		i = (i + 1) & (NUM_SITUACOES - 1);
+		return i;
+	}
+
+	@Benchmark
+	public int joga() {
+		return e.joga(situacoes[proxima()]);
+	}
+
+	@Benchmark
+	public boolean aceitaTruco() {
+		return e.aceitaTruco(situacoes[proxima()]);
+	}
+
+	@Benchmark
+	public boolean aceitaMao11() {
+		int k = proxima();
+		return e.aceitaMao11(cartasParceiro[k], situacoesMao11[k]);
+	}
+
+}
@@ -0,0 +1,115 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.chester.test.GeradorSituacoes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede o custo de cada decisão da EstrategiaGasparotto e da análise da
+ * situação que as funções auxiliares consultam.
+ * <p>
+ * Usa muitas situações de primeira rodada, onde a decisão é feita só pelas
+ * regras (nas rodadas seguintes algumas decisões passam pelo
+ * SolucionadorFinalMao, e o tempo varia com as cartas ocultas). Para comparar
+ * versões, rode os Benchmarks em cada uma e compare os arquivos de
+ * resultado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GasparottoBenchmark {
+
+	private static final int NUM_SITUACOES = 16384;
+
+	private EstrategiaGasparotto e;
+
+	private AnaliseSituacao analise = new AnaliseSituacao();
+
+	private SituacaoJogo[] situacoes = new SituacaoJogo[NUM_SITUACOES];
+
+	private int i;
+
+	@Setup
+	public void preparaSituacoes() {
+		e = new EstrategiaGasparotto(new Random(1));
+		GeradorSituacoes gerador = new GeradorSituacoes(42);
+		for (int k = 0; k < NUM_SITUACOES; k++) {
+			SituacaoJogo s;
+			do {
+				s = gerador.sorteia();
+			} while (s.numRodadaAtual != 1);
+			situacoes[k] = s;
+		}
+	}
+
+	/**
+	 * @return índice da próxima situação (circulando pelo array)
+	 */
+	private int proxima() {
+		i = (i + 1) & (NUM_SITUACOES - 1);
+		return i;
+	}
+
+	@Benchmark
+	public int joga() {
+		return e.joga(situacoes[proxima()]);
+	}
+
+	@Benchmark
+	public boolean aceitaTruco() {
+		return e.aceitaTruco(situacoes[proxima()]);
+	}
+
+	@Benchmark
+	public AnaliseSituacao analisa() {
+		analise.analisa(situacoes[proxima()]);
+		return analise;
+	}
+
+}
@@ -0,0 +1,268 @@
+package me.chester.minitruco.core;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Gera o recurso <code>equidade.bin</code> usado pela
+ * <code>TabelaEquidade</code>, jogando cada mão de 3 valores até o fim contra
+ * cartas sorteadas (com a política rápida do <code>EstadoMao</code>) em cada
+ * baralho, manilha e posição.
+ * <p>
+ * Cada combinação de baralho e manilha é uma tarefa independente, com sua
+ * própria semente, então o trabalho é dividido entre todos os processadores
+ * sem mudar o resultado.
+ * <p>
+ * Uso: <code>GeradorTabelaEquidade [amostras [arquivo]]</code>. O default
+ * é gravar direto em minitruco-android (rodando a partir desta pasta).
+ */
+public class GeradorTabelaEquidade {
+
+	static final int AMOSTRAS_PADRAO = 4000;
+
+	static final String ARQUIVO_PADRAO = "../minitruco-android/src/me/chester/minitruco/core/"
+			+ TabelaEquidade.RECURSO;
+
+	static final long SEMENTE = 0x4551545231L;
+
+	public static void main(String[] args) throws Exception {
+		int amostras = args.length > 0 ? Integer.parseInt(args[0])
+				: AMOSTRAS_PADRAO;
+		File arquivo = new File(args.length > 1 ? args[1] : ARQUIVO_PADRAO);
+		long inicio = System.currentTimeMillis();
+		byte[] dados = gera(amostras, Runtime.getRuntime()
+				.availableProcessors());
+		grava(arquivo, amostras, dados);
+		System.out.println(arquivo + ": " + dados.length + " equidades, "
+				+ amostras + " amostras cada, "
+				+ (System.currentTimeMillis() - inicio) + "ms");
+	}
+
+	/**
+	 * Calcula todas as equidades, na ordem de TabelaEquidade.indice()
+	 */
+	static byte[] gera(int amostras, int numThreads) throws Exception {
+		byte[] dados = new byte[TabelaEquidade.TAMANHO_DADOS];
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<?>> tarefas = new ArrayList<Future<?>>();
+			for (int limpo = 0; limpo <= 1; limpo++) {
+				for (int m = 0; m < TabelaEquidade.NUM_MANILHAS; m++) {
+					if (limpo == 1 && m < 4) {
+						// Sem 4, 5, 6 e 7 eles nunca são manilha
+						continue;
+					}
+					tarefas.add(executor.submit(new Tarefa(limpo == 1, m,
+							amostras, dados)));
+				}
+			}
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		return dados;
+	}
+
+	static void grava(File arquivo, int amostras, byte[] dados)
+			throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(
+				arquivo));
+		try {
+			out.writeInt(TabelaEquidade.MAGICO);
+			out.writeByte(TabelaEquidade.VERSAO);
+			out.writeInt(amostras);
+			out.write(dados);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Calcula as equidades de um baralho e manilha, para todas as posições e
+	 * mãos. Cada tarefa escreve numa faixa diferente do array de dados.
+	 */
+	static class Tarefa implements Callable<Void> {
+
+		private final boolean limpo;
+		private final int indiceManilha;
+		private final int amostras;
+		private final byte[] dados;
+		private final Random random;
+
+		private final int[] baralho = new int[Carta.NUM_IDS];
+		private int numCartas;
+
+		Tarefa(boolean limpo, int indiceManilha, int amostras, byte[] dados) {
+			this.limpo = limpo;
+			this.indiceManilha = indiceManilha;
+			this.amostras = amostras;
+			this.dados = dados;
+			this.random = new Random(SEMENTE * 31 + (limpo ? 100 : 0)
+					+ indiceManilha);
+		}
+
+		public Void call() {
+			montaBaralho();
+			int[] resto = new int[Carta.NUM_IDS];
+			int[] valores = new int[3];
+			int[] mao = new int[3];
+			EstadoMao e = new EstadoMao();
+			for (int v1 = 1; v1 <= TabelaEquidade.VALOR_MAXIMO; v1++) {
+				for (int v2 = v1; v2 <= TabelaEquidade.VALOR_MAXIMO; v2++) {
+					for (int v3 = v2; v3 <= TabelaEquidade.VALOR_MAXIMO; v3++) {
+						valores[0] = v1;
+						valores[1] = v2;
+						valores[2] = v3;
+						int numResto = separaMao(valores, mao, resto);
+						int indiceMao = TabelaEquidade.indiceMao(v1, v2, v3);
+						for (int pos = 0; pos <= 3; pos++) {
+							int i = TabelaEquidade.indice(limpo,
+									indiceManilha, pos, indiceMao);
+							dados[i] = numResto < 0 ? 0 : (byte) Math
+									.round(equidade(pos, mao, resto,
+											numResto, e) * 255);
+						}
+					}
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Monta o baralho sem a carta virada (que, na manilha nova, é uma
+		 * carta da letra anterior à da manilha; o naipe não muda os valores)
+		 */
+		private void montaBaralho() {
+			int vira = -1;
+			if (indiceManilha != Jogo.INDICE_MANILHA_VELHA) {
+				int letraVira;
+				if (limpo) {
+					letraVira = indiceManilha == 4 ? 9 : indiceManilha - 1;
+				} else {
+					letraVira = (indiceManilha + 9) % 10;
+				}
+				vira = letraVira * 4;
+			}
+			numCartas = 0;
+			for (int id = limpo ? 16 : 0; id < Carta.NUM_IDS; id++) {
+				if (id != vira) {
+					baralho[numCartas++] = id;
+				}
+			}
+		}
+
+		/**
+		 * Separa do baralho uma carta para cada valor da mão
+		 *
+		 * @return quantas cartas sobraram em <code>resto</code>, ou -1 se a
+		 *         mão não for possível neste baralho/manilha
+		 */
+		private int separaMao(int[] valores, int[] mao, int[] resto) {
+			boolean[] usada = new boolean[numCartas];
+			for (int k = 0; k < 3; k++) {
+				int achou = -1;
+				for (int i = 0; i < numCartas && achou == -1; i++) {
+					if (!usada[i]
+							&& Jogo.getValorTruco(baralho[i], indiceManilha) == valores[k]) {
+						achou = i;
+					}
+				}
+				if (achou == -1) {
+					return -1;
+				}
+				usada[achou] = true;
+				mao[k] = baralho[achou];
+			}
+			int n = 0;
+			for (int i = 0; i < numCartas; i++) {
+				if (!usada[i]) {
+					resto[n++] = baralho[i];
+				}
+			}
+			return n;
+		}
+
+		/**
+		 * @return fração das mãos sorteadas que a equipe de <code>pos</code>
+		 *         ganha (empates contam meio), com a posição 0 abrindo
+		 */
+		private double equidade(int pos, int[] mao, int[] resto, int numResto,
+				EstadoMao e) {
+			int equipe = EstadoMao.equipe(pos);
+			int pontos = 0;
+			for (int a = 0; a < amostras; a++) {
+				e.inicia(indiceManilha, 0, 0);
+				int restantes = numResto;
+				for (int p = 0; p <= 3; p++) {
+					for (int k = 0; k < 3; k++) {
+						if (p == pos) {
+							e.daCarta(p, mao[k]);
+						} else {
+							int j = random.nextInt(restantes--);
+							int id = resto[j];
+							resto[j] = resto[restantes];
+							resto[restantes] = id;
+							e.daCarta(p, id);
+						}
+					}
+				}
+				int resultado = e.completa(random);
+				if (resultado == equipe) {
+					pontos += 2;
+				} else if (resultado == 3) {
+					pontos += 1;
+				}
+			}
+			return pontos / (2.0 * amostras);
+		}
+	}
+
+}
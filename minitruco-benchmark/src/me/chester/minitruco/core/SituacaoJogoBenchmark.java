@@ -0,0 +1,132 @@
+package me.chester.minitruco.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.chester.test.EstrategiaSequencial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede a cópia da situação do jogo que é feita antes de cada decisão de um
+ * jogador CPU, e o cálculo das máscaras de cartas (varrendo a situação ou
+ * com o RastreadorCartas).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SituacaoJogoBenchmark {
+
+	private JogoLocal jogo;
+
+	private Jogador jogador;
+
+	private SituacaoJogo situacao = new SituacaoJogo();
+
+	private RastreadorCartas rastreador = new RastreadorCartas();
+
+	/**
+	 * Prepara um jogo no meio da primeira rodada (jogadores 1 e 2 já
+	 * jogaram), consultado pelo jogador 3
+	 */
+	@Setup
+	public void preparaJogo() {
+		jogo = new JogoLocal(new Baralho(false, new Random(42)), false, false);
+		jogo.setLogHabilitado(false);
+		for (int i = 0; i < 4; i++) {
+			// Jogador que não joga sozinho, para a partida só avançar quando
+			// mandarmos
+			jogo.adiciona(new JogadorSimulado(new EstrategiaSequencial(), null) {
+				@Override
+				public void vez(Jogador j, boolean podeFechada) {
+				}
+			});
+		}
+		jogo.iniciaPartida();
+		for (int posicao = 1; posicao <= 2; posicao++) {
+			Jogador j = jogo.getJogador(posicao);
+			jogo.jogaCarta(j, j.getCartas()[0]);
+			jogo.processaComandosPendentes();
+		}
+		jogador = jogo.getJogador(3);
+
+		// O rastreador recebe os mesmos eventos que o jogador 3 recebeu
+		rastreador.inicioMao(jogo, jogador.getCartas());
+		for (int posicao = 1; posicao <= 2; posicao++) {
+			rastreador.cartaJogada(jogo.getCartasDaRodada(1)[posicao - 1]);
+		}
+		jogo.atualizaSituacao(situacao, jogador);
+		situacao.limpaCartasJogador();
+		for (int i = 0; i <= 2; i++) {
+			situacao.adicionaCartaJogador(jogador.getCartas()[i]);
+		}
+	}
+
+	@Benchmark
+	public SituacaoJogo atualizaSituacao() {
+		jogo.atualizaSituacao(situacao, jogador);
+		return situacao;
+	}
+
+	/**
+	 * Máscaras e manilhas calculadas varrendo a situação
+	 */
+	@Benchmark
+	public SituacaoJogo atualizaMascaras() {
+		situacao.atualizaMascaras();
+		return situacao;
+	}
+
+	/**
+	 * As mesmas informações, copiadas do RastreadorCartas
+	 */
+	@Benchmark
+	public SituacaoJogo preencheRastreador() {
+		rastreador.preenche(situacao);
+		return situacao;
+	}
+
+}
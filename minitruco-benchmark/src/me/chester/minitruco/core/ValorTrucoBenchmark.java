@@ -0,0 +1,147 @@
+package me.chester.minitruco.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede o cálculo do valor das cartas (chamado o tempo todo pelas
+ * estratégias), para todas as cartas com cada manilha possível, e o cálculo
+ * original (sem tabela) como referência.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValorTrucoBenchmark {
+
+	private static final char[] MANILHAS = { '4', '5', '6', '7', 'Q', 'J',
+			'K', 'A', '2', '3', SituacaoJogo.MANILHA_INDETERMINADA };
+
+	/**
+	 * Uma operação para cada carta com cada uma das 11 manilhas acima
+	 */
+	private static final int NUM_OPERACOES = 11 * Carta.NUM_IDS;
+
+	private Carta[] cartas = new Carta[Carta.NUM_IDS];
+
+	@Setup
+	public void preparaCartas() {
+		for (int id = 0; id < Carta.NUM_IDS; id++) {
+			cartas[id] = new Carta(Carta.getLetra(id), Carta.getNaipe(id));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_OPERACOES)
+	public void getValorTruco(Blackhole bh) {
+		for (char manilha : MANILHAS) {
+			for (Carta c : cartas) {
+				bh.consume(Jogo.getValorTruco(c, manilha));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_OPERACOES)
+	public void getValorTrucoPorCodigo(Blackhole bh) {
+		for (char manilha : MANILHAS) {
+			int indiceManilha = Jogo.getIndiceManilha(manilha);
+			for (int id = 0; id < Carta.NUM_IDS; id++) {
+				bh.consume(Jogo.getValorTruco(id, indiceManilha));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_OPERACOES)
+	public void getValorTrucoSemTabela(Blackhole bh) {
+		for (char manilha : MANILHAS) {
+			for (Carta c : cartas) {
+				bh.consume(valorTrucoSemTabela(c, manilha));
+			}
+		}
+	}
+
+	/**
+	 * Cálculo original do Jogo.getValorTruco(), usado como referência
+	 */
+	private static int valorTrucoSemTabela(Carta c, char letraManilha) {
+		if (c.isFechada()) {
+			return 0;
+		}
+		if (letraManilha == SituacaoJogo.MANILHA_INDETERMINADA) {
+			if (c.getLetra() == '7' && c.getNaipe() == Carta.NAIPE_OUROS) {
+				return 11;
+			} else if (c.getLetra() == 'A'
+					&& c.getNaipe() == Carta.NAIPE_ESPADAS) {
+				return 12;
+			} else if (c.getLetra() == '7' && c.getNaipe() == Carta.NAIPE_COPAS) {
+				return 13;
+			} else if (c.getLetra() == '4' && c.getNaipe() == Carta.NAIPE_PAUS) {
+				return 14;
+			}
+		}
+		if (c.getLetra() == letraManilha) {
+			switch (c.getNaipe()) {
+			case Carta.NAIPE_OUROS:
+				return 11;
+			case Carta.NAIPE_ESPADAS:
+				return 12;
+			case Carta.NAIPE_COPAS:
+				return 13;
+			case Carta.NAIPE_PAUS:
+				return 14;
+			default:
+				return 0;
+			}
+		} else {
+			return "4567QJKA23".indexOf(c.getLetra()) + 1;
+		}
+	}
+
+}
@@ -0,0 +1,394 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.chester.minitruco.core.Carta;
+import me.chester.minitruco.core.Jogador;
+import me.chester.minitruco.core.Jogo;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede a latência e a vazão do protocolo multiplayer sobre TCP no localhost:
+ * sobe uma ou mais mesas (Servidor com três Clientes conectados), todas com
+ * jogadores automáticos, e joga partidas completas por elas.
+ * <p>
+ * Ao contrário dos outros benchmarks, não usa o JMH: o tempo é dominado pela
+ * rede e pelas threads do protocolo, e o que interessa é o total de
+ * partidas e mensagens trocadas por segundo (e o tempo médio de cada jogada).
+ * <p>
+ * Os clientes oferecem o protocolo binário, a menos que o terceiro parâmetro
+ * seja "texto".
+ * <p>
+ * Uso: <code>CargaRede [mesas [partidasPorMesa [texto]]]</code>
+ */
+public class CargaRede {
+
+	/**
+	 * Escritas (write()) e bytes enviados, somando servidores e clientes
+	 */
+	private static final AtomicLong escritas = new AtomicLong();
+
+	private static final AtomicLong bytes = new AtomicLong();
+
+	/**
+	 * Mensagens (incluindo as vazias) enviadas pelos clientes, que escrevem
+	 * uma por vez (as dos servidores são contadas pelas filas)
+	 */
+	private static final AtomicLong mensagensClientes = new AtomicLong();
+
+	private static final AtomicLong jogadas = new AtomicLong();
+
+	/**
+	 * Jogadas feitas nos clientes e tempo total entre o envio de cada uma e a
+	 * confirmação pelo servidor (i.e., ida e volta)
+	 */
+	private static final AtomicLong jogadasRemotas = new AtomicLong();
+
+	private static final AtomicLong nanosIdaEVolta = new AtomicLong();
+
+	/**
+	 * Métricas das filas de envio dos servidores (ver FilaEnvio)
+	 */
+	private static long enviadasFilas, escritasFilas, nanosEsperaFilas,
+			nanosEscritaFilas, maiorNanosEscritaFilas;
+
+	private static int maiorTamanhoFilas;
+
+	public static void main(String[] args) throws Exception {
+		int numMesas = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		final int partidasPorMesa = args.length > 1 ? Integer
+				.parseInt(args[1]) : 20;
+		boolean binario = args.length <= 2 || !args[2].equals("texto");
+		final Mesa[] mesas = new Mesa[numMesas];
+		for (int i = 0; i < numMesas; i++) {
+			mesas[i] = new Mesa(binario);
+		}
+		for (int i = 0; i < numMesas; i++) {
+			mesas[i].aguardaClientes(binario);
+		}
+		Thread[] threads = new Thread[numMesas];
+		long inicio = System.nanoTime();
+		for (int i = 0; i < numMesas; i++) {
+			final Mesa mesa = mesas[i];
+			threads[i] = new Thread() {
+				public void run() {
+					mesa.jogaPartidas(partidasPorMesa);
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < numMesas; i++) {
+			threads[i].join();
+		}
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		for (int i = 0; i < numMesas; i++) {
+			mesas[i].acumulaMetricasFilas();
+			mesas[i].encerra();
+		}
+		int partidas = numMesas * partidasPorMesa;
+		System.out.printf("%d mesas, %d partidas em %.1fs (protocolo %s)%n",
+				numMesas, partidas, segundos, binario ? "binário" : "texto");
+		long mensagens = mensagensClientes.get() + enviadasFilas;
+		System.out.printf(
+				"%.2f partidas/s, %.0f mensagens/s, %.0f escritas/s, %.0f bytes/s, %.2f bytes por mensagem%n",
+				partidas / segundos, mensagens / segundos, escritas.get()
+						/ segundos, bytes.get() / segundos, (double) bytes.get()
+						/ mensagens);
+		System.out.printf("%.2f ms por jogada (em cada mesa)%n", segundos
+				* 1000 * numMesas / jogadas.get());
+		System.out.printf("%.3f ms de ida e volta por jogada remota%n",
+				nanosIdaEVolta.get() / 1e6 / jogadasRemotas.get());
+		System.out.printf(
+				"Filas de envio: %.2f mensagens por escrita, até %d pendentes, espera média de %.3f ms, escrita média de %.3f ms (máxima %.3f ms)%n",
+				(double) enviadasFilas / escritasFilas, maiorTamanhoFilas,
+				nanosEsperaFilas / 1e6 / enviadasFilas, nanosEscritaFilas
+						/ 1e6 / escritasFilas, maiorNanosEscritaFilas / 1e6);
+		System.exit(0);
+	}
+
+	/**
+	 * Um servidor e três clientes, conectados por TCP no localhost
+	 */
+	private static class Mesa implements ObservadorSala {
+
+		private Servidor servidor;
+		private Cliente[] clientes = new Cliente[3];
+
+		public Mesa(boolean binario) throws IOException {
+			final ServidorConexoesTCP servidorConexoes = new ServidorConexoesTCP(
+					0);
+			servidor = new Servidor(new ServidorConexoes() {
+				public Conexao aceita() throws IOException {
+					return new ConexaoContada(servidorConexoes.aceita(),
+							false);
+				}
+
+				public void fecha() {
+					servidorConexoes.fecha();
+				}
+			}, "FF", "servidor", this);
+			servidor.inicia();
+			for (int i = 0; i < 3; i++) {
+				ObservadorCliente observador = new ObservadorCliente();
+				clientes[i] = new Cliente(new ConexaoContada(
+						ConexaoTCP.conecta("localhost",
+								servidorConexoes.getPorta()), true), observador);
+				observador.cliente = clientes[i];
+				clientes[i].setOfereceBinario(binario);
+				clientes[i].inicia();
+			}
+		}
+
+		/**
+		 * Espera a mesa lotar e os clientes receberem suas posições (e, se
+		 * for o caso, passarem para o protocolo binário)
+		 */
+		public void aguardaClientes(boolean binario) {
+			while (!servidor.isLotado()) {
+				Sala.sleep(10);
+			}
+			for (int i = 0; i < 3; i++) {
+				while (clientes[i].getPosJogador() == 0
+						|| clientes[i].isProtocoloBinario() != binario) {
+					Sala.sleep(10);
+				}
+			}
+		}
+
+		public void jogaPartidas(int partidas) {
+			for (int i = 0; i < partidas; i++) {
+				Jogo jogo = servidor.criaNovoJogo(new JogadorAutomatico());
+				jogo.run();
+			}
+		}
+
+		public void acumulaMetricasFilas() {
+			for (int i = 0; i <= 2; i++) {
+				FilaEnvio fila = servidor.getFilaEnvio(i);
+				if (fila != null) {
+					enviadasFilas += fila.getMensagensEnviadas();
+					escritasFilas += fila.getEscritas();
+					nanosEsperaFilas += fila.getNanosEspera();
+					nanosEscritaFilas += fila.getNanosEscrita();
+					maiorNanosEscritaFilas = Math.max(maiorNanosEscritaFilas,
+							fila.getMaiorNanosEscrita());
+					maiorTamanhoFilas = Math.max(maiorTamanhoFilas,
+							fila.getTamanhoMaximo());
+				}
+			}
+		}
+
+		public void encerra() {
+			for (int i = 0; i < 3; i++) {
+				clientes[i].encerra();
+			}
+			servidor.encerra();
+		}
+
+		public void atualizaSala() {
+		}
+
+		public void mensagem(String mensagem) {
+		}
+
+		public void erroFatal(String mensagem) {
+			System.err.println("Servidor: " + mensagem);
+		}
+
+		public void aguardandoConexoes() {
+		}
+
+		public void partidaIniciando() {
+		}
+	}
+
+	/**
+	 * Cria o jogo do cliente (com um jogador automático) a cada partida
+	 */
+	private static class ObservadorCliente implements ObservadorSala {
+
+		private Cliente cliente;
+
+		public void partidaIniciando() {
+			cliente.criaNovoJogo(new JogadorAutomatico()).run();
+		}
+
+		public void atualizaSala() {
+		}
+
+		public void mensagem(String mensagem) {
+		}
+
+		public void erroFatal(String mensagem) {
+			System.err.println("Cliente: " + mensagem);
+		}
+
+		public void aguardandoConexoes() {
+		}
+	}
+
+	/**
+	 * Conta as escritas e bytes enviados numa conexão (e, nos clientes, as
+	 * mensagens, já que o Cliente escreve cada uma num único write())
+	 */
+	private static class ConexaoContada implements Conexao {
+
+		private Conexao conexao;
+		private OutputStream out;
+
+		public ConexaoContada(Conexao conexao, final boolean doCliente)
+				throws IOException {
+			this.conexao = conexao;
+			out = new FilterOutputStream(conexao.getOutputStream()) {
+				@Override
+				public void write(byte[] b, int off, int len)
+						throws IOException {
+					escritas.incrementAndGet();
+					if (doCliente) {
+						mensagensClientes.incrementAndGet();
+					}
+					bytes.addAndGet(len);
+					out.write(b, off, len);
+				}
+			};
+		}
+
+		public InputStream getInputStream() throws IOException {
+			return conexao.getInputStream();
+		}
+
+		public OutputStream getOutputStream() {
+			return out;
+		}
+
+		public String getNomeRemoto() {
+			return conexao.getNomeRemoto();
+		}
+
+		public void fecha() {
+			conexao.fecha();
+		}
+	}
+
+	/**
+	 * Jogador que sempre joga a primeira carta que tiver, nunca pede truco,
+	 * recusa os pedidos (que não devem ocorrer, já que ninguém pede) e aceita
+	 * mão de 11. Funciona tanto no servidor quanto no cliente.
+	 */
+	private static class JogadorAutomatico extends Jogador {
+
+		private boolean[] jogou = new boolean[3];
+
+		private long inicioJogada;
+
+		public void inicioMao() {
+			jogou = new boolean[3];
+		}
+
+		public void vez(Jogador j, boolean podeFechada) {
+			if (j != this) {
+				return;
+			}
+			Carta[] cartas = getCartas();
+			for (int i = 0; i <= 2; i++) {
+				if (!jogou[i]) {
+					jogadas.incrementAndGet();
+					inicioJogada = System.nanoTime();
+					jogo.jogaCarta(this, cartas[i]);
+					return;
+				}
+			}
+		}
+
+		public void cartaJogada(Jogador j, Carta c) {
+			if (j == this) {
+				if (jogo instanceof JogoRemoto) {
+					jogadasRemotas.incrementAndGet();
+					nanosIdaEVolta.addAndGet(System.nanoTime() - inicioJogada);
+				}
+				Carta[] cartas = getCartas();
+				for (int i = 0; i <= 2; i++) {
+					if (cartas[i] == c) {
+						jogou[i] = true;
+					}
+				}
+			}
+		}
+
+		public void pediuAumentoAposta(Jogador j, int valor) {
+			if (j.getEquipe() != getEquipe()) {
+				jogo.respondeAumento(this, false);
+			}
+		}
+
+		public void informaMao11(Carta[] cartasParceiro) {
+			jogo.decideMao11(this, true);
+		}
+
+		public void inicioPartida(int placarEquipe1, int placarEquipe2) {
+		}
+
+		public void aceitouAumentoAposta(Jogador j, int valor) {
+		}
+
+		public void recusouAumentoAposta(Jogador j) {
+		}
+
+		public void rodadaFechada(int numRodada, int resultado,
+				Jogador jogadorQueTorna) {
+		}
+
+		public void maoFechada(int[] pontosEquipe) {
+		}
+
+		public void jogoFechado(int numEquipeVencedora) {
+		}
+
+		public void decidiuMao11(Jogador j, boolean aceita) {
+		}
+
+		public void jogoAbortado(int posicao) {
+		}
+	}
+
+}
@@ -0,0 +1,223 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import me.chester.minitruco.core.Carta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Mede a codificação e a decodificação das mensagens de uma mão típica, nos
+ * protocolos texto e binário, e a decodificação do jeito antigo (uma String
+ * por linha, quebrada com split()) como referência.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProtocoloBenchmark {
+
+	private static final int NUM_MENSAGENS = 16;
+
+	private Mensagem[] mensagens = new Mensagem[NUM_MENSAGENS];
+
+	private byte[] bytesTexto;
+
+	private byte[] bytesBinario;
+
+	private Mensagem lida = new Mensagem();
+
+	private ByteArrayInputStream entradaTexto;
+
+	private ByteArrayInputStream entradaBinario;
+
+	private LeitorMensagens leitorTexto;
+
+	private LeitorMensagens leitorBinario;
+
+	private EscritorMensagens escritorTexto;
+
+	private EscritorMensagens escritorBinario;
+
+	@Setup
+	public void preparaMensagens() throws IOException {
+		String[] cartas = { "Kc", "3e", "Ap", "7o", "Jp", "2c", "Qe" };
+		int n = 0;
+		mensagens[n++] = new Mensagem().inicia('P');
+		mensagens[n++] = new Mensagem().inicia('M').carta(carta(cartas[0]))
+				.carta(carta(cartas[1])).carta(carta(cartas[2]))
+				.carta(carta(cartas[3]));
+		for (int i = 0; i < 4; i++) {
+			mensagens[n++] = new Mensagem().inicia('V').numero(i + 1)
+					.flag(i > 0);
+			mensagens[n++] = new Mensagem().inicia('J').numero(i + 1)
+					.carta(carta(cartas[i + 3]));
+		}
+		mensagens[n++] = new Mensagem().inicia('T').numero(2).numero(3);
+		mensagens[n++] = new Mensagem().inicia('D').numero(1).numero(3);
+		mensagens[n++] = new Mensagem().inicia('R').numero(1).numero(1);
+		mensagens[n++] = new Mensagem().inicia('H').numero(3).flag(true);
+		mensagens[n++] = new Mensagem().inicia('O').numero(3).numero(0);
+		mensagens[n++] = new Mensagem().inicia('G').numero(1);
+		bytesTexto = codifica(false);
+		bytesBinario = codifica(true);
+		entradaTexto = new ByteArrayInputStream(bytesTexto);
+		entradaBinario = new ByteArrayInputStream(bytesBinario);
+		leitorTexto = new LeitorMensagens(entradaTexto);
+		leitorBinario = new LeitorMensagens(entradaBinario);
+		leitorBinario.setBinario(true);
+		OutputStream descarte = new OutputStream() {
+			public void write(int b) {
+			}
+
+			public void write(byte[] b, int off, int len) {
+			}
+		};
+		escritorTexto = new EscritorMensagens(descarte);
+		escritorBinario = new EscritorMensagens(descarte);
+		escritorBinario.setBinario(true);
+	}
+
+	private static Carta carta(String s) {
+		return new Carta(s);
+	}
+
+	private byte[] codifica(boolean binario) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EscritorMensagens escritor = new EscritorMensagens(out);
+		escritor.setBinario(binario);
+		for (int i = 0; i < NUM_MENSAGENS; i++) {
+			escritor.escreve(mensagens[i]);
+		}
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_MENSAGENS)
+	public void escreveTexto() throws IOException {
+		for (int i = 0; i < NUM_MENSAGENS; i++) {
+			escritorTexto.escreve(mensagens[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_MENSAGENS)
+	public void escreveBinario() throws IOException {
+		for (int i = 0; i < NUM_MENSAGENS; i++) {
+			escritorBinario.escreve(mensagens[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_MENSAGENS)
+	public void leTexto(Blackhole bh) throws IOException {
+		entradaTexto.reset();
+		le(leitorTexto, bh);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_MENSAGENS)
+	public void leBinario(Blackhole bh) throws IOException {
+		entradaBinario.reset();
+		le(leitorBinario, bh);
+	}
+
+	/**
+	 * Lê todas as mensagens (o leitor é reaproveitado: ao fim de cada
+	 * chamada o buffer dele está vazio, e a entrada volta para o começo)
+	 */
+	private void le(LeitorMensagens leitor, Blackhole bh) throws IOException {
+		while (leitor.le(lida)) {
+			bh.consume(lida.getTipo());
+			for (int i = 0; i < lida.getNumArgs(); i++) {
+				bh.consume(lida.getNumero(i));
+			}
+		}
+	}
+
+	/**
+	 * Decodifica como antes do LeitorMensagens: uma String por linha, quebrada
+	 * em tokens com split(), e os argumentos convertidos conforme o formato
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_MENSAGENS)
+	public void leTextoComSplit(Blackhole bh) {
+		int inicio = 0;
+		for (int i = 0; i < bytesTexto.length; i++) {
+			if (bytesTexto[i] != Sala.SEPARADOR_REC) {
+				continue;
+			}
+			if (i > inicio) {
+				String linha = new String(bytesTexto, inicio, i - inicio);
+				bh.consume(linha.charAt(0));
+				String parametros = linha.length() > 2 ? linha.substring(2)
+						: "";
+				String[] tokens = parametros.split(" ");
+				for (int j = 0; j < tokens.length; j++) {
+					String token = tokens[j];
+					if (token.length() == 0) {
+						continue;
+					}
+					if (token.equals("T") || token.equals("F")) {
+						bh.consume(token.equals("T"));
+					} else if (Character.isDigit(token
+							.charAt(token.length() - 1))) {
+						bh.consume(Integer.parseInt(token));
+					} else {
+						bh.consume(new Carta(token));
+					}
+				}
+			}
+			inicio = i + 1;
+		}
+	}
+
+}
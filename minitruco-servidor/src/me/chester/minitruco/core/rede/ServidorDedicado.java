@@ -0,0 +1,115 @@
+package me.chester.minitruco.core.rede;
+
+import java.io.IOException;
+
+import me.chester.minitruco.core.JogadorCPU;
+import me.chester.minitruco.core.Jogo;
+
+/*
+ * Copyright © 2005-2012 Carlos Duarte do Nascimento "Chester" <cd@pobox.com>
+ * Todos os direitos reservados.
+ *
+ * A redistribuição e o uso nas formas binária e código fonte, com ou sem
+ * modificações, são permitidos contanto que as condições abaixo sejam
+ * cumpridas:
+ * 
+ * - Redistribuições do código fonte devem conter o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente.
+ * 
+ * - Redistribuições na forma binária devem reproduzir o aviso de direitos
+ *   autorais acima, esta lista de condições e o aviso de isenção de
+ *   garantias subseqüente na documentação e/ou materiais fornecidos com
+ *   a distribuição.
+ *   
+ * - Nem o nome do Chester, nem o nome dos contribuidores podem ser
+ *   utilizados para endossar ou promover produtos derivados deste
+ *   software sem autorização prévia específica por escrito.
+ * 
+ * ESTE SOFTWARE É FORNECIDO PELOS DETENTORES DE DIREITOS AUTORAIS E
+ * CONTRIBUIDORES "COMO ESTÁ", ISENTO DE GARANTIAS EXPRESSAS OU TÁCITAS,
+ * INCLUINDO, SEM LIMITAÇÃO, QUAISQUER GARANTIAS IMPLÍCITAS DE
+ * COMERCIABILIDADE OU DE ADEQUAÇÃO A FINALIDADES ESPECÍFICAS. EM NENHUMA
+ * HIPÓTESE OS TITULARES DE DIREITOS AUTORAIS E CONTRIBUIDORES SERÃO
+ * RESPONSÁVEIS POR QUAISQUER DANOS, DIRETOS, INDIRETOS, INCIDENTAIS,
+ * ESPECIAIS, EXEMPLARES OU CONSEQUENTES, (INCLUINDO, SEM LIMITAÇÃO,
+ * FORNECIMENTO DE BENS OU SERVIÇOS SUBSTITUTOS, PERDA DE USO OU DADOS,
+ * LUCROS CESSANTES, OU INTERRUPÇÃO DE ATIVIDADES), CAUSADOS POR QUAISQUER
+ * MOTIVOS E SOB QUALQUER TEORIA DE RESPONSABILIDADE, SEJA RESPONSABILIDADE
+ * CONTRATUAL, RESTRITA, ILÍCITO CIVIL, OU QUALQUER OUTRA, COMO DECORRÊNCIA
+ * DE USO DESTE SOFTWARE, MESMO QUE HOUVESSEM SIDO AVISADOS DA
+ * POSSIBILIDADE DE TAIS DANOS.
+ * 
+ */
+
+/**
+ * Servidor TCP que roda sem interface (em qualquer JVM, ex.: num servidor
+ * Linux), com a CPU na posição 1. As partidas começam quando os três
+ * clientes estão conectados, e se repetem enquanto eles continuarem.
+ * <p>
+ * Uso: <code>ServidorDedicado [porta [regras]]</code>, onde as regras estão
+ * no formato do protocolo (ex.: "FF" para baralho sujo e manilha nova).
+ * <p>
+ * Fica num projeto à parte (minitruco-servidor), para não ir no APK.
+ */
+public class ServidorDedicado implements ObservadorSala {
+
+	private Servidor servidor;
+
+	public static void main(String[] args) throws IOException {
+		int porta = args.length > 0 ? Integer.parseInt(args[0])
+				: ServidorConexoesTCP.PORTA_PADRAO;
+		String regras = args.length > 1 ? args[1] : "FF";
+		ServidorConexoesTCP servidorConexoes = new ServidorConexoesTCP(porta);
+		System.out.println("Aguardando conexões na porta "
+				+ servidorConexoes.getPorta());
+		new ServidorDedicado(servidorConexoes, regras).executa();
+	}
+
+	public ServidorDedicado(ServidorConexoes servidorConexoes, String regras) {
+		servidor = new Servidor(servidorConexoes, regras, "CPU", this);
+	}
+
+	/**
+	 * Aceita conexões e roda as partidas (não retorna)
+	 */
+	public void executa() {
+		servidor.inicia();
+		while (true) {
+			while (!servidor.isLotado()) {
+				Sala.sleep(500);
+			}
+			while (servidor.getNumClientes() == 3) {
+				Jogo jogo = servidor.criaNovoJogo(new JogadorCPU());
+				jogo.run();
+			}
+		}
+	}
+
+	public void atualizaSala() {
+		StringBuffer sb = new StringBuffer("Mesa:");
+		for (int i = 1; i <= 4; i++) {
+			sb.append(' ').append(servidor.getApelido(i));
+		}
+		System.out.println(sb);
+	}
+
+	public void mensagem(String mensagem) {
+		if (mensagem != null) {
+			System.out.println(mensagem);
+		}
+	}
+
+	public void erroFatal(String mensagem) {
+		System.out.println(mensagem);
+	}
+
+	public void aguardandoConexoes() {
+		// Não há o que fazer (o TCP não precisa ficar "visível")
+	}
+
+	public void partidaIniciando() {
+		// Só é chamado no cliente
+	}
+
+}